@@ -20,6 +20,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cpman.ControlLoad;
@@ -36,33 +38,58 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.Serializer;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.cpman.ControlResource.CONTROL_MESSAGE_METRICS;
 import static org.onosproject.cpman.ControlResource.CPU_METRICS;
 import static org.onosproject.cpman.ControlResource.DISK_METRICS;
 import static org.onosproject.cpman.ControlResource.MEMORY_METRICS;
 import static org.onosproject.cpman.ControlResource.NETWORK_METRICS;
 import static org.onosproject.cpman.ControlResource.Type;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_DATABASE;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_DATABASE_DEFAULT;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_JOURNAL_FILE;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_JOURNAL_FILE_DEFAULT;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_JOURNAL_INTERVAL;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.METRICS_JOURNAL_INTERVAL_DEFAULT;
 
 /**
  * Control plane monitoring service class.
  */
-@Component(immediate = true, service = ControlPlaneMonitorService.class)
+@Component(
+    immediate = true,
+    service = ControlPlaneMonitorService.class,
+    property = {
+        METRICS_DATABASE + "=" + METRICS_DATABASE_DEFAULT,
+        METRICS_JOURNAL_FILE + "=" + METRICS_JOURNAL_FILE_DEFAULT,
+        METRICS_JOURNAL_INTERVAL + ":Integer=" + METRICS_JOURNAL_INTERVAL_DEFAULT,
+    }
+)
 public class ControlPlaneMonitor implements ControlPlaneMonitorService {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -78,6 +105,25 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ClusterCommunicationService communicationService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService cfgService;
+
+    /** Metrics database backend, either rrd or memory; applied on activation. */
+    private String metricsDatabase = METRICS_DATABASE_DEFAULT;
+
+    /** File in which samples of the memory backend are saved; empty to disable. */
+    private String metricsJournalFile = METRICS_JOURNAL_FILE_DEFAULT;
+
+    /** Interval in seconds between saves of the memory backend samples. */
+    private int metricsJournalInterval = METRICS_JOURNAL_INTERVAL_DEFAULT;
+
+    private static final String MEMORY_DATABASE = "memory";
+
+    private boolean inMemory;
+    private ScheduledExecutorService journalExecutor;
+    private MetricsJournal journal;
+    private ScheduledFuture<?> journalTask;
+
     private static final String DEFAULT_RESOURCE = "default";
 
     private static final Set RESOURCE_TYPE_SET =
@@ -113,7 +159,11 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
                     .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID).build());
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        readComponentConfiguration(context);
+        inMemory = MEMORY_DATABASE.equals(metricsDatabase);
+
         cpuMetrics = genMDbBuilder(DEFAULT_RESOURCE, Type.CPU, CPU_METRICS);
         memoryMetrics = genMDbBuilder(DEFAULT_RESOURCE, Type.MEMORY, MEMORY_METRICS);
         controlMessageMap = Maps.newConcurrentMap();
@@ -129,6 +179,10 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         availableResourceMap = Maps.newConcurrentMap();
         availableDeviceIdSet = Sets.newConcurrentHashSet();
 
+        journalExecutor = newSingleThreadScheduledExecutor(
+                groupedThreads("onos/cpman", "metrics-journal", log));
+        journalExecutor.execute(this::startJournal);
+
         communicationService.<ControlMetricsRequest, ControlLoadSnapshot>addSubscriber(CONTROL_STATS,
                 SERIALIZER::decode, this::handleMetricsRequest, SERIALIZER::encode);
 
@@ -138,8 +192,34 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         log.info("Started");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        String oldDatabase = metricsDatabase;
+        String oldFile = metricsJournalFile;
+        int oldInterval = metricsJournalInterval;
+        readComponentConfiguration(context);
+
+        if (!metricsDatabase.equals(oldDatabase)) {
+            log.info("Metrics database backend {} takes effect on reactivation", metricsDatabase);
+        }
+        if (!metricsJournalFile.equals(oldFile) || metricsJournalInterval != oldInterval) {
+            journalExecutor.execute(() -> {
+                stopJournal();
+                startJournal();
+            });
+        }
+    }
+
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
+        journalExecutor.execute(this::stopJournal);
+        journalExecutor.shutdown();
+        try {
+            journalExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
         // TODO: need to handle the mdb close.
         cpuBuf.clear();
@@ -307,6 +387,127 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         }
     }
 
+    /**
+     * Extracts properties from the component configuration context.
+     *
+     * @param context the component context
+     */
+    private void readComponentConfiguration(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        String database = Tools.get(properties, METRICS_DATABASE);
+        metricsDatabase = database == null ? METRICS_DATABASE_DEFAULT : database.trim();
+
+        String journalFile = Tools.get(properties, METRICS_JOURNAL_FILE);
+        metricsJournalFile = journalFile == null ? METRICS_JOURNAL_FILE_DEFAULT : journalFile.trim();
+
+        Integer journalInterval = Tools.getIntegerProperty(properties, METRICS_JOURNAL_INTERVAL);
+        if (journalInterval == null || journalInterval <= 0) {
+            metricsJournalInterval = METRICS_JOURNAL_INTERVAL_DEFAULT;
+        } else {
+            metricsJournalInterval = journalInterval;
+        }
+        log.info("Settings: metricsDatabase={}, metricsJournalFile={}, metricsJournalInterval={}",
+                 metricsDatabase, metricsJournalFile, metricsJournalInterval);
+    }
+
+    /**
+     * Restores the samples of the in-memory databases from the journal, if
+     * one is configured, and starts saving them periodically.
+     */
+    private void startJournal() {
+        if (!inMemory || metricsJournalFile.isEmpty()) {
+            return;
+        }
+        journal = new MetricsJournal(Paths.get(metricsJournalFile));
+        try {
+            journal.replay(this::restoreMetrics);
+            journal.compact(inMemoryDatabases());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to restore metrics from {}", journal.file(), e);
+        }
+        journalTask = journalExecutor.scheduleWithFixedDelay(this::saveJournal,
+                metricsJournalInterval, metricsJournalInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Saves the samples of the in-memory databases for the last time and
+     * stops saving them.
+     */
+    private void stopJournal() {
+        if (journal == null) {
+            return;
+        }
+        journalTask.cancel(false);
+        saveJournal();
+        journal = null;
+        journalTask = null;
+    }
+
+    private void saveJournal() {
+        try {
+            journal.save(inMemoryDatabases());
+        } catch (IOException e) {
+            log.warn("Failed to save metrics to {}", journal.file(), e);
+        }
+    }
+
+    private List<RingBufferMetricsDatabase> inMemoryDatabases() {
+        return Stream.concat(Stream.of(cpuMetrics, memoryMetrics),
+                             Stream.of(controlMessageMap, diskMetricsMap, networkMetricsMap)
+                                     .flatMap(map -> map.values().stream()))
+                .filter(mdb -> mdb instanceof RingBufferMetricsDatabase)
+                .map(mdb -> (RingBufferMetricsDatabase) mdb)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Restores a sample read from the journal into the database of the
+     * given metric and resource names, creating the database if needed.
+     *
+     * @param metricName   metric name of the database
+     * @param resourceName resource name of the database
+     * @param metrics      metric values by metric type
+     * @param time         sample time in seconds
+     */
+    private void restoreMetrics(String metricName, String resourceName,
+                                Map<String, Double> metrics, long time) {
+        MetricsDatabase mdb;
+        Type type = Type.valueOf(metricName);
+        switch (type) {
+            case CPU:
+                mdb = cpuMetrics;
+                break;
+            case MEMORY:
+                mdb = memoryMetrics;
+                break;
+            case DISK:
+                availableResourceMap.computeIfAbsent(type, k -> Sets.newConcurrentHashSet()).add(resourceName);
+                mdb = diskMetricsMap.computeIfAbsent(resourceName,
+                        k -> genMDbBuilder(k, type, DISK_METRICS));
+                break;
+            case NETWORK:
+                availableResourceMap.computeIfAbsent(type, k -> Sets.newConcurrentHashSet()).add(resourceName);
+                mdb = networkMetricsMap.computeIfAbsent(resourceName,
+                        k -> genMDbBuilder(k, type, NETWORK_METRICS));
+                break;
+            case CONTROL_MESSAGE:
+                DeviceId deviceId = DeviceId.deviceId(resourceName);
+                availableDeviceIdSet.add(deviceId);
+                mdb = controlMessageMap.computeIfAbsent(deviceId,
+                        k -> genMDbBuilder(resourceName, type, CONTROL_MESSAGE_METRICS));
+                break;
+            default:
+                return;
+        }
+        if (!metrics.isEmpty()) {
+            mdb.updateMetrics(metrics, time);
+        }
+    }
+
     /**
      * Builds and returns metric database instance with given resource name,
      * resource type and metric type.
@@ -319,7 +520,8 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     private MetricsDatabase genMDbBuilder(String resourceName,
                                           Type resourceType,
                                           Set<ControlMetricType> metricTypes) {
-        MetricsDatabase.Builder builder = new DefaultMetricsDatabase.Builder();
+        MetricsDatabase.Builder builder = inMemory ?
+                new RingBufferMetricsDatabase.Builder() : new DefaultMetricsDatabase.Builder();
         builder.withMetricName(resourceType.toString());
         builder.withResourceName(resourceName);
         metricTypes.forEach(type -> builder.addMetricType(type.toString()));
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Append-only file holding the samples of in-memory metrics databases.
+ * <p>
+ * Samples added since the last save are appended to the file periodically.
+ * Once the file has grown to twice its size after the last compaction, it
+ * is rewritten with only the samples currently held in memory.
+ */
+final class MetricsJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsJournal.class);
+
+    private static final long MIN_COMPACTION_SIZE = 1024L * 1024L;
+
+    private final Path file;
+    private long compactedSize;
+
+    /**
+     * Handler of the samples read from a journal.
+     */
+    interface Handler {
+
+        /**
+         * Handles a sample of a metrics database.
+         *
+         * @param metricName   metric name of the database
+         * @param resourceName resource name of the database
+         * @param metrics      metric values by metric type
+         * @param time         sample time in seconds
+         */
+        void sample(String metricName, String resourceName,
+                    Map<String, Double> metrics, long time);
+    }
+
+    /**
+     * Creates a journal stored in the given file.
+     *
+     * @param file journal file
+     */
+    MetricsJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return journal file
+     */
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Reads all samples in the journal, oldest first. A block truncated by
+     * an interrupted save ends the journal.
+     *
+     * @param handler sample handler
+     * @throws IOException if the journal cannot be read
+     */
+    synchronized void replay(Handler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            while (in.available() > 0) {
+                String metricName = in.readUTF();
+                String resourceName = in.readUTF();
+                String[] metricTypes = new String[in.readInt()];
+                for (int i = 0; i < metricTypes.length; i++) {
+                    metricTypes[i] = in.readUTF();
+                }
+                int count = in.readInt();
+                for (int s = 0; s < count; s++) {
+                    long time = in.readLong();
+                    Map<String, Double> metrics = Maps.newHashMap();
+                    for (String metricType : metricTypes) {
+                        double value = in.readDouble();
+                        if (!Double.isNaN(value)) {
+                            metrics.put(metricType, value);
+                        }
+                    }
+                    handler.sample(metricName, resourceName, metrics, time);
+                }
+            }
+        } catch (EOFException e) {
+            log.warn("Metrics journal {} ends with a truncated block", file);
+        }
+    }
+
+    /**
+     * Appends the samples of the given databases added since they were last
+     * saved, compacting the journal if it has grown too large.
+     *
+     * @param databases in-memory metrics databases
+     * @throws IOException if the journal cannot be written
+     */
+    synchronized void save(Collection<RingBufferMetricsDatabase> databases) throws IOException {
+        if (Files.exists(file) && Files.size(file) > Math.max(2 * compactedSize, MIN_COMPACTION_SIZE)) {
+            compact(databases);
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            for (RingBufferMetricsDatabase mdb : databases) {
+                mdb.save(out, false);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal with all samples held by the given databases.
+     *
+     * @param databases in-memory metrics databases
+     * @throws IOException if the journal cannot be written
+     */
+    synchronized void compact(Collection<RingBufferMetricsDatabase> databases) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                for (RingBufferMetricsDatabase mdb : databases) {
+                    mdb.save(out, true);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        compactedSize = Files.size(file);
+        log.debug("Compacted metrics journal {} to {} bytes", file, compactedSize);
+    }
+}
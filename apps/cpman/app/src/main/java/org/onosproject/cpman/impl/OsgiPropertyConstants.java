@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+/**
+ * Name/Value constants for properties.
+ */
+public final class OsgiPropertyConstants {
+    private OsgiPropertyConstants() {
+    }
+
+    public static final String METRICS_DATABASE = "metricsDatabase";
+    public static final String METRICS_DATABASE_DEFAULT = "rrd";
+
+    public static final String METRICS_JOURNAL_FILE = "metricsJournalFile";
+    public static final String METRICS_JOURNAL_FILE_DEFAULT = "";
+
+    public static final String METRICS_JOURNAL_INTERVAL = "metricsJournalInterval";
+    public static final int METRICS_JOURNAL_INTERVAL_DEFAULT = 60;
+}
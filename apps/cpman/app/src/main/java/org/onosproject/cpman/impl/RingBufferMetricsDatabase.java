@@ -0,0 +1,346 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.onosproject.cpman.MetricsDatabase;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An in-memory implementation of control plane metrics back-end database.
+ * <p>
+ * Keeps a day of one-minute samples of each metric type in primitive ring
+ * buffers, with the same resolution and query semantics as
+ * {@link DefaultMetricsDatabase}, but without the round trips through a
+ * round robin database. The samples can be saved to and restored from a
+ * {@link MetricsJournal}.
+ */
+public final class RingBufferMetricsDatabase implements MetricsDatabase {
+
+    private static final long SECONDS_OF_DAY = 60L * 60L * 24L;
+    private static final long SECONDS_OF_MINUTE = 60L;
+    private static final int ROWS = (int) (SECONDS_OF_DAY / SECONDS_OF_MINUTE);
+    private static final long NONE = -1L;
+    private static final String NON_EXIST_METRIC = "Non-existing metric type.";
+    private static final String INSUFFICIENT_DURATION = "Given duration less than one minute.";
+    private static final String EXCEEDED_DURATION = "Given duration exceeds a day time.";
+
+    private final String metricName;
+    private final String resourceName;
+    private final List<String> metricTypes;
+    private final Map<String, Integer> index;
+
+    // guarded by this
+    // values[type][row]; row is the minute of the sample modulo ROWS
+    private final double[][] values;
+    // minute held by each row, or NONE if the row is empty
+    private final long[] minutes;
+    private final double[] latest;
+    private long lastUpdate;
+    // minutes up to this one have been written to the journal
+    private long savedMinute = NONE;
+
+    private RingBufferMetricsDatabase(String metricName, String resourceName,
+                                      List<String> metricTypes) {
+        this.metricName = metricName;
+        this.resourceName = resourceName;
+        this.metricTypes = metricTypes;
+        this.index = Maps.newHashMap();
+        for (int i = 0; i < metricTypes.size(); i++) {
+            index.put(metricTypes.get(i), i);
+        }
+        this.values = new double[metricTypes.size()][ROWS];
+        this.minutes = new long[ROWS];
+        this.latest = new double[metricTypes.size()];
+        Arrays.fill(minutes, NONE);
+        Arrays.fill(latest, Double.NaN);
+    }
+
+    @Override
+    public String metricName() {
+        return metricName;
+    }
+
+    @Override
+    public String resourceName() {
+        return resourceName;
+    }
+
+    /**
+     * Returns the metric types of this database.
+     *
+     * @return metric types
+     */
+    public List<String> metricTypes() {
+        return metricTypes;
+    }
+
+    @Override
+    public void updateMetric(String metricType, double value) {
+        updateMetric(metricType, value, System.currentTimeMillis() / 1000L);
+    }
+
+    @Override
+    public synchronized void updateMetric(String metricType, double value, long time) {
+        int type = indexOf(metricType);
+        boolean newest = time >= lastUpdate;
+        int row = advance(time);
+        if (row < 0) {
+            return;
+        }
+        values[type][row] = value;
+        if (newest) {
+            latest[type] = value;
+        }
+    }
+
+    @Override
+    public void updateMetrics(Map<String, Double> metrics) {
+        updateMetrics(metrics, System.currentTimeMillis() / 1000L);
+    }
+
+    @Override
+    public synchronized void updateMetrics(Map<String, Double> metrics, long time) {
+        metrics.keySet().forEach(this::indexOf);
+        boolean newest = time >= lastUpdate;
+        int row = advance(time);
+        if (row < 0) {
+            return;
+        }
+        metrics.forEach((k, v) -> {
+            int type = index.get(k);
+            values[type][row] = v;
+            if (newest) {
+                latest[type] = v;
+            }
+        });
+    }
+
+    /**
+     * Updates the values of all metric types in a certain time.
+     *
+     * @param metrics metric values, in the order of {@link #metricTypes()}
+     * @param time    update time in seconds
+     */
+    public synchronized void updateMetrics(double[] metrics, long time) {
+        checkArgument(metrics.length == metricTypes.size(), NON_EXIST_METRIC);
+        boolean newest = time >= lastUpdate;
+        int row = advance(time);
+        if (row < 0) {
+            return;
+        }
+        for (int type = 0; type < metrics.length; type++) {
+            values[type][row] = metrics[type];
+            if (newest) {
+                latest[type] = metrics[type];
+            }
+        }
+    }
+
+    @Override
+    public synchronized double recentMetric(String metricType) {
+        return latest[indexOf(metricType)];
+    }
+
+    @Override
+    public synchronized double[] recentMetrics(String metricType, int duration, TimeUnit unit) {
+        int type = indexOf(metricType);
+        long startTime = lastUpdate - TimeUnit.SECONDS.convert(duration, unit);
+        return fetch(type, startTime, lastUpdate);
+    }
+
+    @Override
+    public synchronized double minMetric(String metricType) {
+        int type = indexOf(metricType);
+        double min = Double.NaN;
+        for (int row = 0; row < ROWS; row++) {
+            if (inDay(row) && !(values[type][row] >= min)) {
+                min = values[type][row];
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public synchronized double maxMetric(String metricType) {
+        int type = indexOf(metricType);
+        double max = Double.NaN;
+        for (int row = 0; row < ROWS; row++) {
+            if (inDay(row) && !(values[type][row] <= max)) {
+                max = values[type][row];
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public synchronized double[] metrics(String metricType) {
+        int type = indexOf(metricType);
+        return fetch(type, lastUpdate - SECONDS_OF_DAY, lastUpdate);
+    }
+
+    @Override
+    public synchronized double[] metrics(String metricType, long startTime, long endTime) {
+        return fetch(indexOf(metricType), startTime, endTime);
+    }
+
+    @Override
+    public synchronized long lastUpdate(String metricType) {
+        indexOf(metricType);
+        return lastUpdate;
+    }
+
+    /**
+     * Writes the samples not yet written to the journal, if any, as a block
+     * consisting of the metric and resource names, the metric types, the
+     * number of samples and the samples, each being a time in seconds
+     * followed by the value of each metric type.
+     *
+     * @param out   journal output
+     * @param force true to write all samples held
+     * @return true if a block was written
+     * @throws IOException if the block cannot be written
+     */
+    synchronized boolean save(DataOutput out, boolean force) throws IOException {
+        long first = force ? NONE : savedMinute;
+        long last = lastUpdate / SECONDS_OF_MINUTE;
+        int count = 0;
+        for (int row = 0; row < ROWS; row++) {
+            if (minutes[row] > first && last - minutes[row] < ROWS) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        out.writeUTF(metricName);
+        out.writeUTF(resourceName);
+        out.writeInt(metricTypes.size());
+        for (String metricType : metricTypes) {
+            out.writeUTF(metricType);
+        }
+        out.writeInt(count);
+        // oldest first, so that the latest values are restored last
+        for (long minute = last - ROWS + 1; minute <= last; minute++) {
+            int row = (int) Math.floorMod(minute, (long) ROWS);
+            if (minutes[row] == minute && minute > first) {
+                out.writeLong(minute == last ? lastUpdate : minute * SECONDS_OF_MINUTE);
+                for (double[] series : values) {
+                    out.writeDouble(series[row]);
+                }
+            }
+        }
+        savedMinute = last;
+        return true;
+    }
+
+    // Moves to the row of the given time, clearing it if it held an older
+    // minute; returns -1 if the time is more than a day before the last update
+    private int advance(long time) {
+        long minute = time / SECONDS_OF_MINUTE;
+        if (lastUpdate / SECONDS_OF_MINUTE - minute >= ROWS) {
+            return -1;
+        }
+        int row = (int) Math.floorMod(minute, (long) ROWS);
+        if (minutes[row] != minute) {
+            minutes[row] = minute;
+            for (double[] series : values) {
+                series[row] = Double.NaN;
+            }
+        }
+        if (minute <= savedMinute) {
+            savedMinute = minute - 1;
+        }
+        lastUpdate = Math.max(lastUpdate, time);
+        return row;
+    }
+
+    // Returns the samples of the minutes after the start and up to the end
+    private double[] fetch(int type, long startTime, long endTime) {
+        // check whether the given startTime and endTime larger than 1 minute
+        checkArgument(endTime - startTime >= SECONDS_OF_MINUTE, INSUFFICIENT_DURATION);
+
+        // check whether the given start time and endTime smaller than 1 day
+        checkArgument(endTime - startTime <= SECONDS_OF_DAY, EXCEEDED_DURATION);
+
+        long first = Math.floorDiv(startTime, SECONDS_OF_MINUTE) + 1;
+        long last = Math.floorDiv(endTime, SECONDS_OF_MINUTE);
+        double[] data = new double[(int) (last - first + 1)];
+        for (long minute = first; minute <= last; minute++) {
+            int row = (int) Math.floorMod(minute, (long) ROWS);
+            data[(int) (minute - first)] = minutes[row] == minute ? values[type][row] : Double.NaN;
+        }
+        return data;
+    }
+
+    private boolean inDay(int row) {
+        return minutes[row] != NONE &&
+                lastUpdate / SECONDS_OF_MINUTE - minutes[row] < ROWS;
+    }
+
+    private int indexOf(String metricType) {
+        Integer type = index.get(metricType);
+        checkArgument(type != null, NON_EXIST_METRIC);
+        return type;
+    }
+
+    public static final class Builder implements MetricsDatabase.Builder {
+        private static final String METRIC_NAME_MSG = "Must specify a metric name.";
+        private static final String RESOURCE_NAME_MSG = "Must specify a resource name.";
+        private static final String METRIC_TYPE_MSG = "Must supply at least a metric type.";
+
+        private final ImmutableList.Builder<String> metricTypes = ImmutableList.builder();
+        private String metricName;
+        private String resourceName;
+
+        @Override
+        public Builder withMetricName(String metric) {
+            this.metricName = metric;
+            return this;
+        }
+
+        @Override
+        public Builder withResourceName(String resource) {
+            this.resourceName = resource;
+            return this;
+        }
+
+        @Override
+        public Builder addMetricType(String metricType) {
+            metricTypes.add(metricType);
+            return this;
+        }
+
+        @Override
+        public RingBufferMetricsDatabase build() {
+            checkNotNull(metricName, METRIC_NAME_MSG);
+            checkNotNull(resourceName, RESOURCE_NAME_MSG);
+            List<String> types = metricTypes.build();
+            checkArgument(!types.isEmpty(), METRIC_TYPE_MSG);
+            return new RingBufferMetricsDatabase(metricName, resourceName, types);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the in-memory control plane metrics database.
+ */
+public class RingBufferMetricsDatabaseTest {
+
+    private static final String MEMORY_METRIC = "memory";
+    private static final String DEFAULT_RES = "resource";
+    private static final String MEMORY_FREE_PERC = "freePerc";
+    private static final String MEMORY_USED_PERC = "usedPerc";
+    private static final long START = 1_600_000_020L;
+
+    private RingBufferMetricsDatabase mdb;
+
+    /**
+     * Initializes metrics database instance.
+     */
+    @Before
+    public void setUp() {
+        mdb = newDatabase();
+    }
+
+    private static RingBufferMetricsDatabase newDatabase() {
+        return new RingBufferMetricsDatabase.Builder()
+                .withMetricName(MEMORY_METRIC)
+                .withResourceName(DEFAULT_RES)
+                .addMetricType(MEMORY_FREE_PERC)
+                .addMetricType(MEMORY_USED_PERC)
+                .build();
+    }
+
+    /**
+     * Tests the metric update function.
+     */
+    @Test
+    public void testMetricUpdate() {
+        mdb.updateMetric(MEMORY_FREE_PERC, 30, START);
+        assertThat(mdb.recentMetric(MEMORY_FREE_PERC), is(30D));
+        assertTrue(Double.isNaN(mdb.recentMetric(MEMORY_USED_PERC)));
+
+        mdb.updateMetrics(ImmutableMap.of(MEMORY_FREE_PERC, 40D, MEMORY_USED_PERC, 60D), START + 60);
+        assertThat(mdb.recentMetric(MEMORY_FREE_PERC), is(40D));
+        assertThat(mdb.recentMetric(MEMORY_USED_PERC), is(60D));
+
+        mdb.updateMetrics(new double[]{50D, 50D}, START + 120);
+        assertThat(mdb.recentMetric(MEMORY_USED_PERC), is(50D));
+        assertThat(mdb.lastUpdate(MEMORY_USED_PERC), is(START + 120));
+
+        // a late sample does not replace the latest value
+        mdb.updateMetric(MEMORY_FREE_PERC, 10, START + 1);
+        assertThat(mdb.recentMetric(MEMORY_FREE_PERC), is(50D));
+    }
+
+    /**
+     * Tests the metric range fetch function.
+     */
+    @Test
+    public void testMetricRangeFetch() {
+        for (int i = 0; i < 10; i++) {
+            mdb.updateMetrics(new double[]{i, 100 - i}, START + i * 60);
+        }
+        long end = START + 9 * 60;
+
+        assertThat(mdb.metrics(MEMORY_FREE_PERC).length, is(60 * 24));
+        assertThat(mdb.recentMetrics(MEMORY_FREE_PERC, 1, TimeUnit.MINUTES).length, is(1));
+        assertThat(mdb.recentMetrics(MEMORY_FREE_PERC, 1, TimeUnit.HOURS).length, is(60));
+        assertThat(mdb.recentMetrics(MEMORY_FREE_PERC, 1, TimeUnit.DAYS).length, is(60 * 24));
+
+        double[] range = mdb.metrics(MEMORY_FREE_PERC, end - 60 * 5, end);
+        assertThat(range.length, is(5));
+        assertThat(range[0], is(5D));
+        assertThat(range[4], is(9D));
+
+        double[] hour = mdb.recentMetrics(MEMORY_USED_PERC, 1, TimeUnit.HOURS);
+        assertTrue(Double.isNaN(hour[0]));
+        assertThat(hour[59], is(91D));
+
+        assertThat(mdb.minMetric(MEMORY_FREE_PERC), is(0D));
+        assertThat(mdb.maxMetric(MEMORY_FREE_PERC), is(9D));
+        assertThat(mdb.maxMetric(MEMORY_USED_PERC), is(100D));
+    }
+
+    /**
+     * Tests that samples older than a day are overwritten.
+     */
+    @Test
+    public void testWrapAround() {
+        mdb.updateMetrics(new double[]{1D, 1D}, START);
+        mdb.updateMetrics(new double[]{2D, 2D}, START + 60 * 60 * 24);
+        assertThat(mdb.minMetric(MEMORY_FREE_PERC), is(2D));
+
+        // too old to be recorded
+        mdb.updateMetrics(new double[]{0D, 0D}, START);
+        assertThat(mdb.minMetric(MEMORY_FREE_PERC), is(2D));
+    }
+
+    /**
+     * Test the projected time range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceededTimeRange() {
+        mdb.recentMetrics(MEMORY_FREE_PERC, 25, TimeUnit.HOURS);
+    }
+
+    /**
+     * Test the projected time range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsufficientTimeRange() {
+        mdb.recentMetrics(MEMORY_FREE_PERC, 50, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Test a non-existing metric type.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonExistingMetric() {
+        mdb.updateMetric("foo", 1D, START);
+    }
+
+    /**
+     * Tests saving samples to and restoring them from a journal.
+     */
+    @Test
+    public void testJournal() throws IOException {
+        Path file = Files.createTempFile("cpman", ".journal");
+        try {
+            MetricsJournal journal = new MetricsJournal(file);
+            mdb.updateMetrics(new double[]{1D, 99D}, START);
+            mdb.updateMetrics(new double[]{2D, 98D}, START + 60);
+            journal.save(ImmutableList.of(mdb));
+            long size = Files.size(file);
+
+            // nothing new to save
+            journal.save(ImmutableList.of(mdb));
+            assertThat(Files.size(file), is(size));
+
+            // the latest minute is saved again once updated
+            mdb.updateMetric(MEMORY_FREE_PERC, 3D, START + 61);
+            mdb.updateMetrics(new double[]{4D, 96D}, START + 120);
+            journal.save(ImmutableList.of(mdb));
+
+            RingBufferMetricsDatabase restored = newDatabase();
+            Map<String, Integer> samples = Maps.newHashMap();
+            journal.replay((metricName, resourceName, metrics, time) -> {
+                samples.merge(metricName + "/" + resourceName, 1, Integer::sum);
+                restored.updateMetrics(metrics, time);
+            });
+            assertThat(samples.get(MEMORY_METRIC + "/" + DEFAULT_RES), is(4));
+            assertThat(restored.recentMetric(MEMORY_FREE_PERC), is(4D));
+            assertThat(restored.lastUpdate(MEMORY_FREE_PERC), is(START + 120));
+            assertThat(restored.metrics(MEMORY_FREE_PERC, START - 60, START + 120),
+                       is(mdb.metrics(MEMORY_FREE_PERC, START - 60, START + 120)));
+
+            journal.compact(ImmutableList.of(restored));
+            assertTrue(Files.size(file) < 2 * size);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -17,6 +17,9 @@ package org.onosproject.kafkaintegration.api;
 
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * APIs to insert and delete into a local store. This store is used to keep
  * track of events that are being published.
@@ -30,10 +33,26 @@ public interface KafkaEventStorageService {
      */
     void publishEvent(OnosEvent event);
 
+    /**
+     * Inserts the Onos Events into Distributed Work Queue at once.
+     *
+     * @param events the ONOS Events
+     */
+    void publishEvents(Collection<OnosEvent> events);
+
     /**
      * Removes the Onos Event from the Distributed Work Queue.
      *
      * @return the Onos Event
      */
     OnosEvent consumeEvent();
+
+    /**
+     * Removes up to the given number of Onos Events from the Distributed
+     * Work Queue, in the order they were inserted.
+     *
+     * @param maxEvents maximum number of events to remove
+     * @return the Onos Events; empty if there is none
+     */
+    List<OnosEvent> consumeEvents(int maxEvents);
 }
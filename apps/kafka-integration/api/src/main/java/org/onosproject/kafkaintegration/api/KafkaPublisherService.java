@@ -16,6 +16,7 @@
 package org.onosproject.kafkaintegration.api;
 
 import java.util.concurrent.Future;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 
@@ -31,4 +32,14 @@ public interface KafkaPublisherService {
      * @return metadata for a record that as been acknowledged
      */
     Future<RecordMetadata> send(ProducerRecord<String, byte[]> record);
+
+    /**
+     * Sends message to Kafka Server asynchronously, invoking the given
+     * callback once the message has been acknowledged or has failed.
+     *
+     * @param record a message to be sent
+     * @param callback callback invoked on completion
+     * @return metadata for a record that as been acknowledged
+     */
+    Future<RecordMetadata> send(ProducerRecord<String, byte[]> record, Callback callback);
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.kafkaintegration.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.onosproject.kafkaintegration.api.KafkaEventStorageService;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 import org.onosproject.store.serializers.KryoNamespaces;
@@ -30,8 +31,11 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @Component(service = KafkaEventStorageService.class)
 public class KafkaStorageManager implements KafkaEventStorageService {
@@ -67,6 +71,15 @@ public class KafkaStorageManager implements KafkaEventStorageService {
         log.debug("Published {} Event to Distributed Work Queue", e.type());
     }
 
+    @Override
+    public void publishEvents(Collection<OnosEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        queue.addMultiple(events);
+        log.debug("Published {} Events to Distributed Work Queue", events.size());
+    }
+
     @Override
     public OnosEvent consumeEvent() {
         Task<OnosEvent> task = null;
@@ -90,4 +103,23 @@ public class KafkaStorageManager implements KafkaEventStorageService {
         return null;
     }
 
+    @Override
+    public List<OnosEvent> consumeEvents(int maxEvents) {
+        Collection<Task<OnosEvent>> tasks = null;
+
+        try {
+            tasks = queue.take(maxEvents).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("consumeEvents()", e);
+        }
+
+        if (tasks == null || tasks.isEmpty()) {
+            return ImmutableList.of();
+        }
+        queue.complete(tasks.stream().map(Task::taskId).collect(Collectors.toList()));
+        log.debug("Consumed {} Events from Distributed Work Queue", tasks.size());
+        return tasks.stream().map(Task::payload).collect(Collectors.toList());
+    }
 }
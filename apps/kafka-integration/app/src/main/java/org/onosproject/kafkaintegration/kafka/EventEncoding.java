@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Encodings of batches of event messages into Kafka record values.
+ */
+public enum EventEncoding {
+
+    /**
+     * Each event message is sent as a record of its own.
+     */
+    SINGLE {
+        @Override
+        public List<byte[]> encode(List<byte[]> messages) {
+            return messages;
+        }
+    },
+
+    /**
+     * Event messages are sent together in records holding as many messages
+     * as fit, each message preceded by its length as a varint, which is
+     * the framing read by protobuf's {@code parseDelimitedFrom}.
+     */
+    DELIMITED {
+        @Override
+        public List<byte[]> encode(List<byte[]> messages) {
+            ImmutableList.Builder<byte[]> records = ImmutableList.builder();
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            for (byte[] message : messages) {
+                if (record.size() > 0 && record.size() + message.length + MAX_VARINT_SIZE > MAX_RECORD_SIZE) {
+                    records.add(record.toByteArray());
+                    record.reset();
+                }
+                writeVarint(record, message.length);
+                record.write(message, 0, message.length);
+            }
+            if (record.size() > 0) {
+                records.add(record.toByteArray());
+            }
+            return records.build();
+        }
+    };
+
+    // stays below the default max.request.size of the producer
+    static final int MAX_RECORD_SIZE = 512 * 1024;
+    private static final int MAX_VARINT_SIZE = 5;
+
+    /**
+     * Encodes the given event messages of a topic into record values.
+     *
+     * @param messages event messages, in order
+     * @return record values, in order
+     */
+    public abstract List<byte[]> encode(List<byte[]> messages);
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import com.google.common.collect.Lists;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.onosproject.kafkaintegration.api.KafkaPublisherService;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Exports batches of events to Kafka.
+ * <p>
+ * The events of a batch are grouped by topic, encoded into records with
+ * the given encoding and sent asynchronously. At most the given number of
+ * records are in flight at any time; exporting blocks until earlier
+ * records are acknowledged otherwise. The encoding and the in-flight bound
+ * can be changed while records are in flight.
+ */
+public final class EventExporter {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final KafkaPublisherService publisher;
+    private volatile EventEncoding encoding;
+    // guarded by this
+    private int maxInFlight;
+    private final InFlightPermits inFlight;
+    private final LongAdder sentRecords = new LongAdder();
+    private final LongAdder failedRecords = new LongAdder();
+
+    /**
+     * Creates an exporter.
+     *
+     * @param publisher   Kafka publisher
+     * @param encoding    encoding of event batches into records
+     * @param maxInFlight maximum number of records in flight
+     */
+    public EventExporter(KafkaPublisherService publisher, EventEncoding encoding, int maxInFlight) {
+        checkArgument(maxInFlight > 0, "maxInFlight must be positive");
+        this.publisher = publisher;
+        this.encoding = encoding;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new InFlightPermits(maxInFlight);
+    }
+
+    /**
+     * Changes the encoding and the maximum number of records in flight.
+     * Records already in flight are not affected; if the bound is lowered,
+     * exporting blocks until enough of them are acknowledged.
+     *
+     * @param newEncoding    encoding of event batches into records
+     * @param newMaxInFlight maximum number of records in flight
+     */
+    public synchronized void reconfigure(EventEncoding newEncoding, int newMaxInFlight) {
+        checkArgument(newMaxInFlight > 0, "maxInFlight must be positive");
+        encoding = newEncoding;
+        if (newMaxInFlight > maxInFlight) {
+            inFlight.release(newMaxInFlight - maxInFlight);
+        } else if (newMaxInFlight < maxInFlight) {
+            inFlight.reducePermits(maxInFlight - newMaxInFlight);
+        }
+        maxInFlight = newMaxInFlight;
+    }
+
+    /**
+     * Sends the given events, preserving their order within each topic.
+     *
+     * @param events events to export
+     * @return number of records sent
+     * @throws InterruptedException if interrupted while waiting for records
+     *                              in flight to be acknowledged
+     */
+    public int export(Collection<OnosEvent> events) throws InterruptedException {
+        Map<OnosEvent.Type, List<byte[]>> topics = new EnumMap<>(OnosEvent.Type.class);
+        events.forEach(event -> topics.computeIfAbsent(event.type(), t -> Lists.newArrayList())
+                .add(event.subject()));
+
+        EventEncoding currentEncoding = encoding;
+        int records = 0;
+        for (Map.Entry<OnosEvent.Type, List<byte[]>> topic : topics.entrySet()) {
+            for (byte[] value : currentEncoding.encode(topic.getValue())) {
+                inFlight.acquire();
+                try {
+                    publisher.send(new ProducerRecord<>(topic.getKey().toString(), value),
+                                   (metadata, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            failedRecords.increment();
+                            log.warn("Cannot publish data to Kafka - {}", error.getMessage());
+                        } else {
+                            sentRecords.increment();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    failedRecords.increment();
+                    log.warn("Cannot publish data to Kafka - {}", e.getMessage());
+                    continue;
+                }
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Waits until all records in flight have been acknowledged or failed.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout
+     * @return true if no record is in flight anymore
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!inFlight.tryAcquire(maxInFlight, timeout, unit)) {
+            return false;
+        }
+        inFlight.release(maxInFlight);
+        return true;
+    }
+
+    /**
+     * Returns the number of records acknowledged by Kafka.
+     *
+     * @return number of records
+     */
+    public long sentRecords() {
+        return sentRecords.sum();
+    }
+
+    /**
+     * Returns the number of records which could not be sent.
+     *
+     * @return number of records
+     */
+    public long failedRecords() {
+        return failedRecords.sum();
+    }
+
+    // Exposes permit reduction, to lower the bound without waiting
+    private static final class InFlightPermits extends Semaphore {
+        private InFlightPermits(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
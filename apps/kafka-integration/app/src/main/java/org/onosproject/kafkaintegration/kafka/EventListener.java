@@ -16,6 +16,7 @@
 
 package org.onosproject.kafkaintegration.kafka;
 
+import org.onlab.util.AbstractAccumulator;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -40,8 +41,11 @@ import org.onosproject.net.host.HostService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.Timer;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -89,12 +93,23 @@ public class EventListener {
 
     private static final String PUBLISHER_TOPIC = "WORK_QUEUE_PUBLISHER";
 
+    // Batching of events pushed to the work queue
+    private static final int MAX_EVENTS = 1000;
+    private static final int MAX_BATCH_MS = 50;
+    private static final int MAX_IDLE_MS = 10;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private Timer timer;
+    private AbstractAccumulator<OnosEvent> accumulator;
+
     private NodeId localNodeId;
 
     @Activate
     protected void activate() {
 
         eventExecutor = newSingleThreadScheduledExecutor(groupedThreads("onos/onosEvents", "events-%d", log));
+        timer = new Timer("onos-kafka-event-batching");
+        accumulator = new InternalEventAccumulator(timer);
         deviceService.addListener(deviceListener);
         linkService.addListener(linkListener);
         hostService.addListener(hostListener);
@@ -112,7 +127,19 @@ public class EventListener {
         linkService.removeListener(linkListener);
         hostService.removeListener(hostListener);
 
-        eventExecutor.shutdownNow();
+        // Push the events accumulated so far before stopping.
+        accumulator.flush();
+        timer.cancel();
+        eventExecutor.shutdown();
+        try {
+            if (!eventExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Timed out pushing pending events to the work queue");
+                eventExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            eventExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
         eventExecutor = null;
 
         log.info("Stopped");
@@ -132,9 +159,7 @@ public class EventListener {
 
             if (!eventSubscriptionService.getEventSubscribers(DEVICE).isEmpty()) {
                 OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    kafkaStoreService.publishEvent(onosEvent);
-                });
+                accumulator.add(onosEvent);
                 log.debug("Pushed event {} to kafka storage", onosEvent);
             }
 
@@ -155,9 +180,7 @@ public class EventListener {
 
             if (!eventSubscriptionService.getEventSubscribers(LINK).isEmpty()) {
                 OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    kafkaStoreService.publishEvent(onosEvent);
-                });
+                accumulator.add(onosEvent);
                 log.debug("Pushed event {} to kafka storage", onosEvent);
             }
 
@@ -178,12 +201,26 @@ public class EventListener {
 
             if (!eventSubscriptionService.getEventSubscribers(HOST).isEmpty()) {
                 OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    kafkaStoreService.publishEvent(onosEvent);
-                });
+                accumulator.add(onosEvent);
                 log.debug("Pushed event {} to kafka storage", onosEvent);
             }
 
         }
     }
-}
\ No newline at end of file
+
+    // Pushes accumulated events to the work queue in a single operation
+    private class InternalEventAccumulator extends AbstractAccumulator<OnosEvent> {
+
+        InternalEventAccumulator(Timer timer) {
+            super(timer, MAX_EVENTS, MAX_BATCH_MS, MAX_IDLE_MS);
+        }
+
+        @Override
+        public void processItems(List<OnosEvent> items) {
+            ExecutorService executor = eventExecutor;
+            if (executor != null) {
+                executor.execute(() -> kafkaStoreService.publishEvents(items));
+            }
+        }
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.onosproject.kafkaintegration.kafka;
 
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.LeadershipService;
 import org.onosproject.cluster.NodeId;
@@ -31,13 +34,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
-@Component(immediate = true)
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_BATCH_SIZE;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_BATCH_SIZE_DEFAULT;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_ENCODING;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_ENCODING_DEFAULT;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_MAX_IN_FLIGHT;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_MAX_IN_FLIGHT_DEFAULT;
+
+@Component(immediate = true,
+        property = {
+                EXPORT_BATCH_SIZE + ":Integer=" + EXPORT_BATCH_SIZE_DEFAULT,
+                EXPORT_MAX_IN_FLIGHT + ":Integer=" + EXPORT_MAX_IN_FLIGHT_DEFAULT,
+                EXPORT_ENCODING + "=" + EXPORT_ENCODING_DEFAULT,
+        }
+)
 public class EventPublisher {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -57,6 +74,19 @@ public class EventPublisher {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected KafkaPublisherService kafkaPublisher;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService componentConfigService;
+
+    /** Maximum number of events taken from the work queue and exported at once. */
+    protected int exportBatchSize = EXPORT_BATCH_SIZE_DEFAULT;
+
+    /** Maximum number of records sent to Kafka and not yet acknowledged. */
+    protected int exportMaxInFlight = EXPORT_MAX_IN_FLIGHT_DEFAULT;
+
+    /** Encoding of exported events; SINGLE for a record per event, DELIMITED for
+     * length-delimited batches of events per record. */
+    protected String exportEncoding = EXPORT_ENCODING_DEFAULT;
+
     protected ScheduledExecutorService exService;
 
     private static final String SUBSCRIBER_TOPIC = "WORK_QUEUE_SUBSCRIBER";
@@ -65,12 +95,17 @@ public class EventPublisher {
 
     // Thread Scheduler Parameters
     private final long delay = 0;
-    private final long period = 1;
+    private final long period = 100;
+
+    private static final long FLUSH_TIMEOUT_SECONDS = 5;
 
     private EventCollector eventCollector;
+    private volatile EventExporter exporter;
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
+        componentConfigService.registerProperties(getClass());
+        readComponentConfiguration(context);
 
         leadershipService.runForLeadership(SUBSCRIBER_TOPIC);
 
@@ -84,17 +119,61 @@ public class EventPublisher {
     private void startCollector() {
         exService = Executors.newSingleThreadScheduledExecutor();
         eventCollector = new EventCollector();
-        exService.scheduleAtFixedRate(eventCollector, delay, period, TimeUnit.SECONDS);
+        exService.scheduleWithFixedDelay(eventCollector, delay, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Modified
+    protected void modified(ComponentContext context) {
+        readComponentConfiguration(context);
     }
 
     @Deactivate
     protected void deactivate() {
+        componentConfigService.unregisterProperties(getClass(), false);
         stopCollector();
         log.info("Stopped");
     }
 
     private void stopCollector() {
         exService.shutdown();
+        try {
+            if (exService.awaitTermination(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                exporter.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        if (context != null) {
+            Dictionary<?, ?> properties = context.getProperties();
+
+            Integer batchSize = Tools.getIntegerProperty(properties, EXPORT_BATCH_SIZE);
+            exportBatchSize = batchSize == null || batchSize <= 0 ? EXPORT_BATCH_SIZE_DEFAULT : batchSize;
+
+            Integer maxInFlight = Tools.getIntegerProperty(properties, EXPORT_MAX_IN_FLIGHT);
+            exportMaxInFlight = maxInFlight == null || maxInFlight <= 0 ? EXPORT_MAX_IN_FLIGHT_DEFAULT : maxInFlight;
+
+            String encoding = Tools.get(properties, EXPORT_ENCODING);
+            exportEncoding = encoding == null ? EXPORT_ENCODING_DEFAULT : encoding.trim().toUpperCase();
+        }
+
+        EventEncoding encoding;
+        try {
+            encoding = EventEncoding.valueOf(exportEncoding);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown export encoding {}, using {}", exportEncoding, EXPORT_ENCODING_DEFAULT);
+            encoding = EventEncoding.valueOf(EXPORT_ENCODING_DEFAULT);
+        }
+        if (exporter == null) {
+            exporter = new EventExporter(kafkaPublisher, encoding, exportMaxInFlight);
+        } else {
+            // Keep the records in flight accounted for.
+            exporter.reconfigure(encoding, exportMaxInFlight);
+        }
+        log.info("Settings: exportBatchSize={}, exportMaxInFlight={}, exportEncoding={}",
+                 exportBatchSize, exportMaxInFlight, encoding);
     }
 
     private class EventCollector implements Runnable {
@@ -110,20 +189,19 @@ public class EventPublisher {
             }
 
             try {
-                OnosEvent onosEvent = kafkaStore.consumeEvent();
-
-                if (onosEvent != null) {
-                    kafkaPublisher.send(new ProducerRecord<>(onosEvent.type().toString(),
-                                                            onosEvent.subject())).get();
-
-                    log.info("Event Type - {}, Subject {} sent successfully.",
-                             onosEvent.type(), onosEvent.subject());
-                }
+                // drain the work queue a batch at a time
+                int batchSize = exportBatchSize;
+                List<OnosEvent> onosEvents;
+                do {
+                    onosEvents = kafkaStore.consumeEvents(batchSize);
+                    if (!onosEvents.isEmpty()) {
+                        int records = exporter.export(onosEvents);
+                        log.debug("{} events sent in {} records", onosEvents.size(), records);
+                    }
+                } while (onosEvents.size() == batchSize);
             } catch (InterruptedException e1) {
                 log.error("Thread interupted");
                 Thread.currentThread().interrupt();
-            } catch (ExecutionException e2) {
-                log.error("Cannot publish data to Kafka - {}", e2);
             }
         }
     }
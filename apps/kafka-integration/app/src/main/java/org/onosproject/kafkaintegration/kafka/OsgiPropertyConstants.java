@@ -41,4 +41,13 @@ public final class OsgiPropertyConstants {
     static final String VALUE_SERIALIZER = "valueSerializer";
     static final String VALUE_SERIALIZER_DEFAULT = "org.apache.kafka.common.serialization.ByteArraySerializer";
 
+    static final String EXPORT_BATCH_SIZE = "exportBatchSize";
+    static final int EXPORT_BATCH_SIZE_DEFAULT = 1000;
+
+    static final String EXPORT_MAX_IN_FLIGHT = "exportMaxInFlight";
+    static final int EXPORT_MAX_IN_FLIGHT_DEFAULT = 100;
+
+    static final String EXPORT_ENCODING = "exportEncoding";
+    static final String EXPORT_ENCODING_DEFAULT = "SINGLE";
+
 }
@@ -16,6 +16,7 @@
 
 package org.onosproject.kafkaintegration.kafka;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -97,4 +98,9 @@ public class PublishManager implements KafkaPublisherService, KafkaPublisherAdmi
     public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record) {
         return kafkaProducer.send(record);
     }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record, Callback callback) {
+        return kafkaProducer.send(record, callback);
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Test;
+import org.onosproject.kafkaintegration.api.KafkaPublisherService;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.DEVICE;
+import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.LINK;
+
+/**
+ * Unit tests for {@link EventExporter}, using the mock producer of the
+ * Kafka client in place of a broker.
+ */
+public class EventExporterTest {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final int EVENTS = 10_000;
+
+    private static final class MockPublisher implements KafkaPublisherService {
+        private final MockProducer<String, byte[]> producer;
+
+        private MockPublisher(boolean autoComplete) {
+            producer = new MockProducer<>(autoComplete, new StringSerializer(), new ByteArraySerializer());
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record) {
+            return producer.send(record);
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record, Callback callback) {
+            return producer.send(record, callback);
+        }
+    }
+
+    private static OnosEvent event(OnosEvent.Type type, int i) {
+        return new OnosEvent(type, ("subject-" + i).getBytes());
+    }
+
+    private static List<byte[]> decode(byte[] record) {
+        List<byte[]> messages = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            byte[] message = new byte[length];
+            buffer.get(message);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Test
+    public void testSingle() throws InterruptedException {
+        MockPublisher publisher = new MockPublisher(true);
+        EventExporter exporter = new EventExporter(publisher, EventEncoding.SINGLE, 10);
+
+        int records = exporter.export(ImmutableList.of(event(DEVICE, 1), event(LINK, 2), event(DEVICE, 3)));
+        assertEquals(3, records);
+        assertEquals(3, exporter.sentRecords());
+
+        List<ProducerRecord<String, byte[]>> history = publisher.producer.history();
+        assertEquals(DEVICE.toString(), history.get(0).topic());
+        assertArrayEquals(event(DEVICE, 1).subject(), history.get(0).value());
+        assertArrayEquals(event(DEVICE, 3).subject(), history.get(1).value());
+        assertEquals(LINK.toString(), history.get(2).topic());
+    }
+
+    @Test
+    public void testDelimited() throws InterruptedException {
+        MockPublisher publisher = new MockPublisher(true);
+        EventExporter exporter = new EventExporter(publisher, EventEncoding.DELIMITED, 10);
+
+        List<OnosEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(event(DEVICE, i));
+        }
+        // larger than a single varint byte
+        events.add(new OnosEvent(DEVICE, new byte[300]));
+
+        assertEquals(1, exporter.export(events));
+        List<byte[]> messages = decode(publisher.producer.history().get(0).value());
+        assertEquals(events.size(), messages.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertArrayEquals(events.get(i).subject(), messages.get(i));
+        }
+    }
+
+    @Test
+    public void testDelimitedRecordSize() {
+        byte[] message = new byte[100 * 1024];
+        List<byte[]> records = EventEncoding.DELIMITED.encode(ImmutableList.of(
+                message, message, message, message, message, message, message));
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).length <= EventEncoding.MAX_RECORD_SIZE);
+        assertEquals(5, decode(records.get(0)).size());
+        assertEquals(2, decode(records.get(1)).size());
+    }
+
+    @Test
+    public void testMaxInFlight() throws InterruptedException {
+        MockPublisher publisher = new MockPublisher(false);
+        EventExporter exporter = new EventExporter(publisher, EventEncoding.SINGLE, 2);
+
+        CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                exporter.export(ImmutableList.of(event(DEVICE, 1), event(DEVICE, 2), event(DEVICE, 3)));
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+
+        assertFalse("Export bounded by records in flight", done.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, publisher.producer.history().size());
+        assertFalse(exporter.flush(10, TimeUnit.MILLISECONDS));
+
+        assertTrue(publisher.producer.completeNext());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, publisher.producer.history().size());
+
+        assertTrue(publisher.producer.errorNext(new RuntimeException("boom")));
+        assertTrue(publisher.producer.completeNext());
+        assertTrue(exporter.flush(5, TimeUnit.SECONDS));
+        assertEquals(2, exporter.sentRecords());
+        assertEquals(1, exporter.failedRecords());
+    }
+
+    @Test
+    public void testReconfigure() throws InterruptedException {
+        MockPublisher publisher = new MockPublisher(false);
+        EventExporter exporter = new EventExporter(publisher, EventEncoding.SINGLE, 1);
+        exporter.export(ImmutableList.of(event(DEVICE, 1)));
+
+        // Raising the limit keeps the record already in flight accounted for
+        exporter.reconfigure(EventEncoding.DELIMITED, 2);
+        assertEquals(1, exporter.export(ImmutableList.of(event(DEVICE, 2), event(DEVICE, 3))));
+        assertEquals(2, publisher.producer.history().size());
+        assertEquals(2, decode(publisher.producer.history().get(1).value()).size());
+
+        // Lowering it below the records in flight blocks until they complete
+        exporter.reconfigure(EventEncoding.SINGLE, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                exporter.export(ImmutableList.of(event(DEVICE, 4)));
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+
+        assertTrue(publisher.producer.completeNext());
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(publisher.producer.completeNext());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(publisher.producer.completeNext());
+        assertTrue(exporter.flush(5, TimeUnit.SECONDS));
+        assertEquals(3, exporter.sentRecords());
+    }
+
+    @Test
+    public void testThroughput() throws InterruptedException {
+        for (EventEncoding encoding : EventEncoding.values()) {
+            MockPublisher publisher = new MockPublisher(true);
+            EventExporter exporter = new EventExporter(publisher, encoding, 100);
+
+            List<OnosEvent> batch = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                batch.add(event(i % 2 == 0 ? DEVICE : LINK, i));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS / batch.size(); i++) {
+                exporter.export(batch);
+            }
+            assertTrue(exporter.flush(5, TimeUnit.SECONDS));
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+
+            log.info("{}: {} events/sec in {} records", encoding,
+                     EVENTS * TimeUnit.SECONDS.toNanos(1) / elapsed, exporter.sentRecords());
+            assertEquals(0, exporter.failedRecords());
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package org.onosproject.openstacknetworking.impl;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.onlab.packet.Ethernet;
@@ -87,7 +89,6 @@ import org.slf4j.Logger;
 
 import java.util.Collections;
 import java.util.Dictionary;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -95,6 +96,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -211,9 +213,14 @@ public class OpenstackSecurityGroupHandler {
     private final OpenstackSecurityGroupListener securityGroupListener =
                                             new InternalSecurityGroupListener();
     private final OpenstackNodeListener osNodeListener = new InternalNodeListener();
+    private final OpenstackNetworkListener portIndexListener =
+                                            new InternalPortIndexListener();
 
     private ConsistentMap<String, Port> removedOsPortStore;
 
+    // ports by the security groups they are bound to
+    private final SecurityGroupPortIndex portIndex = new SecurityGroupPortIndex();
+
     private ApplicationId appId;
     private NodeId localNodeId;
 
@@ -251,6 +258,14 @@ public class OpenstackSecurityGroupHandler {
     protected void activate() {
         appId = coreService.registerApplication(OPENSTACK_NETWORKING_APP_ID);
         localNodeId = clusterService.getLocalNode().id();
+
+        // the index listener goes ahead of osPortListener, so that a port
+        // event reaches the index before its handler is queued; seeding
+        // after registering it is harmless, as re-indexing a port is
+        // idempotent
+        osNetService.addListener(portIndexListener);
+        osNetService.ports().forEach(portIndex::update);
+
         instancePortService.addListener(instancePortListener);
         securityGroupService.addListener(securityGroupListener);
         osNetService.addListener(osPortListener);
@@ -275,7 +290,9 @@ public class OpenstackSecurityGroupHandler {
         osNetService.removeListener(osPortListener);
         configService.unregisterProperties(getClass(), false);
         osNodeService.removeListener(osNodeListener);
+        osNetService.removeListener(portIndexListener);
         eventExecutor.shutdown();
+        portIndex.clear();
 
         log.info("Stopped");
     }
@@ -366,24 +383,8 @@ public class OpenstackSecurityGroupHandler {
 
         if (sgRule.getRemoteGroupId() != null && !sgRule.getRemoteGroupId().isEmpty()) {
             getRemoteInstPorts(port, sgRule.getRemoteGroupId(), install)
-                    .forEach(rInstPort -> {
-                        populateSecurityGroupRule(sgRule, instPort,
-                                rInstPort.ipAddress().toIpPrefix(), install);
-                        populateSecurityGroupRule(sgRule, rInstPort,
-                                instPort.ipAddress().toIpPrefix(), install);
-
-                        SecurityGroupRule rSgRule =
-                                new NeutronSecurityGroupRule
-                                        .SecurityGroupRuleConcreteBuilder()
-                                        .from(sgRule)
-                                        .direction(sgRule.getDirection()
-                                                .equalsIgnoreCase(EGRESS) ? INGRESS : EGRESS)
-                                        .build();
-                        populateSecurityGroupRule(rSgRule, instPort,
-                                rInstPort.ipAddress().toIpPrefix(), install);
-                        populateSecurityGroupRule(rSgRule, rInstPort,
-                                instPort.ipAddress().toIpPrefix(), install);
-                    });
+                    .forEach(rInstPort -> populateRemoteSecurityGroupRule(
+                            sgRule, instPort, rInstPort, install));
         } else {
             populateSecurityGroupRule(sgRule, instPort,
                     sgRule.getRemoteIpPrefix() == null ? IP_PREFIX_ANY :
@@ -391,6 +392,28 @@ public class OpenstackSecurityGroupHandler {
         }
     }
 
+    private void populateRemoteSecurityGroupRule(SecurityGroupRule sgRule,
+                                                 InstancePort instPort,
+                                                 InstancePort rInstPort,
+                                                 boolean install) {
+        populateSecurityGroupRule(sgRule, instPort,
+                rInstPort.ipAddress().toIpPrefix(), install);
+        populateSecurityGroupRule(sgRule, rInstPort,
+                instPort.ipAddress().toIpPrefix(), install);
+
+        SecurityGroupRule rSgRule =
+                new NeutronSecurityGroupRule
+                        .SecurityGroupRuleConcreteBuilder()
+                        .from(sgRule)
+                        .direction(sgRule.getDirection()
+                                .equalsIgnoreCase(EGRESS) ? INGRESS : EGRESS)
+                        .build();
+        populateSecurityGroupRule(rSgRule, instPort,
+                rInstPort.ipAddress().toIpPrefix(), install);
+        populateSecurityGroupRule(rSgRule, rInstPort,
+                instPort.ipAddress().toIpPrefix(), install);
+    }
+
     private boolean checkProtocol(String protocol) {
         if (protocol == null) {
             log.debug("No protocol was specified, use default IP(v4/v6) protocol.");
@@ -560,16 +583,15 @@ public class OpenstackSecurityGroupHandler {
                                                  String sgId, boolean install) {
         Set<InstancePort> remoteInstPorts;
 
-        Set<Port> removedPorts = Sets.newConcurrentHashSet();
+        Stream<Port> ports = portIndex.ports(sgId).stream();
 
         if (!install) {
-            removedPorts = new HashSet<>(removedOsPortStore.asJavaMap().values());
+            ports = Stream.concat(ports, removedPorts(sgId).stream());
         }
 
-        remoteInstPorts = Sets.union(osNetService.ports(), removedPorts).stream()
+        remoteInstPorts = ports
                 .filter(port -> !port.getId().equals(srcPort.getId()))
                 .filter(port -> port.getTenantId().equals(srcPort.getTenantId()))
-                .filter(port -> port.getSecurityGroups().contains(sgId))
                 .filter(port -> port.getNetworkId().equals(srcPort.getNetworkId()))
                 .map(port -> instancePortService.instancePort(port.getId()))
                 .filter(instPort -> instPort != null && instPort.ipAddress() != null)
@@ -818,9 +840,7 @@ public class OpenstackSecurityGroupHandler {
     }
 
     private void securityGroupRuleAdded(SecurityGroupRule sgRule) {
-        osNetService.ports().stream()
-                .filter(port -> port.getSecurityGroups()
-                        .contains(sgRule.getSecurityGroupId()))
+        portIndex.ports(sgRule.getSecurityGroupId())
                 .forEach(port -> {
                     updateSecurityGroupRule(
                             instancePortService.instancePort(port.getId()),
@@ -831,11 +851,8 @@ public class OpenstackSecurityGroupHandler {
     }
 
     private void securityGroupRuleRemoved(SecurityGroupRule sgRule) {
-        Set<Port> removedPorts = new HashSet<>(removedOsPortStore.asJavaMap().values());
-
-        Sets.union(osNetService.ports(), removedPorts).stream()
-                .filter(port -> port.getSecurityGroups()
-                        .contains(sgRule.getSecurityGroupId()))
+        Sets.union(portIndex.ports(sgRule.getSecurityGroupId()),
+                   removedPorts(sgRule.getSecurityGroupId()))
                 .forEach(port -> {
                     updateSecurityGroupRule(
                             instancePortService.instancePort(port.getId()),
@@ -845,6 +862,62 @@ public class OpenstackSecurityGroupHandler {
                 });
     }
 
+    /*
+     * Removed ports are read from the store itself, as they are written to
+     * it right before being looked up here; the store only holds the ports
+     * whose instance ports are still being removed.
+     */
+    private Set<Port> removedPorts(String sgId) {
+        return removedOsPortStore.asJavaMap().values().stream()
+                .filter(port -> port.getSecurityGroups() != null &&
+                        port.getSecurityGroups().contains(sgId))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Installs or removes the security group flow rules of the instance ports
+     * attached to the given device only. Besides the rules of their own
+     * security groups, this covers the rules of other groups referring to
+     * their groups as remote group, whose flow rules are installed in pairs
+     * on the devices of both ports.
+     *
+     * @param deviceId device identifier
+     * @param install true for insertion, false for removal
+     */
+    private void setSecurityGroupRulesByDevice(DeviceId deviceId, boolean install) {
+        Map<String, List<SecurityGroupRule>> rulesByRemoteGroup = Maps.newHashMap();
+        securityGroupService.securityGroups().forEach(securityGroup ->
+                securityGroup.getRules().stream()
+                        .filter(sgRule -> !Strings.isNullOrEmpty(sgRule.getRemoteGroupId()))
+                        .forEach(sgRule -> rulesByRemoteGroup.computeIfAbsent(
+                                sgRule.getRemoteGroupId(), id -> Lists.newArrayList()).add(sgRule)));
+
+        instancePortService.instancePorts().stream()
+                .filter(instPort -> deviceId.equals(instPort.deviceId()))
+                .forEach(instPort -> {
+                    Port port = osNetService.port(instPort.portId());
+                    if (port == null || port.getSecurityGroups() == null) {
+                        return;
+                    }
+                    port.getSecurityGroups().forEach(sgId -> {
+                        SecurityGroup sg = securityGroupService.securityGroup(sgId);
+                        if (sg != null) {
+                            sg.getRules().forEach(sgRule ->
+                                    updateSecurityGroupRule(instPort, port, sgRule, install));
+                        }
+                        rulesByRemoteGroup.getOrDefault(sgId, ImmutableList.of()).forEach(sgRule ->
+                                portIndex.ports(sgRule.getSecurityGroupId()).stream()
+                                        .filter(rPort -> !rPort.getId().equals(port.getId()))
+                                        .filter(rPort -> rPort.getTenantId().equals(port.getTenantId()))
+                                        .filter(rPort -> rPort.getNetworkId().equals(port.getNetworkId()))
+                                        .map(rPort -> instancePortService.instancePort(rPort.getId()))
+                                        .filter(rInstPort -> rInstPort != null && rInstPort.ipAddress() != null)
+                                        .forEach(rInstPort -> populateRemoteSecurityGroupRule(
+                                                sgRule, rInstPort, instPort, install)));
+                    });
+                });
+    }
+
     private int binLower(String binStr, int bits) {
         StringBuilder outBin = new StringBuilder(
                         binStr.substring(MASK_BEGIN_IDX, MASK_MAX_IDX - bits));
@@ -1182,6 +1255,33 @@ public class OpenstackSecurityGroupHandler {
         }
     }
 
+    private class InternalPortIndexListener implements OpenstackNetworkListener {
+
+        @Override
+        public boolean isRelevant(OpenstackNetworkEvent event) {
+            return event.port() != null && !Strings.isNullOrEmpty(event.port().getId());
+        }
+
+        @Override
+        public void event(OpenstackNetworkEvent event) {
+            // the index is updated as events are dispatched, ahead of
+            // the event handlers queued on the event executor
+            switch (event.type()) {
+                case OPENSTACK_PORT_CREATED:
+                case OPENSTACK_PORT_UPDATED:
+                case OPENSTACK_PORT_SECURITY_GROUP_ADDED:
+                case OPENSTACK_PORT_SECURITY_GROUP_REMOVED:
+                    portIndex.update(event.port());
+                    break;
+                case OPENSTACK_PORT_REMOVED:
+                    portIndex.remove(event.port().getId());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     private class InternalSecurityGroupListener implements OpenstackSecurityGroupListener {
 
         @Override
@@ -1272,18 +1372,14 @@ public class OpenstackSecurityGroupHandler {
                 initializeAclTable(node.intgBridge(), true);
                 initializeIngressTable(node.intgBridge(), true);
 
-                securityGroupService.securityGroups().forEach(securityGroup ->
-                        securityGroup.getRules().forEach(
-                                OpenstackSecurityGroupHandler.this::securityGroupRuleAdded));
+                setSecurityGroupRulesByDevice(node.intgBridge(), true);
             } else {
                 osFlowRuleService.connectTables(node.intgBridge(), ACL_EGRESS_TABLE, JUMP_TABLE);
                 initializeConnTrackTable(node.intgBridge(), false);
                 initializeAclTable(node.intgBridge(), false);
                 initializeIngressTable(node.intgBridge(), false);
 
-                securityGroupService.securityGroups().forEach(securityGroup ->
-                        securityGroup.getRules().forEach(
-                                OpenstackSecurityGroupHandler.this::securityGroupRuleRemoved));
+                setSecurityGroupRulesByDevice(node.intgBridge(), false);
             }
 
             log.info("Reset security group info " +
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openstacknetworking.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.openstack4j.model.network.Port;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of OpenStack ports by the security groups they are bound to.
+ * <p>
+ * Lets the ports bound to a security group be looked up without scanning
+ * every port, both for the ports a rule applies to and for the remote
+ * ports of rules referring to a remote group.
+ */
+final class SecurityGroupPortIndex {
+
+    // guarded by this
+    private final Map<String, Port> ports = Maps.newHashMap();
+    private final Map<String, Map<String, Port>> portsByGroup = Maps.newHashMap();
+
+    /**
+     * Adds the given port to the index, or re-indexes it if it is known.
+     *
+     * @param port OpenStack port
+     */
+    synchronized void update(Port port) {
+        remove(port.getId());
+        ports.put(port.getId(), port);
+        securityGroups(port).forEach(sgId ->
+                portsByGroup.computeIfAbsent(sgId, id -> Maps.newHashMap()).put(port.getId(), port));
+    }
+
+    /**
+     * Removes the given port from the index.
+     *
+     * @param portId OpenStack port identifier
+     */
+    synchronized void remove(String portId) {
+        Port old = ports.remove(portId);
+        if (old == null) {
+            return;
+        }
+        securityGroups(old).forEach(sgId -> {
+            Map<String, Port> group = portsByGroup.get(sgId);
+            if (group != null) {
+                group.remove(portId);
+                if (group.isEmpty()) {
+                    portsByGroup.remove(sgId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the ports bound to the given security group.
+     *
+     * @param sgId security group identifier
+     * @return set of ports
+     */
+    synchronized Set<Port> ports(String sgId) {
+        Map<String, Port> group = portsByGroup.get(sgId);
+        return group == null ? ImmutableSet.of() : ImmutableSet.copyOf(group.values());
+    }
+
+    /**
+     * Returns the number of indexed ports.
+     *
+     * @return number of ports
+     */
+    synchronized int size() {
+        return ports.size();
+    }
+
+    /**
+     * Removes all ports from the index.
+     */
+    synchronized void clear() {
+        ports.clear();
+        portsByGroup.clear();
+    }
+
+    private static List<String> securityGroups(Port port) {
+        return port.getSecurityGroups() == null ? ImmutableList.of() : port.getSecurityGroups();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openstacknetworking.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.openstack4j.model.network.Port;
+import org.openstack4j.model.network.builder.PortBuilder;
+import org.openstack4j.openstack.networking.domain.NeutronPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SecurityGroupPortIndex}.
+ */
+public class SecurityGroupPortIndexTest {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final String TENANT_ID = "tenant-id";
+    private static final String NETWORK_ID = "network-id";
+    private static final String SG_ID_1 = "sg-id-1";
+    private static final String SG_ID_2 = "sg-id-2";
+
+    // a tenant with many ports per group
+    private static final int PORTS = 5_000;
+    private static final int GROUPS = 200;
+    private static final int LOOKUPS = 100;
+
+    private SecurityGroupPortIndex index;
+
+    @Before
+    public void setUp() {
+        index = new SecurityGroupPortIndex();
+    }
+
+    private static Port port(String id, String... sgIds) {
+        PortBuilder builder = NeutronPort.builder()
+                .tenantId(TENANT_ID)
+                .networkId(NETWORK_ID);
+        for (String sgId : sgIds) {
+            builder.securityGroup(sgId);
+        }
+        Port port = builder.build();
+        port.setId(id);
+        return port;
+    }
+
+    private static Set<String> ids(Set<Port> ports) {
+        return ports.stream().map(Port::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        index.update(port("port-1", SG_ID_1));
+        index.update(port("port-2", SG_ID_1, SG_ID_2));
+        assertEquals(ImmutableSet.of("port-1", "port-2"), ids(index.ports(SG_ID_1)));
+        assertEquals(ImmutableSet.of("port-2"), ids(index.ports(SG_ID_2)));
+
+        // re-indexed with its new groups
+        index.update(port("port-2", SG_ID_2));
+        assertEquals(ImmutableSet.of("port-1"), ids(index.ports(SG_ID_1)));
+        assertEquals(ImmutableSet.of("port-2"), ids(index.ports(SG_ID_2)));
+
+        index.remove("port-1");
+        index.remove("port-x");
+        assertTrue(index.ports(SG_ID_1).isEmpty());
+        assertEquals(1, index.size());
+
+        index.update(port("port-3"));
+        assertEquals(2, index.size());
+
+        index.clear();
+        assertTrue(index.ports(SG_ID_2).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testLargeTenant() {
+        List<Port> ports = new ArrayList<>(PORTS);
+        for (int i = 0; i < PORTS; i++) {
+            Port port = port("port-" + i, "sg-" + (i % GROUPS), "sg-" + ((i * 7) % GROUPS));
+            ports.add(port);
+            index.update(port);
+        }
+        assertEquals(PORTS, index.size());
+
+        // ports bound to each group, as found by scanning every port
+        long start = System.nanoTime();
+        long scanned = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String sgId = "sg-" + i;
+            scanned += ports.stream().filter(port -> port.getSecurityGroups().contains(sgId)).count();
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long indexed = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            indexed += index.ports("sg-" + i).size();
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        log.info("{} security group lookups over {} ports: {} us scanning, {} us indexed",
+                 LOOKUPS, PORTS, TimeUnit.NANOSECONDS.toMicros(scanNanos),
+                 TimeUnit.NANOSECONDS.toMicros(indexNanos));
+
+        assertEquals(scanned, indexed);
+    }
+}
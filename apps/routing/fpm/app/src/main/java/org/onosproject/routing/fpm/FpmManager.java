@@ -84,17 +84,20 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.CLEAR_ROUTES;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.CLEAR_ROUTES_DEFAULT;
@@ -104,6 +107,10 @@ import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV4_DEFAULT;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV6;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV6_DEFAULT;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_MILLIS;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_MILLIS_DEFAULT;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_SIZE;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_SIZE_DEFAULT;
 
 /**
  * Forwarding Plane Manager (FPM) route source.
@@ -116,6 +123,8 @@ import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP
            PD_PUSH_ENABLED + ":Boolean=" + PD_PUSH_ENABLED_DEFAULT,
            PD_PUSH_NEXT_HOP_IPV4 + "=" + PD_PUSH_NEXT_HOP_IPV4_DEFAULT,
            PD_PUSH_NEXT_HOP_IPV6 + "=" + PD_PUSH_NEXT_HOP_IPV6_DEFAULT,
+           ROUTE_BATCH_SIZE + ":Integer=" + ROUTE_BATCH_SIZE_DEFAULT,
+           ROUTE_BATCH_MILLIS + ":Integer=" + ROUTE_BATCH_MILLIS_DEFAULT,
        }
 )
 public class FpmManager implements FpmInfoService {
@@ -169,11 +178,15 @@ public class FpmManager implements FpmInfoService {
     private AsyncDistributedLock asyncLock;
 
     private ExecutorService clusterEventExecutor;
+    private ScheduledExecutorService routeExecutor;
 
     private ConsistentMap<FpmPeer, Set<FpmConnectionInfo>> peers;
 
     private Map<FpmPeer, Map<IpPrefix, Route>> fpmRoutes = new ConcurrentHashMap<>();
 
+    // Route changes of each peer not yet applied to the route store
+    private Map<FpmPeer, FpmRouteAccumulator> pendingRoutes = new ConcurrentHashMap<>();
+
     //Local cache for peers to be used in case of cluster partition.
     private Map<FpmPeer, Set<FpmConnectionInfo>> localPeers = new ConcurrentHashMap<>();
 
@@ -189,6 +202,12 @@ public class FpmManager implements FpmInfoService {
     /** IPv6 next-hop address for PD Pushing. */
     private List<Ip6Address> pdPushNextHopIPv6 = null;
 
+    /** Number of pending route changes of a peer triggering an update of the route store. */
+    private int routeBatchSize = ROUTE_BATCH_SIZE_DEFAULT;
+
+    /** Maximum delay in millis before pending route changes are applied to the route store. */
+    private int routeBatchMillis = ROUTE_BATCH_MILLIS_DEFAULT;
+
     protected void bindRipStore(FpmPrefixStore store) {
         if ((ripStore == null) && (store != null)) {
             ripStore = store;
@@ -241,6 +260,8 @@ public class FpmManager implements FpmInfoService {
                 .withSerializer(Serializer.using(serializer))
                 .build();
 
+        routeExecutor = newSingleThreadScheduledExecutor(groupedThreads("onos/fpm", "fpm-routes", log));
+
         modified(context);
         startServer();
 
@@ -261,7 +282,10 @@ public class FpmManager implements FpmInfoService {
                 "distributed", "false");
 
         stopServer();
+        // pending route changes are dropped along with the routes of the peers
+        routeExecutor.shutdownNow();
         fpmRoutes.clear();
+        pendingRoutes.clear();
         componentConfigService.unregisterProperties(getClass(), false);
 
         clusterService.removeListener(clusterListener);
@@ -285,6 +309,18 @@ public class FpmManager implements FpmInfoService {
             log.info("clearRoutes is {}", clearRoutes);
         }
 
+        Integer newRouteBatchSize = Tools.getIntegerProperty(properties, ROUTE_BATCH_SIZE);
+        if (newRouteBatchSize != null && newRouteBatchSize > 0) {
+            routeBatchSize = newRouteBatchSize;
+            log.info("routeBatchSize is {}", routeBatchSize);
+        }
+
+        Integer newRouteBatchMillis = Tools.getIntegerProperty(properties, ROUTE_BATCH_MILLIS);
+        if (newRouteBatchMillis != null && newRouteBatchMillis > 0) {
+            routeBatchMillis = newRouteBatchMillis;
+            log.info("routeBatchMillis is {}", routeBatchMillis);
+        }
+
         String strPdPushEnabled = Tools.get(properties, PD_PUSH_ENABLED);
         if (strPdPushEnabled != null) {
             boolean oldValue = pdPushEnabled;
@@ -488,9 +524,6 @@ public class FpmManager implements FpmInfoService {
             }
         }
 
-        List<Route> updates = new LinkedList<>();
-        List<Route> withdraws = new LinkedList<>();
-
         Route route;
         switch (netlink.type()) {
         case RTM_NEWROUTE:
@@ -505,9 +538,8 @@ public class FpmManager implements FpmInfoService {
 
             if (oldRoute != null) {
                 log.trace("Swapping {} with {}", oldRoute, route);
-                withdraws.add(oldRoute);
             }
-            updates.add(route);
+            queueRouteChange(peer, prefix, oldRoute, route);
             break;
         case RTM_DELROUTE:
             Route existing = fpmRoutes.get(peer).remove(prefix);
@@ -516,16 +548,39 @@ public class FpmManager implements FpmInfoService {
                 return;
             }
 
-            route = new Route(Route.Source.FPM, prefix, existing.nextHop(), clusterService.getLocalNode().id());
-
-            withdraws.add(route);
+            queueRouteChange(peer, prefix, existing, null);
             break;
         case RTM_GETROUTE:
         default:
             break;
         }
+    }
 
-        updateRouteStore(updates, withdraws);
+    /*
+     * Route changes are applied to the route store in bulk, by the route
+     * executor, once routeBatchSize prefixes of a peer have pending changes
+     * or routeBatchMillis after the first pending change; a full table
+     * dump from a peer thus turns into a few large route store updates.
+     */
+    private void queueRouteChange(FpmPeer peer, IpPrefix prefix, Route oldRoute, Route newRoute) {
+        FpmRouteAccumulator accumulator = pendingRoutes.computeIfAbsent(peer, p -> new FpmRouteAccumulator());
+        int pending = accumulator.add(prefix, oldRoute, newRoute);
+        try {
+            if (pending == 1) {
+                routeExecutor.schedule(() -> flushRoutes(accumulator), routeBatchMillis, TimeUnit.MILLISECONDS);
+            } else if (pending == routeBatchSize) {
+                routeExecutor.execute(() -> flushRoutes(accumulator));
+            }
+        } catch (RejectedExecutionException e) {
+            log.debug("Dropping FPM route change for {}; route executor is shut down", prefix);
+        }
+    }
+
+    private void flushRoutes(FpmRouteAccumulator accumulator) {
+        int routes = accumulator.flush(this::updateRouteStore);
+        if (routes > 0) {
+            log.debug("Applied {} FPM route changes to route store", routes);
+        }
     }
 
     private synchronized void updateRouteStore(Collection<Route> routesToAdd, Collection<Route> routesToRemove) {
@@ -535,6 +590,11 @@ public class FpmManager implements FpmInfoService {
 
     private void clearRoutes(FpmPeer peer) {
         log.info("Clearing all routes for peer {}", peer);
+        // apply pending changes first, so that no route is left behind
+        FpmRouteAccumulator accumulator = pendingRoutes.remove(peer);
+        if (accumulator != null) {
+            flushRoutes(accumulator);
+        }
         Map<IpPrefix, Route> routes = fpmRoutes.remove(peer);
         if (routes != null) {
             updateRouteStore(Lists.newArrayList(), routes.values());
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routing.fpm;
+
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.Route;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Accumulates the route changes received from an FPM peer, so that they
+ * can be applied to the route store in bulk.
+ * <p>
+ * Changes of the same prefix are collapsed: only the route the prefix had
+ * in the route store before the first pending change and its latest route
+ * are kept, so that a prefix added and deleted again before a flush never
+ * reaches the route store.
+ */
+final class FpmRouteAccumulator {
+
+    // guarded by this; in order of the first pending change of each prefix
+    private final Map<IpPrefix, Change> changes = new LinkedHashMap<>();
+
+    // serializes flushes, so that batches reach the route store in order
+    private final Object flushLock = new Object();
+
+    /**
+     * Records a route change.
+     *
+     * @param prefix   prefix of the route
+     * @param oldRoute route of the prefix before the change; null if none
+     * @param newRoute route of the prefix after the change; null if removed
+     * @return number of prefixes with pending changes
+     */
+    synchronized int add(IpPrefix prefix, Route oldRoute, Route newRoute) {
+        Change change = changes.get(prefix);
+        if (change == null) {
+            changes.put(prefix, new Change(oldRoute, newRoute));
+        } else {
+            change.latest = newRoute;
+        }
+        return changes.size();
+    }
+
+    /**
+     * Returns the number of prefixes with pending changes.
+     *
+     * @return number of prefixes
+     */
+    synchronized int size() {
+        return changes.size();
+    }
+
+    /**
+     * Hands all pending changes to the given route store writer as a
+     * collection of routes to add and a collection of routes to withdraw.
+     * Flushes are serialized, so that a flush returns only once the changes
+     * of earlier flushes have been written as well.
+     *
+     * @param writer route store writer, given routes to add and to withdraw
+     * @return number of routes added or withdrawn
+     */
+    int flush(BiConsumer<Collection<Route>, Collection<Route>> writer) {
+        synchronized (flushLock) {
+            List<Route> updates;
+            List<Route> withdraws;
+            synchronized (this) {
+                if (changes.isEmpty()) {
+                    return 0;
+                }
+                updates = new ArrayList<>(changes.size());
+                withdraws = new ArrayList<>();
+                changes.values().forEach(change -> {
+                    if (change.committed != null && !change.committed.equals(change.latest)) {
+                        withdraws.add(change.committed);
+                    }
+                    if (change.latest != null && !change.latest.equals(change.committed)) {
+                        updates.add(change.latest);
+                    }
+                });
+                changes.clear();
+            }
+            if (!updates.isEmpty() || !withdraws.isEmpty()) {
+                writer.accept(updates, withdraws);
+            }
+            return updates.size() + withdraws.size();
+        }
+    }
+
+    private static final class Change {
+        private final Route committed;
+        private Route latest;
+
+        private Change(Route committed, Route latest) {
+            this.committed = committed;
+            this.latest = latest;
+        }
+    }
+}
@@ -34,4 +34,10 @@ public final class OsgiPropertyConstants {
 
     public static final String PD_PUSH_NEXT_HOP_IPV6 = "pdPushNextHopIPv6";
     public static final String PD_PUSH_NEXT_HOP_IPV6_DEFAULT = "";
+
+    public static final String ROUTE_BATCH_SIZE = "routeBatchSize";
+    public static final int ROUTE_BATCH_SIZE_DEFAULT = 10000;
+
+    public static final String ROUTE_BATCH_MILLIS = "routeBatchMillis";
+    public static final int ROUTE_BATCH_MILLIS_DEFAULT = 50;
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routing.fpm;
+
+import com.google.common.collect.ImmutableSet;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.Route;
+import org.onosproject.routing.fpm.protocol.FpmHeader;
+import org.onosproject.routing.fpm.protocol.Netlink;
+import org.onosproject.routing.fpm.protocol.NetlinkMessageType;
+import org.onosproject.routing.fpm.protocol.RouteAttribute;
+import org.onosproject.routing.fpm.protocol.RouteAttributeDst;
+import org.onosproject.routing.fpm.protocol.RouteAttributeGateway;
+import org.onosproject.routing.fpm.protocol.RtNetlink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link FpmRouteAccumulator}.
+ */
+public class FpmRouteAccumulatorTest {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final IpPrefix PREFIX1 = IpPrefix.valueOf("10.0.1.0/24");
+    private static final IpPrefix PREFIX2 = IpPrefix.valueOf("10.0.2.0/24");
+    private static final IpAddress NH1 = IpAddress.valueOf("192.168.1.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("192.168.1.2");
+
+    private static final int ROUTES = 5_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private FpmRouteAccumulator accumulator;
+    private List<Collection<Route>> updates;
+    private List<Collection<Route>> withdraws;
+
+    @Before
+    public void setUp() {
+        accumulator = new FpmRouteAccumulator();
+        updates = new ArrayList<>();
+        withdraws = new ArrayList<>();
+    }
+
+    private void write(Collection<Route> toAdd, Collection<Route> toRemove) {
+        updates.add(toAdd);
+        withdraws.add(toRemove);
+    }
+
+    private static Route route(IpPrefix prefix, IpAddress nextHop) {
+        return new Route(Route.Source.FPM, prefix, nextHop);
+    }
+
+    @Test
+    public void testBatch() {
+        accumulator.add(PREFIX1, null, route(PREFIX1, NH1));
+        assertEquals(2, accumulator.add(PREFIX2, null, route(PREFIX2, NH1)));
+
+        assertEquals(2, accumulator.flush(this::write));
+        assertEquals(1, updates.size());
+        assertEquals(ImmutableSet.of(route(PREFIX1, NH1), route(PREFIX2, NH1)),
+                     ImmutableSet.copyOf(updates.get(0)));
+        assertTrue(withdraws.get(0).isEmpty());
+
+        assertEquals(0, accumulator.size());
+        assertEquals(0, accumulator.flush(this::write));
+        assertEquals("Empty flush is not written", 1, updates.size());
+    }
+
+    @Test
+    public void testCollapse() {
+        Route stored = route(PREFIX1, NH1);
+
+        // replaced twice before a flush; only the stored route is withdrawn
+        accumulator.add(PREFIX1, stored, route(PREFIX1, NH2));
+        assertEquals(1, accumulator.add(PREFIX1, route(PREFIX1, NH2), route(PREFIX1, NH1)));
+        // added and deleted before a flush
+        accumulator.add(PREFIX2, null, route(PREFIX2, NH1));
+        accumulator.add(PREFIX2, route(PREFIX2, NH1), null);
+
+        assertEquals(0, accumulator.flush(this::write));
+        assertTrue("Nothing changed", updates.isEmpty());
+
+        accumulator.add(PREFIX1, stored, route(PREFIX1, NH2));
+        accumulator.add(PREFIX1, route(PREFIX1, NH2), null);
+        accumulator.add(PREFIX1, null, route(PREFIX1, NH2));
+        assertEquals(2, accumulator.flush(this::write));
+        assertEquals(ImmutableSet.of(route(PREFIX1, NH2)), ImmutableSet.copyOf(updates.get(0)));
+        assertEquals(ImmutableSet.of(stored), ImmutableSet.copyOf(withdraws.get(0)));
+    }
+
+    private static byte[] frame(NetlinkMessageType type, IpPrefix prefix, IpAddress gateway) {
+        int raLength = Ip4Address.BYTE_LENGTH + RouteAttribute.ROUTE_ATTRIBUTE_HEADER_LENGTH;
+        RouteAttributeDst raDst = RouteAttributeDst.builder()
+                .length(raLength)
+                .type(RouteAttribute.RTA_DST)
+                .dstAddress(prefix.address())
+                .build();
+        RouteAttributeGateway raGateway = RouteAttributeGateway.builder()
+                .length(raLength)
+                .type(RouteAttribute.RTA_GATEWAY)
+                .gateway(gateway)
+                .build();
+        RtNetlink rtNetlink = RtNetlink.builder()
+                .addressFamily(RtNetlink.RT_ADDRESS_FAMILY_INET)
+                .dstLength(prefix.prefixLength())
+                .routeAttribute(raDst)
+                .routeAttribute(raGateway)
+                .build();
+        int messageLength = raDst.length() + raGateway.length() +
+                RtNetlink.RT_NETLINK_LENGTH + Netlink.NETLINK_HEADER_LENGTH;
+        Netlink netlink = Netlink.builder()
+                .length(messageLength)
+                .type(type)
+                .flags(Netlink.NETLINK_REQUEST | Netlink.NETLINK_CREATE)
+                .rtNetlink(rtNetlink)
+                .build();
+        FpmHeader header = FpmHeader.builder()
+                .version(FpmHeader.FPM_VERSION_1)
+                .type(FpmHeader.FPM_TYPE_NETLINK)
+                .length(messageLength + FpmHeader.FPM_HEADER_LENGTH)
+                .netlink(netlink)
+                .build();
+
+        ChannelBuffer cb = header.encode();
+        byte[] bytes = new byte[cb.readableBytes()];
+        cb.readBytes(bytes);
+        return bytes;
+    }
+
+    // Byte stream of a full table dump, followed by some churn
+    private static byte[] tableDump() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < ROUTES; i++) {
+            IpPrefix prefix = IpPrefix.valueOf(IpAddress.valueOf(0x0B000000 + (i << 8)), 24);
+            byte[] bytes = frame(NetlinkMessageType.RTM_NEWROUTE, prefix, NH1);
+            stream.write(bytes, 0, bytes.length);
+            if (i % 10 == 0) {
+                bytes = frame(NetlinkMessageType.RTM_DELROUTE, prefix, NH1);
+                stream.write(bytes, 0, bytes.length);
+                bytes = frame(NetlinkMessageType.RTM_NEWROUTE, prefix, NH2);
+                stream.write(bytes, 0, bytes.length);
+            }
+        }
+        return stream.toByteArray();
+    }
+
+    @Test
+    public void testReplayThroughput() throws DeserializationException {
+        byte[] dump = tableDump();
+        Map<IpPrefix, Route> routes = new HashMap<>();
+        int written = 0;
+
+        long start = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.wrap(dump);
+        int messages = 0;
+        while (buffer.hasRemaining()) {
+            int length = buffer.getShort(buffer.position() + 2);
+            FpmHeader message = FpmHeader.decode(dump, buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            messages++;
+
+            IpAddress dst = null;
+            IpAddress gateway = null;
+            for (RouteAttribute attribute : message.netlink().rtNetlink().attributes()) {
+                if (attribute.type() == RouteAttribute.RTA_DST) {
+                    dst = ((RouteAttributeDst) attribute).dstAddress();
+                } else if (attribute.type() == RouteAttribute.RTA_GATEWAY) {
+                    gateway = ((RouteAttributeGateway) attribute).gateway();
+                }
+            }
+            IpPrefix prefix = IpPrefix.valueOf(dst, message.netlink().rtNetlink().dstLength());
+
+            int pending;
+            if (message.netlink().type() == NetlinkMessageType.RTM_NEWROUTE) {
+                Route route = route(prefix, gateway);
+                pending = accumulator.add(prefix, routes.put(prefix, route), route);
+            } else {
+                pending = accumulator.add(prefix, routes.remove(prefix), null);
+            }
+            if (pending == BATCH_SIZE) {
+                written += accumulator.flush(this::write);
+            }
+        }
+        written += accumulator.flush(this::write);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+
+        log.info("Replayed {} FPM messages at {} routes/sec in {} route store updates",
+                 messages, ROUTES * TimeUnit.SECONDS.toNanos(1) / elapsed, updates.size());
+
+        assertEquals(ROUTES, written);
+        assertEquals(ROUTES / BATCH_SIZE, updates.size());
+        assertEquals(ROUTES, updates.stream().mapToInt(Collection::size).sum());
+    }
+}
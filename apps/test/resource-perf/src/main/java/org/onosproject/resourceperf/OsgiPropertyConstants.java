@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.resourceperf;
+
+/**
+ * Name/Value constants for properties.
+ */
+public final class OsgiPropertyConstants {
+    private OsgiPropertyConstants() {
+    }
+
+    public static final String RESOURCES_PER_ALLOCATION = "resourcesPerAllocation";
+    public static final int RESOURCES_PER_ALLOCATION_DEFAULT = 1;
+
+    public static final String NUM_WORKERS = "numWorkers";
+    public static final int NUM_WORKERS_DEFAULT = 4;
+
+    public static final String REPORT_INTERVAL_SECONDS = "reportIntervalSeconds";
+    public static final int REPORT_INTERVAL_SECONDS_DEFAULT = 1;
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.resourceperf;
+
+import org.onlab.packet.VlanId;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.cluster.ClusterService;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceAdminService;
+import org.onosproject.net.resource.ResourceAllocation;
+import org.onosproject.net.resource.ResourceConsumer;
+import org.onosproject.net.resource.ResourceConsumerId;
+import org.onosproject.net.resource.ResourceService;
+import org.onosproject.net.resource.Resources;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.onlab.util.Tools.getIntegerProperty;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.NUM_WORKERS;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.NUM_WORKERS_DEFAULT;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.REPORT_INTERVAL_SECONDS;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.REPORT_INTERVAL_SECONDS_DEFAULT;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.RESOURCES_PER_ALLOCATION;
+import static org.onosproject.resourceperf.OsgiPropertyConstants.RESOURCES_PER_ALLOCATION_DEFAULT;
+import static org.osgi.service.component.annotations.ReferenceCardinality.MANDATORY;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Application for measuring resource allocation performance.
+ * <p>
+ * Each node registers VLAN IDs on a port of its own fake device, then
+ * repeatedly allocates and releases random VLAN IDs from several workers.
+ * Allocations and releases return once recorded in the consistent store, so
+ * only committed allocation and release pairs are counted as succeeded.
+ */
+@Component(
+    immediate = true,
+    service = ResourcePerfApp.class,
+    property = {
+        RESOURCES_PER_ALLOCATION + ":Integer=" + RESOURCES_PER_ALLOCATION_DEFAULT,
+        NUM_WORKERS + ":Integer=" + NUM_WORKERS_DEFAULT,
+        REPORT_INTERVAL_SECONDS + ":Integer=" + REPORT_INTERVAL_SECONDS_DEFAULT
+    }
+)
+public class ResourcePerfApp {
+    private final Logger log = getLogger(getClass());
+
+    @Reference(cardinality = MANDATORY)
+    protected ResourceService resourceService;
+
+    @Reference(cardinality = MANDATORY)
+    protected ResourceAdminService resourceAdminService;
+
+    @Reference(cardinality = MANDATORY)
+    protected ClusterService clusterService;
+
+    @Reference(cardinality = MANDATORY)
+    protected ComponentConfigService configService;
+
+    private static final String DEVICE_PREFIX = "resource-perf:";
+    private static final PortNumber PORT = PortNumber.portNumber(1);
+
+    /** Number of VLAN IDs to allocate at once. */
+    protected int resourcesPerAllocation = RESOURCES_PER_ALLOCATION_DEFAULT;
+
+    /** Number of workers allocating concurrently. */
+    protected int numWorkers = NUM_WORKERS_DEFAULT;
+
+    /** The frequency with which to report performance in seconds. */
+    protected int reportIntervalSeconds = REPORT_INTERVAL_SECONDS_DEFAULT;
+
+    private ExecutorService testRunner;
+    private ScheduledExecutorService reporter;
+    private volatile boolean running;
+
+    private DiscreteResource port;
+
+    private final AtomicInteger attempted = new AtomicInteger(0);
+    private final AtomicInteger succeeded = new AtomicInteger(0);
+
+    @Activate
+    public void activate(ComponentContext context) {
+        configService.registerProperties(getClass());
+        readComponentConfiguration(context);
+        registerResources();
+        startTest();
+        logConfig("Started");
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        readComponentConfiguration(context);
+        stopTest();
+        startTest();
+        logConfig("Restarted");
+    }
+
+    @Deactivate
+    public void deactivate(ComponentContext context) {
+        configService.unregisterProperties(getClass(), false);
+        stopTest();
+        log.info("Stopped");
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        resourcesPerAllocation = getIntegerProperty(properties, RESOURCES_PER_ALLOCATION,
+                                                    RESOURCES_PER_ALLOCATION_DEFAULT);
+        numWorkers = getIntegerProperty(properties, NUM_WORKERS, NUM_WORKERS_DEFAULT);
+        reportIntervalSeconds = getIntegerProperty(properties, REPORT_INTERVAL_SECONDS,
+                                                   REPORT_INTERVAL_SECONDS_DEFAULT);
+    }
+
+    private void logConfig(String prefix) {
+        log.info("{} with resourcesPerAllocation = {}; numWorkers = {}; reportIntervalSeconds = {}",
+                 prefix, resourcesPerAllocation, numWorkers, reportIntervalSeconds);
+    }
+
+    /**
+     * Registers the VLAN IDs of the port used by the local node. Parents are
+     * registered before their children.
+     */
+    private void registerResources() {
+        DeviceId deviceId = DeviceId.deviceId(DEVICE_PREFIX + clusterService.getLocalNode().id());
+        port = Resources.discrete(deviceId, PORT).resource();
+        List<Resource> vlans = new ArrayList<>();
+        for (short vlan = VlanId.NO_VID + 1; vlan < VlanId.MAX_VLAN; vlan++) {
+            vlans.add(port.child(VlanId.vlanId(vlan)));
+        }
+        if (!resourceAdminService.register(Resources.discrete(deviceId).resource())
+                || !resourceAdminService.register(port)
+                || !resourceAdminService.register(vlans)) {
+            log.warn("Failed to register resources of {}", deviceId);
+        }
+    }
+
+    /**
+     * Starts the test.
+     */
+    private void startTest() {
+        running = true;
+        testRunner = Executors.newFixedThreadPool(numWorkers,
+                groupedThreads("app/resource-perf-test-runner", "worker-%d", log));
+        reporter = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/resource-perf-test", "reporter", log));
+        for (int i = 0; i < numWorkers; i++) {
+            testRunner.execute(new Worker(i));
+        }
+        reporter.scheduleWithFixedDelay(this::reportPerformance,
+                reportIntervalSeconds,
+                reportIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reports allocation performance.
+     */
+    private void reportPerformance() {
+        log.info("Attempted: {} Succeeded: {}", attempted.getAndSet(0), succeeded.getAndSet(0));
+    }
+
+    /**
+     * Stops a test.
+     */
+    private void stopTest() {
+        running = false;
+        testRunner.shutdownNow();
+        reporter.shutdownNow();
+    }
+
+    /**
+     * Consumer allocating and releasing random VLAN IDs until the test stops.
+     */
+    private final class Worker implements Runnable, ResourceConsumer {
+        private final ResourceConsumerId consumerId;
+
+        private Worker(int index) {
+            this.consumerId = ResourceConsumerId.of(index, Worker.class);
+        }
+
+        @Override
+        public ResourceConsumerId consumerId() {
+            return consumerId;
+        }
+
+        @Override
+        public void run() {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                List<Resource> resources = new ArrayList<>(resourcesPerAllocation);
+                for (int i = 0; i < resourcesPerAllocation; i++) {
+                    short vlan = (short) ThreadLocalRandom.current().nextInt(1, VlanId.MAX_VLAN);
+                    resources.add(port.child(VlanId.vlanId(vlan)));
+                }
+                try {
+                    attempted.incrementAndGet();
+                    List<ResourceAllocation> allocations = resourceService.allocate(this, resources);
+                    if (!allocations.isEmpty() && resourceService.release(allocations)) {
+                        succeeded.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    log.warn("An exception occurred during an allocation", e);
+                }
+            }
+        }
+    }
+}
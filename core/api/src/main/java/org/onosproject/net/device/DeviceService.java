@@ -144,6 +144,22 @@ public interface DeviceService
         return null;
     }
 
+    /**
+     * Returns the port specific port delta statistics over the given number
+     * of most recent polls, or as many as are retained. Dividing the counters
+     * by the returned duration yields the average rate over that interval.
+     * Implementations retaining no history return the delta between the last
+     * two polls.
+     *
+     * @param deviceId device identifier
+     * @param portNumber port identifier
+     * @param samples number of polls to look back; at least 1
+     * @return port delta statistics of specified port
+     */
+    default PortStatistics getDeltaStatisticsForPort(DeviceId deviceId, PortNumber portNumber, int samples) {
+        return getDeltaStatisticsForPort(deviceId, portNumber);
+    }
+
     /**
      * Returns the port with the specified number and hosted by the given device.
      *
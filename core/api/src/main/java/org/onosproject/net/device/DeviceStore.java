@@ -188,6 +188,20 @@ public interface DeviceStore extends Store<DeviceEvent, DeviceStoreDelegate> {
         return null;
     }
 
+    /**
+     * Returns the port delta statistics of the specified device and port over
+     * the given number of most recent polls, or as many as are retained.
+     * Stores retaining no history return the delta between the last two polls.
+     *
+     * @param deviceId device identifier
+     * @param portNumber port identifier
+     * @param samples number of polls to look back; at least 1
+     * @return port statistics of specific port of the device
+     */
+    default PortStatistics getDeltaStatisticsForPort(DeviceId deviceId, PortNumber portNumber, int samples) {
+        return getDeltaStatisticsForPort(deviceId, portNumber);
+    }
+
     /**
      * Returns the specified device port.
      *
@@ -141,16 +141,20 @@ public class ClusterMessage {
      */
     public static ClusterMessage fromBytes(byte[] bytes) {
         ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        byte[] senderBytes = new byte[buffer.getInt()];
-        buffer.get(senderBytes);
-        byte[] subjectBytes = new byte[buffer.getInt()];
-        buffer.get(subjectBytes);
+        String sender = readString(bytes, buffer);
+        String subject = readString(bytes, buffer);
         byte[] payloadBytes = new byte[buffer.getInt()];
         buffer.get(payloadBytes);
 
-        return new ClusterMessage(new NodeId(new String(senderBytes, Charsets.UTF_8)),
-                new MessageSubject(new String(subjectBytes, Charsets.UTF_8)),
-                payloadBytes);
+        return new ClusterMessage(new NodeId(sender), new MessageSubject(subject), payloadBytes);
+    }
+
+    // Decodes a length-prefixed string straight from the backing array
+    private static String readString(byte[] bytes, ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(bytes, buffer.position(), length, Charsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
     }
 
     @Override
@@ -110,6 +110,9 @@ public final class OsgiPropertyConstants {
     public static final String NON_DISRUPTIVE_INSTALLATION_WAITING_TIME = "nonDisruptiveInstallationWaitingTime";
     public static final int NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT = 1;
 
+    public static final String SHARE_IDENTICAL_FLOW_RULES = "shareIdenticalFlowRules";
+    public static final boolean SHARE_IDENTICAL_FLOW_RULES_DEFAULT = false;
+
     public static final String IM_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL = "skipReleaseResourcesOnWithdrawal";
     public static final boolean IM_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL_DEFAULT = false;
 
@@ -161,4 +164,7 @@ public final class OsgiPropertyConstants {
     public static final String FOM_ACCUMULATOR_MAX_BATCH_MILLIS = "accumulatorMaxBatchMillis";
     public static final int FOM_ACCUMULATOR_MAX_BATCH_MILLIS_DEFAULT = 500;
 
+    public static final String FOM_COALESCE_FLOW_RULES = "coalesceFlowRules";
+    public static final boolean FOM_COALESCE_FLOW_RULES_DEFAULT = false;
+
 }
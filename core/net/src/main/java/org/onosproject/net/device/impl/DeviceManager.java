@@ -15,15 +15,21 @@
  */
 package org.onosproject.net.device.impl;
 
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.PredictableExecutor;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
@@ -88,16 +94,20 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Multimaps.newListMultimap;
 import static com.google.common.collect.Multimaps.synchronizedListMultimap;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.MastershipRole.MASTER;
 import static org.onosproject.net.MastershipRole.NONE;
@@ -114,7 +124,8 @@ import static org.slf4j.LoggerFactory.getLogger;
                       DeviceProviderRegistry.class, PortConfigOperatorRegistry.class })
 public class DeviceManager
         extends AbstractListenerProviderRegistry<DeviceEvent, DeviceListener, DeviceProvider, DeviceProviderService>
-        implements DeviceService, DeviceAdminService, DeviceProviderRegistry, PortConfigOperatorRegistry {
+        implements DeviceService, DeviceAdminService, DeviceProviderRegistry, PortConfigOperatorRegistry,
+        MetricsHelper {
 
     private static final String DEVICE_ID_NULL = "Device ID cannot be null";
     private static final String PORT_NUMBER_NULL = "Port number cannot be null";
@@ -123,6 +134,8 @@ public class DeviceManager
     private static final String PORT_DESC_LIST_NULL = "Port description list cannot be null";
     private static final String EVENT_NON_MASTER = "Non-master node cannot handle this event";
 
+    private static final int DEVICE_THREADS = 8;
+
     private final Logger log = getLogger(getClass());
 
     private final DeviceStoreDelegate delegate = new InternalStoreDelegate();
@@ -131,6 +144,13 @@ public class DeviceManager
     private NodeId localNodeId;
 
     private ScheduledExecutorService backgroundService;
+    // mastership events and checks of a device run in order on the same thread
+    private PredictableExecutor deviceExecutor;
+
+    // devices whose mastership check is queued but not started yet
+    private final Set<DeviceId> pendingMastershipChecks = Sets.newConcurrentHashSet();
+    private Timer mastershipCheckTimer;
+    private Timer mastershipSweepTimer;
 
     private final NetworkConfigListener networkConfigListener = new InternalNetworkConfigListener();
 
@@ -155,6 +175,9 @@ public class DeviceManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ClusterCommunicationService communicationService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     private ExecutorService portReqeustExecutor;
     /**
      * List of all registered PortConfigOperator.
@@ -206,6 +229,10 @@ public class DeviceManager
 
         backgroundService = newSingleThreadScheduledExecutor(
                 groupedThreads("onos/device", "manager-background", log));
+        deviceExecutor = new PredictableExecutor(DEVICE_THREADS,
+                groupedThreads("onos/device", "mastership-%d", log));
+        mastershipCheckTimer = createTimer("Device", "mastershipCheck", "deviceTime");
+        mastershipSweepTimer = createTimer("Device", "mastershipCheck", "sweepTime");
         localNodeId = clusterService.getLocalNode().id();
 
         store.setDelegate(delegate);
@@ -238,12 +265,18 @@ public class DeviceManager
         networkConfigService.removeListener(networkConfigListener);
         store.unsetDelegate(delegate);
         mastershipService.removeListener(mastershipListener);
+        deviceExecutor.shutdownNow();
         eventDispatcher.removeSink(DeviceEvent.class);
         communicationService.removeSubscriber(PORT_UPDOWN_SUBJECT);
         portReqeustExecutor.shutdown();
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     public int getDeviceCount() {
         checkPermission(DEVICE_READ);
@@ -319,6 +352,15 @@ public class DeviceManager
         return store.getDeltaStatisticsForPort(deviceId, portNumber);
     }
 
+    @Override
+    public PortStatistics getDeltaStatisticsForPort(DeviceId deviceId, PortNumber portNumber, int samples) {
+        checkPermission(DEVICE_READ);
+        checkNotNull(deviceId, DEVICE_ID_NULL);
+        checkNotNull(portNumber, PORT_NUMBER_NULL);
+        checkArgument(samples >= 1, "Samples must be at least 1");
+        return store.getDeltaStatisticsForPort(deviceId, portNumber, samples);
+    }
+
     @Override
     public Port getPort(DeviceId deviceId, PortNumber portNumber) {
         checkPermission(DEVICE_READ);
@@ -470,66 +512,124 @@ public class DeviceManager
 
     /**
      * Checks if all the reachable devices have a valid mastership role.
+     * Devices going offline are also checked as soon as the store reports
+     * it; this periodic sweep covers all the other cases.
      */
     private void mastershipCheck() {
         log.debug("Checking mastership");
+        final Context timer = startTimer(mastershipSweepTimer);
+        List<CompletableFuture<Void>> checks = Lists.newArrayList();
         for (Device device : getDevices()) {
-            final DeviceId deviceId = device.id();
-            MastershipRole myRole = mastershipService.getLocalRole(deviceId);
-            log.trace("Checking device {}. Current role is {}", deviceId, myRole);
-            if (!isReachable(deviceId)) {
-                if (myRole != NONE) {
-                    // can't be master if device is not reachable
-                    try {
-                        if (myRole == MASTER) {
-                            log.info("Local Role {}, Marking unreachable device {} offline", MASTER, deviceId);
-                            post(store.markOffline(deviceId));
-                        }
-                        //relinquish master role and ability to be backup.
-                        mastershipService.relinquishMastership(deviceId).get();
-                    } catch (InterruptedException e) {
-                        log.warn("Interrupted while relinquishing role for {}", deviceId);
-                        Thread.currentThread().interrupt();
-                    } catch (ExecutionException e) {
-                        log.error("Exception thrown while relinquishing role for {}", deviceId, e);
+            checks.add(scheduleMastershipCheck(device.id()));
+        }
+        Tools.allOf(checks).whenComplete((result, error) -> {
+            stopTimer(timer);
+            log.debug("Checked mastership of {} devices", checks.size());
+        });
+    }
+
+    /**
+     * Queues a check of the mastership role of the given device, unless one
+     * is queued already. The check runs on the thread of the device, in
+     * order with its mastership events; checks of different devices run in
+     * parallel.
+     *
+     * @param deviceId device identifier
+     * @return future completed when the check is done
+     */
+    private CompletableFuture<Void> scheduleMastershipCheck(DeviceId deviceId) {
+        if (!pendingMastershipChecks.add(deviceId)) {
+            // the queued check will see the latest state of the device
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            deviceExecutor.execute(() -> {
+                pendingMastershipChecks.remove(deviceId);
+                final Context timer = startTimer(mastershipCheckTimer);
+                CompletableFuture<Void> check;
+                try {
+                    check = mastershipCheck(deviceId);
+                } catch (Exception e) {
+                    check = Tools.exceptionalFuture(e);
+                }
+                check.whenComplete((result, error) -> {
+                    stopTimer(timer);
+                    if (error != null) {
+                        log.error("Exception thrown during mastership check of {}", deviceId, error);
                     }
-                } else {
-                    // check if the device has master and is available to the store, if not, mark it offline
-                    // only the nodes which has mastership role can mark any device offline.
-                    // This condition should never be hit unless in a device removed phase for NONE mastership roles.
-                    NodeId master = mastershipService.getMasterFor(deviceId);
-                    if (master == null && isAvailable(deviceId)) {
-                        CompletableFuture<MastershipRole> roleFuture = mastershipService.requestRoleFor(deviceId);
-                        roleFuture.thenAccept(role -> {
-                            MastershipTerm term = termService.getMastershipTerm(deviceId);
-                            if (term != null && localNodeId.equals(term.master())) {
-                                log.info("Marking unreachable device {} offline", deviceId);
-                                post(store.markOffline(deviceId));
-                            } else {
-                                log.info("Failed marking {} offline. {}", deviceId, role);
-                            }
-                            mastershipService.relinquishMastership(deviceId);
-                        });
+                    done.complete(null);
+                });
+            }, deviceId.hashCode());
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            pendingMastershipChecks.remove(deviceId);
+            done.complete(null);
+        }
+        return done;
+    }
+
+    /**
+     * Checks if the given device, when reachable, has a valid mastership role.
+     *
+     * @param deviceId device identifier
+     * @return future completed when the mastership role is settled
+     */
+    private CompletableFuture<Void> mastershipCheck(DeviceId deviceId) {
+        Device device = getDevice(deviceId);
+        if (device == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        MastershipRole myRole = mastershipService.getLocalRole(deviceId);
+        log.trace("Checking device {}. Current role is {}", deviceId, myRole);
+        if (!isReachable(deviceId)) {
+            if (myRole != NONE) {
+                // can't be master if device is not reachable
+                if (myRole == MASTER) {
+                    log.info("Local Role {}, Marking unreachable device {} offline", MASTER, deviceId);
+                    post(store.markOffline(deviceId));
+                }
+                //relinquish master role and ability to be backup.
+                return mastershipService.relinquishMastership(deviceId).whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Exception thrown while relinquishing role for {}", deviceId, error);
                     }
+                });
+            } else {
+                // check if the device has master and is available to the store, if not, mark it offline
+                // only the nodes which has mastership role can mark any device offline.
+                // This condition should never be hit unless in a device removed phase for NONE mastership roles.
+                NodeId master = mastershipService.getMasterFor(deviceId);
+                if (master == null && isAvailable(deviceId)) {
+                    CompletableFuture<MastershipRole> roleFuture = mastershipService.requestRoleFor(deviceId);
+                    return roleFuture.thenAccept(role -> {
+                        MastershipTerm term = termService.getMastershipTerm(deviceId);
+                        if (term != null && localNodeId.equals(term.master())) {
+                            log.info("Marking unreachable device {} offline", deviceId);
+                            post(store.markOffline(deviceId));
+                        } else {
+                            log.info("Failed marking {} offline. {}", deviceId, role);
+                        }
+                        mastershipService.relinquishMastership(deviceId);
+                    });
                 }
-                continue;
-            }
-
-            // If this node is the master, ensure the device is marked online.
-            if (myRole == MASTER && canMarkOnline(device)) {
-                post(store.markOnline(deviceId));
             }
+            return CompletableFuture.completedFuture(null);
+        }
 
-            if (myRole != NONE) {
-                continue;
-            }
+        // If this node is the master, ensure the device is marked online.
+        if (myRole == MASTER && canMarkOnline(device)) {
+            post(store.markOnline(deviceId));
+        }
 
+        if (myRole == NONE) {
             log.info("{} is reachable but did not have a valid role, reasserting", deviceId);
 
             // isReachable but was not MASTER or STANDBY, get a role and apply
             // Note: NONE triggers request to MastershipService
             reassertRole(deviceId, NONE);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
     // Personalized device provider service issued to the supplied provider.
@@ -822,7 +922,7 @@ public class DeviceManager
                              deviceId, response, expected);
                     // roleManager got the device to comply, but doesn't agree with
                     // the store; use the store's view, then try to reassert.
-                    backgroundService.execute(() -> reassertRole(deviceId, expected));
+                    deviceExecutor.execute(() -> reassertRole(deviceId, expected), deviceId.hashCode());
                     return;
                 }
             } else {
@@ -1012,13 +1112,13 @@ public class DeviceManager
 
         @Override
         public void event(MastershipEvent event) {
-            backgroundService.execute(() -> {
+            deviceExecutor.execute(() -> {
                 try {
                     handleMastershipEvent(event);
                 } catch (Exception e) {
                     log.warn("Failed to handle {}", event, e);
                 }
-            });
+            }, event.subject().hashCode());
         }
     }
 
@@ -1027,7 +1127,11 @@ public class DeviceManager
         @Override
         public void notify(DeviceEvent event) {
             post(event);
-            if (event.type().equals(DeviceEvent.Type.DEVICE_REMOVED)) {
+            if (event.type().equals(DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED) &&
+                    !isAvailable(event.subject().id())) {
+                // let go of the roles of devices that went offline right away
+                scheduleMastershipCheck(event.subject().id());
+            } else if (event.type().equals(DeviceEvent.Type.DEVICE_REMOVED)) {
                 // When device is administratively removed, force disconnect.
                 DeviceId deviceId = event.subject().id();
                 deviceLocalStatus.remove(deviceId);
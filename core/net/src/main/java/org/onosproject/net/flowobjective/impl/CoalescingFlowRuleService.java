@@ -0,0 +1,390 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flowobjective.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onlab.util.AbstractAccumulator;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
+import org.onosproject.net.flow.FlowRuleService;
+import org.onosproject.net.flow.TableStatisticsEntry;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Timer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Flow rule service handed to the pipeliners, which coalesces the flow rule
+ * operations they apply for the same device within a short window into
+ * larger batches. The context of each original batch is still notified
+ * individually about the outcome of its own operations.
+ * <p>
+ * Only single-stage operations on a single device are coalesced; any other
+ * operations are applied on their own, as their stages must complete in
+ * order. Operations are applied one batch at a time per device, in the order
+ * they were issued: operations that are not coalesced wait for the operations
+ * accumulated so far on their devices, and the batches of a window wait for
+ * those of the previous one.
+ */
+class CoalescingFlowRuleService implements FlowRuleService {
+
+    private final FlowRuleService delegate;
+    private final Timer timer;
+    private final int maxOperations;
+    private final int maxBatchMillis;
+    private final int maxIdleMillis;
+
+    private final Map<DeviceId, OperationsAccumulator> accumulators = Maps.newConcurrentMap();
+
+    // guarded by this
+    private final Map<DeviceId, DeviceChain> chains = Maps.newHashMap();
+
+    /**
+     * Creates a coalescing flow rule service.
+     *
+     * @param delegate       flow rule service that applies the batches
+     * @param timer          timer used to trigger the batches
+     * @param maxOperations  maximum number of operations to accumulate per device
+     * @param maxBatchMillis maximum number of millis since the first operations
+     * @param maxIdleMillis  maximum number of millis between operations
+     */
+    CoalescingFlowRuleService(FlowRuleService delegate, Timer timer, int maxOperations,
+                              int maxBatchMillis, int maxIdleMillis) {
+        this.delegate = checkNotNull(delegate);
+        this.timer = checkNotNull(timer);
+        this.maxOperations = maxOperations;
+        this.maxBatchMillis = maxBatchMillis;
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    @Override
+    public void apply(FlowRuleOperations ops) {
+        Set<DeviceId> devices = devices(ops);
+        if (devices.isEmpty()) {
+            delegate.apply(ops);
+            return;
+        }
+        if (ops.stages().size() == 1 && devices.size() == 1) {
+            DeviceId deviceId = devices.iterator().next();
+            synchronized (this) {
+                chains.computeIfAbsent(deviceId, id -> new DeviceChain()).window.add(ops);
+            }
+            // added to the window first, so that a window end always follows
+            accumulators.computeIfAbsent(deviceId, OperationsAccumulator::new).add(ops);
+            return;
+        }
+        List<Unit> ready = Lists.newArrayList();
+        synchronized (this) {
+            // operations accumulated so far on these devices go first
+            devices.forEach(deviceId -> release(deviceId, ready));
+            enqueue(new Unit(devices, ImmutableList.of(ops)), ready);
+        }
+        ready.forEach(this::applyUnit);
+    }
+
+    @Override
+    public void applyFlowRules(FlowRule... flowRules) {
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        for (FlowRule flowRule : flowRules) {
+            builder.add(flowRule);
+        }
+        apply(builder.build());
+    }
+
+    @Override
+    public void removeFlowRules(FlowRule... flowRules) {
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        for (FlowRule flowRule : flowRules) {
+            builder.remove(flowRule);
+        }
+        apply(builder.build());
+    }
+
+    private static Set<DeviceId> devices(FlowRuleOperations ops) {
+        Set<DeviceId> devices = Sets.newHashSet();
+        ops.stages().forEach(stage -> stage.forEach(op -> devices.add(op.rule().deviceId())));
+        return devices;
+    }
+
+    /*
+     * Ends the window of the given device: its operations are split into
+     * batches with no flow rule in common, which are queued on the chain of
+     * the device.
+     */
+    private void release(DeviceId deviceId, List<Unit> ready) {
+        DeviceChain chain = chains.get(deviceId);
+        if (chain == null || chain.window.isEmpty()) {
+            return;
+        }
+        // Operations on the same flow rule are not merged, so that they
+        // are still applied in the order they were issued
+        List<FlowRuleOperations> batch = Lists.newArrayList();
+        Set<FlowId> flowIds = Sets.newHashSet();
+        for (FlowRuleOperations ops : chain.window) {
+            if (ops.stages().get(0).stream().anyMatch(op -> flowIds.contains(op.rule().id()))) {
+                enqueue(new Unit(ImmutableSet.of(deviceId), batch), ready);
+                batch = Lists.newArrayList();
+                flowIds.clear();
+            }
+            batch.add(ops);
+            ops.stages().get(0).forEach(op -> flowIds.add(op.rule().id()));
+        }
+        enqueue(new Unit(ImmutableSet.of(deviceId), batch), ready);
+        chain.window.clear();
+    }
+
+    // Queues the unit on the chains of its devices, and marks it as ready
+    // when no other unit is ahead of it on any of them
+    private void enqueue(Unit unit, List<Unit> ready) {
+        for (DeviceId deviceId : unit.devices) {
+            DeviceChain chain = chains.computeIfAbsent(deviceId, id -> new DeviceChain());
+            if (!chain.units.isEmpty()) {
+                unit.blocked++;
+            }
+            chain.units.add(unit);
+        }
+        if (unit.blocked == 0) {
+            ready.add(unit);
+        }
+    }
+
+    private void complete(Unit unit) {
+        List<Unit> ready = Lists.newArrayList();
+        synchronized (this) {
+            for (DeviceId deviceId : unit.devices) {
+                DeviceChain chain = chains.get(deviceId);
+                chain.units.remove(unit);
+                Unit next = chain.units.peek();
+                if (next != null) {
+                    if (--next.blocked == 0) {
+                        ready.add(next);
+                    }
+                } else if (chain.window.isEmpty()) {
+                    chains.remove(deviceId);
+                }
+            }
+        }
+        ready.forEach(this::applyUnit);
+    }
+
+    private void applyUnit(Unit unit) {
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        if (unit.batch.size() == 1) {
+            unit.batch.get(0).stages().forEach(stage -> {
+                stage.forEach(builder::operation);
+                builder.newStage();
+            });
+        } else {
+            unit.batch.forEach(ops -> ops.stages().get(0).forEach(builder::operation));
+        }
+        delegate.apply(builder.build(new ChainedContext(unit)));
+    }
+
+    /**
+     * Operations pending or in flight on a device, applied one unit at a
+     * time so that operations on the same flow rules keep their order.
+     */
+    private static final class DeviceChain {
+        // operations accumulated in the current window
+        private final List<FlowRuleOperations> window = Lists.newArrayList();
+        // units waiting to be applied; the head is in flight, or waiting
+        // for the chains of its other devices
+        private final Queue<Unit> units = new ArrayDeque<>();
+    }
+
+    /**
+     * Operations applied as one, either a batch of coalesced single-stage
+     * operations of a device or any other operations.
+     */
+    private static final class Unit {
+        private final Set<DeviceId> devices;
+        private final List<FlowRuleOperations> batch;
+        // number of chains where other units are ahead of this one
+        private int blocked;
+
+        private Unit(Set<DeviceId> devices, List<FlowRuleOperations> batch) {
+            this.devices = devices;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Accumulator ending the windows of the operations for a device. The
+     * operations themselves are kept in the chain of the device, so that
+     * they are ordered with respect to the operations that are not
+     * coalesced.
+     */
+    private final class OperationsAccumulator extends AbstractAccumulator<FlowRuleOperations> {
+
+        private final DeviceId deviceId;
+
+        private OperationsAccumulator(DeviceId deviceId) {
+            super(timer, maxOperations, maxBatchMillis, maxIdleMillis);
+            this.deviceId = deviceId;
+        }
+
+        @Override
+        public void processItems(List<FlowRuleOperations> items) {
+            List<Unit> ready = Lists.newArrayList();
+            synchronized (CoalescingFlowRuleService.this) {
+                release(deviceId, ready);
+            }
+            ready.forEach(CoalescingFlowRuleService.this::applyUnit);
+        }
+    }
+
+    /**
+     * Context of the operations of a unit, which notifies the contexts of
+     * the original operations and then lets the next units be applied.
+     */
+    private final class ChainedContext implements FlowRuleOperationsContext {
+
+        private final Unit unit;
+
+        private ChainedContext(Unit unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        public void onSuccess(FlowRuleOperations ops) {
+            try {
+                unit.batch.forEach(original -> original.callback().onSuccess(original));
+            } finally {
+                complete(unit);
+            }
+        }
+
+        @Override
+        public void onError(FlowRuleOperations failedOps) {
+            try {
+                if (unit.batch.size() == 1) {
+                    unit.batch.get(0).callback().onError(failedOps);
+                    return;
+                }
+                // coalesced operations have a single stage on a single device,
+                // hence this is the only notification for the whole batch
+                Set<FlowId> failed = Sets.newHashSet();
+                failedOps.stages().forEach(stage -> stage.forEach(op -> failed.add(op.rule().id())));
+                for (FlowRuleOperations original : unit.batch) {
+                    FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+                    boolean hasFailed = false;
+                    for (FlowRuleOperation op : original.stages().get(0)) {
+                        if (failed.contains(op.rule().id())) {
+                            builder.operation(op);
+                            hasFailed = true;
+                        }
+                    }
+                    if (hasFailed) {
+                        original.callback().onError(builder.build());
+                    } else {
+                        original.callback().onSuccess(original);
+                    }
+                }
+            } finally {
+                complete(unit);
+            }
+        }
+    }
+
+    @Override
+    public int getFlowRuleCount() {
+        return delegate.getFlowRuleCount();
+    }
+
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId) {
+        return delegate.getFlowRuleCount(deviceId);
+    }
+
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId, FlowEntry.FlowEntryState state) {
+        return delegate.getFlowRuleCount(deviceId, state);
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId) {
+        return delegate.getFlowEntries(deviceId);
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByLiveType(DeviceId deviceId,
+                                                        FlowEntry.FlowLiveType liveType) {
+        return delegate.getFlowEntriesByLiveType(deviceId, liveType);
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByState(DeviceId deviceId,
+                                                     FlowEntry.FlowEntryState flowState) {
+        return delegate.getFlowEntriesByState(deviceId, flowState);
+    }
+
+    @Override
+    public void purgeFlowRules(DeviceId deviceId) {
+        delegate.purgeFlowRules(deviceId);
+    }
+
+    @Override
+    public void removeFlowRulesById(ApplicationId appId) {
+        delegate.removeFlowRulesById(appId);
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesById(ApplicationId id) {
+        return delegate.getFlowEntriesById(id);
+    }
+
+    @Override
+    public Iterable<FlowRule> getFlowRulesByGroupId(ApplicationId appId, short groupId) {
+        return delegate.getFlowRulesByGroupId(appId, groupId);
+    }
+
+    @Override
+    public Iterable<TableStatisticsEntry> getFlowTableStatistics(DeviceId deviceId) {
+        return delegate.getFlowTableStatistics(deviceId);
+    }
+
+    @Override
+    @Deprecated
+    public long getActiveFlowRuleCount(DeviceId deviceId) {
+        return delegate.getActiveFlowRuleCount(deviceId);
+    }
+
+    @Override
+    public void addListener(FlowRuleListener listener) {
+        delegate.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(FlowRuleListener listener) {
+        delegate.removeListener(listener);
+    }
+}
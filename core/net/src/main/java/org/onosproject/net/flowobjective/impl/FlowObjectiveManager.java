@@ -24,6 +24,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.ItemNotFoundException;
+import org.onlab.util.SharedExecutors;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
@@ -84,6 +85,8 @@ import static org.onosproject.net.OsgiPropertyConstants.FOM_ACCUMULATOR_MAX_IDLE
 import static org.onosproject.net.OsgiPropertyConstants.FOM_ACCUMULATOR_MAX_IDLE_MILLIS_DEFAULT;
 import static org.onosproject.net.OsgiPropertyConstants.FOM_ACCUMULATOR_MAX_BATCH_MILLIS;
 import static org.onosproject.net.OsgiPropertyConstants.FOM_ACCUMULATOR_MAX_BATCH_MILLIS_DEFAULT;
+import static org.onosproject.net.OsgiPropertyConstants.FOM_COALESCE_FLOW_RULES;
+import static org.onosproject.net.OsgiPropertyConstants.FOM_COALESCE_FLOW_RULES_DEFAULT;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.FLOWRULE_WRITE;
 
@@ -98,6 +101,7 @@ import static org.onosproject.security.AppPermission.Type.FLOWRULE_WRITE;
             FOM_ACCUMULATOR_MAX_OBJECTIVES + ":Integer=" + FOM_ACCUMULATOR_MAX_OBJECTIVES_DEFAULT,
             FOM_ACCUMULATOR_MAX_IDLE_MILLIS + ":Integer=" + FOM_ACCUMULATOR_MAX_IDLE_MILLIS_DEFAULT,
             FOM_ACCUMULATOR_MAX_BATCH_MILLIS + ":Integer=" + FOM_ACCUMULATOR_MAX_BATCH_MILLIS_DEFAULT,
+            FOM_COALESCE_FLOW_RULES + ":Boolean=" + FOM_COALESCE_FLOW_RULES_DEFAULT,
     }
 )
 public class FlowObjectiveManager implements FlowObjectiveService {
@@ -125,6 +129,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     // Maximum number of millis allowed since the first objective before processing is triggered
     private int accumulatorMaxBatchMillis = FOM_ACCUMULATOR_MAX_BATCH_MILLIS_DEFAULT;
 
+    /** Coalesce the flow rule operations issued by the pipeliners for the same device. */
+    private boolean coalesceFlowRules = FOM_COALESCE_FLOW_RULES_DEFAULT;
+
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DriverService driverService;
@@ -138,7 +145,6 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     // Note: The following dependencies are added on behalf of the pipeline
     // driver behaviours to assure these services are available for their
     // initialization.
-    @SuppressWarnings("unused")
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected FlowRuleService flowRuleService;
 
@@ -162,6 +168,8 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     private final DriverListener driverListener = new InnerDriverListener();
 
     private ServiceDirectory serviceDirectory = new DefaultServiceDirectory();
+    private final ServiceDirectory coalescingServiceDirectory = new CoalescingServiceDirectory();
+    private CoalescingFlowRuleService coalescingFlowRuleService;
 
     // local stores for queuing fwd and next objectives that are waiting for an
     // associated next objective execution to complete. The signal for completed
@@ -274,6 +282,19 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                      accumulatorMaxBatchMillis);
         }
 
+        // Coalescing of the flow rule operations uses the accumulator parameters
+        // Note: it will affect only pipelines going through init method
+        Boolean flag = Tools.isPropertyEnabled(context.getProperties(), FOM_COALESCE_FLOW_RULES);
+        if (flag != null && flag != coalesceFlowRules) {
+            coalesceFlowRules = flag;
+            log.info("Reconfigured coalescing of flow rule operations to {}",
+                     coalesceFlowRules ? "enabled" : "disabled");
+        }
+        if (coalesceFlowRules) {
+            coalescingFlowRuleService = new CoalescingFlowRuleService(
+                    flowRuleService, SharedExecutors.getTimer(), Math.max(accumulatorMaxObjectives, 2),
+                    accumulatorMaxBatchMillis, accumulatorMaxIdleMillis);
+        }
     }
 
     /**
@@ -618,7 +639,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
         @Override
         public ServiceDirectory directory() {
-            return serviceDirectory;
+            return coalesceFlowRules ? coalescingServiceDirectory : serviceDirectory;
         }
 
         @Override
@@ -643,6 +664,18 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
     }
 
+    // Hands the coalescing flow rule service to the pipeliners
+    private class CoalescingServiceDirectory implements ServiceDirectory {
+
+        @Override
+        public <T> T get(Class<T> serviceClass) {
+            if (serviceClass == FlowRuleService.class) {
+                return serviceClass.cast(coalescingFlowRuleService);
+            }
+            return serviceDirectory.get(serviceClass);
+        }
+    }
+
     private class InternalStoreDelegate implements FlowObjectiveStoreDelegate {
         @Override
         public void notify(ObjectiveEvent event) {
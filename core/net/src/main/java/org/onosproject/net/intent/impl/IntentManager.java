@@ -45,6 +45,7 @@ import org.onosproject.net.intent.Key;
 import org.onosproject.net.intent.ObjectiveTrackerService;
 import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.intent.TopologyChangeDelegate;
+import org.onosproject.net.intent.impl.compiler.BatchPathCache;
 import org.onosproject.net.intent.impl.compiler.PointToPointIntentCompiler;
 import org.onosproject.net.intent.impl.phase.FinalIntentProcessPhase;
 import org.onosproject.net.intent.impl.phase.IntentProcessPhase;
@@ -525,41 +526,47 @@ public class IntentManager
 
             // batchExecutor is single-threaded, so only one batch is in flight at a time
             CompletableFuture.runAsync(() -> {
-                // process intent until the phase reaches one of the final phases
-                List<CompletableFuture<IntentData>> futures = operations.stream()
-                        .map(data -> {
-                            log.debug("Start processing of {} {}@{}", data.request(), data.key(), data.version());
-                            return data;
-                        })
-                        .map(x -> CompletableFuture.completedFuture(x)
-                                .thenApply(IntentManager.this::createInitialPhase)
-                                .thenApplyAsync(IntentProcessPhase::process, workerExecutor)
-                                .thenApply(FinalIntentProcessPhase::data)
-                                .exceptionally(e -> {
-                                    // When the future fails, we update the Intent to simulate the failure of
-                                    // the installation/withdrawal phase and we save in the current map. In
-                                    // the next round the CleanUp Thread will pick this Intent again.
-                                    log.warn("Future failed", e);
-                                    log.warn("Intent {} - state {} - request {}",
-                                             x.key(), x.state(), x.request());
-                                    switch (x.state()) {
-                                        case INSTALL_REQ:
-                                        case INSTALLING:
-                                        case WITHDRAW_REQ:
-                                        case WITHDRAWING:
-                                            // TODO should we swtich based on current
-                                            IntentData current = store.getIntentData(x.key());
-                                            return IntentData.nextState(current, FAILED);
-                                        default:
-                                            return null;
-                                    }
-                                }))
-                        .collect(Collectors.toList());
-
-                // write multiple data to store in order
-                store.batchWrite(Tools.allOf(futures).join().stream()
-                                         .filter(Objects::nonNull)
-                                         .collect(Collectors.toList()));
+                // intents of the batch between the same elements share path computations
+                BatchPathCache.open();
+                try {
+                    // process intent until the phase reaches one of the final phases
+                    List<CompletableFuture<IntentData>> futures = operations.stream()
+                            .map(data -> {
+                                log.debug("Start processing of {} {}@{}", data.request(), data.key(), data.version());
+                                return data;
+                            })
+                            .map(x -> CompletableFuture.completedFuture(x)
+                                    .thenApply(IntentManager.this::createInitialPhase)
+                                    .thenApplyAsync(IntentProcessPhase::process, workerExecutor)
+                                    .thenApply(FinalIntentProcessPhase::data)
+                                    .exceptionally(e -> {
+                                        // When the future fails, we update the Intent to simulate the failure of
+                                        // the installation/withdrawal phase and we save in the current map. In
+                                        // the next round the CleanUp Thread will pick this Intent again.
+                                        log.warn("Future failed", e);
+                                        log.warn("Intent {} - state {} - request {}",
+                                                 x.key(), x.state(), x.request());
+                                        switch (x.state()) {
+                                            case INSTALL_REQ:
+                                            case INSTALLING:
+                                            case WITHDRAW_REQ:
+                                            case WITHDRAWING:
+                                                // TODO should we swtich based on current
+                                                IntentData current = store.getIntentData(x.key());
+                                                return IntentData.nextState(current, FAILED);
+                                            default:
+                                                return null;
+                                        }
+                                    }))
+                            .collect(Collectors.toList());
+
+                    // write multiple data to store in order
+                    store.batchWrite(Tools.allOf(futures).join().stream()
+                                             .filter(Objects::nonNull)
+                                             .collect(Collectors.toList()));
+                } finally {
+                    BatchPathCache.close();
+                }
             }, batchExecutor).exceptionally(e -> {
                 log.error("Error submitting batches:", e);
                 // FIXME incomplete Intents should be cleaned up
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.google.common.collect.Maps;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.constraint.BandwidthConstraint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Paths computed while compiling a batch of intents.
+ * <p>
+ * Intents of the same batch between the same elements and with the same
+ * constraints share a single path computation. Each intent still selects and
+ * validates its path among the shared candidates. Paths of intents with
+ * constraints depending on resources allocated within the batch, such as
+ * bandwidth, are always computed afresh.
+ */
+public final class BatchPathCache {
+
+    // null when no batch is being compiled
+    private static final AtomicReference<Map<Key, Set<? extends Path>>> PATHS =
+            new AtomicReference<>();
+
+    private BatchPathCache() {
+    }
+
+    /**
+     * Starts caching the paths computed for a new batch of intents.
+     */
+    public static void open() {
+        PATHS.set(Maps.newConcurrentMap());
+    }
+
+    /**
+     * Stops caching paths and forgets those computed for the current batch.
+     */
+    public static void close() {
+        PATHS.set(null);
+    }
+
+    /**
+     * Returns the paths between the given elements computed earlier in the
+     * current batch, or computes them.
+     *
+     * @param one         start of the paths
+     * @param two         end of the paths
+     * @param constraints path constraints
+     * @param disjoint    true for disjoint paths
+     * @param computation computes the paths if they are not cached
+     * @param <P>         type of paths
+     * @return paths between the two elements
+     */
+    @SuppressWarnings("unchecked")
+    static <P extends Path> Set<P> getPaths(ElementId one, ElementId two,
+                                            List<Constraint> constraints, boolean disjoint,
+                                            Supplier<Set<P>> computation) {
+        Map<Key, Set<? extends Path>> paths = PATHS.get();
+        if (paths == null || !isCacheable(constraints)) {
+            return computation.get();
+        }
+        return (Set<P>) paths.computeIfAbsent(new Key(one, two, constraints, disjoint),
+                                              key -> computation.get());
+    }
+
+    private static boolean isCacheable(List<Constraint> constraints) {
+        return constraints == null ||
+                constraints.stream().noneMatch(c -> c instanceof BandwidthConstraint);
+    }
+
+    private static final class Key {
+        private final ElementId one;
+        private final ElementId two;
+        private final List<Constraint> constraints;
+        private final boolean disjoint;
+
+        private Key(ElementId one, ElementId two, List<Constraint> constraints, boolean disjoint) {
+            this.one = one;
+            this.two = two;
+            this.constraints = constraints;
+            this.disjoint = disjoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(one, two, constraints, disjoint);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return disjoint == that.disjoint && Objects.equals(one, that.one) &&
+                    Objects.equals(two, that.two) && Objects.equals(constraints, that.constraints);
+        }
+    }
+}
@@ -144,7 +144,8 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weigher(intent.constraints()));
+        Set<Path> paths = BatchPathCache.getPaths(one, two, intent.constraints(), false,
+                () -> pathService.getPaths(one, two, weigher(intent.constraints())));
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -170,7 +171,8 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected List<Path> getPaths(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weigher(intent.constraints()));
+        Set<Path> paths = BatchPathCache.getPaths(one, two, intent.constraints(), false,
+                () -> pathService.getPaths(one, two, weigher(intent.constraints())));
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -193,7 +195,8 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected DisjointPath getDisjointPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<DisjointPath> paths = pathService.getDisjointPaths(one, two, weigher(intent.constraints()));
+        Set<DisjointPath> paths = BatchPathCache.getPaths(one, two, intent.constraints(), true,
+                () -> pathService.getDisjointPaths(one, two, weigher(intent.constraints())));
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<DisjointPath> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -17,6 +17,8 @@
 package org.onosproject.net.intent.impl.installer;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.DefaultApplicationId;
@@ -51,18 +53,22 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.OsgiPropertyConstants.NON_DISRUPTIVE_INSTALLATION_WAITING_TIME;
 import static org.onosproject.net.OsgiPropertyConstants.NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT;
+import static org.onosproject.net.OsgiPropertyConstants.SHARE_IDENTICAL_FLOW_RULES;
+import static org.onosproject.net.OsgiPropertyConstants.SHARE_IDENTICAL_FLOW_RULES_DEFAULT;
 import static org.onosproject.net.intent.IntentInstaller.Direction.ADD;
 import static org.onosproject.net.intent.IntentInstaller.Direction.REMOVE;
 import static org.onosproject.net.intent.IntentState.INSTALLED;
@@ -76,7 +82,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Component(
     immediate = true,
     property = {
-        NON_DISRUPTIVE_INSTALLATION_WAITING_TIME + ":Integer=" + NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT
+        NON_DISRUPTIVE_INSTALLATION_WAITING_TIME + ":Integer=" + NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT,
+        SHARE_IDENTICAL_FLOW_RULES + ":Boolean=" + SHARE_IDENTICAL_FLOW_RULES_DEFAULT
     }
 )
 public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent> {
@@ -103,6 +110,11 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
     /** Number of seconds to wait during the non-disruptive installation phases. */
     private int nonDisruptiveInstallationWaitingTime = NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT;
 
+    /** Install identical flow rules of different intents once, until the last intent is withdrawn. */
+    private boolean shareIdenticalFlowRules = SHARE_IDENTICAL_FLOW_RULES_DEFAULT;
+
+    private final SharedFlowRuleTable sharedFlowRules = new SharedFlowRuleTable();
+
     protected final Logger log = getLogger(IntentManager.class);
 
     private boolean isReallocationStageFailed = false;
@@ -129,6 +141,8 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
         if (context == null) {
             nonDisruptiveInstallationWaitingTime = NON_DISRUPTIVE_INSTALLATION_WAITING_TIME_DEFAULT;
             log.info("Restored default installation time for non-disruptive reallocation (1 sec.)");
+            shareIdenticalFlowRules = SHARE_IDENTICAL_FLOW_RULES_DEFAULT;
+            sharedFlowRules.clear();
             return;
         }
 
@@ -139,6 +153,15 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
             log.info("Reconfigured non-disruptive reallocation with installation delay {} sec.",
                      nonDisruptiveInstallationWaitingTime);
         }
+
+        Boolean flag = Tools.isPropertyEnabled(context.getProperties(), SHARE_IDENTICAL_FLOW_RULES);
+        if (flag != null && flag != shareIdenticalFlowRules) {
+            shareIdenticalFlowRules = flag;
+            // references taken so far are unknown when sharing is enabled again
+            sharedFlowRules.clear();
+            log.info("Reconfigured sharing of identical flow rules to {}",
+                     shareIdenticalFlowRules ? "enabled" : "disabled");
+        }
     }
 
     @Override
@@ -194,26 +217,84 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
             flowRulesToInstall = Collections.emptyList();
         }
 
-        List<FlowRule> flowRuleToModify;
-        List<FlowRule> dontTouch;
-
-        // If both uninstall/install list contained equal (=match conditions are equal) FlowRules,
-        // omit it from remove list, since it will/should be overwritten by install
-        flowRuleToModify = flowRulesToInstall.stream()
-                .filter(flowRule -> flowRulesToUninstall.stream().anyMatch(flowRule::equals))
-                .collect(Collectors.toList());
+        // Index the flow rules to uninstall by their match conditions, so that
+        // each flow rule to install is compared to the equal ones only
+        Map<FlowRule, List<FlowRule>> uninstallByMatch = Maps.newHashMap();
+        flowRulesToUninstall.forEach(flowRule -> uninstallByMatch
+                .computeIfAbsent(flowRule, k -> Lists.newArrayList()).add(flowRule));
+        Set<FlowRule> installMatches = Sets.newHashSet(flowRulesToInstall);
 
         // If both contained exactMatch-ing FlowRules, remove from both list,
         // since it will result in no-op.
-        dontTouch = flowRulesToInstall.stream()
-                .filter(flowRule -> flowRulesToUninstall.stream().anyMatch(flowRule::exactMatch))
-                .collect(Collectors.toList());
+        Set<FlowRule> dontTouch = Sets.newHashSet();
+        for (FlowRule flowRule : flowRulesToInstall) {
+            List<FlowRule> equalRules = uninstallByMatch.get(flowRule);
+            if (equalRules != null && equalRules.stream().anyMatch(flowRule::exactMatch)) {
+                dontTouch.add(flowRule);
+            }
+        }
+
+        // If both uninstall/install list contained equal (=match conditions are equal) FlowRules,
+        // omit it from remove list, since it will/should be overwritten by install
+        List<FlowRule> flowRuleToModify = Lists.newArrayList();
+        List<FlowRule> flowRulesToAdd = Lists.newArrayList();
+        for (FlowRule flowRule : flowRulesToInstall) {
+            if (!uninstallByMatch.containsKey(flowRule)) {
+                flowRulesToAdd.add(flowRule);
+            } else if (!dontTouch.contains(flowRule)) {
+                flowRuleToModify.add(flowRule);
+            }
+        }
+        List<FlowRule> flowRulesToRemove = Lists.newArrayList();
+        for (FlowRule flowRule : flowRulesToUninstall) {
+            if (!installMatches.contains(flowRule)) {
+                flowRulesToRemove.add(flowRule);
+            }
+        }
 
-        flowRulesToUninstall.removeAll(flowRuleToModify);
-        flowRulesToUninstall.removeAll(dontTouch);
-        flowRulesToInstall.removeAll(flowRuleToModify);
-        flowRulesToInstall.removeAll(dontTouch);
-        flowRuleToModify.removeAll(dontTouch);
+        // References taken and released, rolled back if the operations fail
+        List<FlowRule> acquired = Lists.newArrayList();
+        List<FlowRule> released = Lists.newArrayList();
+        Optional<FlowRule> conflict = Optional.empty();
+        if (shareIdenticalFlowRules) {
+            synchronized (sharedFlowRules) {
+                // Identical flow rules are added with the first intent using
+                // them, and removed with the last one
+                flowRulesToRemove.removeIf(flowRule -> {
+                    released.add(flowRule);
+                    return !sharedFlowRules.release(flowRule);
+                });
+                flowRuleToModify.forEach(flowRule -> uninstallByMatch.get(flowRule).forEach(oldFlowRule -> {
+                    released.add(oldFlowRule);
+                    sharedFlowRules.release(oldFlowRule);
+                }));
+                // A flow rule with other treatment would overwrite the one
+                // other intents still use, so the intent cannot be installed
+                conflict = Stream.concat(flowRulesToAdd.stream(), flowRuleToModify.stream())
+                        .filter(sharedFlowRules::conflicts)
+                        .findFirst();
+                if (conflict.isPresent()) {
+                    released.forEach(sharedFlowRules::acquire);
+                } else {
+                    flowRulesToAdd.removeIf(flowRule -> {
+                        acquired.add(flowRule);
+                        return !sharedFlowRules.acquire(flowRule);
+                    });
+                    // an identical flow rule may already replace the one installed
+                    flowRuleToModify.removeIf(flowRule -> {
+                        acquired.add(flowRule);
+                        return !sharedFlowRules.acquire(flowRule);
+                    });
+                }
+            }
+        }
+        if (conflict.isPresent()) {
+            log.warn("Flow rule {} conflicts with a flow rule shared by other intents", conflict.get());
+            intentInstallCoordinator.intentInstallFailed(context);
+            return;
+        }
+        flowRulesToInstall = flowRulesToAdd;
+        flowRulesToUninstall = flowRulesToRemove;
 
         if (flowRulesToInstall.isEmpty() && flowRulesToUninstall.isEmpty() && flowRuleToModify.isEmpty()) {
             // There is no flow rules to install/uninstall
@@ -237,6 +318,8 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
 
             @Override
             public void onError(FlowRuleOperations ops) {
+                acquired.forEach(sharedFlowRules::release);
+                released.forEach(sharedFlowRules::acquire);
                 intentInstallCoordinator.intentInstallFailed(context);
             }
         };
@@ -258,6 +341,13 @@ public class FlowRuleIntentInstaller implements IntentInstaller<FlowRuleIntent>
         //TODO: Update the Intent store with this information
         toInstall.get().setState(REALLOCATING);
 
+        if (shareIdenticalFlowRules) {
+            // reallocation does not share flow rules, but keeps the references
+            // up to date for the next operations on the intents
+            context.intentsToInstall().forEach(intent -> intent.flowRules().forEach(sharedFlowRules::acquire));
+            context.intentsToUninstall().forEach(intent -> intent.flowRules().forEach(sharedFlowRules::release));
+        }
+
         store.write(toInstall.get());
 
         List<FlowRuleIntent> uninstallIntents = Lists.newArrayList(context.intentsToUninstall());
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.installer;
+
+import com.google.common.collect.Maps;
+import org.onosproject.net.flow.FlowRule;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Node-local reference counts of the flow rules installed by flow rule
+ * intents. Exactly matching flow rules of different intents are installed
+ * with the first intent and removed with the last one.
+ */
+final class SharedFlowRuleTable {
+
+    // references by match conditions, then by exactly matching flow rule
+    private final Map<FlowRule, Map<RuleKey, Integer>> rules = Maps.newHashMap();
+
+    /**
+     * Takes a reference to the given flow rule.
+     *
+     * @param rule flow rule
+     * @return true if the flow rule was not referenced yet and must be installed
+     */
+    synchronized boolean acquire(FlowRule rule) {
+        return rules.computeIfAbsent(rule, match -> Maps.newHashMap())
+                .merge(new RuleKey(rule), 1, Integer::sum) == 1;
+    }
+
+    /**
+     * Releases a reference to the given flow rule. Flow rules that are not
+     * referenced, e.g. installed before this node took over the intent, are
+     * treated as released for the last time, unless a flow rule with the same
+     * match conditions is referenced: flow rules are removed by their match
+     * conditions, so removing it would remove the one of the other intents.
+     *
+     * @param rule flow rule
+     * @return true if the flow rule is no longer referenced and must be removed
+     */
+    synchronized boolean release(FlowRule rule) {
+        Map<RuleKey, Integer> counts = rules.get(rule);
+        if (counts == null) {
+            return true;
+        }
+        RuleKey key = new RuleKey(rule);
+        Integer count = counts.get(key);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            counts.put(key, count - 1);
+            return false;
+        }
+        counts.remove(key);
+        if (counts.isEmpty()) {
+            rules.remove(rule);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether installing the given flow rule would overwrite a flow
+     * rule with the same match conditions but other treatment that is still
+     * referenced.
+     *
+     * @param rule flow rule
+     * @return true if the flow rule conflicts with a referenced one
+     */
+    synchronized boolean conflicts(FlowRule rule) {
+        Map<RuleKey, Integer> counts = rules.get(rule);
+        return counts != null && counts.keySet().stream().anyMatch(key -> !key.rule.exactMatch(rule));
+    }
+
+    /**
+     * Returns the number of references to the given flow rule.
+     *
+     * @param rule flow rule
+     * @return reference count
+     */
+    synchronized int count(FlowRule rule) {
+        Map<RuleKey, Integer> counts = rules.get(rule);
+        return counts == null ? 0 : counts.getOrDefault(new RuleKey(rule), 0);
+    }
+
+    /**
+     * Forgets all references.
+     */
+    synchronized void clear() {
+        rules.clear();
+    }
+
+    // Flow rule compared by exact match
+    private static final class RuleKey {
+        private final FlowRule rule;
+
+        private RuleKey(FlowRule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rule.hashCode(), rule.id(), rule.treatment());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            return obj instanceof RuleKey && rule.exactMatch(((RuleKey) obj).rule);
+        }
+    }
+}
@@ -173,12 +173,7 @@ public class StatisticManager implements StatisticService {
     }
 
     private Load loadInternal(ConnectPoint connectPoint) {
-        Statistics stats = getStatistics(connectPoint);
-        if (!stats.isValid()) {
-            return new DefaultLoad();
-        }
-
-        return new DefaultLoad(aggregate(stats.current), aggregate(stats.previous));
+        return statisticStore.load(connectPoint);
     }
 
     /**
@@ -188,13 +183,10 @@ public class StatisticManager implements StatisticService {
      * @return statistics
      */
     private Statistics getStatistics(ConnectPoint connectPoint) {
-        Set<FlowEntry> current;
-        Set<FlowEntry> previous;
-        synchronized (statisticStore) {
-            current = getCurrentStatistic(connectPoint);
-            previous = getPreviousStatistic(connectPoint);
-        }
-
+        // The store publishes each window atomically without locking, so
+        // locking it here would not keep the two reads together
+        Set<FlowEntry> current = getCurrentStatistic(connectPoint);
+        Set<FlowEntry> previous = getPreviousStatistic(connectPoint);
         return new Statistics(current, previous);
     }
 
@@ -19,6 +19,7 @@ import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ClusterServiceAdapter;
@@ -59,6 +60,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
+import static org.onlab.junit.TestTools.assertAfter;
 import static org.onosproject.net.Device.Type.SWITCH;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
@@ -78,6 +80,7 @@ public class DeviceManagerTest {
     private static final String SW2 = "3.9.5";
     private static final String SN = "43311-12345";
     private static final ChassisId CID = new ChassisId();
+    private static final int ASSERTION_DELAY = 1000;
 
     private static final PortNumber P1 = PortNumber.portNumber(1);
     private static final PortNumber P2 = PortNumber.portNumber(2);
@@ -171,6 +174,21 @@ public class DeviceManagerTest {
         assertEquals("incorrect available device count", 2, service.getAvailableDeviceCount());
     }
 
+    @Test
+    public void mastershipCheck() {
+        connectDevice(DID1, SW1);
+        connectDevice(DID2, SW1);
+        validateEvents(DEVICE_ADDED, DEVICE_ADDED);
+
+        // devices are not reachable by the test provider
+        TestUtils.callMethod(mgr, "mastershipCheck", new Class<?>[0]);
+        assertAfter(ASSERTION_DELAY, () -> {
+            assertFalse("device should not be available", service.isAvailable(DID1));
+            assertFalse("device should not be available", service.isAvailable(DID2));
+        });
+        assertEquals("incorrect available device count", 0, service.getAvailableDeviceCount());
+    }
+
     @Test
     public void deviceUpdated() {
         connectDevice(DID1, SW1);
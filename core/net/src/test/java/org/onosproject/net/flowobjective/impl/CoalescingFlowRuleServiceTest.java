@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flowobjective.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
+import org.onosproject.net.flow.FlowRuleServiceAdapter;
+
+import java.util.List;
+import java.util.Timer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestTools.delay;
+
+/**
+ * Tests of the coalescing of flow rule operations issued by pipeliners.
+ */
+public class CoalescingFlowRuleServiceTest {
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.test");
+    private static final DeviceId DID1 = DeviceId.deviceId("of:1");
+    private static final DeviceId DID2 = DeviceId.deviceId("of:2");
+    private static final int WAIT_TIME = 500;
+
+    private Timer timer;
+    private TestFlowRuleService delegate;
+    private CoalescingFlowRuleService service;
+
+    @Before
+    public void setUp() {
+        timer = new Timer(true);
+        delegate = new TestFlowRuleService();
+        service = new CoalescingFlowRuleService(delegate, timer, 100, 50, 10);
+    }
+
+    @After
+    public void tearDown() {
+        timer.cancel();
+    }
+
+    private static FlowRule flowRule(DeviceId deviceId, long port) {
+        return DefaultFlowRule.builder()
+                .forDevice(deviceId)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(port)).build())
+                .withTreatment(DefaultTrafficTreatment.builder().drop().build())
+                .withPriority(100)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+
+    /**
+     * Tests that operations on the same device are applied as one batch,
+     * and that the context of each operations is notified.
+     */
+    @Test
+    public void testCoalesce() {
+        List<TestContext> contexts = Lists.newArrayList();
+        for (int i = 1; i <= 10; i++) {
+            TestContext context = new TestContext();
+            contexts.add(context);
+            service.apply(FlowRuleOperations.builder().add(flowRule(DID1, i)).build(context));
+        }
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID2, 1)).build());
+
+        assertAfter(WAIT_TIME, () -> assertEquals(2, delegate.applied.size()));
+        FlowRuleOperations batch = delegate.applied.stream()
+                .filter(ops -> ops.stages().get(0).size() == 10)
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(1, batch.stages().size());
+
+        batch.callback().onSuccess(batch);
+        contexts.forEach(context -> assertEquals(1, context.succeeded));
+    }
+
+    /**
+     * Tests that only the operations with failed flow rules are notified of
+     * the failure.
+     */
+    @Test
+    public void testPartialFailure() {
+        TestContext context1 = new TestContext();
+        TestContext context2 = new TestContext();
+        FlowRule failing = flowRule(DID1, 1);
+        service.apply(FlowRuleOperations.builder().add(failing).add(flowRule(DID1, 2)).build(context1));
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID1, 3)).build(context2));
+
+        assertAfter(WAIT_TIME, () -> assertEquals(1, delegate.applied.size()));
+        FlowRuleOperations batch = delegate.applied.get(0);
+        batch.callback().onError(FlowRuleOperations.builder().add(failing).build());
+
+        assertEquals(1, context1.failed.size());
+        FlowRuleOperations failedOps = context1.failed.get(0);
+        assertEquals(1, failedOps.stages().get(0).size());
+        assertEquals(failing, failedOps.stages().get(0).iterator().next().rule());
+        assertEquals(0, context1.succeeded);
+        assertEquals(1, context2.succeeded);
+    }
+
+    /**
+     * Tests that operations on the same flow rule are applied in order.
+     */
+    @Test
+    public void testSameFlowRule() {
+        TestContext context1 = new TestContext();
+        TestContext context2 = new TestContext();
+        service.apply(FlowRuleOperations.builder()
+                              .add(flowRule(DID1, 1)).add(flowRule(DID1, 2)).build(context1));
+        service.apply(FlowRuleOperations.builder().remove(flowRule(DID1, 1)).build(context2));
+
+        assertAfter(WAIT_TIME, () -> assertEquals(1, delegate.applied.size()));
+        delay(100);
+        assertEquals(1, delegate.applied.size());
+
+        FlowRuleOperations first = delegate.applied.get(0);
+        first.callback().onSuccess(first);
+        assertEquals(1, context1.succeeded);
+        assertEquals(2, delegate.applied.size());
+        FlowRuleOperation removal = delegate.applied.get(1).stages().get(0).iterator().next();
+        assertEquals(FlowRuleOperation.Type.REMOVE, removal.type());
+    }
+
+    /**
+     * Tests that operations with several stages are applied right away when
+     * nothing is pending on their devices.
+     */
+    @Test
+    public void testMultipleStages() {
+        TestContext context = new TestContext();
+        FlowRuleOperations ops = FlowRuleOperations.builder()
+                .add(flowRule(DID1, 1))
+                .newStage()
+                .add(flowRule(DID2, 2))
+                .build(context);
+        service.apply(ops);
+        assertEquals(1, delegate.applied.size());
+        FlowRuleOperations applied = delegate.applied.get(0);
+        assertEquals(ops.stages(), applied.stages());
+
+        applied.callback().onSuccess(applied);
+        assertEquals(1, context.succeeded);
+    }
+
+    /**
+     * Tests that operations which are not coalesced wait for the operations
+     * accumulated or in flight on their devices, and that the following
+     * operations wait for them.
+     */
+    @Test
+    public void testNotCoalescedOrdering() {
+        TestContext context1 = new TestContext();
+        TestContext context2 = new TestContext();
+        TestContext context3 = new TestContext();
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID1, 1)).build(context1));
+        service.apply(FlowRuleOperations.builder()
+                              .remove(flowRule(DID1, 1))
+                              .newStage()
+                              .add(flowRule(DID1, 2))
+                              .build(context2));
+
+        // the accumulated operations are applied first
+        assertEquals(1, delegate.applied.size());
+        assertEquals(1, delegate.applied.get(0).stages().size());
+
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID1, 1)).build(context3));
+        delay(100);
+        assertEquals(1, delegate.applied.size());
+
+        FlowRuleOperations first = delegate.applied.get(0);
+        first.callback().onSuccess(first);
+        assertEquals(1, context1.succeeded);
+        assertEquals(2, delegate.applied.size());
+        assertEquals(2, delegate.applied.get(1).stages().size());
+
+        delay(100);
+        assertEquals(2, delegate.applied.size());
+        FlowRuleOperations second = delegate.applied.get(1);
+        second.callback().onError(second);
+        assertEquals(1, context2.failed.size());
+        assertEquals(3, delegate.applied.size());
+
+        FlowRuleOperations third = delegate.applied.get(2);
+        third.callback().onSuccess(third);
+        assertEquals(1, context3.succeeded);
+    }
+
+    /**
+     * Tests that the batches of a window are not applied while those of the
+     * previous window are pending.
+     */
+    @Test
+    public void testWindowOrdering() {
+        TestContext context1 = new TestContext();
+        TestContext context2 = new TestContext();
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID1, 1)).build(context1));
+        assertAfter(WAIT_TIME, () -> assertEquals(1, delegate.applied.size()));
+
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID1, 2)).build(context2));
+        service.apply(FlowRuleOperations.builder().add(flowRule(DID2, 1)).build());
+        assertAfter(WAIT_TIME, () -> assertEquals(2, delegate.applied.size()));
+        delay(100);
+        assertEquals("Other devices are not held", 2, delegate.applied.size());
+        assertEquals(DID2, delegate.applied.get(1).stages().get(0).iterator().next().rule().deviceId());
+
+        FlowRuleOperations first = delegate.applied.get(0);
+        first.callback().onSuccess(first);
+        assertEquals(1, context1.succeeded);
+        assertEquals(3, delegate.applied.size());
+
+        FlowRuleOperations second = delegate.applied.get(2);
+        assertEquals(flowRule(DID1, 2), second.stages().get(0).iterator().next().rule());
+        second.callback().onSuccess(second);
+        assertEquals(1, context2.succeeded);
+    }
+
+    private static class TestContext implements FlowRuleOperationsContext {
+        private int succeeded;
+        private final List<FlowRuleOperations> failed = Lists.newArrayList();
+
+        @Override
+        public void onSuccess(FlowRuleOperations ops) {
+            succeeded++;
+        }
+
+        @Override
+        public void onError(FlowRuleOperations ops) {
+            failed.add(ops);
+        }
+    }
+
+    private static class TestFlowRuleService extends FlowRuleServiceAdapter {
+        private final List<FlowRuleOperations> applied = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void apply(FlowRuleOperations ops) {
+            applied.add(ops);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.graph.ScalarWeight;
+import org.onlab.util.Bandwidth;
+import org.onosproject.TestApplicationId;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.FilteredConnectPoint;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.AbstractIntentTest;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.IntentTestsMocks;
+import org.onosproject.net.intent.PointToPointIntent;
+import org.onosproject.net.intent.constraint.BandwidthConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
+import org.onosproject.net.resource.MockResourceService;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.PathServiceAdapter;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.link;
+import static org.onosproject.net.PortNumber.portNumber;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Unit tests for {@link BatchPathCache}.
+ */
+public class BatchPathCacheTest extends AbstractIntentTest {
+
+    private static final ApplicationId APPID = new TestApplicationId("foo");
+    private static final DeviceId D1 = deviceId("of:1");
+    private static final DeviceId D2 = deviceId("of:2");
+    private static final DeviceId CORE = deviceId("of:core");
+    private static final int EDGE_SWITCHES = 20;
+    private static final int INTENTS = 1_000;
+
+    private final Logger log = getLogger(getClass());
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        BatchPathCache.close();
+        super.tearDown();
+    }
+
+    private Set<Path> getPaths(ElementId one, ElementId two, List<Constraint> constraints,
+                               boolean disjoint) {
+        Supplier<Set<Path>> computation = () -> {
+            computations.incrementAndGet();
+            return ImmutableSet.of(path((DeviceId) one, (DeviceId) two));
+        };
+        return BatchPathCache.getPaths(one, two, constraints, disjoint, computation);
+    }
+
+    // Path between two edge switches through the core switch
+    private static Path path(DeviceId one, DeviceId two) {
+        return new DefaultPath(PID, ImmutableList.of(
+                link(new ConnectPoint(one, portNumber(1)), new ConnectPoint(CORE, portNumber(1))),
+                link(new ConnectPoint(CORE, portNumber(2)), new ConnectPoint(two, portNumber(1)))),
+                               ScalarWeight.toWeight(2));
+    }
+
+    /**
+     * Tests that paths are computed once per batch.
+     */
+    @Test
+    public void testSharedComputation() {
+        List<Constraint> constraints = ImmutableList.of(new LatencyConstraint(Duration.ofMillis(10)));
+
+        getPaths(D1, D2, constraints, false);
+        assertEquals("No batch open", 1, computations.get());
+        getPaths(D1, D2, constraints, false);
+        assertEquals(2, computations.get());
+
+        BatchPathCache.open();
+        Set<Path> paths = getPaths(D1, D2, constraints, false);
+        assertSame(paths, getPaths(D1, D2, ImmutableList.copyOf(constraints), false));
+        assertEquals(3, computations.get());
+
+        getPaths(D2, D1, constraints, false);
+        getPaths(D1, D2, constraints, true);
+        getPaths(D1, D2, ImmutableList.of(), false);
+        assertEquals(6, computations.get());
+
+        BatchPathCache.close();
+        getPaths(D1, D2, constraints, false);
+        assertEquals("Batch closed", 7, computations.get());
+    }
+
+    /**
+     * Tests that paths depending on resources allocated within the batch are
+     * not shared.
+     */
+    @Test
+    public void testResourceDependentPaths() {
+        List<Constraint> constraints = ImmutableList.of(new BandwidthConstraint(Bandwidth.mbps(10)));
+
+        BatchPathCache.open();
+        getPaths(D1, D2, constraints, false);
+        getPaths(D1, D2, constraints, false);
+        assertEquals(2, computations.get());
+    }
+
+    /**
+     * Compiles a batch of point to point intents between edge switches and
+     * measures the time spent, with and without sharing path computations.
+     */
+    @Test
+    public void testCompileBatch() {
+        PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.resourceService = new MockResourceService();
+        compiler.pathService = new PathServiceAdapter() {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeigher weigher) {
+                computations.incrementAndGet();
+                return ImmutableSet.of(path((DeviceId) src, (DeviceId) dst));
+            }
+        };
+
+        List<PointToPointIntent> intents = ImmutableList.copyOf(intents());
+        long start = System.nanoTime();
+        intents.forEach(intent -> compiler.compile(intent, null));
+        long unshared = System.nanoTime() - start;
+        assertEquals(INTENTS, computations.getAndSet(0));
+
+        BatchPathCache.open();
+        start = System.nanoTime();
+        intents.forEach(intent -> compiler.compile(intent, null));
+        long shared = System.nanoTime() - start;
+        // each edge switch connects to ten others
+        assertEquals(EDGE_SWITCHES * 10, computations.get());
+
+        log.info("Compiled {} intents between {} edge switches in {} ms, {} ms sharing paths",
+                 INTENTS, EDGE_SWITCHES, TimeUnit.NANOSECONDS.toMillis(unshared),
+                 TimeUnit.NANOSECONDS.toMillis(shared));
+    }
+
+    private List<PointToPointIntent> intents() {
+        ImmutableList.Builder<PointToPointIntent> intents = ImmutableList.builder();
+        for (int i = 0; i < INTENTS; i++) {
+            int src = i % EDGE_SWITCHES;
+            int dst = (src + 1 + (i / EDGE_SWITCHES) % 10) % EDGE_SWITCHES;
+            intents.add(PointToPointIntent.builder()
+                                .appId(APPID)
+                                .selector(new IntentTestsMocks.MockSelector())
+                                .treatment(new IntentTestsMocks.MockTreatment())
+                                .filteredIngressPoint(new FilteredConnectPoint(
+                                        new ConnectPoint(deviceId("of:" + src), portNumber(i + 10))))
+                                .filteredEgressPoint(new FilteredConnectPoint(
+                                        new ConnectPoint(deviceId("of:" + dst), portNumber(i + 10))))
+                                .build());
+        }
+        return intents.build();
+    }
+}
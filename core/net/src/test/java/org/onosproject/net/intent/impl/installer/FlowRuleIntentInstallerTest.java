@@ -17,16 +17,20 @@
 package org.onosproject.net.intent.impl.installer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.VlanId;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.NetworkResource;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
@@ -63,6 +67,9 @@ import static org.onosproject.net.flow.FlowRuleOperation.Type.REMOVE;
  */
 public class FlowRuleIntentInstallerTest extends AbstractIntentInstallerTest {
 
+    private static final int FLAP_DEVICES = 10;
+    private static final int FLAP_RULES_PER_DEVICE = 100;
+
     private TestFlowRuleService flowRuleService;
     private final TestFlowRuleServiceNonDisruptive flowRuleServiceNonDisruptive =
             new TestFlowRuleServiceNonDisruptive();
@@ -341,6 +348,165 @@ public class FlowRuleIntentInstallerTest extends AbstractIntentInstallerTest {
         assertTrue(flowRuleService.flowRulesModify.containsAll(installedIntent.flowRules()));
     }
 
+    /**
+     * Tests that identical flow rules of different intents are installed with
+     * the first intent and removed with the last one.
+     */
+    @Test
+    public void testSharedFlowRules() {
+        TestUtils.setField(installer, "shareIdenticalFlowRules", true);
+        List<Intent> firstIntents = createFlowRuleIntents();
+        List<Intent> secondIntents = createFlowRuleIntents();
+        Set<FlowRule> expectedFlowRules = firstIntents.stream()
+                .map(intent -> (FlowRuleIntent) intent)
+                .map(FlowRuleIntent::flowRules)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet());
+
+        applyIntents(Lists.newArrayList(), firstIntents);
+        assertEquals(expectedFlowRules, flowRuleService.flowRulesAdd);
+
+        flowRuleService.flowRulesAdd.clear();
+        IntentOperationContext operationContext = applyIntents(Lists.newArrayList(), secondIntents);
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertTrue(flowRuleService.flowRulesAdd.isEmpty());
+
+        operationContext = applyIntents(firstIntents, Lists.newArrayList());
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertTrue(flowRuleService.flowRulesRemove.isEmpty());
+
+        applyIntents(secondIntents, Lists.newArrayList());
+        assertEquals(expectedFlowRules, flowRuleService.flowRulesRemove);
+    }
+
+    /**
+     * Tests that the references to shared flow rules are rolled back when
+     * the flow rule operations fail.
+     */
+    @Test
+    public void testSharedFlowRulesFailure() {
+        TestUtils.setField(installer, "shareIdenticalFlowRules", true);
+        List<Intent> firstIntents = createFlowRuleIntents();
+        List<Intent> secondIntents = createFlowRuleIntents();
+
+        TestFlowRuleService failedFlowRuleService = new TestFailedFlowRuleService();
+        installer.flowRuleService = failedFlowRuleService;
+        IntentOperationContext operationContext = applyIntents(Lists.newArrayList(), firstIntents);
+        assertEquals(operationContext, intentInstallCoordinator.failedContext);
+        assertEquals(1, failedFlowRuleService.flowRulesAdd.size());
+
+        // the identical flow rule is not considered installed
+        installer.flowRuleService = flowRuleService;
+        operationContext = applyIntents(Lists.newArrayList(), secondIntents);
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertEquals(failedFlowRuleService.flowRulesAdd, flowRuleService.flowRulesAdd);
+    }
+
+    /**
+     * Tests that an intent cannot modify a shared flow rule while other
+     * intents use it, and that withdrawing it keeps the shared flow rule.
+     */
+    @Test
+    public void testSharedFlowRuleModify() {
+        TestUtils.setField(installer, "shareIdenticalFlowRules", true);
+        FlowRule shared = flowRule(1, 1, 1);
+        FlowRule modified = flowRule(1, 1, 2);
+        List<Intent> firstIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(shared), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        List<Intent> secondIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(shared), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        List<Intent> modifiedIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(modified), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        applyIntents(Lists.newArrayList(), firstIntents);
+        applyIntents(Lists.newArrayList(), secondIntents);
+        assertEquals(ImmutableSet.of(shared), flowRuleService.flowRulesAdd);
+
+        // the first intent is recompiled with another treatment
+        IntentOperationContext operationContext = applyIntents(firstIntents, modifiedIntents);
+        assertEquals(operationContext, intentInstallCoordinator.failedContext);
+        assertTrue(flowRuleService.flowRulesModify.isEmpty());
+
+        // then withdrawn with the flow rules of the failed installation
+        operationContext = applyIntents(modifiedIntents, Lists.newArrayList());
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertTrue(flowRuleService.flowRulesRemove.isEmpty());
+
+        // a new intent can't overwrite the shared flow rule either
+        operationContext = applyIntents(Lists.newArrayList(), modifiedIntents);
+        assertEquals(operationContext, intentInstallCoordinator.failedContext);
+        assertEquals(ImmutableSet.of(shared), flowRuleService.flowRulesAdd);
+    }
+
+    /**
+     * Tests that the last intent using a shared flow rule modifies it.
+     */
+    @Test
+    public void testSharedFlowRuleLastModify() {
+        TestUtils.setField(installer, "shareIdenticalFlowRules", true);
+        FlowRule shared = flowRule(1, 1, 1);
+        FlowRule modified = flowRule(1, 1, 2);
+        List<Intent> firstIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(shared), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        List<Intent> secondIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(shared), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        List<Intent> modifiedIntents = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, ImmutableList.of(modified), ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        applyIntents(Lists.newArrayList(), firstIntents);
+        applyIntents(Lists.newArrayList(), secondIntents);
+        applyIntents(firstIntents, Lists.newArrayList());
+        assertTrue(flowRuleService.flowRulesRemove.isEmpty());
+
+        IntentOperationContext operationContext = applyIntents(secondIntents, modifiedIntents);
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertEquals(ImmutableSet.of(modified), flowRuleService.flowRulesModify);
+
+        applyIntents(modifiedIntents, Lists.newArrayList());
+        assertEquals(ImmutableSet.of(modified), flowRuleService.flowRulesRemove);
+    }
+
+    /**
+     * Tests that an intent with many flow rules, part of which are rerouted
+     * after a link flap, is recompiled into modifications of the rerouted
+     * flow rules only.
+     */
+    @Test
+    public void testRecompilationAfterLinkFlap() {
+        List<FlowRule> flowRules = Lists.newArrayList();
+        List<FlowRule> reroutedFlowRules = Lists.newArrayList();
+        int rerouted = 0;
+        for (int device = 1; device <= FLAP_DEVICES; device++) {
+            for (int port = 1; port <= FLAP_RULES_PER_DEVICE; port++) {
+                flowRules.add(flowRule(device, port, 1));
+                // flows on every tenth port of a device take another link
+                if (port % 10 == 0) {
+                    reroutedFlowRules.add(flowRule(device, port, 2));
+                    rerouted++;
+                } else {
+                    reroutedFlowRules.add(flowRule(device, port, 1));
+                }
+            }
+        }
+        List<Intent> intentsToUninstall = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, flowRules, ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+        List<Intent> intentsToInstall = Lists.newArrayList(new FlowRuleIntent(
+                APP_ID, KEY1, reroutedFlowRules, ImmutableList.of(),
+                PathIntent.ProtectionType.PRIMARY, RG1));
+
+        IntentOperationContext operationContext = applyIntents(intentsToUninstall, intentsToInstall);
+
+        assertEquals(operationContext, intentInstallCoordinator.successContext);
+        assertEquals(0, flowRuleService.flowRulesAdd.size());
+        assertEquals(0, flowRuleService.flowRulesRemove.size());
+        assertEquals(rerouted, flowRuleService.flowRulesModify.size());
+    }
+
     /**
      * Testing the non-disruptive reallocation.
      */
@@ -480,6 +646,44 @@ public class FlowRuleIntentInstallerTest extends AbstractIntentInstallerTest {
      *
      * @return the FlowRuleIntents for test
      */
+    private FlowRule flowRule(int device, int inPort, int outPort) {
+        return DefaultFlowRule.builder()
+                .forDevice(DeviceId.deviceId("s" + device))
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(inPort))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(outPort))
+                                       .build())
+                .fromApp(APP_ID)
+                .withPriority(DEFAULT_PRIORITY)
+                .makePermanent()
+                .build();
+    }
+
+    private IntentOperationContext applyIntents(List<Intent> intentsToUninstall,
+                                                List<Intent> intentsToInstall) {
+        IntentData toUninstall = null;
+        if (!intentsToUninstall.isEmpty()) {
+            toUninstall = IntentData.compiled(new IntentData(createP2PIntent(),
+                                                             IntentState.INSTALLED,
+                                                             new WallClockTimestamp()),
+                                              intentsToUninstall);
+        }
+        IntentData toInstall = null;
+        if (!intentsToInstall.isEmpty()) {
+            toInstall = IntentData.compiled(new IntentData(createP2PIntent(),
+                                                           IntentState.INSTALLING,
+                                                           new WallClockTimestamp()),
+                                            intentsToInstall);
+        }
+        IntentInstallationContext context = new IntentInstallationContext(toUninstall, toInstall);
+        IntentOperationContext<FlowRuleIntent> operationContext =
+                new IntentOperationContext(intentsToUninstall, intentsToInstall, context);
+        installer.apply(operationContext);
+        return operationContext;
+    }
+
     public List<Intent> createFlowRuleIntents() {
         TrafficSelector selector = DefaultTrafficSelector.builder()
                 .matchInPhyPort(CP1.port())
@@ -62,6 +62,21 @@ public final class OsgiPropertyConstants {
     public static final String DSS_MESSAGE_HANDLER_THREAD_POOL_SIZE = "messageHandlerThreadPoolSize";
     public static final int DSS_MESSAGE_HANDLER_THREAD_POOL_SIZE_DEFAULT = 4;
 
+    public static final String GDS_LOCAL_PORT_STATS = "localPortStats";
+    public static final boolean GDS_LOCAL_PORT_STATS_DEFAULT = false;
+
+    public static final String GDS_PORT_STATS_HISTORY_SIZE = "portStatsHistorySize";
+    public static final int GDS_PORT_STATS_HISTORY_SIZE_DEFAULT = 6;
+
+    public static final String CRS_LEASE_ENABLED = "leaseEnabled";
+    public static final boolean CRS_LEASE_ENABLED_DEFAULT = false;
+
+    public static final String CRS_LEASE_BLOCK_SIZE = "leaseBlockSize";
+    public static final int CRS_LEASE_BLOCK_SIZE_DEFAULT = 64;
+
+    public static final String CRS_LEASE_TIMEOUT_SECONDS = "leaseTimeoutSeconds";
+    public static final int CRS_LEASE_TIMEOUT_SECONDS_DEFAULT = 300;
+
     public static final String LINK_WEIGHT_FUNCTION = "linkWeightFunction";
     public static final String LINK_WEIGHT_FUNCTION_DEFAULT = "hopCount";
 }
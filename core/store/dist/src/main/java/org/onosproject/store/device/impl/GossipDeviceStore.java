@@ -17,14 +17,19 @@ package org.onosproject.store.device.impl;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.RandomUtils;
 import org.onlab.packet.ChassisId;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.mastership.MastershipEvent;
+import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.mastership.MastershipTermService;
 import org.onosproject.net.Annotations;
@@ -62,9 +67,11 @@ import org.onosproject.store.service.MultiValuedTimestamp;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WallClockTimestamp;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
@@ -73,6 +80,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -95,7 +103,9 @@ import static com.google.common.base.Predicates.notNull;
 import static com.google.common.base.Verify.verify;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.groupedThreads;
+import static org.onlab.util.Tools.isPropertyEnabled;
 import static org.onlab.util.Tools.minPriority;
 import static org.onosproject.cluster.ControllerNodeToNodeId.toNodeId;
 import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED;
@@ -103,11 +113,16 @@ import static org.onosproject.net.device.DeviceEvent.Type.PORT_ADDED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_REMOVED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_UPDATED;
+import static org.onosproject.store.OsgiPropertyConstants.GDS_LOCAL_PORT_STATS;
+import static org.onosproject.store.OsgiPropertyConstants.GDS_LOCAL_PORT_STATS_DEFAULT;
+import static org.onosproject.store.OsgiPropertyConstants.GDS_PORT_STATS_HISTORY_SIZE;
+import static org.onosproject.store.OsgiPropertyConstants.GDS_PORT_STATS_HISTORY_SIZE_DEFAULT;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_ADVERTISE;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_REMOVED;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_REMOVE_REQ;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_STATUS_CHANGE;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_UPDATE;
+import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.PORT_STATS_REQUEST;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.PORT_STATUS_UPDATE;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.PORT_UPDATE;
 import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.PUT;
@@ -117,7 +132,14 @@ import static org.slf4j.LoggerFactory.getLogger;
  * Manages inventory of infrastructure devices using gossip protocol to distribute
  * information.
  */
-@Component(immediate = true, service = DeviceStore.class)
+@Component(
+        immediate = true,
+        service = DeviceStore.class,
+        property = {
+                GDS_LOCAL_PORT_STATS + ":Boolean=" + GDS_LOCAL_PORT_STATS_DEFAULT,
+                GDS_PORT_STATS_HISTORY_SIZE + ":Integer=" + GDS_PORT_STATS_HISTORY_SIZE_DEFAULT
+        }
+)
 public class GossipDeviceStore
         extends AbstractStore<DeviceEvent, DeviceStoreDelegate>
         implements DeviceStore {
@@ -142,6 +164,11 @@ public class GossipDeviceStore
     private final EventuallyConsistentMapListener<DeviceId, Map<PortNumber, PortStatistics>>
             portStatsListener = new InternalPortStatsListener();
 
+    private final MastershipListener mastershipListener = new InternalMastershipListener();
+
+    // port statistics kept on the device master only, when local port stats are enabled
+    private volatile PortStatsTable localPortStats;
+
     // to be updated under Device lock
     private final Map<DeviceId, Timestamp> offline = Maps.newHashMap();
     private final Map<DeviceId, Timestamp> removalRequest = Maps.newHashMap();
@@ -167,9 +194,21 @@ public class GossipDeviceStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected MastershipTermService termService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService configService;
+
+    /** Keep port statistics on the device master only, instead of gossiping them to all nodes. */
+    private boolean localPortStatsEnabled = GDS_LOCAL_PORT_STATS_DEFAULT;
+
+    /** Number of polls of port statistics retained per device when local port stats are enabled. */
+    private int portStatsHistorySize = GDS_PORT_STATS_HISTORY_SIZE_DEFAULT;
+
     private static final Timestamp DEFAULT_TIMESTAMP = new MastershipBasedTimestamp(0, 0);
 
-    protected static final Serializer SERIALIZER = Serializer.using(KryoNamespace.newBuilder()
+    // Opt-in binary codecs for device events; must be set alike on all nodes
+    private static final String BINARY_CODECS_PROPERTY = "onos.device-store.binary-codecs";
+
+    private static final KryoNamespace GOSSIP_DEVICE = KryoNamespace.newBuilder()
                     .register(DistributedStoreSerializers.STORE_COMMON)
                     .nextId(DistributedStoreSerializers.STORE_CUSTOM_BEGIN)
                     .register(new InternalDeviceEventSerializer(), InternalDeviceEvent.class)
@@ -180,7 +219,11 @@ public class GossipDeviceStore
                     .register(DeviceAntiEntropyAdvertisement.class)
                     .register(DeviceFragmentId.class)
                     .register(PortFragmentId.class)
-                    .build("GossipDevice"));
+                    .register(InternalPortStatsRequest.class)
+                    .build("GossipDevice");
+
+    protected static final Serializer SERIALIZER = Boolean.getBoolean(BINARY_CODECS_PROPERTY) ?
+            GossipDeviceStoreCodecs.serializer(GOSSIP_DEVICE) : Serializer.using(GOSSIP_DEVICE);
 
     private ExecutorService executor;
 
@@ -191,7 +234,10 @@ public class GossipDeviceStore
     private long periodSec = 5;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        configService.registerProperties(getClass());
+        modified(context);
+
         executor = newCachedThreadPool(groupedThreads("onos/device", "fg-%d", log));
 
         backgroundExecutor =
@@ -204,6 +250,8 @@ public class GossipDeviceStore
         addSubscriber(PORT_UPDATE, this::handlePortEvent);
         addSubscriber(PORT_STATUS_UPDATE, this::handlePortStatusEvent);
         addSubscriber(DEVICE_ADVERTISE, this::handleDeviceAdvertisement);
+        clusterCommunicator.addSubscriber(PORT_STATS_REQUEST, SERIALIZER::decode,
+                                          this::handlePortStatsRequest, SERIALIZER::encode, executor);
 
         // start anti-entropy thread
         backgroundExecutor.scheduleAtFixedRate(new SendAdvertisementTask(),
@@ -231,6 +279,7 @@ public class GossipDeviceStore
                 .withTombstonesDisabled()
                 .build();
         devicePortStats.addListener(portStatsListener);
+        mastershipService.addListener(mastershipListener);
         log.info("Started");
     }
 
@@ -240,6 +289,8 @@ public class GossipDeviceStore
 
     @Deactivate
     public void deactivate() {
+        configService.unregisterProperties(getClass(), false);
+        mastershipService.removeListener(mastershipListener);
         devicePortStats.removeListener(portStatsListener);
         devicePortStats.destroy();
         devicePortDeltaStats.destroy();
@@ -266,9 +317,36 @@ public class GossipDeviceStore
         clusterCommunicator.removeSubscriber(PORT_UPDATE);
         clusterCommunicator.removeSubscriber(PORT_STATUS_UPDATE);
         clusterCommunicator.removeSubscriber(DEVICE_ADVERTISE);
+        clusterCommunicator.removeSubscriber(PORT_STATS_REQUEST);
+        localPortStats = null;
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        boolean newLocalPortStats = isPropertyEnabled(properties, GDS_LOCAL_PORT_STATS,
+                                                      localPortStatsEnabled);
+        int newHistorySize = getIntegerProperty(properties, GDS_PORT_STATS_HISTORY_SIZE,
+                                                portStatsHistorySize);
+        if (newHistorySize < 2) {
+            log.warn("{} must be at least 2, ignoring {}", GDS_PORT_STATS_HISTORY_SIZE, newHistorySize);
+            newHistorySize = portStatsHistorySize;
+        }
+
+        if (newLocalPortStats != localPortStatsEnabled || newHistorySize != portStatsHistorySize) {
+            localPortStatsEnabled = newLocalPortStats;
+            portStatsHistorySize = newHistorySize;
+            localPortStats = localPortStatsEnabled ? new PortStatsTable(portStatsHistorySize) : null;
+        }
+        log.info("Settings: {}={}, {}={}", GDS_LOCAL_PORT_STATS, localPortStatsEnabled,
+                 GDS_PORT_STATS_HISTORY_SIZE, portStatsHistorySize);
+    }
+
     @Override
     public int getDeviceCount() {
         return devices.size();
@@ -909,6 +987,13 @@ public class GossipDeviceStore
     public DeviceEvent updatePortStatistics(ProviderId providerId, DeviceId deviceId,
                                             Collection<PortStatistics> newStatsCollection) {
 
+        PortStatsTable table = localPortStats;
+        if (table != null) {
+            table.update(deviceId, newStatsCollection);
+            Device device = devices.get(deviceId);
+            return device == null ? null : new DeviceEvent(PORT_STATS_UPDATED, device);
+        }
+
         Map<PortNumber, PortStatistics> prvStatsMap = devicePortStats.get(deviceId);
         Map<PortNumber, PortStatistics> newStatsMap = Maps.newHashMap();
         Map<PortNumber, PortStatistics> deltaStatsMap = Maps.newHashMap();
@@ -974,6 +1059,9 @@ public class GossipDeviceStore
 
     @Override
     public List<PortStatistics> getPortStatistics(DeviceId deviceId) {
+        if (localPortStats != null) {
+            return getLocalPortStats(new InternalPortStatsRequest(deviceId, null, 0));
+        }
         Map<PortNumber, PortStatistics> portStats = devicePortStats.get(deviceId);
         if (portStats == null) {
             return Collections.emptyList();
@@ -983,6 +1071,10 @@ public class GossipDeviceStore
 
     @Override
     public PortStatistics getStatisticsForPort(DeviceId deviceId, PortNumber portNumber) {
+        if (localPortStats != null) {
+            return Iterables.getFirst(
+                    getLocalPortStats(new InternalPortStatsRequest(deviceId, portNumber, 0)), null);
+        }
         Map<PortNumber, PortStatistics> portStatsMap = devicePortStats.get(deviceId);
         if (portStatsMap == null) {
             return null;
@@ -993,6 +1085,9 @@ public class GossipDeviceStore
 
     @Override
     public List<PortStatistics> getPortDeltaStatistics(DeviceId deviceId) {
+        if (localPortStats != null) {
+            return getLocalPortStats(new InternalPortStatsRequest(deviceId, null, 1));
+        }
         Map<PortNumber, PortStatistics> portStats = devicePortDeltaStats.get(deviceId);
         if (portStats == null) {
             return Collections.emptyList();
@@ -1002,6 +1097,10 @@ public class GossipDeviceStore
 
     @Override
     public PortStatistics getDeltaStatisticsForPort(DeviceId deviceId, PortNumber portNumber) {
+        if (localPortStats != null) {
+            return Iterables.getFirst(
+                    getLocalPortStats(new InternalPortStatsRequest(deviceId, portNumber, 1)), null);
+        }
         Map<PortNumber, PortStatistics> portStatsMap = devicePortDeltaStats.get(deviceId);
         if (portStatsMap == null) {
             return null;
@@ -1010,6 +1109,50 @@ public class GossipDeviceStore
         return portStats;
     }
 
+    @Override
+    public PortStatistics getDeltaStatisticsForPort(DeviceId deviceId, PortNumber portNumber, int samples) {
+        if (localPortStats != null) {
+            return Iterables.getFirst(
+                    getLocalPortStats(new InternalPortStatsRequest(deviceId, portNumber, samples)), null);
+        }
+        // the gossiped delta maps only hold the difference between the last two polls
+        return getDeltaStatisticsForPort(deviceId, portNumber);
+    }
+
+    // Reads port statistics kept locally, forwarding the request to the master if needed
+    private List<PortStatistics> getLocalPortStats(InternalPortStatsRequest request) {
+        NodeId master = mastershipService.getMasterFor(request.deviceId());
+        if (master == null || master.equals(clusterService.getLocalNode().id())) {
+            return handlePortStatsRequest(request);
+        }
+
+        log.trace("Forwarding {} to master {}", request, master);
+        return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(
+                request,
+                PORT_STATS_REQUEST,
+                SERIALIZER::encode,
+                SERIALIZER::decode,
+                master),
+                REMOTE_MASTER_TIMEOUT,
+                TimeUnit.MILLISECONDS,
+                Collections.emptyList());
+    }
+
+    private List<PortStatistics> handlePortStatsRequest(InternalPortStatsRequest request) {
+        PortStatsTable table = localPortStats;
+        if (table == null) {
+            return Collections.emptyList();
+        }
+        DeviceId deviceId = request.deviceId();
+        if (request.portNumber() == null) {
+            return request.delta() ? table.getDeltaStatistics(deviceId) : table.getStatistics(deviceId);
+        }
+        PortStatistics stats = request.delta()
+                ? table.getDeltaStatistics(deviceId, request.portNumber(), request.samples())
+                : table.getStatistics(deviceId, request.portNumber());
+        return stats == null ? Collections.emptyList() : ImmutableList.of(stats);
+    }
+
     @Override
     public Port getPort(DeviceId deviceId, PortNumber portNumber) {
         Map<PortNumber, Port> ports = devicePorts.get(deviceId);
@@ -1132,6 +1275,10 @@ public class GossipDeviceStore
             descs.clear();
             // Forget about the device
             offline.remove(deviceId);
+            PortStatsTable table = localPortStats;
+            if (table != null) {
+                table.remove(deviceId);
+            }
             return device == null ? null :
                     new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, device, null);
         }
@@ -1690,4 +1837,16 @@ public class GossipDeviceStore
             }
         }
     }
+
+    private class InternalMastershipListener implements MastershipListener {
+        @Override
+        public void event(MastershipEvent event) {
+            PortStatsTable table = localPortStats;
+            if (table != null && event.type() == MastershipEvent.Type.MASTER_CHANGED) {
+                // Statistics polled under another tenure are stale, or would
+                // yield deltas spanning the period this node was not polling
+                table.remove(event.subject());
+            }
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import org.onlab.util.KryoNamespace;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceDescription;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.Timestamp;
+import org.onosproject.store.impl.MastershipBasedTimestamp;
+import org.onosproject.store.impl.Timestamped;
+import org.onosproject.store.serializers.BinaryCodec;
+import org.onosproject.store.serializers.BinaryCodecSerializer;
+import org.onosproject.store.serializers.BinaryCodecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary codecs for the device events gossiped by {@link GossipDeviceStore}.
+ */
+final class GossipDeviceStoreCodecs {
+
+    /**
+     * Codec for mastership based timestamps.
+     */
+    static final BinaryCodec<MastershipBasedTimestamp> MASTERSHIP_TIMESTAMP =
+            new BinaryCodec<MastershipBasedTimestamp>() {
+        @Override
+        public void encode(MastershipBasedTimestamp object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            buffer.putLong(object.termNumber());
+            buffer.putLong(object.sequenceNumber());
+        }
+
+        @Override
+        public MastershipBasedTimestamp decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            return new MastershipBasedTimestamp(buffer.getLong(), buffer.getLong());
+        }
+    };
+
+    /**
+     * Codec for timestamped values; value and timestamp are encoded with
+     * their own codecs, if any.
+     */
+    @SuppressWarnings("rawtypes")
+    static final BinaryCodec<Timestamped> TIMESTAMPED = new BinaryCodec<Timestamped>() {
+        @Override
+        public void encode(Timestamped object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            serializer.encode(object.timestamp(), buffer);
+            serializer.encode(object.value(), buffer);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Timestamped decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            Timestamp timestamp = serializer.decode(buffer);
+            return new Timestamped(serializer.decode(buffer), timestamp);
+        }
+    };
+
+    /**
+     * Codec for device events; the device description is encoded with the
+     * stock device description codec.
+     */
+    static final BinaryCodec<InternalDeviceEvent> INTERNAL_DEVICE_EVENT =
+            new BinaryCodec<InternalDeviceEvent>() {
+        @Override
+        public void encode(InternalDeviceEvent object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            serializer.encode(object.providerId(), buffer);
+            serializer.encode(object.deviceId(), buffer);
+            serializer.encode(object.deviceDescription(), buffer);
+        }
+
+        @Override
+        public InternalDeviceEvent decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            ProviderId providerId = serializer.decode(buffer);
+            DeviceId deviceId = serializer.decode(buffer);
+            Timestamped<DeviceDescription> description = serializer.decode(buffer);
+            return new InternalDeviceEvent(providerId, deviceId, description);
+        }
+    };
+
+    // Non-instantiable
+    private GossipDeviceStoreCodecs() {
+    }
+
+    /**
+     * Creates a serializer which encodes device events with binary codecs
+     * and all other messages with the given Kryo namespace.
+     *
+     * @param ns kryo namespace for remaining messages
+     * @return binary codec serializer
+     */
+    static BinaryCodecSerializer serializer(KryoNamespace ns) {
+        return BinaryCodecs.newBuilder()
+                .withFallback(ns)
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID, MastershipBasedTimestamp.class,
+                          MASTERSHIP_TIMESTAMP)
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID + 1, Timestamped.class, TIMESTAMPED)
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID + 2, InternalDeviceEvent.class,
+                          INTERNAL_DEVICE_EVENT)
+                .build();
+    }
+}
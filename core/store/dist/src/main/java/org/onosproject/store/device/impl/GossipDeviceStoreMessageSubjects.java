@@ -30,6 +30,7 @@ public final class GossipDeviceStoreMessageSubjects {
     public static final MessageSubject DEVICE_REMOVED = new MessageSubject("peer-device-removed");
     public static final MessageSubject PORT_UPDATE = new MessageSubject("peer-port-update");
     public static final MessageSubject PORT_STATUS_UPDATE = new MessageSubject("peer-port-status-update");
+    public static final MessageSubject PORT_STATS_REQUEST = new MessageSubject("peer-port-stats-request");
 
     public static final MessageSubject DEVICE_ADVERTISE = new MessageSubject("peer-device-advertisements");
     // to be used with 3-way anti-entropy process
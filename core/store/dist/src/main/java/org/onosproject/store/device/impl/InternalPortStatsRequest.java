@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Request sent by GossipDeviceStore to the master of a device for the
+ * port statistics it keeps locally.
+ */
+public class InternalPortStatsRequest {
+
+    private final DeviceId deviceId;
+    private final PortNumber portNumber;
+    private final int samples;
+
+    /**
+     * Creates a InternalPortStatsRequest.
+     * @param deviceId identifier of the device.
+     * @param portNumber port of interest, or null for all ports.
+     * @param samples number of polls to compute deltas over, or 0 for
+     *                absolute statistics.
+     */
+    public InternalPortStatsRequest(DeviceId deviceId, PortNumber portNumber, int samples) {
+        this.deviceId = deviceId;
+        this.portNumber = portNumber;
+        this.samples = samples;
+    }
+
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    public PortNumber portNumber() {
+        return portNumber;
+    }
+
+    public boolean delta() {
+        return samples > 0;
+    }
+
+    public int samples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("deviceId", deviceId)
+                .add("portNumber", portNumber)
+                .add("samples", samples)
+                .toString();
+    }
+
+    // for serializer
+    @SuppressWarnings("unused")
+    private InternalPortStatsRequest() {
+        deviceId = null;
+        portNumber = null;
+        samples = 0;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.onosproject.net.Annotations;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DefaultPortStatistics;
+import org.onosproject.net.device.PortStatistics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Node-local, columnar store of port statistics.
+ * <p>
+ * Counters of each device are kept in primitive arrays indexed by port,
+ * within a ring buffer holding the last few polls. Deltas are computed in
+ * place when a poll is recorded, and the ring buffer allows deltas to be
+ * computed over longer intervals for rate queries.
+ */
+final class PortStatsTable {
+
+    private static final int PACKETS_RECEIVED = 0;
+    private static final int PACKETS_SENT = 1;
+    private static final int BYTES_RECEIVED = 2;
+    private static final int BYTES_SENT = 3;
+    private static final int PACKETS_RX_DROPPED = 4;
+    private static final int PACKETS_TX_DROPPED = 5;
+    private static final int PACKETS_RX_ERRORS = 6;
+    private static final int PACKETS_TX_ERRORS = 7;
+    private static final int DURATION_SEC = 8;
+    private static final int DURATION_NANO = 9;
+    private static final int FIELDS = 10;
+
+    private static final int INITIAL_PORTS = 16;
+
+    private final int historySize;
+    private final ConcurrentMap<DeviceId, DeviceStats> devices = Maps.newConcurrentMap();
+
+    /**
+     * Creates a table retaining the given number of polls per device.
+     *
+     * @param historySize number of polls to retain; at least 2
+     */
+    PortStatsTable(int historySize) {
+        checkArgument(historySize >= 2, "History size must be at least 2");
+        this.historySize = historySize;
+    }
+
+    /**
+     * Records a new poll of port statistics for the given device.
+     *
+     * @param deviceId device identifier
+     * @param stats    port statistics
+     */
+    void update(DeviceId deviceId, Collection<PortStatistics> stats) {
+        devices.computeIfAbsent(deviceId, id -> new DeviceStats(id, historySize))
+                .update(stats);
+    }
+
+    /**
+     * Returns the latest statistics of all ports of the given device.
+     *
+     * @param deviceId device identifier
+     * @return port statistics; empty if none
+     */
+    List<PortStatistics> getStatistics(DeviceId deviceId) {
+        DeviceStats stats = devices.get(deviceId);
+        return stats == null ? ImmutableList.of() : stats.statistics(false);
+    }
+
+    /**
+     * Returns the latest statistics of the given port.
+     *
+     * @param deviceId   device identifier
+     * @param portNumber port number
+     * @return port statistics; null if none
+     */
+    PortStatistics getStatistics(DeviceId deviceId, PortNumber portNumber) {
+        DeviceStats stats = devices.get(deviceId);
+        return stats == null ? null : stats.statistics(portNumber, 0);
+    }
+
+    /**
+     * Returns the difference between the last two polls for all ports of the
+     * given device.
+     *
+     * @param deviceId device identifier
+     * @return port delta statistics; empty if none
+     */
+    List<PortStatistics> getDeltaStatistics(DeviceId deviceId) {
+        DeviceStats stats = devices.get(deviceId);
+        return stats == null ? ImmutableList.of() : stats.statistics(true);
+    }
+
+    /**
+     * Returns the difference between the last two polls for the given port.
+     *
+     * @param deviceId   device identifier
+     * @param portNumber port number
+     * @return port delta statistics; null if none
+     */
+    PortStatistics getDeltaStatistics(DeviceId deviceId, PortNumber portNumber) {
+        return getDeltaStatistics(deviceId, portNumber, 1);
+    }
+
+    /**
+     * Returns the difference between the latest poll and the poll the given
+     * number of samples before it, or the oldest retained poll if fewer are
+     * available. Dividing by the returned duration yields the average rate
+     * over that interval.
+     *
+     * @param deviceId   device identifier
+     * @param portNumber port number
+     * @param samples    number of polls to look back; at least 1
+     * @return port delta statistics; null if none
+     */
+    PortStatistics getDeltaStatistics(DeviceId deviceId, PortNumber portNumber, int samples) {
+        checkArgument(samples >= 1, "Samples must be at least 1");
+        DeviceStats stats = devices.get(deviceId);
+        return stats == null ? null : stats.statistics(portNumber, samples);
+    }
+
+    /**
+     * Forgets all statistics of the given device.
+     *
+     * @param deviceId device identifier
+     */
+    void remove(DeviceId deviceId) {
+        devices.remove(deviceId);
+    }
+
+    /**
+     * Forgets all statistics.
+     */
+    void clear() {
+        devices.clear();
+    }
+
+    private static final class DeviceStats {
+
+        private final DeviceId deviceId;
+        private final Map<PortNumber, Integer> index = Maps.newHashMap();
+
+        // history[slot][port * FIELDS + field]; head is the latest slot
+        private final long[][] history;
+        private long[] delta;
+        private PortNumber[] ports;
+        private Annotations[] annotations;
+        // number of consecutive polls held for each port; 0 if absent from the latest
+        private int[] valid;
+        private int[] stamp;
+        private int head = -1;
+        private int generation;
+
+        private DeviceStats(DeviceId deviceId, int historySize) {
+            this.deviceId = deviceId;
+            this.history = new long[historySize][INITIAL_PORTS * FIELDS];
+            this.delta = new long[INITIAL_PORTS * FIELDS];
+            this.ports = new PortNumber[INITIAL_PORTS];
+            this.annotations = new Annotations[INITIAL_PORTS];
+            this.valid = new int[INITIAL_PORTS];
+            this.stamp = new int[INITIAL_PORTS];
+        }
+
+        private synchronized void update(Collection<PortStatistics> stats) {
+            int prev = head;
+            head = (head + 1) % history.length;
+            generation++;
+            for (PortStatistics s : stats) {
+                int port = indexOf(s.portNumber());
+                // looked up after indexOf, which may grow the arrays
+                long[] current = history[head];
+                int base = port * FIELDS;
+                current[base + PACKETS_RECEIVED] = s.packetsReceived();
+                current[base + PACKETS_SENT] = s.packetsSent();
+                current[base + BYTES_RECEIVED] = s.bytesReceived();
+                current[base + BYTES_SENT] = s.bytesSent();
+                current[base + PACKETS_RX_DROPPED] = s.packetsRxDropped();
+                current[base + PACKETS_TX_DROPPED] = s.packetsTxDropped();
+                current[base + PACKETS_RX_ERRORS] = s.packetsRxErrors();
+                current[base + PACKETS_TX_ERRORS] = s.packetsTxErrors();
+                current[base + DURATION_SEC] = s.durationSec();
+                current[base + DURATION_NANO] = s.durationNano();
+                annotations[port] = s.annotations();
+                stamp[port] = generation;
+                valid[port] = Math.min(valid[port] + 1, history.length);
+                if (valid[port] > 1) {
+                    diff(current, history[prev], base, delta);
+                } else {
+                    Arrays.fill(delta, base, base + FIELDS, 0);
+                }
+            }
+            for (int port = 0; port < index.size(); port++) {
+                if (stamp[port] != generation) {
+                    valid[port] = 0;
+                }
+            }
+        }
+
+        private synchronized List<PortStatistics> statistics(boolean deltas) {
+            if (head < 0 || (deltas && generation < 2)) {
+                return ImmutableList.of();
+            }
+            ImmutableList.Builder<PortStatistics> builder = ImmutableList.builder();
+            for (int port = 0; port < index.size(); port++) {
+                if (valid[port] > 0) {
+                    builder.add(build(port, deltas ? delta : history[head]));
+                }
+            }
+            return builder.build();
+        }
+
+        private synchronized PortStatistics statistics(PortNumber portNumber, int samples) {
+            Integer port = index.get(portNumber);
+            if (port == null || valid[port] == 0) {
+                return null;
+            }
+            if (samples == 0) {
+                return build(port, history[head]);
+            } else if (valid[port] == 1) {
+                return generation < 2 ? null : build(port, delta);
+            } else if (samples == 1) {
+                return build(port, delta);
+            }
+            int back = Math.min(samples, valid[port] - 1);
+            long[] values = new long[(port + 1) * FIELDS];
+            diff(history[head], history[(head - back + history.length) % history.length],
+                 port * FIELDS, values);
+            return build(port, values);
+        }
+
+        private int indexOf(PortNumber portNumber) {
+            Integer port = index.get(portNumber);
+            if (port != null) {
+                return port;
+            }
+            int next = index.size();
+            if (next == ports.length) {
+                grow(ports.length * 2);
+            }
+            ports[next] = portNumber;
+            index.put(portNumber, next);
+            return next;
+        }
+
+        private void grow(int capacity) {
+            for (int slot = 0; slot < history.length; slot++) {
+                history[slot] = Arrays.copyOf(history[slot], capacity * FIELDS);
+            }
+            delta = Arrays.copyOf(delta, capacity * FIELDS);
+            ports = Arrays.copyOf(ports, capacity);
+            annotations = Arrays.copyOf(annotations, capacity);
+            valid = Arrays.copyOf(valid, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+
+        private PortStatistics build(int port, long[] values) {
+            int base = port * FIELDS;
+            return DefaultPortStatistics.builder()
+                    .setDeviceId(deviceId)
+                    .setPort(ports[port])
+                    .setPacketsReceived(values[base + PACKETS_RECEIVED])
+                    .setPacketsSent(values[base + PACKETS_SENT])
+                    .setBytesReceived(values[base + BYTES_RECEIVED])
+                    .setBytesSent(values[base + BYTES_SENT])
+                    .setPacketsRxDropped(values[base + PACKETS_RX_DROPPED])
+                    .setPacketsTxDropped(values[base + PACKETS_TX_DROPPED])
+                    .setPacketsRxErrors(values[base + PACKETS_RX_ERRORS])
+                    .setPacketsTxErrors(values[base + PACKETS_TX_ERRORS])
+                    .setDurationSec(values[base + DURATION_SEC])
+                    .setDurationNano(values[base + DURATION_NANO])
+                    .setAnnotations(annotations[port])
+                    .build();
+        }
+
+        // Writes newer - older for the port starting at base into target
+        private static void diff(long[] newer, long[] older, int base, long[] target) {
+            for (int field = 0; field < DURATION_SEC; field++) {
+                target[base + field] = newer[base + field] - older[base + field];
+            }
+            long sec = newer[base + DURATION_SEC] - older[base + DURATION_SEC];
+            long nano = newer[base + DURATION_NANO] - older[base + DURATION_NANO];
+            if (nano < 0) {
+                nano += TimeUnit.SECONDS.toNanos(1);
+                sec--;
+            }
+            target[base + DURATION_SEC] = sec;
+            target[base + DURATION_NANO] = nano;
+        }
+    }
+}
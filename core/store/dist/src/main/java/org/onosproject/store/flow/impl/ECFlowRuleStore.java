@@ -33,13 +33,18 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
-import org.onlab.util.OrderedExecutor;
+import org.onlab.util.WorkStealingPredictableExecutor;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
@@ -179,12 +184,18 @@ public class ECFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected PersistenceService persistenceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     private Map<Long, NodeId> pendingResponses = Maps.newConcurrentMap();
     private ExecutorService messageHandlingExecutor;
     private ExecutorService eventHandler;
 
     private ScheduledExecutorService backupScheduler;
-    private ExecutorService backupExecutor;
+    private WorkStealingPredictableExecutor backupExecutor;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature backupMetricsFeature;
+    private final List<String> backupMetricNames = Lists.newArrayList();
 
     private EventuallyConsistentMap<DeviceId, List<TableStatisticsEntry>> deviceTableStats;
     private final EventuallyConsistentMapListener<DeviceId, List<TableStatisticsEntry>> tableStatsListener =
@@ -216,9 +227,10 @@ public class ECFlowRuleStore
 
         backupScheduler = Executors.newSingleThreadScheduledExecutor(
             groupedThreads("onos/flow", "backup-scheduler", log));
-        backupExecutor = Executors.newFixedThreadPool(
+        backupExecutor = new WorkStealingPredictableExecutor(
             max(min(Runtime.getRuntime().availableProcessors() * 2, 16), 4),
             groupedThreads("onos/flow", "backup-%d", log));
+        registerBackupMetrics();
 
         idGenerator = coreService.getIdGenerator(FlowRuleService.FLOW_OP_TOPIC);
 
@@ -261,12 +273,37 @@ public class ECFlowRuleStore
         eventHandler.shutdownNow();
         messageHandlingExecutor.shutdownNow();
         backupScheduler.shutdownNow();
+        unregisterBackupMetrics();
         backupExecutor.shutdownNow();
         backupScheduler = null;
         backupExecutor = null;
         log.info("Stopped");
     }
 
+    private void registerBackupMetrics() {
+        metricsComponent = metricsService.registerComponent("FlowRuleStore");
+        backupMetricsFeature = metricsComponent.registerFeature("backup");
+        final WorkStealingPredictableExecutor executor = backupExecutor;
+        for (int i = 0; i < executor.buckets(); i++) {
+            final int bucket = i;
+            registerBackupGauge("queueLength-" + bucket, () -> executor.queueLength(bucket));
+            registerBackupGauge("waitTimeMicros-p99-" + bucket,
+                                () -> executor.waitTimeMicros(bucket, 99));
+        }
+        registerBackupGauge("stealCount", executor::stealCount);
+    }
+
+    private void registerBackupGauge(String name, Gauge<Long> gauge) {
+        metricsService.registerMetric(metricsComponent, backupMetricsFeature, name, gauge);
+        backupMetricNames.add(name);
+    }
+
+    private void unregisterBackupMetrics() {
+        backupMetricNames.forEach(name -> metricsService.removeMetric(
+                metricsComponent, backupMetricsFeature, name));
+        backupMetricNames.clear();
+    }
+
     @SuppressWarnings("rawtypes")
     @Modified
     public void modified(ComponentContext context) {
@@ -699,7 +736,7 @@ public class ECFlowRuleStore
                 new InternalLifecycleManager(id),
                 deviceService,
                 backupScheduler,
-                new OrderedExecutor(backupExecutor),
+                backupExecutor.forHint(id.hashCode()),
                 backupPeriod,
                 antiEntropyPeriod));
         }
@@ -737,7 +774,7 @@ public class ECFlowRuleStore
                 new InternalLifecycleManager(deviceId),
                 deviceService,
                 backupScheduler,
-                new OrderedExecutor(backupExecutor),
+                backupExecutor.forHint(deviceId.hashCode()),
                 backupPeriod,
                 antiEntropyPeriod));
         }
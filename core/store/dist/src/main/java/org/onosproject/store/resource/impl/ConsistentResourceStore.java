@@ -16,9 +16,12 @@
 package org.onosproject.store.resource.impl;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.cluster.ClusterService;
 import org.onosproject.net.resource.ContinuousResource;
 import org.onosproject.net.resource.ContinuousResourceId;
 import org.onosproject.net.resource.DiscreteResource;
@@ -39,23 +42,36 @@ import org.onosproject.store.service.DistributedPrimitive;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.TransactionContext;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Dictionary;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -63,13 +79,41 @@ import java.util.stream.Stream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.stream.Collectors.groupingBy;
+import static org.onlab.util.Tools.getIntegerProperty;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onlab.util.Tools.isPropertyEnabled;
 import static org.onosproject.net.resource.ResourceEvent.Type.RESOURCE_ADDED;
 import static org.onosproject.net.resource.ResourceEvent.Type.RESOURCE_REMOVED;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_BLOCK_SIZE;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_BLOCK_SIZE_DEFAULT;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_ENABLED;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_ENABLED_DEFAULT;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_TIMEOUT_SECONDS;
+import static org.onosproject.store.OsgiPropertyConstants.CRS_LEASE_TIMEOUT_SECONDS_DEFAULT;
 
 /**
  * Implementation of ResourceStore using TransactionalMap.
+ * <p>
+ * In lease mode, VLAN IDs and MPLS labels are leased by each node in blocks,
+ * allocated to the node in a single transaction, and then handed out to
+ * consumers from local memory. Moves of leased resources between the lease
+ * holder and the actual consumers are queued, and all the moves pending at
+ * once are recorded in the consistent store in a single transaction on the
+ * lease executor. Allocations and releases complete once recorded, so a
+ * leased resource is never handed out before its consumer is recorded.
+ * Available leased resources are returned when a lease is not used for the
+ * lease timeout, and when the node shuts down; whatever is still leased by
+ * a node that failed is reclaimed when it restarts.
  */
-@Component(immediate = true, service = ResourceStore.class)
+@Component(
+        immediate = true,
+        service = ResourceStore.class,
+        property = {
+                CRS_LEASE_ENABLED + ":Boolean=" + CRS_LEASE_ENABLED_DEFAULT,
+                CRS_LEASE_BLOCK_SIZE + ":Integer=" + CRS_LEASE_BLOCK_SIZE_DEFAULT,
+                CRS_LEASE_TIMEOUT_SECONDS + ":Integer=" + CRS_LEASE_TIMEOUT_SECONDS_DEFAULT
+        }
+)
 @Beta
 public class ConsistentResourceStore extends AbstractStore<ResourceEvent, ResourceStoreDelegate>
         implements ResourceStore {
@@ -88,20 +132,86 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
             .register(MplsLabelCodec.class)
             .build());
 
+    private static final long LEASE_SWEEP_PERIOD_SECONDS = 10;
+    private static final int MAX_PENDING_TRANSFERS = 1024;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected StorageService service;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ClusterService clusterService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService configService;
+
+    /** Lease blocks of VLAN IDs and MPLS labels and allocate them locally. */
+    private boolean leaseEnabled = CRS_LEASE_ENABLED_DEFAULT;
+
+    /** Number of resources leased at once under the same parent. */
+    private int leaseBlockSize = CRS_LEASE_BLOCK_SIZE_DEFAULT;
+
+    /** Seconds after which available resources of an unused lease are returned. */
+    private int leaseTimeoutSeconds = CRS_LEASE_TIMEOUT_SECONDS_DEFAULT;
+
     private ConsistentDiscreteResourceSubStore discreteStore;
     private ConsistentContinuousResourceSubStore continuousStore;
 
+    private volatile DiscreteResourceLeases leases;
+    private ScheduledExecutorService leaseExecutor;
+
+    // moves of leased resources not recorded yet; callers block when full
+    private final BlockingQueue<Transfer> pendingTransfers = new ArrayBlockingQueue<>(MAX_PENDING_TRANSFERS);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         discreteStore = new ConsistentDiscreteResourceSubStore(service);
         continuousStore = new ConsistentContinuousResourceSubStore(service);
 
+        // return whatever this node leased before it last went down
+        reclaimLeases();
+
+        leaseExecutor = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/store/resource", "lease-sweeper", log));
+        leaseExecutor.scheduleWithFixedDelay(this::expireLeases, LEASE_SWEEP_PERIOD_SECONDS,
+                                             LEASE_SWEEP_PERIOD_SECONDS, TimeUnit.SECONDS);
+
+        configService.registerProperties(getClass());
+        modified(context);
         log.info("Started");
     }
 
+    @Deactivate
+    public void deactivate() {
+        configService.unregisterProperties(getClass(), false);
+        returnLeases();
+        leaseExecutor.shutdown();
+        log.info("Stopped");
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        leaseBlockSize = Math.max(1, getIntegerProperty(properties, CRS_LEASE_BLOCK_SIZE, leaseBlockSize));
+        leaseTimeoutSeconds = Math.max(1, getIntegerProperty(properties, CRS_LEASE_TIMEOUT_SECONDS,
+                                                             leaseTimeoutSeconds));
+        boolean newLeaseEnabled = isPropertyEnabled(properties, CRS_LEASE_ENABLED, leaseEnabled);
+        if (newLeaseEnabled != leaseEnabled) {
+            leaseEnabled = newLeaseEnabled;
+            if (leaseEnabled) {
+                leases = new DiscreteResourceLeases(clusterService.getLocalNode().id());
+            } else {
+                returnLeases();
+            }
+        }
+        log.info("Settings: {}={}, {}={}, {}={}", CRS_LEASE_ENABLED, leaseEnabled,
+                 CRS_LEASE_BLOCK_SIZE, leaseBlockSize, CRS_LEASE_TIMEOUT_SECONDS, leaseTimeoutSeconds);
+    }
+
     // Computational complexity: O(1) if the resource is discrete type.
     // O(n) if the resource is continuous type where n is the number of the existing allocations for the resource
     @Override
@@ -110,6 +220,14 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkArgument(id instanceof DiscreteResourceId || id instanceof ContinuousResourceId);
 
         if (id instanceof DiscreteResourceId) {
+            DiscreteResourceLeases leases = this.leases;
+            if (leases != null && leases.isLeased((DiscreteResourceId) id)) {
+                return leases.getConsumer((DiscreteResourceId) id)
+                        .map(consumer -> ImmutableList.of(
+                                new ResourceAllocation(Resources.discrete((DiscreteResourceId) id).resource(),
+                                                       consumer)))
+                        .orElse(ImmutableList.of());
+            }
             return discreteStore.getResourceAllocations((DiscreteResourceId) id);
         } else {
             return continuousStore.getResourceAllocations((ContinuousResourceId) id);
@@ -168,6 +286,16 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
     public boolean unregister(List<? extends ResourceId> ids) {
         checkNotNull(ids);
 
+        DiscreteResourceLeases leases = this.leases;
+        if (leases != null) {
+            List<DiscreteResource> discretes = ids.stream()
+                    .filter(x -> x instanceof DiscreteResourceId)
+                    .map(x -> Resources.discrete((DiscreteResourceId) x).resource())
+                    .collect(Collectors.toList());
+            Set<DiscreteResource> evicted = leases.evict(discretes);
+            runOnLeaseExecutor(() -> returnToStore(leases.consumerId(), evicted));
+        }
+
         // Retry the transaction until successful.
         while (true) {
             TransactionContext tx = service.transactionContextBuilder().build();
@@ -228,6 +356,70 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkNotNull(resources);
         checkNotNull(consumer);
 
+        DiscreteResourceLeases leases = this.leases;
+        if (leases == null) {
+            return allocateTransactionally(resources, consumer.consumerId());
+        }
+
+        long now = System.currentTimeMillis();
+        leaseBlocks(leases, resources, now);
+        if (leases.allocate(consumer.consumerId(), resources, now)) {
+            List<DiscreteResource> leased = resources.stream()
+                    .map(x -> (DiscreteResource) x)
+                    .collect(Collectors.toList());
+            if (!transfer(leased, leases.consumerId(), consumer.consumerId())) {
+                revoke(leases, consumer.consumerId(), leased, now);
+                return false;
+            }
+            return true;
+        }
+
+        // take the leased resources locally and the others through a transaction
+        List<DiscreteResource> leased = new ArrayList<>();
+        List<Resource> others = new ArrayList<>();
+        for (Resource resource : resources) {
+            if (resource instanceof DiscreteResource && leases.isLeased(((DiscreteResource) resource).id())) {
+                leased.add((DiscreteResource) resource);
+            } else {
+                others.add(resource);
+            }
+        }
+        if (!leases.allocate(consumer.consumerId(), leased, now)) {
+            return false;
+        }
+        if (!transfer(leased, leases.consumerId(), consumer.consumerId())) {
+            revoke(leases, consumer.consumerId(), leased, now);
+            return false;
+        }
+        if (!allocateTransactionally(others, consumer.consumerId())) {
+            if (transfer(leased, consumer.consumerId(), leases.consumerId())) {
+                leases.release(consumer.consumerId(), leased, now);
+            } else {
+                revoke(leases, consumer.consumerId(), leased, now);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes back leased resources whose move to the consumer could not be
+     * recorded, and stops leasing them, as their record in the consistent
+     * store may not match the local one.
+     *
+     * @param leases     local leases
+     * @param consumerId consumer the resources were allocated to locally
+     * @param resources  resources
+     * @param now        current time in millis
+     */
+    private void revoke(DiscreteResourceLeases leases, ResourceConsumerId consumerId,
+                        List<DiscreteResource> resources, long now) {
+        leases.release(consumerId, resources, now);
+        Set<DiscreteResource> evicted = leases.evict(resources);
+        runOnLeaseExecutor(() -> returnToStore(leases.consumerId(), evicted));
+    }
+
+    private boolean allocateTransactionally(List<? extends Resource> resources, ResourceConsumerId consumerId) {
         while (true) {
             TransactionContext tx = service.transactionContextBuilder().build();
             tx.begin();
@@ -236,11 +428,11 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
             TransactionalContinuousResourceSubStore continuousTxStore = continuousStore.transactional(tx);
             for (Resource resource : resources) {
                 if (resource instanceof DiscreteResource) {
-                    if (!discreteTxStore.allocate(consumer.consumerId(), (DiscreteResource) resource)) {
+                    if (!discreteTxStore.allocate(consumerId, (DiscreteResource) resource)) {
                         return abortTransaction(tx);
                     }
                 } else if (resource instanceof ContinuousResource) {
-                    if (!continuousTxStore.allocate(consumer.consumerId(), (ContinuousResource) resource)) {
+                    if (!continuousTxStore.allocate(consumerId, (ContinuousResource) resource)) {
                         return abortTransaction(tx);
                     }
                 }
@@ -261,6 +453,40 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
     public boolean release(List<ResourceAllocation> allocations) {
         checkNotNull(allocations);
 
+        DiscreteResourceLeases leases = this.leases;
+        if (leases == null) {
+            return releaseTransactionally(allocations);
+        }
+
+        Map<ResourceConsumerId, List<DiscreteResource>> leased = new LinkedHashMap<>();
+        List<ResourceAllocation> others = new ArrayList<>();
+        for (ResourceAllocation allocation : allocations) {
+            Resource resource = allocation.resource();
+            if (resource instanceof DiscreteResource &&
+                    leases.isAllocatedTo(allocation.consumerId(), ((DiscreteResource) resource).id())) {
+                leased.computeIfAbsent(allocation.consumerId(), k -> new ArrayList<>())
+                        .add((DiscreteResource) resource);
+            } else {
+                others.add(allocation);
+            }
+        }
+        if (!others.isEmpty() && !releaseTransactionally(others)) {
+            return false;
+        }
+        // released resources become available locally once the move back to
+        // the lease holder is recorded, so that no later move overtakes it
+        boolean recorded = true;
+        for (Map.Entry<ResourceConsumerId, List<DiscreteResource>> entry : leased.entrySet()) {
+            if (!transfer(entry.getValue(), entry.getKey(), leases.consumerId())) {
+                log.warn("Failed to record {} as released by {}", entry.getValue(), entry.getKey());
+                recorded = false;
+            }
+            leases.release(entry.getKey(), entry.getValue(), System.currentTimeMillis());
+        }
+        return recorded;
+    }
+
+    private boolean releaseTransactionally(List<ResourceAllocation> allocations) {
         while (true) {
             TransactionContext tx = service.transactionContextBuilder().build();
             tx.begin();
@@ -302,6 +528,10 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkArgument(resource instanceof DiscreteResource || resource instanceof ContinuousResource);
 
         if (resource instanceof DiscreteResource) {
+            DiscreteResourceLeases leases = this.leases;
+            if (leases != null && leases.isLeased(((DiscreteResource) resource).id())) {
+                return leases.isAvailable(((DiscreteResource) resource).id());
+            }
             // check if already consumed
             return discreteStore.isAvailable((DiscreteResource) resource);
         } else {
@@ -318,6 +548,12 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         // NOTE: getting all entries may become performance bottleneck
         // TODO: revisit for better backend data structure
         Stream<DiscreteResource> discrete = discreteStore.getResources(consumer.consumerId());
+        DiscreteResourceLeases leases = this.leases;
+        if (leases != null) {
+            // leased resources are answered locally, as their record may lag behind
+            discrete = Stream.concat(discrete.filter(x -> !leases.isLeased(x.id())),
+                                     leases.getResources(consumer.consumerId()).stream());
+        }
         Stream<ContinuousResource> continuous = continuousStore.getResources(consumer.consumerId());
 
         return Stream.concat(discrete, continuous).collect(Collectors.toList());
@@ -352,11 +588,255 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkNotNull(cls);
 
         Stream<DiscreteResource> discrete = discreteStore.getAllocatedResources(parent, cls);
+        DiscreteResourceLeases leases = this.leases;
+        if (leases != null) {
+            // leased resources are allocated to the lease holder in the consistent store
+            discrete = discrete.filter(x -> !leases.isAvailable(x.id()));
+        }
         Stream<ContinuousResource> continuous = continuousStore.getAllocatedResources(parent, cls);
 
         return Stream.concat(discrete, continuous).collect(Collectors.toList());
     }
 
+    /**
+     * Leases blocks containing the leasable resources among the given ones,
+     * which are not leased yet. Failing to lease a block is not an error;
+     * the resources are then allocated through transactions.
+     * <p>
+     * Nothing is read from the consistent store unless some resource has to
+     * be leased; availability is then checked within the lease transaction.
+     *
+     * @param leases    local leases
+     * @param resources resources about to be allocated
+     * @param now       current time in millis
+     */
+    private void leaseBlocks(DiscreteResourceLeases leases, List<? extends Resource> resources, long now) {
+        Map<DiscreteResourceId, Set<DiscreteResource>> requested = resources.stream()
+                .filter(DiscreteResourceLeases::isLeasable)
+                .map(x -> (DiscreteResource) x)
+                .filter(x -> !leases.isLeased(x.id()))
+                .collect(groupingBy(x -> x.parent().get().id(), LinkedHashMap::new,
+                                    Collectors.toCollection(LinkedHashSet::new)));
+        if (requested.isEmpty()) {
+            return;
+        }
+
+        TransactionContext tx = service.transactionContextBuilder().build();
+        tx.begin();
+        TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
+        List<DiscreteResource> block = new ArrayList<>();
+        for (Map.Entry<DiscreteResourceId, Set<DiscreteResource>> entry : requested.entrySet()) {
+            Set<DiscreteResource> values = entry.getValue();
+            for (DiscreteResource resource : values) {
+                if (!discreteTxStore.allocate(leases.consumerId(), resource)) {
+                    abortTransaction(tx);
+                    return;
+                }
+                block.add(resource);
+            }
+            for (Class<?> type : DiscreteResourceLeases.LEASABLE_TYPES) {
+                long count = values.stream().filter(x -> x.isTypeOf(type)).count();
+                if (count == 0) {
+                    continue;
+                }
+                Iterator<DiscreteResource> candidates = discreteStore.getChildResources(entry.getKey(), type)
+                        .stream()
+                        .filter(x -> !values.contains(x))
+                        .filter(x -> !leases.isLeased(x.id()))
+                        .iterator();
+                while (count < leaseBlockSize && candidates.hasNext()) {
+                    DiscreteResource candidate = candidates.next();
+                    if (discreteTxStore.isAllocated(candidate.id())) {
+                        continue;
+                    }
+                    if (!discreteTxStore.allocate(leases.consumerId(), candidate)) {
+                        abortTransaction(tx);
+                        return;
+                    }
+                    block.add(candidate);
+                    count++;
+                }
+            }
+        }
+
+        try {
+            if (commitTransaction(tx) == CommitStatus.SUCCESS) {
+                log.debug("Leased {} resources", block.size());
+                leases.add(block, now);
+            }
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            log.warn("Failed to lease {} resources: {}", block.size(), e);
+        }
+    }
+
+    /**
+     * Records in the consistent store that the given leased resources moved
+     * from one consumer to another, after all moves recorded before. The
+     * move is queued, blocking while too many moves are pending, and
+     * recorded along with all the other pending moves in one transaction.
+     *
+     * @param resources resources
+     * @param from      previous consumer
+     * @param to        new consumer
+     * @return true if the move was recorded
+     */
+    private boolean transfer(List<DiscreteResource> resources, ResourceConsumerId from, ResourceConsumerId to) {
+        if (resources.isEmpty()) {
+            return true;
+        }
+        Transfer transfer = new Transfer(resources, from, to);
+        try {
+            pendingTransfers.put(transfer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                leaseExecutor.execute(this::drainTransfers);
+            } catch (RejectedExecutionException e) {
+                drainTransfers();
+            }
+        }
+        // once queued, the move is recorded or failed by the drain
+        return transfer.recorded.join();
+    }
+
+    /**
+     * Records all pending moves of leased resources in one transaction.
+     * Moves that cannot be applied are failed and left out of the
+     * transaction.
+     */
+    private void drainTransfers() {
+        drainScheduled.set(false);
+        List<Transfer> transfers = new ArrayList<>();
+        pendingTransfers.drainTo(transfers);
+        try {
+            recordTransfers(transfers);
+        } finally {
+            transfers.forEach(t -> t.recorded.complete(false));
+        }
+    }
+
+    // Records the given moves, in order, in one transaction
+    private void recordTransfers(List<Transfer> transfers) {
+        List<Transfer> remaining = new ArrayList<>(transfers);
+        while (!remaining.isEmpty()) {
+            TransactionContext tx = service.transactionContextBuilder().build();
+            tx.begin();
+
+            TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
+            Optional<Transfer> failed = remaining.stream()
+                    .filter(t -> !t.apply(discreteTxStore))
+                    .findFirst();
+            if (failed.isPresent()) {
+                abortTransaction(tx);
+                log.warn("Failed to record {} as allocated to {}", failed.get().resources, failed.get().to);
+                failed.get().recorded.complete(false);
+                remaining.remove(failed.get());
+                continue;
+            }
+
+            try {
+                if (commitTransaction(tx) == CommitStatus.SUCCESS) {
+                    log.trace("Recorded {} moves of leased resources", remaining.size());
+                    remaining.forEach(t -> t.recorded.complete(true));
+                    return;
+                }
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                log.warn("Failed to record {} moves of leased resources: {}", remaining.size(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the given task on the lease executor, after all moves of leased
+     * resources recorded before, and waits for it to complete.
+     *
+     * @param task task to run
+     */
+    private void runOnLeaseExecutor(Runnable task) {
+        try {
+            leaseExecutor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Exception thrown while returning leased resources", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the available resources of leases unused for the lease timeout.
+     */
+    private void expireLeases() {
+        try {
+            DiscreteResourceLeases leases = this.leases;
+            if (leases != null) {
+                long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(leaseTimeoutSeconds);
+                returnToStore(leases.consumerId(), leases.expire(deadline));
+            }
+        } catch (Exception e) {
+            log.warn("Exception thrown while expiring leases", e);
+        }
+    }
+
+    /**
+     * Stops leasing and returns the available leased resources to the
+     * consistent store, once the consumers of the others are recorded.
+     */
+    private void returnLeases() {
+        DiscreteResourceLeases leases = this.leases;
+        if (leases == null) {
+            return;
+        }
+        this.leases = null;
+        Set<DiscreteResource> available = leases.drain();
+        runOnLeaseExecutor(() -> {
+            returnToStore(leases.consumerId(), available);
+            log.info("Returned {} leased resources", available.size());
+        });
+    }
+
+    /**
+     * Releases the resources allocated to the lease holder of this node by a
+     * previous incarnation of it. A leased resource is only handed out once
+     * its consumer is recorded, so no consumer can hold any of these.
+     */
+    private void reclaimLeases() {
+        ResourceConsumerId consumerId = DiscreteResourceLeases.consumerId(clusterService.getLocalNode().id());
+        Set<DiscreteResource> resources = discreteStore.getResources(consumerId)
+                .collect(Collectors.toSet());
+        if (!resources.isEmpty()) {
+            log.info("Reclaiming {} resources leased before restart", resources.size());
+            returnToStore(consumerId, resources);
+        }
+    }
+
+    // Releases the given resources still allocated to the lease holder
+    private void returnToStore(ResourceConsumerId leaseConsumerId, Collection<DiscreteResource> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        while (true) {
+            TransactionContext tx = service.transactionContextBuilder().build();
+            tx.begin();
+
+            // resources handed to a consumer in the meantime are left alone
+            TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
+            resources.forEach(resource -> discreteTxStore.release(leaseConsumerId, resource));
+
+            try {
+                if (commitTransaction(tx) == CommitStatus.SUCCESS) {
+                    return;
+                }
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                log.warn("Failed to return {} leased resources: {}", resources.size(), e);
+                return;
+            }
+        }
+    }
+
     /**
      * Commits a transaction.
      *
@@ -435,4 +915,31 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         return discreteTxStore.unregister(parent, discreteResources)
                 && continuousTxStore.unregister(parent, continuousResources);
     }
+
+    /**
+     * Move of leased resources from one consumer to another, waiting to be
+     * recorded in the consistent store.
+     */
+    private static final class Transfer {
+        private final List<DiscreteResource> resources;
+        private final ResourceConsumerId from;
+        private final ResourceConsumerId to;
+        private final CompletableFuture<Boolean> recorded = new CompletableFuture<>();
+
+        private Transfer(List<DiscreteResource> resources, ResourceConsumerId from, ResourceConsumerId to) {
+            this.resources = ImmutableList.copyOf(resources);
+            this.from = from;
+            this.to = to;
+        }
+
+        // Applies the move within the transaction, which sees the moves applied before
+        private boolean apply(TransactionalDiscreteResourceSubStore discreteTxStore) {
+            for (DiscreteResource resource : resources) {
+                if (!discreteTxStore.release(from, resource) || !discreteTxStore.allocate(to, resource)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import org.onlab.packet.MplsLabel;
+import org.onlab.packet.VlanId;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.DiscreteResourceId;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceConsumer;
+import org.onosproject.net.resource.ResourceConsumerId;
+import org.onosproject.net.resource.Resources;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Blocks of discrete resources leased by the local node.
+ * <p>
+ * Leased resources are allocated to this object in the consistent store, so
+ * that other nodes regard them as in use, and are handed out to the actual
+ * consumers locally without a transaction of their own. The store records
+ * the actual consumers of leased resources in the consistent store, batched
+ * with the other pending allocations and releases, so only available leased
+ * resources remain allocated to this object there.
+ */
+final class DiscreteResourceLeases implements ResourceConsumer {
+
+    static final Set<Class<?>> LEASABLE_TYPES = ImmutableSet.of(VlanId.class, MplsLabel.class);
+
+    private final ResourceConsumerId consumerId;
+
+    // guarded by this
+    private final Map<DiscreteResourceId, Lease> leased = Maps.newHashMap();
+    private final Map<DiscreteResourceId, ResourceConsumerId> allocations = Maps.newHashMap();
+
+    /**
+     * Creates the leases of the given node.
+     *
+     * @param nodeId identifier of the local node
+     */
+    DiscreteResourceLeases(NodeId nodeId) {
+        this.consumerId = consumerId(nodeId);
+    }
+
+    /**
+     * Returns the identifier under which the given node holds leased
+     * resources in the consistent store.
+     *
+     * @param nodeId node identifier
+     * @return resource consumer identifier
+     */
+    static ResourceConsumerId consumerId(NodeId nodeId) {
+        long value = Hashing.murmur3_128().hashString(nodeId.id(), UTF_8).asLong();
+        return ResourceConsumerId.of(value, DiscreteResourceLeases.class);
+    }
+
+    /**
+     * Returns whether resources of the same type as the given resource are
+     * handed out in leased blocks.
+     *
+     * @param resource resource
+     * @return true if the resource is leasable
+     */
+    static boolean isLeasable(Resource resource) {
+        return resource instanceof DiscreteResource && resource.parent().isPresent()
+                && LEASABLE_TYPES.stream().anyMatch(resource::isTypeOf);
+    }
+
+    @Override
+    public ResourceConsumerId consumerId() {
+        return consumerId;
+    }
+
+    /**
+     * Adds a block of resources newly allocated to this lease holder.
+     *
+     * @param resources resources in the block
+     * @param now       current time in millis
+     */
+    synchronized void add(Collection<DiscreteResource> resources, long now) {
+        Lease lease = new Lease(now);
+        resources.forEach(resource -> {
+            lease.resources.add(resource.id());
+            leased.put(resource.id(), lease);
+        });
+    }
+
+    /**
+     * Returns whether the given resource is leased by the local node.
+     *
+     * @param id resource identifier
+     * @return true if the resource is leased
+     */
+    synchronized boolean isLeased(DiscreteResourceId id) {
+        return leased.containsKey(id);
+    }
+
+    /**
+     * Returns whether the given resource is leased by the local node and is
+     * not allocated to any consumer.
+     *
+     * @param id resource identifier
+     * @return true if the resource is available locally
+     */
+    synchronized boolean isAvailable(DiscreteResourceId id) {
+        return leased.containsKey(id) && !allocations.containsKey(id);
+    }
+
+    /**
+     * Returns the local consumer of the given resource.
+     *
+     * @param id resource identifier
+     * @return consumer identifier, if the resource is allocated locally
+     */
+    synchronized Optional<ResourceConsumerId> getConsumer(DiscreteResourceId id) {
+        return Optional.ofNullable(allocations.get(id));
+    }
+
+    /**
+     * Allocates the given resources to the consumer, if all of them are
+     * leased and available. Nothing is allocated otherwise.
+     *
+     * @param consumer  consumer identifier
+     * @param resources resources to allocate
+     * @param now       current time in millis
+     * @return true if the resources were allocated
+     */
+    synchronized boolean allocate(ResourceConsumerId consumer,
+                                  Collection<? extends Resource> resources, long now) {
+        for (Resource resource : resources) {
+            if (!(resource instanceof DiscreteResource) ||
+                    !isAvailable(((DiscreteResource) resource).id())) {
+                return false;
+            }
+        }
+        for (Resource resource : resources) {
+            DiscreteResourceId id = ((DiscreteResource) resource).id();
+            allocations.put(id, consumer);
+            leased.get(id).lastUsed = now;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given resource is allocated locally to the consumer.
+     *
+     * @param consumer consumer identifier
+     * @param id       resource identifier
+     * @return true if the resource is allocated to the consumer
+     */
+    synchronized boolean isAllocatedTo(ResourceConsumerId consumer, DiscreteResourceId id) {
+        return consumer.equals(allocations.get(id));
+    }
+
+    /**
+     * Releases the given resources allocated locally to the consumer,
+     * returning them to their leases.
+     *
+     * @param consumer  consumer identifier
+     * @param resources resources to release
+     * @param now       current time in millis
+     */
+    synchronized void release(ResourceConsumerId consumer, Collection<DiscreteResource> resources, long now) {
+        for (DiscreteResource resource : resources) {
+            if (allocations.remove(resource.id(), consumer)) {
+                leased.get(resource.id()).lastUsed = now;
+            }
+        }
+    }
+
+    /**
+     * Returns the resources allocated locally to the consumer.
+     *
+     * @param consumer consumer identifier
+     * @return resources
+     */
+    synchronized List<DiscreteResource> getResources(ResourceConsumerId consumer) {
+        ImmutableList.Builder<DiscreteResource> builder = ImmutableList.builder();
+        allocations.forEach((id, holder) -> {
+            if (holder.equals(consumer)) {
+                builder.add(Resources.discrete(id).resource());
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Removes the available resources of leases unused since the deadline
+     * from their leases, so that they can be returned to the consistent store.
+     *
+     * @param deadline time in millis
+     * @return resources removed from their leases
+     */
+    synchronized Set<DiscreteResource> expire(long deadline) {
+        ImmutableSet.Builder<DiscreteResource> expired = ImmutableSet.builder();
+        ImmutableSet.copyOf(leased.values()).stream()
+                .filter(lease -> lease.lastUsed < deadline)
+                .forEach(lease -> {
+                    Iterator<DiscreteResourceId> it = lease.resources.iterator();
+                    while (it.hasNext()) {
+                        DiscreteResourceId id = it.next();
+                        if (!allocations.containsKey(id)) {
+                            it.remove();
+                            leased.remove(id);
+                            expired.add(Resources.discrete(id).resource());
+                        }
+                    }
+                });
+        return expired.build();
+    }
+
+    /**
+     * Removes the given resources from their leases if they are available,
+     * so that they can be returned to the consistent store.
+     *
+     * @param resources resources to evict
+     * @return resources removed from their leases
+     */
+    synchronized Set<DiscreteResource> evict(Collection<DiscreteResource> resources) {
+        ImmutableSet.Builder<DiscreteResource> evicted = ImmutableSet.builder();
+        for (DiscreteResource resource : resources) {
+            if (isAvailable(resource.id())) {
+                leased.remove(resource.id()).resources.remove(resource.id());
+                evicted.add(resource);
+            }
+        }
+        return evicted.build();
+    }
+
+    /**
+     * Removes all leased resources, handing the ones allocated locally over
+     * to their consumers.
+     *
+     * @return leased resources not allocated to any consumer
+     */
+    synchronized Set<DiscreteResource> drain() {
+        ImmutableSet.Builder<DiscreteResource> drained = ImmutableSet.builder();
+        leased.keySet().stream()
+                .filter(id -> !allocations.containsKey(id))
+                .forEach(id -> drained.add(Resources.discrete(id).resource()));
+        leased.clear();
+        allocations.clear();
+        return drained.build();
+    }
+
+    private static final class Lease {
+        private final Set<DiscreteResourceId> resources = Sets.newHashSet();
+        private long lastUsed;
+
+        private Lease(long now) {
+            this.lastUsed = now;
+        }
+    }
+}
@@ -15,7 +15,7 @@
  */
 package org.onosproject.store.statistic.impl;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableSet;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
@@ -28,6 +28,8 @@ import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.flow.instructions.Instructions;
+import org.onosproject.net.statistic.DefaultLoad;
+import org.onosproject.net.statistic.Load;
 import org.onosproject.net.statistic.StatisticStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
@@ -44,7 +46,6 @@ import org.slf4j.Logger;
 
 import java.util.Collections;
 import java.util.Dictionary;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -53,6 +54,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -95,14 +97,13 @@ public class DistributedStatisticStore implements StatisticStore {
 
     public static final MessageSubject GET_CURRENT = new MessageSubject("peer-return-current");
     public static final MessageSubject GET_PREVIOUS = new MessageSubject("peer-return-previous");
+    public static final MessageSubject GET_LOAD = new MessageSubject("peer-return-load");
 
     private Map<ConnectPoint, InternalStatisticRepresentation> representations =
             new ConcurrentHashMap<>();
 
-    private Map<ConnectPoint, Set<FlowEntry>> previous =
-            new ConcurrentHashMap<>();
-
-    private Map<ConnectPoint, Set<FlowEntry>> current =
+    // published current and previous windows, replaced as a whole on every update
+    private Map<ConnectPoint, StatisticWindow> windows =
             new ConcurrentHashMap<>();
 
     protected static final Serializer SERIALIZER = Serializer.using(KryoNamespaces.API);
@@ -136,12 +137,19 @@ public class DistributedStatisticStore implements StatisticStore {
                 SERIALIZER::encode,
                 messageHandlingExecutor);
 
+        clusterCommunicator.<ConnectPoint, long[]>addSubscriber(GET_LOAD,
+                SERIALIZER::decode,
+                this::getLoadInternal,
+                SERIALIZER::encode,
+                messageHandlingExecutor);
+
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
         cfgService.unregisterProperties(getClass(), false);
+        clusterCommunicator.removeSubscriber(GET_LOAD);
         clusterCommunicator.removeSubscriber(GET_PREVIOUS);
         clusterCommunicator.removeSubscriber(GET_CURRENT);
         messageHandlingExecutor.shutdown();
@@ -181,32 +189,21 @@ public class DistributedStatisticStore implements StatisticStore {
         if (cp == null) {
             return;
         }
-        InternalStatisticRepresentation rep;
-        synchronized (representations) {
-            rep = getOrCreateRepresentation(cp);
-        }
-        rep.prepare();
+        representations.computeIfAbsent(cp, k -> new InternalStatisticRepresentation())
+                .prepare();
     }
 
     @Override
-    public synchronized void removeFromStatistics(FlowRule rule) {
+    public void removeFromStatistics(FlowRule rule) {
         ConnectPoint cp = buildConnectPoint(rule);
         if (cp == null) {
             return;
         }
         InternalStatisticRepresentation rep = representations.get(cp);
         if (rep != null && rep.remove(rule)) {
-            updatePublishedStats(cp, Collections.emptySet());
-        }
-        Set<FlowEntry> values = current.get(cp);
-        if (values != null) {
-            values.remove(rule);
-        }
-        values = previous.get(cp);
-        if (values != null) {
-            values.remove(rule);
+            updatePublishedStats(cp, ImmutableSet.of(), 0);
         }
-
+        windows.computeIfPresent(cp, (k, window) -> window.without(rule));
     }
 
     @Override
@@ -217,19 +214,14 @@ public class DistributedStatisticStore implements StatisticStore {
         }
         InternalStatisticRepresentation rep = representations.get(cp);
         if (rep != null && rep.submit(rule)) {
-            updatePublishedStats(cp, rep.get());
+            rep.publish(cp);
         }
     }
 
-    private synchronized void updatePublishedStats(ConnectPoint cp,
-                                                   Set<FlowEntry> flowEntries) {
-        Set<FlowEntry> curr = current.get(cp);
-        if (curr == null) {
-            curr = new HashSet<>();
-        }
-        previous.put(cp, curr);
-        current.put(cp, flowEntries);
-
+    private void updatePublishedStats(ConnectPoint cp, Set<FlowEntry> flowEntries, long bytes) {
+        windows.compute(cp, (k, window) -> window == null
+                ? new StatisticWindow(flowEntries, bytes, ImmutableSet.of(), 0)
+                : new StatisticWindow(flowEntries, bytes, window.current, window.currentBytes));
     }
 
     @Override
@@ -256,8 +248,9 @@ public class DistributedStatisticStore implements StatisticStore {
 
     }
 
-    private synchronized Set<FlowEntry> getCurrentStatisticInternal(ConnectPoint connectPoint) {
-        return current.get(connectPoint);
+    private Set<FlowEntry> getCurrentStatisticInternal(ConnectPoint connectPoint) {
+        StatisticWindow window = windows.get(connectPoint);
+        return window == null ? null : window.current;
     }
 
     @Override
@@ -283,20 +276,43 @@ public class DistributedStatisticStore implements StatisticStore {
         }
     }
 
-    private synchronized Set<FlowEntry> getPreviousStatisticInternal(ConnectPoint connectPoint) {
-        return previous.get(connectPoint);
+    private Set<FlowEntry> getPreviousStatisticInternal(ConnectPoint connectPoint) {
+        StatisticWindow window = windows.get(connectPoint);
+        return window == null ? null : window.previous;
     }
 
-    private InternalStatisticRepresentation getOrCreateRepresentation(ConnectPoint cp) {
-
-        if (representations.containsKey(cp)) {
-            return representations.get(cp);
+    @Override
+    public Load load(ConnectPoint connectPoint) {
+        final DeviceId deviceId = connectPoint.deviceId();
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        if (master == null) {
+            log.warn("No master for {}", deviceId);
+            return new DefaultLoad();
+        }
+        long[] load;
+        if (master.equals(clusterService.getLocalNode().id())) {
+            load = getLoadInternal(connectPoint);
         } else {
-            InternalStatisticRepresentation rep = new InternalStatisticRepresentation();
-            representations.put(cp, rep);
-            return rep;
+            load = Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(
+                                        connectPoint,
+                                        GET_LOAD,
+                                        SERIALIZER::encode,
+                                        SERIALIZER::decode,
+                                        master),
+                                   STATISTIC_STORE_TIMEOUT_MILLIS,
+                                   TimeUnit.MILLISECONDS,
+                                   null);
         }
+        return load == null ? new DefaultLoad() : new DefaultLoad(load[0], load[1]);
+    }
 
+    // Returns current and previous aggregate bytes, or null if either window is empty
+    private long[] getLoadInternal(ConnectPoint connectPoint) {
+        StatisticWindow window = windows.get(connectPoint);
+        if (window == null || window.current.isEmpty() || window.previous.isEmpty()) {
+            return null;
+        }
+        return new long[]{window.currentBytes, window.previousBytes};
     }
 
     private ConnectPoint buildConnectPoint(FlowRule rule) {
@@ -319,25 +335,35 @@ public class DistributedStatisticStore implements StatisticStore {
         return null;
     }
 
+    /**
+     * Flow entries observed on a port, with their aggregate byte count
+     * maintained incrementally as flow stats arrive.
+     */
     private class InternalStatisticRepresentation {
 
         private final AtomicInteger counter = new AtomicInteger(0);
-        private final Set<FlowEntry> rules = new HashSet<>();
+        private final Map<FlowRule, FlowEntry> rules = new ConcurrentHashMap<>();
+        // adjusted within the map update of each entry, so that it never
+        // drifts from the bytes of the entries in the map
+        private final LongAdder bytes = new LongAdder();
 
         public void prepare() {
             counter.incrementAndGet();
         }
 
-        public synchronized boolean remove(FlowRule rule) {
-            rules.remove(rule);
+        public boolean remove(FlowRule rule) {
+            rules.computeIfPresent(rule, (k, old) -> {
+                bytes.add(-old.bytes());
+                return null;
+            });
             return counter.decrementAndGet() == 0;
         }
 
-        public synchronized boolean submit(FlowEntry rule) {
-            if (rules.contains(rule)) {
-                rules.remove(rule);
-            }
-            rules.add(rule);
+        public boolean submit(FlowEntry rule) {
+            rules.compute(rule, (k, old) -> {
+                bytes.add(old == null ? rule.bytes() : rule.bytes() - old.bytes());
+                return rule;
+            });
             if (counter.get() == 0) {
                 return true;
             } else {
@@ -345,12 +371,59 @@ public class DistributedStatisticStore implements StatisticStore {
             }
         }
 
-        public synchronized Set<FlowEntry> get() {
+        public void publish(ConnectPoint cp) {
             counter.set(rules.size());
-            return Sets.newHashSet(rules);
+            // the entries are copied as the store returns them per window,
+            // but their bytes are not summed up again
+            updatePublishedStats(cp, ImmutableSet.copyOf(rules.values()), bytes.sum());
+        }
+    }
+
+    /**
+     * Immutable pair of current and previous published windows of a port.
+     */
+    private static final class StatisticWindow {
+
+        private final Set<FlowEntry> current;
+        private final long currentBytes;
+        private final Set<FlowEntry> previous;
+        private final long previousBytes;
+
+        private StatisticWindow(Set<FlowEntry> current, long currentBytes,
+                                Set<FlowEntry> previous, long previousBytes) {
+            this.current = current;
+            this.currentBytes = currentBytes;
+            this.previous = previous;
+            this.previousBytes = previousBytes;
         }
 
+        private StatisticWindow without(FlowRule rule) {
+            boolean inCurrent = current.contains(rule);
+            boolean inPrevious = previous.contains(rule);
+            if (!inCurrent && !inPrevious) {
+                return this;
+            }
+            // only the window holding the removed entry is rebuilt, and its
+            // bytes are deducted from the total
+            return new StatisticWindow(inCurrent ? without(current, rule) : current,
+                                       inCurrent ? currentBytes - bytes(current, rule) : currentBytes,
+                                       inPrevious ? without(previous, rule) : previous,
+                                       inPrevious ? previousBytes - bytes(previous, rule) : previousBytes);
+        }
 
+        private static Set<FlowEntry> without(Set<FlowEntry> entries, FlowRule rule) {
+            return entries.stream()
+                    .filter(entry -> !rule.equals(entry))
+                    .collect(ImmutableSet.toImmutableSet());
+        }
+
+        // Bytes of the entries of the given flow rule
+        private static long bytes(Set<FlowEntry> entries, FlowRule rule) {
+            return entries.stream()
+                    .filter(rule::equals)
+                    .mapToLong(FlowEntry::bytes)
+                    .sum();
+        }
     }
 
     /**
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DefaultDeviceDescription;
+import org.onosproject.net.device.DeviceDescription;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.impl.MastershipBasedTimestamp;
+import org.onosproject.store.impl.Timestamped;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.net.Device.Type.SWITCH;
+import static org.onosproject.net.DeviceId.deviceId;
+
+/**
+ * Unit tests for {@link GossipDeviceStoreCodecs}.
+ */
+public class GossipDeviceStoreCodecsTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final DeviceId DID1 = deviceId("of:foo");
+
+    @Test
+    public void deviceEvent() {
+        Serializer serializer = GossipDeviceStoreCodecs.serializer(KryoNamespaces.API);
+        DeviceDescription description =
+                new DefaultDeviceDescription(DID1.uri(), SWITCH, "mfr", "hw", "sw", "sn",
+                                             new ChassisId(1));
+        Timestamped<DeviceDescription> timestamped =
+                new Timestamped<>(description, new MastershipBasedTimestamp(3, 42));
+
+        InternalDeviceEvent event = serializer.decode(
+                serializer.encode(new InternalDeviceEvent(PID, DID1, timestamped)));
+        assertEquals(PID, event.providerId());
+        assertEquals(DID1, event.deviceId());
+        assertEquals(timestamped.timestamp(), event.deviceDescription().timestamp());
+        assertEquals(description, event.deviceDescription().value());
+    }
+}
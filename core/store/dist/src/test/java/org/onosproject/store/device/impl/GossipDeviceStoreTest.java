@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
@@ -195,9 +196,10 @@ public class GossipDeviceStoreTest {
 
         testGossipDeviceStore.storageService = testStorageService;
         testGossipDeviceStore.deviceClockService = deviceClockService;
+        testGossipDeviceStore.configService = new ComponentConfigAdapter();
 
         gossipDeviceStore = testGossipDeviceStore;
-        gossipDeviceStore.activate();
+        gossipDeviceStore.activate(null);
         deviceStore = gossipDeviceStore;
         verify(clusterCommunicator);
         reset(clusterCommunicator);
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DefaultPortStatistics;
+import org.onosproject.net.device.PortStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for {@link PortStatsTable}.
+ */
+public class PortStatsTableTest {
+
+    private static final DeviceId DID1 = deviceId("of:foo");
+    private static final DeviceId DID2 = deviceId("of:bar");
+    private static final PortNumber P1 = portNumber(1);
+    private static final PortNumber P2 = portNumber(2);
+
+    private PortStatsTable table;
+
+    @Before
+    public void setUp() {
+        table = new PortStatsTable(3);
+    }
+
+    private static PortStatistics stats(PortNumber port, long bytes, long sec, long nano) {
+        return DefaultPortStatistics.builder()
+                .setDeviceId(DID1)
+                .setPort(port)
+                .setBytesReceived(bytes)
+                .setPacketsReceived(bytes / 100)
+                .setDurationSec(sec)
+                .setDurationNano(nano)
+                .build();
+    }
+
+    @Test
+    public void testLatestAndDelta() {
+        table.update(DID1, ImmutableList.of(stats(P1, 1000, 1, 500), stats(P2, 200, 1, 500)));
+        assertEquals(2, table.getStatistics(DID1).size());
+        assertEquals(1000, table.getStatistics(DID1, P1).bytesReceived());
+        assertTrue(table.getDeltaStatistics(DID1).isEmpty());
+        assertNull(table.getDeltaStatistics(DID1, P1));
+        assertTrue(table.getStatistics(DID2).isEmpty());
+
+        table.update(DID1, ImmutableList.of(stats(P1, 3000, 2, 100)));
+        assertEquals(1, table.getStatistics(DID1).size());
+        assertNull("Port missing from last poll", table.getStatistics(DID1, P2));
+
+        PortStatistics delta = table.getDeltaStatistics(DID1, P1);
+        assertEquals(DID1, delta.deviceId());
+        assertEquals(P1, delta.portNumber());
+        assertEquals(2000, delta.bytesReceived());
+        assertEquals(20, delta.packetsReceived());
+        assertEquals(0, delta.durationSec());
+        assertEquals(999_999_600, delta.durationNano());
+
+        table.update(DID1, ImmutableList.of(stats(P1, 4000, 3, 100), stats(P2, 900, 3, 100)));
+        assertEquals(0, table.getDeltaStatistics(DID1, P2).bytesReceived());
+        assertEquals(2, table.getDeltaStatistics(DID1).size());
+    }
+
+    @Test
+    public void testHistory() {
+        for (int i = 1; i <= 5; i++) {
+            table.update(DID1, ImmutableList.of(stats(P1, i * 1000, i, 0)));
+        }
+        assertEquals(1000, table.getDeltaStatistics(DID1, P1, 1).bytesReceived());
+        assertEquals(2000, table.getDeltaStatistics(DID1, P1, 2).bytesReceived());
+        // only three polls are retained
+        PortStatistics delta = table.getDeltaStatistics(DID1, P1, 10);
+        assertEquals(2000, delta.bytesReceived());
+        assertEquals(2, delta.durationSec());
+    }
+
+    @Test
+    public void testGrowth() {
+        List<PortStatistics> polls = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            polls.add(stats(portNumber(i), i, 1, 0));
+        }
+        table.update(DID1, polls);
+        table.update(DID1, polls);
+        assertEquals(100, table.getStatistics(DID1).size());
+        assertEquals(42, table.getStatistics(DID1, portNumber(42)).bytesReceived());
+        assertEquals(0, table.getDeltaStatistics(DID1, portNumber(99)).bytesReceived());
+
+        table.remove(DID1);
+        assertTrue(table.getStatistics(DID1).isEmpty());
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.NodeId;
@@ -197,6 +198,7 @@ public class ECFlowRuleStoreTest {
         flowStoreImpl.coreService = new CoreServiceAdapter();
         flowStoreImpl.configService = new ComponentConfigAdapter();
         flowStoreImpl.persistenceService = new PersistenceServiceAdapter();
+        flowStoreImpl.metricsService = new MetricsManager();
         flowStoreImpl.activate(context);
     }
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onlab.packet.VlanId;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.ResourceConsumerId;
+import org.onosproject.net.resource.Resources;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class DiscreteResourceLeasesTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("a");
+    private static final PortNumber PORT = PortNumber.portNumber(1);
+    private static final DiscreteResource VLAN1 = Resources.discrete(DID, PORT, VlanId.vlanId((short) 1)).resource();
+    private static final DiscreteResource VLAN2 = Resources.discrete(DID, PORT, VlanId.vlanId((short) 2)).resource();
+    private static final DiscreteResource VLAN3 = Resources.discrete(DID, PORT, VlanId.vlanId((short) 3)).resource();
+    private static final ResourceConsumerId C1 = ResourceConsumerId.of(1L, DiscreteResourceLeases.class);
+    private static final ResourceConsumerId C2 = ResourceConsumerId.of(2L, DiscreteResourceLeases.class);
+
+    private final DiscreteResourceLeases sut = new DiscreteResourceLeases(new NodeId("node1"));
+
+    @Test
+    public void testConsumerId() {
+        assertThat(sut.consumerId(), is(DiscreteResourceLeases.consumerId(new NodeId("node1"))));
+        assertThat(sut.consumerId(), is(not(DiscreteResourceLeases.consumerId(new NodeId("node2")))));
+    }
+
+    @Test
+    public void testLeasable() {
+        assertThat(DiscreteResourceLeases.isLeasable(VLAN1), is(true));
+        assertThat(DiscreteResourceLeases.isLeasable(Resources.discrete(DID, PORT).resource()), is(false));
+    }
+
+    @Test
+    public void testAllocateAndRelease() {
+        sut.add(ImmutableList.of(VLAN1, VLAN2), 0);
+        assertThat(sut.isLeased(VLAN1.id()), is(true));
+        assertThat(sut.isLeased(VLAN3.id()), is(false));
+
+        assertThat(sut.allocate(C1, ImmutableList.of(VLAN1), 1), is(true));
+        assertThat(sut.isAvailable(VLAN1.id()), is(false));
+        assertThat(sut.getConsumer(VLAN1.id()), is(Optional.of(C1)));
+        assertThat(sut.getResources(C1), contains(VLAN1));
+
+        // all or nothing
+        assertThat(sut.allocate(C2, ImmutableList.of(VLAN1, VLAN2), 1), is(false));
+        assertThat(sut.allocate(C2, ImmutableList.of(VLAN2, VLAN3), 1), is(false));
+        assertThat(sut.isAvailable(VLAN2.id()), is(true));
+
+        sut.release(C2, ImmutableList.of(VLAN1), 2);
+        assertThat("Not released by another consumer", sut.isAllocatedTo(C1, VLAN1.id()), is(true));
+        sut.release(C1, ImmutableList.of(VLAN1), 2);
+        assertThat(sut.isAvailable(VLAN1.id()), is(true));
+        assertThat(sut.getResources(C1), is(empty()));
+    }
+
+    @Test
+    public void testExpire() {
+        sut.add(ImmutableList.of(VLAN1, VLAN2), 0);
+        sut.add(ImmutableList.of(VLAN3), 10);
+        sut.allocate(C1, ImmutableList.of(VLAN1), 0);
+
+        assertThat(sut.expire(5), is(ImmutableSet.of(VLAN2)));
+        assertThat(sut.isLeased(VLAN1.id()), is(true));
+        assertThat(sut.isLeased(VLAN2.id()), is(false));
+        assertThat(sut.isLeased(VLAN3.id()), is(true));
+
+        assertThat(sut.evict(ImmutableList.of(VLAN1, VLAN3)), is(ImmutableSet.of(VLAN3)));
+    }
+
+    @Test
+    public void testDrain() {
+        sut.add(ImmutableList.of(VLAN1, VLAN2), 0);
+        sut.allocate(C1, ImmutableList.of(VLAN1), 0);
+
+        assertThat(sut.drain(), contains(VLAN2));
+        assertThat(sut.isLeased(VLAN1.id()), is(false));
+    }
+}
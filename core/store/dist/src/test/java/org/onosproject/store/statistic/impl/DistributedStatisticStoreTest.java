@@ -46,6 +46,7 @@ import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.net.intent.IntentTestsMocks;
+import org.onosproject.net.statistic.Load;
 import org.onosproject.net.statistic.StatisticStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
 import org.osgi.service.component.ComponentContext;
@@ -231,4 +232,24 @@ public class DistributedStatisticStoreTest {
         assertThat(store.getCurrentStatistic(cp1), is(empty()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLoad() {
+        FlowEntry flowEntry = makeFlowEntry(1);
+        cp1 = new ConnectPoint(flowEntry.deviceId(), PortNumber.portNumber(0));
+        store.prepareForStatistics(flowEntry);
+        assertThat(store.load(cp1).isValid(), is(false));
+
+        store.addOrUpdateStatistic(flowEntry);
+        assertThat("Previous window is empty", store.load(cp1).isValid(), is(false));
+
+        FlowEntry updated = new DefaultFlowEntry(flowEntry, FlowEntry.FlowEntryState.ADDED, 1, 1, 101);
+        store.addOrUpdateStatistic(updated);
+        Load load = store.load(cp1);
+        assertThat(load.isValid(), is(true));
+        assertThat(load.latest(), is(101L));
+        assertThat(store.getPreviousStatistic(cp1).iterator().next().bytes(), is(1L));
+
+        store.removeFromStatistics(updated);
+        assertThat(store.load(cp1).isValid(), is(false));
+    }
+}
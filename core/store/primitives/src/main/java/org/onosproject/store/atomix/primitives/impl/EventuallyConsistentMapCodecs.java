@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.Timestamp;
+import org.onosproject.store.serializers.BinaryCodec;
+import org.onosproject.store.serializers.BinaryCodecSerializer;
+import org.onosproject.store.serializers.BinaryCodecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary codecs for the gossip messages exchanged by eventually consistent maps.
+ */
+final class EventuallyConsistentMapCodecs {
+
+    /**
+     * Codec for map values; the value itself is encoded with its own codec, if any.
+     */
+    @SuppressWarnings("rawtypes")
+    static final BinaryCodec<MapValue> MAP_VALUE = new BinaryCodec<MapValue>() {
+        @Override
+        public void encode(MapValue object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            serializer.encode(object.timestamp(), buffer);
+            buffer.putLong(object.creationTime());
+            serializer.encode(object.get(), buffer);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public MapValue decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            Timestamp timestamp = serializer.decode(buffer);
+            long creationTime = buffer.getLong();
+            return new MapValue(serializer.decode(buffer), timestamp, creationTime);
+        }
+    };
+
+    /**
+     * Codec for update entries.
+     */
+    @SuppressWarnings("rawtypes")
+    static final BinaryCodec<UpdateEntry> UPDATE_ENTRY = new BinaryCodec<UpdateEntry>() {
+        @Override
+        public void encode(UpdateEntry object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            serializer.encode(object.key(), buffer);
+            serializer.encode(object.value(), buffer);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public UpdateEntry decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            Object key = serializer.decode(buffer);
+            MapValue value = serializer.decode(buffer);
+            return new UpdateEntry(key, value);
+        }
+    };
+
+    // Non-instantiable
+    private EventuallyConsistentMapCodecs() {
+    }
+
+    /**
+     * Creates a serializer which encodes map values and update entries with
+     * binary codecs and everything else with the given Kryo namespace.
+     *
+     * @param ns kryo namespace for keys, values and remaining messages
+     * @return binary codec serializer
+     */
+    static BinaryCodecSerializer serializer(KryoNamespace ns) {
+        return BinaryCodecs.newBuilder()
+                .withFallback(ns)
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID, MapValue.class, MAP_VALUE)
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID + 1, UpdateEntry.class, UPDATE_ENTRY)
+                .build();
+    }
+}
@@ -90,6 +90,10 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final int HIGH_LOAD_THRESHOLD = 2;
     private static final int LOAD_WINDOW = 2;
 
+    // Opt-in binary codecs for gossip messages; must be set alike on all nodes
+    private static final String BINARY_CODECS_PROPERTY = "onos.ecmap.binary-codecs";
+    private static final boolean BINARY_CODECS_ENABLED = Boolean.getBoolean(BINARY_CODECS_PROPERTY);
+
     private final Map<K, MapValue<V>> items;
     private final ClusterCommunicationService clusterCommunicator;
     private final Serializer serializer;
@@ -299,7 +303,7 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     private Serializer createSerializer(KryoNamespace ns) {
-        return Serializer.using(KryoNamespace.newBuilder()
+        KryoNamespace kryo = KryoNamespace.newBuilder()
                 .register(ns)
                 // not so robust way to avoid collision with other
                 // user supplied registrations
@@ -313,7 +317,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
-                .build(name() + "-ecmap"));
+                .build(name() + "-ecmap");
+        return BINARY_CODECS_ENABLED ?
+                EventuallyConsistentMapCodecs.serializer(kryo) : Serializer.using(kryo);
     }
 
     @Override
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hand-tuned binary encoder/decoder of a single type, used by
+ * {@link BinaryCodecSerializer} in place of reflective Kryo serialization.
+ * <p>
+ * Codecs write directly into the supplied buffer and must read back exactly
+ * the bytes they wrote. Nested objects should be written via
+ * {@link BinaryCodecSerializer#encode(Object, ByteBuffer)} so that they are
+ * themselves handled by a codec when one is registered.
+ *
+ * @param <T> encoded type
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Encodes the specified object into the given buffer.
+     *
+     * @param object     object to encode
+     * @param buffer     buffer to write to
+     * @param serializer serializer to use for nested objects
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encode(T object, ByteBuffer buffer, BinaryCodecSerializer serializer);
+
+    /**
+     * Decodes an object from the given buffer.
+     *
+     * @param buffer     buffer to read from
+     * @param serializer serializer to use for nested objects
+     * @return decoded object
+     */
+    T decode(ByteBuffer buffer, BinaryCodecSerializer serializer);
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.service.Serializer;
+
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Serializer that encodes registered types with hand-tuned
+ * {@link BinaryCodec}s, written directly into pooled per-thread buffers,
+ * and falls back to a {@link KryoNamespace} for all other types.
+ * <p>
+ * Every encoded object is prefixed with the 2-byte identifier of its codec,
+ * so both ends of a conversation must register the same codecs under the
+ * same identifiers. Codecs registered for an interface or abstract type
+ * also apply to all of its implementations.
+ */
+public final class BinaryCodecSerializer implements Serializer {
+
+    /**
+     * Smallest ID free to use for codec registrations.
+     */
+    public static final int INITIAL_ID = 16;
+
+    private static final short NULL_ID = 0;
+    private static final short FALLBACK_ID = 1;
+
+    // Encoding buffers that grew beyond this size are not retained
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+    private static final String KRYO_OVERFLOW = "Buffer overflow";
+
+    private static final Registration<?> UNREGISTERED = new Registration<>(-1, Object.class, null);
+
+    // Per-thread encoding buffers, shared by all serializer instances
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(KryoNamespace.DEFAULT_BUFFER_SIZE));
+
+    private final KryoNamespace fallback;
+    private final Registration<?>[] byId;
+    private final List<Registration<?>> hierarchy;
+
+    private final ClassValue<Registration<?>> byClass = new ClassValue<Registration<?>>() {
+        @Override
+        protected Registration<?> computeValue(Class<?> type) {
+            for (Registration<?> registration : byId) {
+                if (registration != null && registration.type == type) {
+                    return registration;
+                }
+            }
+            for (Registration<?> registration : hierarchy) {
+                if (registration.type.isAssignableFrom(type)) {
+                    return registration;
+                }
+            }
+            return UNREGISTERED;
+        }
+    };
+
+    private BinaryCodecSerializer(KryoNamespace fallback, List<Registration<?>> registrations) {
+        this.fallback = fallback;
+        int maxId = registrations.stream().mapToInt(r -> r.id).max().orElse(0);
+        this.byId = new Registration<?>[maxId + 1];
+        ImmutableList.Builder<Registration<?>> abstractTypes = ImmutableList.builder();
+        for (Registration<?> registration : registrations) {
+            byId[registration.id] = registration;
+            if (registration.type.isInterface() ||
+                    Modifier.isAbstract(registration.type.getModifiers())) {
+                abstractTypes.add(registration);
+            }
+        }
+        this.hierarchy = abstractTypes.build();
+    }
+
+    /**
+     * Creates a new builder of binary codec serializers.
+     *
+     * @return builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> byte[] encode(T object) {
+        ByteBuffer buffer = BUFFERS.get();
+        while (true) {
+            buffer.clear();
+            try {
+                encode(object, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                checkState(buffer.capacity() < KryoNamespace.MAX_BUFFER_SIZE,
+                           "Serialized object exceeds maximum buffer size");
+                buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2,
+                                                      KryoNamespace.MAX_BUFFER_SIZE));
+                BUFFERS.set(buffer);
+            }
+        }
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        if (buffer.capacity() > MAX_POOLED_BUFFER_SIZE) {
+            BUFFERS.remove();
+        }
+        return bytes;
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Encodes the specified object into the given buffer, advancing its
+     * position past the encoded bytes.
+     *
+     * @param object object to encode; may be null
+     * @param buffer buffer to write to
+     * @param <T>    encoded type
+     * @throws BufferOverflowException if the buffer is too small
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void encode(T object, ByteBuffer buffer) {
+        if (object == null) {
+            buffer.putShort(NULL_ID);
+            return;
+        }
+        Registration<T> registration = (Registration<T>) byClass.get(object.getClass());
+        if (registration == UNREGISTERED) {
+            buffer.putShort(FALLBACK_ID);
+            int lengthPosition = buffer.position();
+            buffer.putInt(0);
+            try {
+                fallback.serialize(object, buffer);
+            } catch (KryoException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith(KRYO_OVERFLOW)) {
+                    throw new BufferOverflowException();
+                }
+                throw e;
+            }
+            buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+            return;
+        }
+        buffer.putShort((short) registration.id);
+        registration.codec.encode(object, buffer, this);
+    }
+
+    /**
+     * Decodes an object from the given buffer, advancing its position past
+     * the decoded bytes.
+     *
+     * @param buffer buffer to read from
+     * @param <T>    decoded type
+     * @return decoded object; may be null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(ByteBuffer buffer) {
+        short id = buffer.getShort();
+        if (id == NULL_ID) {
+            return null;
+        } else if (id == FALLBACK_ID) {
+            int length = buffer.getInt();
+            ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            buffer.position(buffer.position() + length);
+            return fallback.deserialize(slice);
+        }
+        checkArgument(id > 0 && id < byId.length && byId[id] != null,
+                      "No codec registered with ID %s", id);
+        return (T) byId[id].codec.decode(buffer, this);
+    }
+
+    @Override
+    public <T> T copy(T object) {
+        return fallback.run(kryo -> kryo.copy(object));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("codecs", Arrays.stream(byId).filter(Objects::nonNull).count())
+                .add("fallback", fallback)
+                .toString();
+    }
+
+    /**
+     * Builder of binary codec serializers.
+     */
+    public static final class Builder {
+
+        private final List<Registration<?>> registrations = new ArrayList<>();
+        private KryoNamespace fallback = KryoNamespaces.API;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the Kryo namespace used for types without a registered codec.
+         *
+         * @param fallback kryo namespace
+         * @return self
+         */
+        public Builder withFallback(KryoNamespace fallback) {
+            this.fallback = checkNotNull(fallback);
+            return this;
+        }
+
+        /**
+         * Registers a codec for the specified type under the given ID.
+         *
+         * @param id    codec ID; must be unique and no smaller than {@link #INITIAL_ID}
+         * @param type  type handled by the codec
+         * @param codec codec
+         * @param <T>   encoded type
+         * @return self
+         */
+        public <T> Builder register(int id, Class<T> type, BinaryCodec<T> codec) {
+            checkArgument(id >= INITIAL_ID && id <= Short.MAX_VALUE,
+                          "Codec ID %s out of range", id);
+            checkArgument(registrations.stream().noneMatch(r -> r.id == id || r.type == type),
+                          "Duplicate registration of ID %s or type %s", id, type);
+            registrations.add(new Registration<>(id, checkNotNull(type), checkNotNull(codec)));
+            return this;
+        }
+
+        /**
+         * Builds the serializer.
+         *
+         * @return binary codec serializer
+         */
+        public BinaryCodecSerializer build() {
+            return new BinaryCodecSerializer(fallback, ImmutableList.copyOf(registrations));
+        }
+    }
+
+    private static final class Registration<T> {
+        private final int id;
+        private final Class<T> type;
+        private final BinaryCodec<T> codec;
+
+        private Registration(int id, Class<T> type, BinaryCodec<T> codec) {
+            this.id = id;
+            this.type = type;
+            this.codec = codec;
+        }
+    }
+}
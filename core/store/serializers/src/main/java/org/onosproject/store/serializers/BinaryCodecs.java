@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.packet.ChassisId;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.SparseAnnotations;
+import org.onosproject.net.device.DefaultDeviceDescription;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.service.WallClockTimestamp;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stock binary codecs for frequently exchanged store types, and helpers
+ * for writing codecs.
+ */
+public final class BinaryCodecs {
+
+    /**
+     * Smallest ID free to use for user defined codec registrations.
+     */
+    public static final int BEGIN_USER_CUSTOM_ID = 64;
+
+    private static final int NULL_LENGTH = -1;
+
+    private static final Device.Type[] DEVICE_TYPES = Device.Type.values();
+
+    /**
+     * Codec for default annotations, preserving removal tombstones.
+     */
+    public static final BinaryCodec<DefaultAnnotations> ANNOTATIONS =
+            new BinaryCodec<DefaultAnnotations>() {
+        @Override
+        public void encode(DefaultAnnotations object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            Map<String, String> map = object.asMap();
+            buffer.putInt(map.size());
+            map.forEach((k, v) -> {
+                putString(buffer, k);
+                putString(buffer, v);
+            });
+        }
+
+        @Override
+        public DefaultAnnotations decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            DefaultAnnotations.Builder builder = DefaultAnnotations.builder();
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                builder.set(getString(buffer), getString(buffer));
+            }
+            return builder.build();
+        }
+    };
+
+    /**
+     * Codec for default device descriptions.
+     */
+    public static final BinaryCodec<DefaultDeviceDescription> DEVICE_DESCRIPTION =
+            new BinaryCodec<DefaultDeviceDescription>() {
+        @Override
+        public void encode(DefaultDeviceDescription object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            putString(buffer, object.deviceUri().toString());
+            buffer.put((byte) object.type().ordinal());
+            putString(buffer, object.manufacturer());
+            putString(buffer, object.hwVersion());
+            putString(buffer, object.swVersion());
+            putString(buffer, object.serialNumber());
+            buffer.putLong(object.chassisId().value());
+            buffer.put((byte) (object.isDefaultAvailable() ? 1 : 0));
+            serializer.encode(object.annotations(), buffer);
+        }
+
+        @Override
+        public DefaultDeviceDescription decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            URI uri = URI.create(getString(buffer));
+            Device.Type type = DEVICE_TYPES[buffer.get()];
+            String manufacturer = getString(buffer);
+            String hwVersion = getString(buffer);
+            String swVersion = getString(buffer);
+            String serialNumber = getString(buffer);
+            ChassisId chassisId = new ChassisId(buffer.getLong());
+            boolean defaultAvailable = buffer.get() != 0;
+            SparseAnnotations annotations = serializer.decode(buffer);
+            return new DefaultDeviceDescription(uri, type, manufacturer, hwVersion,
+                                                swVersion, serialNumber, chassisId,
+                                                defaultAvailable, annotations);
+        }
+    };
+
+    /**
+     * Codec for device identifiers.
+     */
+    public static final BinaryCodec<DeviceId> DEVICE_ID = new BinaryCodec<DeviceId>() {
+        @Override
+        public void encode(DeviceId object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            putString(buffer, object.toString());
+        }
+
+        @Override
+        public DeviceId decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            return DeviceId.deviceId(getString(buffer));
+        }
+    };
+
+    /**
+     * Codec for logical timestamps.
+     */
+    public static final BinaryCodec<LogicalTimestamp> LOGICAL_TIMESTAMP =
+            new BinaryCodec<LogicalTimestamp>() {
+        @Override
+        public void encode(LogicalTimestamp object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            buffer.putLong(object.value());
+        }
+
+        @Override
+        public LogicalTimestamp decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            return new LogicalTimestamp(buffer.getLong());
+        }
+    };
+
+    /**
+     * Codec for wall clock timestamps.
+     */
+    public static final BinaryCodec<WallClockTimestamp> WALL_CLOCK_TIMESTAMP =
+            new BinaryCodec<WallClockTimestamp>() {
+        @Override
+        public void encode(WallClockTimestamp object, ByteBuffer buffer,
+                           BinaryCodecSerializer serializer) {
+            buffer.putLong(object.unixTimestamp());
+        }
+
+        @Override
+        public WallClockTimestamp decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            return new WallClockTimestamp(buffer.getLong());
+        }
+    };
+
+    /**
+     * Codec for array lists, whose elements are encoded with their own codecs.
+     */
+    @SuppressWarnings("rawtypes")
+    public static final BinaryCodec<ArrayList> ARRAY_LIST = new BinaryCodec<ArrayList>() {
+        @Override
+        public void encode(ArrayList object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            putList(buffer, object, serializer);
+        }
+
+        @Override
+        public ArrayList decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            int size = buffer.getInt();
+            ArrayList<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(serializer.decode(buffer));
+            }
+            return list;
+        }
+    };
+
+    /**
+     * Codec for immutable lists, whose elements are encoded with their own codecs.
+     */
+    @SuppressWarnings("rawtypes")
+    public static final BinaryCodec<ImmutableList> IMMUTABLE_LIST = new BinaryCodec<ImmutableList>() {
+        @Override
+        public void encode(ImmutableList object, ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            putList(buffer, object, serializer);
+        }
+
+        @Override
+        public ImmutableList decode(ByteBuffer buffer, BinaryCodecSerializer serializer) {
+            int size = buffer.getInt();
+            ImmutableList.Builder<Object> builder = ImmutableList.builder();
+            for (int i = 0; i < size; i++) {
+                builder.add((Object) serializer.decode(buffer));
+            }
+            return builder.build();
+        }
+    };
+
+    // Non-instantiable
+    private BinaryCodecs() {
+    }
+
+    /**
+     * Returns a serializer builder with all stock codecs registered, ready
+     * for additional registrations starting at {@link #BEGIN_USER_CUSTOM_ID}.
+     *
+     * @return binary codec serializer builder
+     */
+    public static BinaryCodecSerializer.Builder newBuilder() {
+        return BinaryCodecSerializer.newBuilder()
+                .register(BinaryCodecSerializer.INITIAL_ID, DefaultAnnotations.class, ANNOTATIONS)
+                .register(BinaryCodecSerializer.INITIAL_ID + 1,
+                          DefaultDeviceDescription.class, DEVICE_DESCRIPTION)
+                .register(BinaryCodecSerializer.INITIAL_ID + 2, DeviceId.class, DEVICE_ID)
+                .register(BinaryCodecSerializer.INITIAL_ID + 3,
+                          LogicalTimestamp.class, LOGICAL_TIMESTAMP)
+                .register(BinaryCodecSerializer.INITIAL_ID + 4,
+                          WallClockTimestamp.class, WALL_CLOCK_TIMESTAMP)
+                .register(BinaryCodecSerializer.INITIAL_ID + 5, ArrayList.class, ARRAY_LIST)
+                .register(BinaryCodecSerializer.INITIAL_ID + 6, ImmutableList.class, IMMUTABLE_LIST);
+    }
+
+    // Writes the size of a list followed by its elements
+    private static void putList(ByteBuffer buffer, List<?> list, BinaryCodecSerializer serializer) {
+        buffer.putInt(list.size());
+        for (Object element : list) {
+            serializer.encode(element, buffer);
+        }
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string, which may be null.
+     *
+     * @param buffer buffer to write to
+     * @param value  string value
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, String)}.
+     *
+     * @param buffer buffer to read from
+     * @return string value; may be null
+     */
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                               length, UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.SparseAnnotations;
+import org.onosproject.net.device.DefaultDeviceDescription;
+import org.onosproject.store.LogicalTimestamp;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for {@link BinaryCodecSerializer} and the stock {@link BinaryCodecs}.
+ */
+public class BinaryCodecSerializerTest {
+
+    private static final DeviceId DID1 = deviceId("of:foo");
+    private static final ConnectPoint CP1 = new ConnectPoint(DID1, portNumber(1));
+    private static final SparseAnnotations A1 = DefaultAnnotations.builder()
+            .set("A1", "a1")
+            .remove("B1")
+            .build();
+    private static final DefaultDeviceDescription DESC =
+            new DefaultDeviceDescription(URI.create("of:foo"), Device.Type.SWITCH,
+                                         "whitebox", "1.1.x", "3.8.1", null,
+                                         new ChassisId(42), false, A1);
+
+    private BinaryCodecSerializer serializer;
+
+    @Before
+    public void setUp() {
+        serializer = BinaryCodecs.newBuilder().build();
+    }
+
+    private <T> T roundTrip(T object) {
+        return serializer.decode(serializer.encode(object));
+    }
+
+    @Test
+    public void testCodecTypes() {
+        assertEquals(DID1, roundTrip(DID1));
+        assertEquals(new LogicalTimestamp(7), roundTrip(new LogicalTimestamp(7)));
+
+        DefaultDeviceDescription desc = roundTrip(DESC);
+        assertEquals(DESC, desc);
+        assertEquals(DESC.chassisId(), desc.chassisId());
+        assertEquals(DESC.isDefaultAvailable(), desc.isDefaultAvailable());
+        assertNull(desc.serialNumber());
+        assertTrue(desc.annotations().isRemoved("B1"));
+        assertEquals("a1", desc.annotations().value("A1"));
+    }
+
+    @Test
+    public void testFallbackAndNesting() {
+        assertNull(roundTrip(null));
+        assertEquals(CP1, roundTrip(CP1));
+
+        List<Object> list = roundTrip(ImmutableList.of(DID1, CP1, DESC));
+        assertEquals(ImmutableList.of(DID1, CP1, DESC), list);
+        assertTrue(list instanceof ImmutableList);
+
+        List<DeviceId> linked = new LinkedList<>(ImmutableList.of(DID1));
+        assertEquals(LinkedList.class, roundTrip(linked).getClass());
+    }
+
+    @Test
+    public void testBufferGrowth() {
+        List<DeviceId> ids = new ArrayList<>();
+        for (int i = 0; i < KryoNamespace.DEFAULT_BUFFER_SIZE; i++) {
+            ids.add(deviceId("of:" + i));
+        }
+        assertEquals(ids, roundTrip(ids));
+        assertEquals(ArrayList.class, roundTrip(ids).getClass());
+        assertEquals(DID1, roundTrip(DID1));
+    }
+
+    @Test
+    public void testFallbackGrowth() {
+        Set<ConnectPoint> points = new HashSet<>();
+        for (int i = 0; i < KryoNamespace.DEFAULT_BUFFER_SIZE; i++) {
+            points.add(new ConnectPoint(DID1, portNumber(i)));
+        }
+        assertEquals(points, roundTrip(points));
+        assertEquals(CP1, roundTrip(CP1));
+    }
+
+    @Test
+    public void testByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        serializer.encode(DESC, buffer);
+        serializer.encode(CP1, buffer);
+        buffer.flip();
+        assertEquals(DESC, serializer.decode(buffer));
+        assertEquals(CP1, serializer.decode(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRegistration() {
+        BinaryCodecs.newBuilder()
+                .register(BinaryCodecs.BEGIN_USER_CUSTOM_ID, DeviceId.class, BinaryCodecs.DEVICE_ID);
+    }
+}
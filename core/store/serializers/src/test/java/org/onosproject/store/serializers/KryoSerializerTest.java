@@ -507,4 +507,12 @@ public class KryoSerializerTest {
         testSerializedEquals(bs);
     }
 
+    @Test
+    public void testPooledBuffers() {
+        // grow the pooled output buffer well past its initial size, then reuse it
+        int[] large = new int[KryoNamespace.DEFAULT_BUFFER_SIZE];
+        Arrays.fill(large, Integer.MAX_VALUE);
+        assertArrayEquals(large, KryoNamespaces.API.deserialize(KryoNamespaces.API.serialize(large)));
+        testSerializedEquals(CP1);
+    }
 }
@@ -122,8 +122,11 @@ public class Ofdpa2GroupHandler {
     // pending bucket for a group
     protected ConcurrentHashMap<Integer, Set<NextObjective>> pendingBuckets =
             new ConcurrentHashMap<>();
+    // Group events of the device are processed in order by this executor, which
+    // also runs the group checker as a fallback for events that were missed
     private ScheduledExecutorService groupCheckerExecutor =
-            Executors.newScheduledThreadPool(2, groupedThreads("onos/pipeliner", "ofdpa-%d", log));
+            Executors.newSingleThreadScheduledExecutor(groupedThreads("onos/pipeliner", "ofdpa-%d", log));
+    private static final long GROUP_CHECKER_PERIOD_MS = 5000;
     private InnerGroupListener innerGroupListener = new InnerGroupListener();
     /**
      * Determines whether this pipeline support copy ttl instructions or not.
@@ -202,7 +205,8 @@ public class Ofdpa2GroupHandler {
                 }).build();
         pendingUpdateNextObjectives = new ConcurrentHashMap<>();
         GroupChecker groupChecker = new GroupChecker(this);
-        groupCheckerExecutor.scheduleAtFixedRate(groupChecker, 0, 500, TimeUnit.MILLISECONDS);
+        groupCheckerExecutor.scheduleAtFixedRate(groupChecker, GROUP_CHECKER_PERIOD_MS,
+                                                 GROUP_CHECKER_PERIOD_MS, TimeUnit.MILLISECONDS);
         groupService.addListener(innerGroupListener);
     }
 
@@ -335,7 +339,7 @@ public class Ofdpa2GroupHandler {
                                                            groupInfos.size(), false, deviceId);
         groupInfos.forEach(groupInfo -> {
             updatePendingGroups(groupInfo.innerMostGroupDesc().appCookie(), l2MulticastGce);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         });
     }
 
@@ -426,7 +430,7 @@ public class Ofdpa2GroupHandler {
             // now we are ready to send the l2 groupDescription (inner), as all the stores
             // that will get async replies have been updated. By waiting to update
             // the stores, we prevent nasty race conditions.
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         } else if (!isPw) {
             boolean isMpls = false;
             if (nextObj.meta() != null) {
@@ -455,7 +459,7 @@ public class Ofdpa2GroupHandler {
             // now we are ready to send the l2 groupDescription (inner), as all the stores
             // that will get async replies have been updated. By waiting to update
             // the stores, we prevent nasty race conditions.
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         } else {
             // We handle the pseudo wire with a different a procedure.
             // This procedure is meant to handle both initiation and
@@ -487,7 +491,8 @@ public class Ofdpa2GroupHandler {
         OfdpaNextGroup ofdpaGrp = new OfdpaNextGroup(allGroupKeys, nextObj);
         updatePendingNextObjective(l2InterfaceGroupDesc.appCookie(), ofdpaGrp);
         // Start installing the inner-most group
-        groupService.addGroup(l2InterfaceGroupDesc);    }
+        installGroup(l2InterfaceGroupDesc);
+    }
 
     /**
      * Creates an Mpls group of type swap.
@@ -1031,7 +1036,7 @@ public class Ofdpa2GroupHandler {
             // Point this group to the next group
             updatePendingGroups(groupInfo.nextGroupDesc().appCookie(), gce);
             // Start installing the inner-most group
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         });
     }
 
@@ -1080,7 +1085,7 @@ public class Ofdpa2GroupHandler {
                 updatePendingGroups(groupInfo.innerMostGroupDesc().appCookie(), innerGce);
             }
             // Start installing the inner-most group
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         });
     }
 
@@ -1144,7 +1149,7 @@ public class Ofdpa2GroupHandler {
             log.debug("Sending innermost group {} in group chain on device {} ",
                     Integer.toHexString(gi.innerMostGroupDesc().givenGroupId()), deviceId);
             updatePendingGroups(gi.nextGroupDesc().appCookie(), l3ecmpGce);
-            groupService.addGroup(gi.innerMostGroupDesc());
+            installGroup(gi.innerMostGroupDesc());
         }
     }
 
@@ -1336,7 +1341,7 @@ public class Ofdpa2GroupHandler {
             log.debug("Sending innermost group {} in group chain on device {} ",
                     Integer.toHexString(gi.innerMostGroupDesc().givenGroupId()), deviceId);
             updatePendingGroups(gi.nextGroupDesc().appCookie(), l2LbGce);
-            groupService.addGroup(gi.innerMostGroupDesc());
+            installGroup(gi.innerMostGroupDesc());
         }
     }
 
@@ -1504,7 +1509,7 @@ public class Ofdpa2GroupHandler {
                       Integer.toHexString(groupInfo.innerMostGroupDesc().givenGroupId()),
                       deviceId);
             updatePendingGroups(groupInfo.nextGroupDesc().appCookie(), l2hashGce);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         });
     }
 
@@ -1558,7 +1563,7 @@ public class Ofdpa2GroupHandler {
                       Integer.toHexString(groupInfo.innerMostGroupDesc().givenGroupId()),
                       deviceId);
             updatePendingGroups(groupInfo.nextGroupDesc().appCookie(), l3ecmpGce);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         });
     }
 
@@ -1650,7 +1655,7 @@ public class Ofdpa2GroupHandler {
                 // group already exist
                 processPendingAddGroupsOrNextObjs(innerMostGroupKey, true);
             } else {
-                groupService.addGroup(groupInfo.innerMostGroupDesc());
+                installGroup(groupInfo.innerMostGroupDesc());
             }
         });
 
@@ -1723,7 +1728,7 @@ public class Ofdpa2GroupHandler {
             log.debug("Sending innermost group {} in group chain on device {} ",
                       Integer.toHexString(groupInfo.innerMostGroupDesc().givenGroupId()),
                       deviceId);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
 
         });
 
@@ -2294,6 +2299,23 @@ public class Ofdpa2GroupHandler {
         pendingRemoveNextObjectives.put(nextObjective, groupKeys);
     }
 
+    /**
+     * Adds the given group once the objects waiting for it are registered.
+     * If the group is already installed, no event will be raised for it, so
+     * the objects waiting for it are processed right away.
+     *
+     * @param groupDescription the group description
+     */
+    protected void installGroup(GroupDescription groupDescription) {
+        Group group = groupService.getGroup(groupDescription.deviceId(), groupDescription.appCookie());
+        if (group != null && group.state() == Group.GroupState.ADDED) {
+            log.debug("Group {} already installed in device {}", groupDescription.appCookie(), deviceId);
+            processPendingAddGroupsOrNextObjs(groupDescription.appCookie(), false);
+        } else {
+            groupService.addGroup(groupDescription);
+        }
+    }
+
     protected int getNextAvailableIndex() {
         return (int) nextIndex.incrementAndGet();
     }
@@ -2334,9 +2356,8 @@ public class Ofdpa2GroupHandler {
         } else {
             // otherwise chain complete - check for waiting nextObjectives
             List<OfdpaGroupHandlerUtility.OfdpaNextGroup> nextGrpList =
-                    pendingAddNextObjectives.getIfPresent(key);
+                    pendingAddNextObjectives.asMap().remove(key);
             if (nextGrpList != null) {
-                pendingAddNextObjectives.invalidate(key);
                 nextGrpList.forEach(nextGrp -> {
                     log.debug("Group service {} group key {} in device:{}. "
                                       + "Done implementing next objective: {} <<-->> gid:0x{}",
@@ -2387,7 +2408,7 @@ public class Ofdpa2GroupHandler {
                                            gce.groupDescription().appCookie(),
                                            gce.groupDescription().appId());
         } else {
-            groupService.addGroup(gce.groupDescription());
+            installGroup(gce.groupDescription());
         }
     }
 
@@ -2415,21 +2436,35 @@ public class Ofdpa2GroupHandler {
     }
 
     private class InnerGroupListener implements GroupListener {
+        @Override
+        public boolean isRelevant(GroupEvent event) {
+            return deviceId.equals(event.subject().deviceId());
+        }
+
         @Override
         public void event(GroupEvent event) {
-            switch (event.type()) {
-                case GROUP_ADDED:
-                    processPendingAddGroupsOrNextObjs(event.subject().appCookie(), true);
-                    break;
-                case GROUP_REMOVED:
-                    processPendingRemoveNextObjs(event.subject().appCookie());
-                    break;
-                case GROUP_UPDATED:
-                    processPendingUpdateNextObjs(event.subject().appCookie());
-                    break;
-                default:
-                    break;
+            // off the group event dispatcher, so that devices are processed concurrently
+            ScheduledExecutorService executor = groupCheckerExecutor;
+            if (executor == null || executor.isShutdown()) {
+                return;
             }
+            executor.execute(() -> {
+                switch (event.type()) {
+                    case GROUP_ADDED:
+                        processPendingAddGroupsOrNextObjs(event.subject().appCookie(), true);
+                        break;
+                    case GROUP_REMOVED:
+                        processPendingRemoveNextObjs(event.subject().appCookie());
+                        break;
+                    case GROUP_UPDATED:
+                        processPendingUpdateNextObjs(event.subject().appCookie());
+                        // buckets added to an existing group in a chain
+                        processPendingAddGroupsOrNextObjs(event.subject().appCookie(), false);
+                        break;
+                    default:
+                        break;
+                }
+            });
         }
     }
 }
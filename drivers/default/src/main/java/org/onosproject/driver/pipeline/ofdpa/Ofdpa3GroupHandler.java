@@ -214,7 +214,7 @@ public class Ofdpa3GroupHandler extends Ofdpa2GroupHandler {
             // Finally we send the innermost group.
             log.debug("Sending innermost group {} in group chain on device {} ",
                       Integer.toHexString(groupInfo.innerMostGroupDesc().givenGroupId()), deviceId);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         }
 
         // this is a pseudowire from leaf to spine,
@@ -239,7 +239,7 @@ public class Ofdpa3GroupHandler extends Ofdpa2GroupHandler {
             // Finally we send the innermost group.
             log.debug("Sending innermost group {} in group chain on device {} ",
                       Integer.toHexString(groupInfo.innerMostGroupDesc().givenGroupId()), deviceId);
-            groupService.addGroup(groupInfo.innerMostGroupDesc());
+            installGroup(groupInfo.innerMostGroupDesc());
         }
     }
 
@@ -298,7 +298,7 @@ public class OvsOfdpaGroupHandler extends Ofdpa2GroupHandler {
                 log.debug("Sending innermost group {} in group chain on device {} ",
                           Integer.toHexString(gi.innerMostGroupDesc().givenGroupId()), deviceId);
                 updatePendingGroups(gi.nextGroupDesc().appCookie(), mplsEcmpGce);
-                groupService.addGroup(gi.innerMostGroupDesc());
+                installGroup(gi.innerMostGroupDesc());
             }
             return;
         }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.driver.pipeline.ofdpa;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.osgi.ServiceDirectory;
+import org.onlab.packet.VlanId;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.core.GroupId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.behaviour.NextGroup;
+import org.onosproject.net.behaviour.PipelinerContext;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flowobjective.DefaultNextObjective;
+import org.onosproject.net.flowobjective.FlowObjectiveStore;
+import org.onosproject.net.flowobjective.FlowObjectiveStoreDelegate;
+import org.onosproject.net.flowobjective.NextObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveContext;
+import org.onosproject.net.flowobjective.ObjectiveError;
+import org.onosproject.net.group.DefaultGroup;
+import org.onosproject.net.group.DefaultGroupDescription;
+import org.onosproject.net.group.Group;
+import org.onosproject.net.group.GroupDescription;
+import org.onosproject.net.group.GroupEvent;
+import org.onosproject.net.group.GroupKey;
+import org.onosproject.net.group.GroupListener;
+import org.onosproject.net.group.GroupService;
+import org.onosproject.net.group.GroupServiceAdapter;
+import org.onosproject.store.service.StorageService;
+import org.onosproject.store.service.TestStorageService;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestTools.delay;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Tests for the group handling of the OF-DPA v2.0 TTP.
+ */
+public class Ofdpa2GroupHandlerTest {
+
+    private final Logger log = getLogger(getClass());
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.test");
+    private static final DeviceId DEV1 = DeviceId.deviceId("of:1");
+    private static final DeviceId DEV2 = DeviceId.deviceId("of:2");
+    private static final VlanId VLAN = VlanId.vlanId((short) 10);
+    private static final int WAIT_TIME = 100;
+
+    private static final int DEVICES = 8;
+    private static final int PORTS = 100;
+    private static final int NEXT_OBJECTIVES = 2_000;
+
+    private TestGroupService groupService;
+    private List<Ofdpa2GroupHandler> handlers;
+
+    @Before
+    public void setUp() {
+        groupService = new TestGroupService();
+        handlers = Lists.newArrayList();
+    }
+
+    @After
+    public void tearDown() {
+        handlers.forEach(Ofdpa2GroupHandler::terminate);
+    }
+
+    private Ofdpa2GroupHandler handler(DeviceId deviceId) {
+        Ofdpa2GroupHandler handler = new Ofdpa2GroupHandler();
+        handler.init(deviceId, new TestPipelinerContext());
+        handlers.add(handler);
+        return handler;
+    }
+
+    private static NextObjective nextObjective(int id, long port, ObjectiveContext context) {
+        return DefaultNextObjective.builder()
+                .withId(id)
+                .withType(NextObjective.Type.SIMPLE)
+                .fromApp(APP_ID)
+                .withMeta(DefaultTrafficSelector.builder().matchVlanId(VLAN).build())
+                .addTreatment(DefaultTrafficTreatment.builder()
+                                      .setOutput(PortNumber.portNumber(port)).build())
+                .add(context);
+    }
+
+    /**
+     * Tests that a group added event completes the waiting next objective.
+     */
+    @Test
+    public void testGroupAddedEvent() {
+        Ofdpa2GroupHandler handler = handler(DEV1);
+        CountingContext context = new CountingContext();
+
+        handler.addGroup(nextObjective(1, 1, context));
+        assertEquals(1, groupService.requested.size());
+        assertEquals(0, context.succeeded.get());
+
+        // an event of another device with the same group key is ignored
+        GroupDescription desc = groupService.requested.get(0);
+        groupService.install(DEV2, desc);
+        delay(WAIT_TIME);
+        assertEquals(0, context.succeeded.get());
+
+        groupService.install(DEV1, desc);
+        assertAfter(WAIT_TIME, () -> assertEquals(1, context.succeeded.get()));
+        assertEquals(0, context.failed.get());
+    }
+
+    /**
+     * Tests that a next objective sharing an installed group completes
+     * without waiting for an event.
+     */
+    @Test
+    public void testInstalledGroup() {
+        Ofdpa2GroupHandler handler = handler(DEV1);
+        CountingContext context = new CountingContext();
+
+        handler.addGroup(nextObjective(1, 1, context));
+        groupService.install(DEV1, groupService.requested.get(0));
+        assertAfter(WAIT_TIME, () -> assertEquals(1, context.succeeded.get()));
+
+        groupService.requested.clear();
+        handler.addGroup(nextObjective(2, 1, context));
+        assertEquals(2, context.succeeded.get());
+        assertTrue(groupService.requested.isEmpty());
+    }
+
+    /**
+     * Measures how fast next objectives are completed when groups are
+     * installed right away on several devices.
+     */
+    @Test
+    public void testThroughput() throws InterruptedException {
+        groupService.autoInstall = true;
+        List<Ofdpa2GroupHandler> devices = Lists.newArrayList();
+        for (int i = 0; i < DEVICES; i++) {
+            devices.add(handler(DeviceId.deviceId("of:" + (i + 1))));
+        }
+        CountDownLatch latch = new CountDownLatch(NEXT_OBJECTIVES);
+        ObjectiveContext context = new ObjectiveContext() {
+            @Override
+            public void onSuccess(Objective objective) {
+                latch.countDown();
+            }
+        };
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NEXT_OBJECTIVES; i++) {
+            devices.get(i % DEVICES).addGroup(
+                    nextObjective(i, 1 + (i / DEVICES) % PORTS, context));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+
+        log.info("Completed {} next objectives on {} devices in {} ms ({} per second)",
+                 NEXT_OBJECTIVES, DEVICES, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                 NEXT_OBJECTIVES * TimeUnit.SECONDS.toNanos(1) / elapsed);
+    }
+
+    private static class CountingContext implements ObjectiveContext {
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public void onSuccess(Objective objective) {
+            succeeded.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Objective objective, ObjectiveError error) {
+            failed.incrementAndGet();
+        }
+    }
+
+    private static class TestGroupService extends GroupServiceAdapter {
+        private final List<GroupDescription> requested = new CopyOnWriteArrayList<>();
+        private final ConcurrentMap<DeviceId, Map<GroupKey, Group>> groups = Maps.newConcurrentMap();
+        private final List<GroupListener> listeners = new CopyOnWriteArrayList<>();
+        private boolean autoInstall;
+
+        private void install(DeviceId deviceId, GroupDescription desc) {
+            GroupDescription deviceDesc = new DefaultGroupDescription(
+                    deviceId, desc.type(), desc.buckets(), desc.appCookie(),
+                    desc.givenGroupId(), desc.appId());
+            DefaultGroup group = new DefaultGroup(new GroupId(desc.givenGroupId()), deviceDesc);
+            group.setState(Group.GroupState.ADDED);
+            groups.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap())
+                    .put(desc.appCookie(), group);
+            GroupEvent event = new GroupEvent(GroupEvent.Type.GROUP_ADDED, group);
+            for (GroupListener listener : listeners) {
+                if (listener.isRelevant(event)) {
+                    listener.event(event);
+                }
+            }
+        }
+
+        @Override
+        public void addGroup(GroupDescription groupDesc) {
+            if (autoInstall) {
+                install(groupDesc.deviceId(), groupDesc);
+            } else {
+                requested.add(groupDesc);
+            }
+        }
+
+        @Override
+        public Group getGroup(DeviceId deviceId, GroupKey appCookie) {
+            Map<GroupKey, Group> deviceGroups = groups.get(deviceId);
+            return deviceGroups == null ? null : deviceGroups.get(appCookie);
+        }
+
+        @Override
+        public void addListener(GroupListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(GroupListener listener) {
+            listeners.remove(listener);
+        }
+    }
+
+    private class TestPipelinerContext implements PipelinerContext {
+        private final StorageService storageService = new TestStorageService();
+        private final FlowObjectiveStore store = new TestFlowObjectiveStore();
+
+        @Override
+        public ServiceDirectory directory() {
+            return new ServiceDirectory() {
+                @Override
+                public <T> T get(Class<T> serviceClass) {
+                    if (serviceClass == GroupService.class) {
+                        return serviceClass.cast(groupService);
+                    } else if (serviceClass == StorageService.class) {
+                        return serviceClass.cast(storageService);
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public FlowObjectiveStore store() {
+            return store;
+        }
+    }
+
+    private static class TestFlowObjectiveStore implements FlowObjectiveStore {
+        private final Map<Integer, NextGroup> nextGroups = Maps.newConcurrentMap();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        @Override
+        public void putNextGroup(Integer nextId, NextGroup group) {
+            nextGroups.put(nextId, group);
+        }
+
+        @Override
+        public NextGroup getNextGroup(Integer nextId) {
+            return nextGroups.get(nextId);
+        }
+
+        @Override
+        public NextGroup removeNextGroup(Integer nextId) {
+            return nextGroups.remove(nextId);
+        }
+
+        @Override
+        public Map<Integer, NextGroup> getAllGroups() {
+            return nextGroups;
+        }
+
+        @Override
+        public int allocateNextId() {
+            return nextId.getAndIncrement();
+        }
+
+        @Override
+        public void setDelegate(FlowObjectiveStoreDelegate delegate) {
+        }
+
+        @Override
+        public void unsetDelegate(FlowObjectiveStoreDelegate delegate) {
+        }
+
+        @Override
+        public boolean hasDelegate() {
+            return false;
+        }
+    }
+}
@@ -51,4 +51,28 @@ public final class P4RuntimeDriverProperties {
     // True if target supports reading and writing table entries.
     public static final String SUPPORT_DEFAULT_TABLE_ENTRY = "supportDefaultTableEntry";
     public static final boolean DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY = true;
-}
\ No newline at end of file
+
+    // Maximum number of tables read with a single P4Runtime request when
+    // reading table entries. Entries of each request are reconciled with the
+    // mirror before the next request is sent. If 0, all tables are read with
+    // a single request.
+    public static final String TABLE_READ_BATCH_SIZE = "tableReadBatchSize";
+    public static final int DEFAULT_TABLE_READ_BATCH_SIZE = 0;
+
+    // Comma-separated list of tableId=N pairs. The entries of each listed
+    // table are read from the device once every N polls, and from the mirror
+    // in between. Tables not listed are read at every poll.
+    public static final String TABLE_READ_INTERVALS = "tableReadIntervals";
+    public static final String DEFAULT_TABLE_READ_INTERVALS = "";
+
+    // Maximum number of counter cells read with a single P4Runtime request,
+    // when counters are not read with table entries. If 0, all counter cells
+    // are read with a single request.
+    public static final String COUNTER_READ_BATCH_SIZE = "tableCounterReadBatchSize";
+    public static final int DEFAULT_COUNTER_READ_BATCH_SIZE = 1000;
+
+    // Counters are read from the device once every N polls, when not read with
+    // table entries. The values of the last read are reported in between.
+    public static final String COUNTER_READ_INTERVAL = "tableCounterReadInterval";
+    public static final int DEFAULT_COUNTER_READ_INTERVAL = 1;
+}
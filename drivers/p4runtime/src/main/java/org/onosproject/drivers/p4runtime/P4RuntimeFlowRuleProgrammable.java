@@ -16,9 +16,12 @@
 
 package org.onosproject.drivers.p4runtime;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.Striped;
 import org.onosproject.drivers.p4runtime.mirror.P4RuntimeDefaultEntryMirror;
@@ -31,6 +34,7 @@ import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.pi.model.PiCounterType;
 import org.onosproject.net.pi.model.PiPipelineModel;
 import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
 import org.onosproject.net.pi.runtime.PiCounterCell;
 import org.onosproject.net.pi.runtime.PiCounterCellData;
 import org.onosproject.net.pi.runtime.PiCounterCellHandle;
@@ -59,16 +63,23 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.COUNTER_READ_BATCH_SIZE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.COUNTER_READ_INTERVAL;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_COUNTER_READ_BATCH_SIZE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_COUNTER_READ_INTERVAL;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_DELETE_BEFORE_UPDATE;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_TABLE_COUNTERS;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_TABLE_READ_BATCH_SIZE;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DELETE_BEFORE_UPDATE;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_DEFAULT_TABLE_ENTRY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_TABLE_COUNTERS;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.TABLE_READ_BATCH_SIZE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.TABLE_READ_INTERVALS;
 import static org.onosproject.drivers.p4runtime.P4RuntimeFlowRuleProgrammable.Operation.APPLY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeFlowRuleProgrammable.Operation.REMOVE;
 import static org.onosproject.net.flow.FlowEntry.FlowEntryState.ADDED;
@@ -118,42 +129,63 @@ public class P4RuntimeFlowRuleProgrammable
             return getFlowEntriesFromMirror();
         }
 
-        final ImmutableList.Builder<FlowEntry> result = ImmutableList.builder();
-        final List<PiTableEntry> inconsistentEntries = Lists.newArrayList();
+        final P4RuntimeTableReadState state = P4RuntimeTableReadState.of(deviceId);
+        final long poll = state.nextPoll();
+        final boolean readCounters = poll % Math.max(1, driverIntProperty(
+                COUNTER_READ_INTERVAL, DEFAULT_COUNTER_READ_INTERVAL)) == 0;
 
-        // Read table entries from device.
-        final Collection<PiTableEntry> deviceEntries = getAllTableEntriesFromDevice();
-        if (deviceEntries == null) {
-            // Potential error at the client level.
-            return Collections.emptyList();
-        }
+        // Tables not due at this poll are served from the mirror.
+        final Map<PiTableId, Integer> readIntervals = tableReadIntervals();
+        final List<PiTableModel> tablesToRead = Lists.newArrayList();
+        final Set<PiTableId> tablesFromMirror = Sets.newHashSet();
+        pipelineModel.tables().stream()
+                .filter(t -> !t.isConstantTable())
+                .forEach(t -> {
+                    if (poll % readIntervals.getOrDefault(t.id(), 1) == 0) {
+                        tablesToRead.add(t);
+                    } else {
+                        tablesFromMirror.add(t.id());
+                    }
+                });
 
-        // Synchronize mirror with the device state.
-        tableMirror.sync(deviceId, deviceEntries);
+        final ImmutableList.Builder<FlowEntry> result = ImmutableList.builder();
+        final List<PiTableEntry> inconsistentEntries = Lists.newArrayList();
 
-        if (deviceEntries.isEmpty()) {
-            // Nothing to do.
-            return Collections.emptyList();
+        // Read table entries from device, a batch of tables at a time, and
+        // reconcile each batch before reading the next one.
+        final int batchSize = driverIntProperty(
+                TABLE_READ_BATCH_SIZE, DEFAULT_TABLE_READ_BATCH_SIZE);
+        final List<List<PiTableModel>> batches = batchSize > 0
+                ? Lists.partition(tablesToRead, batchSize)
+                : Collections.singletonList(tablesToRead);
+        for (List<PiTableModel> batch : batches) {
+            if (batch.isEmpty()) {
+                continue;
+            }
+            final Map<PiTableId, List<PiTableEntry>> deviceEntries =
+                    getTableEntriesFromDevice(batch);
+            if (deviceEntries == null) {
+                // Potential error at the client level.
+                return Collections.emptyList();
+            }
+            for (PiTableModel table : batch) {
+                reconcileTable(state, table.id(),
+                               deviceEntries.getOrDefault(table.id(), Collections.emptyList()),
+                               readCounters, result, inconsistentEntries);
+            }
         }
 
-        final Map<PiTableEntryHandle, PiCounterCellData> counterCellMap =
-                readEntryCounters(deviceEntries);
-        // Forge flow entries with counter values.
-        for (PiTableEntry entry : deviceEntries) {
-            final PiTableEntryHandle handle = entry.handle(deviceId);
-            final FlowEntry flowEntry = forgeFlowEntry(
-                    entry, handle, counterCellMap.get(handle));
-            if (flowEntry == null) {
-                // Entry is on device but unknown to translation service or
-                // device mirror. Inconsistent. Mark for removal if this is not
-                // an original default entry (i.e, the same defined in the P4
-                // program via default_action, which cannot be removed.)
-                if (!isOriginalDefaultEntry(entry)) {
-                    inconsistentEntries.add(entry);
-                }
-            } else {
-                result.add(flowEntry);
-            }
+        if (!tablesFromMirror.isEmpty()) {
+            tablesFromMirror.stream()
+                    .flatMap(tableId -> tableMirror.getAll(deviceId, tableId).stream())
+                    .map(TimedEntry::entry)
+                    .map(entry -> {
+                        final PiTableEntryHandle handle = entry.handle(deviceId);
+                        return forgeFlowEntry(entry, handle, state.counters(
+                                entry.table()).get(handle));
+                    })
+                    .filter(Objects::nonNull)
+                    .forEach(result::add);
         }
 
         if (!inconsistentEntries.isEmpty()) {
@@ -178,20 +210,78 @@ public class P4RuntimeFlowRuleProgrammable
         return result.build();
     }
 
-    private Collection<PiTableEntry> getAllTableEntriesFromDevice() {
+    private void reconcileTable(P4RuntimeTableReadState state,
+                                PiTableId tableId,
+                                Collection<PiTableEntry> deviceEntries,
+                                boolean readCounters,
+                                ImmutableList.Builder<FlowEntry> result,
+                                List<PiTableEntry> inconsistentEntries) {
+        // Skip synchronizing the mirror if neither the table nor its mirror
+        // changed since the last time it was synchronized.
+        boolean synced = false;
+        if (state.changed(tableId, deviceEntries,
+                          tableMirror.version(deviceId, tableId))) {
+            tableMirror.sync(deviceId, tableId, deviceEntries);
+            synced = true;
+        }
+
+        if (deviceEntries.isEmpty()) {
+            // Nothing to do.
+            return;
+        }
+
+        final Map<PiTableEntryHandle, PiCounterCellData> counterCellMap =
+                readEntryCounters(state, tableId, deviceEntries, readCounters);
+        List<PiTableEntry> unknownEntries = forgeFlowEntries(
+                deviceEntries, counterCellMap, result);
+        if (!unknownEntries.isEmpty() && !synced) {
+            // The mirror might have diverged from the device without the
+            // latter changing, e.g. if flushed. Synchronize and try again
+            // before deeming these entries inconsistent.
+            tableMirror.sync(deviceId, tableId, deviceEntries);
+            unknownEntries = forgeFlowEntries(unknownEntries, counterCellMap, result);
+        }
+        // Entries on device but unknown to translation service or device
+        // mirror are inconsistent, mark them for removal.
+        inconsistentEntries.addAll(unknownEntries);
+    }
+
+    private List<PiTableEntry> forgeFlowEntries(
+            Collection<PiTableEntry> deviceEntries,
+            Map<PiTableEntryHandle, PiCounterCellData> counterCellMap,
+            ImmutableList.Builder<FlowEntry> result) {
+        // Forges flow entries with counter values, returning the entries that
+        // could not be forged.
+        final List<PiTableEntry> unknownEntries = Lists.newArrayList();
+        for (PiTableEntry entry : deviceEntries) {
+            final PiTableEntryHandle handle = entry.handle(deviceId);
+            final FlowEntry flowEntry = forgeFlowEntry(
+                    entry, handle, counterCellMap.get(handle));
+            if (flowEntry != null) {
+                result.add(flowEntry);
+            } else if (!isOriginalDefaultEntry(entry)) {
+                // Original default entries (i.e, the same defined in the P4
+                // program via default_action) are not known to translation
+                // service, but cannot be removed.
+                unknownEntries.add(entry);
+            }
+        }
+        return unknownEntries;
+    }
+
+    private Map<PiTableId, List<PiTableEntry>> getTableEntriesFromDevice(
+            Collection<PiTableModel> tables) {
         final P4RuntimeReadClient.ReadRequest request = client.read(
                 p4DeviceId, pipeconf);
-        // Read entries from all non-constant tables, including default ones.
-        pipelineModel.tables().stream()
-                .filter(t -> !t.isConstantTable())
-                .forEach(t -> {
-                    request.tableEntries(t.id());
-                    if (driverBoolProperty(SUPPORT_DEFAULT_TABLE_ENTRY,
-                                           DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY) &&
-                            t.constDefaultAction().isEmpty()) {
-                        request.defaultTableEntry(t.id());
-                    }
-                });
+        // Read entries from the given tables, including default ones.
+        tables.forEach(t -> {
+            request.tableEntries(t.id());
+            if (driverBoolProperty(SUPPORT_DEFAULT_TABLE_ENTRY,
+                                   DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY) &&
+                    t.constDefaultAction().isEmpty()) {
+                request.defaultTableEntry(t.id());
+            }
+        });
         final P4RuntimeReadClient.ReadResponse response = request.submitSync();
         if (!response.isSuccess()) {
             return null;
@@ -202,7 +292,29 @@ public class P4RuntimeFlowRuleProgrammable
                 // non-default entries are returned, by using distinct() we
                 // are robust against that possibility.
                 .distinct()
-                .collect(Collectors.toList());
+                .collect(Collectors.groupingBy(PiTableEntry::table));
+    }
+
+    private Map<PiTableId, Integer> tableReadIntervals() {
+        final String value = handler().driver().getProperty(TABLE_READ_INTERVALS);
+        if (Strings.isNullOrEmpty(value)) {
+            return Collections.emptyMap();
+        }
+        final Map<PiTableId, Integer> intervals = Maps.newHashMap();
+        try {
+            Splitter.on(',').trimResults().omitEmptyStrings()
+                    .withKeyValueSeparator('=')
+                    .split(value)
+                    .forEach((table, interval) -> intervals.put(
+                            PiTableId.of(table.trim()),
+                            Math.max(1, Integer.parseInt(interval.trim()))));
+        } catch (IllegalArgumentException e) {
+            // Also catches NumberFormatException.
+            log.warn("Invalid value for driver property {}: {}",
+                     TABLE_READ_INTERVALS, value);
+            return Collections.emptyMap();
+        }
+        return intervals;
     }
 
     @Override
@@ -463,7 +575,8 @@ public class P4RuntimeFlowRuleProgrammable
     }
 
     private Map<PiTableEntryHandle, PiCounterCellData> readEntryCounters(
-            Collection<PiTableEntry> tableEntries) {
+            P4RuntimeTableReadState state, PiTableId tableId,
+            Collection<PiTableEntry> tableEntries, boolean readCounters) {
 
         if (!driverBoolProperty(SUPPORT_TABLE_COUNTERS,
                                 DEFAULT_SUPPORT_TABLE_COUNTERS)
@@ -471,29 +584,50 @@ public class P4RuntimeFlowRuleProgrammable
             return Collections.emptyMap();
         }
 
+        final Map<PiTableEntryHandle, PiCounterCellData> cellData;
         if (driverBoolProperty(READ_COUNTERS_WITH_TABLE_ENTRIES,
                                DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES)) {
-            return tableEntries.stream()
+            cellData = tableEntries.stream()
                     .filter(t -> t.counter() != null)
                     .collect(Collectors.toMap(
                             t -> t.handle(deviceId), PiTableEntry::counter));
+        } else if (!readCounters) {
+            // Report the values of the last read.
+            return state.counters(tableId);
+        } else if (!tableHasCounter(tableId)) {
+            return Collections.emptyMap();
         } else {
-            final Set<PiHandle> cellHandles = tableEntries.stream()
+            final List<PiHandle> cellHandles = tableEntries.stream()
                     .filter(e -> !e.isDefaultAction())
-                    .filter(e -> tableHasCounter(e.table()))
                     .map(PiCounterCellId::ofDirect)
                     .map(id -> PiCounterCellHandle.of(deviceId, id))
-                    .collect(Collectors.toSet());
-            // FIXME: We might be sending a very large read request...
-            return client.read(p4DeviceId, pipeconf)
-                    .handles(cellHandles)
-                    .submitSync()
-                    .all(PiCounterCell.class).stream()
-                    .filter(c -> c.cellId().counterType().equals(PiCounterType.DIRECT))
-                    .collect(Collectors.toMap(
-                            c -> c.cellId().tableEntry().handle(deviceId),
-                            PiCounterCell::data));
+                    .collect(Collectors.toList());
+            // Avoid sending a very large read request.
+            final int batchSize = driverIntProperty(
+                    COUNTER_READ_BATCH_SIZE, DEFAULT_COUNTER_READ_BATCH_SIZE);
+            final List<List<PiHandle>> batches = batchSize > 0
+                    ? Lists.partition(cellHandles, batchSize)
+                    : Collections.singletonList(cellHandles);
+            cellData = Maps.newHashMap();
+            for (List<PiHandle> batch : batches) {
+                final P4RuntimeReadClient.ReadResponse response =
+                        client.read(p4DeviceId, pipeconf)
+                                .handles(batch)
+                                .submitSync();
+                if (!response.isSuccess()) {
+                    log.debug("Unable to read counters of {} from {}, " +
+                                      "reporting values of the last read",
+                              tableId, deviceId);
+                    return state.counters(tableId);
+                }
+                response.all(PiCounterCell.class).stream()
+                        .filter(c -> c.cellId().counterType().equals(PiCounterType.DIRECT))
+                        .forEach(c -> cellData.put(
+                                c.cellId().tableEntry().handle(deviceId), c.data()));
+            }
         }
+        state.putCounters(tableId, cellData);
+        return cellData;
     }
 
     private boolean tableHasCounter(PiTableId tableId) {
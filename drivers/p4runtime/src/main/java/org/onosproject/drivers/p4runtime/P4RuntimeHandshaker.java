@@ -69,6 +69,13 @@ public class P4RuntimeHandshaker
         return true;
     }
 
+    @Override
+    public void disconnect() {
+        super.disconnect();
+        // Tables are read in full after a new connection.
+        P4RuntimeTableReadState.remove(data().deviceId());
+    }
+
     @Override
     public boolean isAvailable() {
         // To be available, we require a session open (for packet in/out) and a
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.drivers.p4runtime;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiCounterCellData;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * State kept across polls of the table entries of a device, used to read and
+ * reconcile table entries incrementally.
+ * <p>
+ * For each table, a digest of the entries found on the device and the
+ * version of the mirror when the mirror was last synchronized are kept, so
+ * that synchronizing the mirror can be skipped while neither the table nor
+ * the mirror changes. The last counter values read for each table are also
+ * kept, to be reported at polls that do not read them from the device. The
+ * state of a device is dropped when the device is disconnected.
+ */
+final class P4RuntimeTableReadState {
+
+    private static final ConcurrentMap<DeviceId, P4RuntimeTableReadState> STATES =
+            Maps.newConcurrentMap();
+
+    private long polls;
+    private final Map<PiTableId, Digest> digests = Maps.newHashMap();
+    private final Map<PiTableId, Map<PiTableEntryHandle, PiCounterCellData>> counters =
+            Maps.newHashMap();
+
+    private P4RuntimeTableReadState() {
+    }
+
+    /**
+     * Returns the state of the given device.
+     *
+     * @param deviceId device ID
+     * @return table read state
+     */
+    static P4RuntimeTableReadState of(DeviceId deviceId) {
+        return STATES.computeIfAbsent(deviceId, d -> new P4RuntimeTableReadState());
+    }
+
+    /**
+     * Drops the state of the given device, if any.
+     *
+     * @param deviceId device ID
+     */
+    static void remove(DeviceId deviceId) {
+        STATES.remove(deviceId);
+    }
+
+    /**
+     * Returns the sequence number of the next poll, starting from 0.
+     *
+     * @return poll sequence number
+     */
+    synchronized long nextPoll() {
+        return polls++;
+    }
+
+    /**
+     * Records the digest of the given table entries read from the device,
+     * together with the version of the mirror of the table, returning true
+     * if either differs from the one previously recorded for the table, i.e.
+     * if the mirror should be synchronized.
+     * <p>
+     * The mirror version should be read before synchronizing the mirror, so
+     * that concurrent changes are never missed. Changes made by the
+     * synchronization itself cause one more synchronization at the next call.
+     *
+     * @param tableId       table ID
+     * @param entries       table entries read from the device
+     * @param mirrorVersion version of the mirror of the table
+     * @return true if the table or its mirror changed since the previous call
+     */
+    synchronized boolean changed(PiTableId tableId, Collection<PiTableEntry> entries,
+                                 long mirrorVersion) {
+        final Digest digest = Digest.of(entries, mirrorVersion);
+        return !digest.equals(digests.put(tableId, digest));
+    }
+
+    /**
+     * Records the counter values last read for the given table.
+     *
+     * @param tableId  table ID
+     * @param cellData counter values by table entry handle
+     */
+    synchronized void putCounters(PiTableId tableId,
+                                  Map<PiTableEntryHandle, PiCounterCellData> cellData) {
+        counters.put(tableId, ImmutableMap.copyOf(cellData));
+    }
+
+    /**
+     * Returns the counter values last read for the given table.
+     *
+     * @param tableId table ID
+     * @return counter values by table entry handle
+     */
+    synchronized Map<PiTableEntryHandle, PiCounterCellData> counters(PiTableId tableId) {
+        return counters.getOrDefault(tableId, ImmutableMap.of());
+    }
+
+    /**
+     * Order-independent digest of a collection of table entries, along with
+     * the mirror version. Counter values are not taken into account.
+     */
+    private static final class Digest {
+        private final int count;
+        private final long sum;
+        private final long mirrorVersion;
+
+        private Digest(int count, long sum, long mirrorVersion) {
+            this.count = count;
+            this.sum = sum;
+            this.mirrorVersion = mirrorVersion;
+        }
+
+        private static Digest of(Collection<PiTableEntry> entries, long mirrorVersion) {
+            long sum = 0;
+            for (PiTableEntry entry : entries) {
+                // Spread hash codes to make cancellations less likely.
+                sum += entry.hashCode() * 0x9E3779B97F4A7C15L;
+            }
+            return new Digest(entries.size(), sum, mirrorVersion);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Digest that = (Digest) o;
+            return count == that.count && sum == that.sum
+                    && mirrorVersion == that.mirrorVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, sum, mirrorVersion);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.onosproject.drivers.p4runtime.mirror;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.SharedExecutors;
 import org.onosproject.net.Annotations;
@@ -33,6 +34,8 @@ import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteRequest;
 import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapEvent;
+import org.onosproject.store.service.EventuallyConsistentMapListener;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WallClockTimestamp;
 import org.osgi.service.component.annotations.Activate;
@@ -42,9 +45,13 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -81,6 +88,16 @@ public abstract class AbstractDistributedP4RuntimeMirror
     private final PiPipeconfWatchdogListener pipeconfListener =
             new InternalPipeconfWatchdogListener();
 
+    // Handles and modification count of the mirror entries in each scope,
+    // maintained from map events so that changes made by other nodes are
+    // also accounted for.
+    private final ConcurrentMap<Object, Set<PiHandle>> scopeHandles =
+            Maps.newConcurrentMap();
+    private final ConcurrentMap<Object, AtomicLong> scopeVersions =
+            Maps.newConcurrentMap();
+    private final EventuallyConsistentMapListener<PiHandle, TimedEntry<E>> mirrorListener =
+            new InternalMirrorListener();
+
     AbstractDistributedP4RuntimeMirror(PiEntityType entityType) {
         this.entityType = entityType;
         this.flushOnPipelineUnknown = false;
@@ -107,6 +124,8 @@ public abstract class AbstractDistributedP4RuntimeMirror
                 .withSerializer(serializer)
                 .withTimestampProvider((k, v) -> new WallClockTimestamp())
                 .build();
+        mirrorMap.addListener(mirrorListener);
+        mirrorMap.keySet().forEach(this::indexHandle);
 
         annotationsMap = storageService
                 .<PiHandle, Annotations>eventuallyConsistentMapBuilder()
@@ -122,8 +141,11 @@ public abstract class AbstractDistributedP4RuntimeMirror
     @Deactivate
     public void deactivate() {
         pipeconfWatchdogService.removeListener(pipeconfListener);
+        mirrorMap.removeListener(mirrorListener);
         mirrorMap.destroy();
         mirrorMap = null;
+        scopeHandles.clear();
+        scopeVersions.clear();
         log.info("Stopped");
     }
 
@@ -181,12 +203,78 @@ public abstract class AbstractDistributedP4RuntimeMirror
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void sync(DeviceId deviceId, Collection<E> entities) {
         checkNotNull(deviceId);
+        sync(deviceId, entities, deviceHandleMap(deviceId));
+    }
+
+    /**
+     * Returns the scope of the given handle, i.e. the key under which the
+     * mirror entries are indexed and counted. By default, entries are scoped
+     * per device.
+     *
+     * @param handle PI handle
+     * @return scope key
+     */
+    protected Object scopeOf(PiHandle handle) {
+        return handle.deviceId();
+    }
+
+    /**
+     * Returns the entries of the mirror in the given scope, without scanning
+     * the whole mirror.
+     *
+     * @param scope scope key
+     * @return timed entries
+     */
+    protected Collection<TimedEntry<E>> getAllInScope(Object scope) {
+        checkNotNull(scope);
+        return scopeHandles.getOrDefault(scope, Collections.emptySet()).stream()
+                .map(mirrorMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a number that changes whenever an entry of the given scope is
+     * added, updated or removed, on this node or on any other node.
+     *
+     * @param scope scope key
+     * @return scope version
+     */
+    protected long version(Object scope) {
+        checkNotNull(scope);
+        final AtomicLong version = scopeVersions.get(scope);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Synchronizes the state of the given device ID with the given collection
+     * of PI entities, considering only the entries of the mirror in the given
+     * scope. Entries outside the scope are left untouched.
+     *
+     * @param deviceId device ID
+     * @param entities collection of PI entities
+     * @param scope    scope key
+     */
+    protected void sync(DeviceId deviceId, Collection<E> entities, Object scope) {
+        checkNotNull(deviceId);
+        final Map<PiHandle, E> localState = Maps.newHashMap();
+        scopeHandles.getOrDefault(checkNotNull(scope), Collections.emptySet())
+                .forEach(h -> {
+                    final TimedEntry<E> timedEntry = mirrorMap.get(h);
+                    if (timedEntry != null) {
+                        localState.put(h, timedEntry.entry());
+                    }
+                });
+        sync(deviceId, entities, localState);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sync(DeviceId deviceId, Collection<E> entities,
+                      Map<PiHandle, E> localState) {
         final Map<PiHandle, E> deviceState = entities.stream()
                 .collect(Collectors.toMap(e -> e.handle(deviceId), e -> e));
-        final Map<PiHandle, E> localState = deviceHandleMap(deviceId);
 
         final AtomicInteger removeCount = new AtomicInteger(0);
         final AtomicInteger updateCount = new AtomicInteger(0);
@@ -275,6 +363,45 @@ public abstract class AbstractDistributedP4RuntimeMirror
                 });
     }
 
+    private void indexHandle(PiHandle handle) {
+        final Object scope = scopeOf(handle);
+        scopeHandles.compute(scope, (s, handles) -> {
+            final Set<PiHandle> result = handles == null
+                    ? Sets.newConcurrentHashSet() : handles;
+            result.add(handle);
+            return result;
+        });
+        scopeVersions.computeIfAbsent(scope, s -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    private void unindexHandle(PiHandle handle) {
+        final Object scope = scopeOf(handle);
+        scopeHandles.computeIfPresent(scope, (s, handles) -> {
+            handles.remove(handle);
+            return handles.isEmpty() ? null : handles;
+        });
+        scopeVersions.computeIfAbsent(scope, s -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    private class InternalMirrorListener
+            implements EventuallyConsistentMapListener<PiHandle, TimedEntry<E>> {
+        @Override
+        public void event(EventuallyConsistentMapEvent<PiHandle, TimedEntry<E>> event) {
+            switch (event.type()) {
+                case PUT:
+                    indexHandle(event.key());
+                    break;
+                case REMOVE:
+                    unindexHandle(event.key());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     public class InternalPipeconfWatchdogListener implements PiPipeconfWatchdogListener {
         @Override
         public void event(PiPipeconfWatchdogEvent event) {
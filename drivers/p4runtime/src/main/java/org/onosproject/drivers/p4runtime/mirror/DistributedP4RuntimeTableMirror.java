@@ -16,11 +16,17 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
 import org.onosproject.net.pi.runtime.PiEntityType;
+import org.onosproject.net.pi.runtime.PiHandle;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 import org.osgi.service.component.annotations.Component;
 
+import java.util.Collection;
+
 /**
  * Distributed implementation of a P4Runtime table mirror.
  */
@@ -33,4 +39,28 @@ public final class DistributedP4RuntimeTableMirror
     public DistributedP4RuntimeTableMirror() {
         super(PiEntityType.TABLE_ENTRY);
     }
+
+    @Override
+    protected Object scopeOf(PiHandle handle) {
+        return tableScope(handle.deviceId(), ((PiTableEntryHandle) handle).tableId());
+    }
+
+    @Override
+    public Collection<TimedEntry<PiTableEntry>> getAll(DeviceId deviceId, PiTableId tableId) {
+        return getAllInScope(tableScope(deviceId, tableId));
+    }
+
+    @Override
+    public void sync(DeviceId deviceId, PiTableId tableId, Collection<PiTableEntry> entries) {
+        sync(deviceId, entries, tableScope(deviceId, tableId));
+    }
+
+    @Override
+    public long version(DeviceId deviceId, PiTableId tableId) {
+        return version(tableScope(deviceId, tableId));
+    }
+
+    private static Object tableScope(DeviceId deviceId, PiTableId tableId) {
+        return Maps.immutableEntry(deviceId, tableId);
+    }
 }
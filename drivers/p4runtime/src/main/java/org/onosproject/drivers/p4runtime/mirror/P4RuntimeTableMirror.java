@@ -16,12 +16,48 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 
+import java.util.Collection;
+
 /**
  * Mirror of table entries installed on a P4Runtime device.
  */
 public interface P4RuntimeTableMirror
         extends P4RuntimeMirror<PiTableEntryHandle, PiTableEntry> {
+
+    /**
+     * Synchronizes the entries of the given table of the given device with
+     * the given collection of table entries. Entries of other tables are left
+     * untouched.
+     *
+     * @param deviceId device ID
+     * @param tableId  table ID
+     * @param entries  table entries read from the device
+     */
+    void sync(DeviceId deviceId, PiTableId tableId, Collection<PiTableEntry> entries);
+
+    /**
+     * Returns all entries of the given table of the given device.
+     *
+     * @param deviceId device ID
+     * @param tableId  table ID
+     * @return collection of table entries
+     */
+    Collection<TimedEntry<PiTableEntry>> getAll(DeviceId deviceId, PiTableId tableId);
+
+    /**
+     * Returns a number that changes whenever an entry of the given table of
+     * the given device is added, updated or removed in the mirror, by this or
+     * any other node. Used to tell whether the mirror changed between two
+     * reads of the table.
+     *
+     * @param deviceId device ID
+     * @param tableId  table ID
+     * @return table version
+     */
+    long version(DeviceId deviceId, PiTableId tableId);
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.drivers.p4runtime;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiCounterCellData;
+import org.onosproject.net.pi.runtime.PiExactFieldMatch;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests for P4RuntimeTableReadState.
+ */
+public class P4RuntimeTableReadStateTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:test");
+    private static final PiTableId TABLE_1 = PiTableId.of("table1");
+    private static final PiTableId TABLE_2 = PiTableId.of("table2");
+
+    private static PiTableEntry entry(PiTableId tableId, int key) {
+        return PiTableEntry.builder()
+                .forTable(tableId)
+                .withMatchKey(PiMatchKey.builder()
+                                      .addFieldMatch(new PiExactFieldMatch(
+                                              PiMatchFieldId.of("field"),
+                                              ImmutableByteSequence.copyFrom(key)))
+                                      .build())
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        P4RuntimeTableReadState.remove(DEVICE_ID);
+    }
+
+    /**
+     * Tests that a table is reported as changed only when its entries or
+     * the version of its mirror change.
+     */
+    @Test
+    public void testChanged() {
+        final P4RuntimeTableReadState state = P4RuntimeTableReadState.of(DEVICE_ID);
+        final List<PiTableEntry> entries = ImmutableList.of(entry(TABLE_1, 1), entry(TABLE_1, 2));
+
+        assertThat(state.changed(TABLE_1, entries, 0), is(true));
+        assertThat(state.changed(TABLE_1, entries, 0), is(false));
+        // Same entries in a different order.
+        assertThat(state.changed(TABLE_1, Lists.reverse(entries), 0), is(false));
+        // Another table is tracked separately.
+        assertThat(state.changed(TABLE_2, entries, 0), is(true));
+
+        // Entries changed on the device.
+        assertThat(state.changed(TABLE_1, entries.subList(0, 1), 0), is(true));
+        assertThat(state.changed(TABLE_1, entries.subList(0, 1), 0), is(false));
+
+        // Mirror changed, e.g. by another node.
+        assertThat(state.changed(TABLE_1, entries.subList(0, 1), 1), is(true));
+        assertThat(state.changed(TABLE_1, entries.subList(0, 1), 1), is(false));
+    }
+
+    /**
+     * Tests that removing the state of a device starts afresh.
+     */
+    @Test
+    public void testRemove() {
+        final P4RuntimeTableReadState state = P4RuntimeTableReadState.of(DEVICE_ID);
+        final List<PiTableEntry> entries = ImmutableList.of(entry(TABLE_1, 1));
+        assertThat(state.nextPoll(), is(0L));
+        assertThat(state.nextPoll(), is(1L));
+        state.changed(TABLE_1, entries, 0);
+        state.putCounters(TABLE_1, ImmutableMap.of(
+                entries.get(0).handle(DEVICE_ID), new PiCounterCellData(1, 1)));
+        assertThat(P4RuntimeTableReadState.of(DEVICE_ID), is(sameInstance(state)));
+
+        P4RuntimeTableReadState.remove(DEVICE_ID);
+
+        final P4RuntimeTableReadState newState = P4RuntimeTableReadState.of(DEVICE_ID);
+        assertThat(newState, is(not(sameInstance(state))));
+        assertThat(newState.nextPoll(), is(0L));
+        assertThat(newState.changed(TABLE_1, entries, 0), is(true));
+        assertThat(newState.counters(TABLE_1).isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.drivers.p4runtime.mirror;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiExactFieldMatch;
+import org.onosproject.net.pi.runtime.PiHandle;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogListener;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogService;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Unit tests for DistributedP4RuntimeTableMirror.
+ */
+public class DistributedP4RuntimeTableMirrorTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:test");
+    private static final PiTableId TABLE_1 = PiTableId.of("table1");
+    private static final PiTableId TABLE_2 = PiTableId.of("table2");
+
+    private DistributedP4RuntimeTableMirror mirror;
+
+    private static PiTableEntry entry(PiTableId tableId, int key) {
+        return PiTableEntry.builder()
+                .forTable(tableId)
+                .withMatchKey(PiMatchKey.builder()
+                                      .addFieldMatch(new PiExactFieldMatch(
+                                              PiMatchFieldId.of("field"),
+                                              ImmutableByteSequence.copyFrom(key)))
+                                      .build())
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        mirror = new DistributedP4RuntimeTableMirror();
+        mirror.storageService = new TestStorageService();
+        mirror.pipeconfWatchdogService = new MockPipeconfWatchdogService();
+        mirror.activate();
+    }
+
+    @After
+    public void tearDown() {
+        mirror.deactivate();
+    }
+
+    private Collection<PiTableEntry> entries(PiTableId tableId) {
+        return mirror.getAll(DEVICE_ID, tableId).stream()
+                .map(TimedEntry::entry)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that synchronizing a table leaves the other tables untouched.
+     */
+    @Test
+    public void testSyncTable() {
+        final PiTableEntry entry1 = entry(TABLE_1, 1);
+        final PiTableEntry entry2 = entry(TABLE_1, 2);
+        final PiTableEntry entry3 = entry(TABLE_2, 3);
+        mirror.put(entry1.handle(DEVICE_ID), entry1);
+        mirror.put(entry3.handle(DEVICE_ID), entry3);
+
+        mirror.sync(DEVICE_ID, TABLE_1, ImmutableList.of(entry2));
+
+        assertThat(entries(TABLE_1), containsInAnyOrder(entry2));
+        assertThat(entries(TABLE_2), containsInAnyOrder(entry3));
+        assertThat(mirror.getAll(DEVICE_ID).size(), is(2));
+
+        mirror.sync(DEVICE_ID, TABLE_2, ImmutableList.of());
+
+        assertThat(entries(TABLE_1), containsInAnyOrder(entry2));
+        assertThat(entries(TABLE_2).isEmpty(), is(true));
+    }
+
+    /**
+     * Tests that the version of a table changes with any change to its
+     * entries, including changes not made through the mirror, e.g. by other
+     * nodes.
+     */
+    @Test
+    public void testVersion() {
+        final PiTableEntry entry1 = entry(TABLE_1, 1);
+        final PiTableEntry entry2 = entry(TABLE_1, 2);
+        final PiTableEntry entry3 = entry(TABLE_2, 3);
+
+        long version1 = mirror.version(DEVICE_ID, TABLE_1);
+        mirror.put(entry1.handle(DEVICE_ID), entry1);
+        assertThat(mirror.version(DEVICE_ID, TABLE_1), is(not(version1)));
+
+        version1 = mirror.version(DEVICE_ID, TABLE_1);
+        final long version2 = mirror.version(DEVICE_ID, TABLE_2);
+        mirror.put(entry3.handle(DEVICE_ID), entry3);
+        assertThat(mirror.version(DEVICE_ID, TABLE_1), is(version1));
+        assertThat(mirror.version(DEVICE_ID, TABLE_2), is(not(version2)));
+
+        // Update made directly to the backing map, as done on remote updates.
+        final EventuallyConsistentMap<PiHandle, TimedEntry<PiTableEntry>> mirrorMap =
+                TestUtils.getField(mirror, "mirrorMap");
+        mirrorMap.put(entry2.handle(DEVICE_ID), new TimedEntry<>(0, entry2));
+        assertThat(mirror.version(DEVICE_ID, TABLE_1), is(not(version1)));
+        assertThat(entries(TABLE_1), containsInAnyOrder(entry1, entry2));
+
+        version1 = mirror.version(DEVICE_ID, TABLE_1);
+        mirrorMap.remove(entry1.handle(DEVICE_ID));
+        assertThat(mirror.version(DEVICE_ID, TABLE_1), is(not(version1)));
+        assertThat(entries(TABLE_1), containsInAnyOrder(entry2));
+
+        // Synchronizing with no differences does not change the version.
+        version1 = mirror.version(DEVICE_ID, TABLE_1);
+        mirror.sync(DEVICE_ID, TABLE_1, ImmutableList.of(entry2));
+        assertThat(mirror.version(DEVICE_ID, TABLE_1), is(version1));
+    }
+
+    private static class MockPipeconfWatchdogService implements PiPipeconfWatchdogService {
+        @Override
+        public void triggerProbe(DeviceId deviceId) {
+        }
+
+        @Override
+        public PipelineStatus getStatus(DeviceId deviceId) {
+            return PipelineStatus.READY;
+        }
+
+        @Override
+        public void addListener(PiPipeconfWatchdogListener listener) {
+        }
+
+        @Override
+        public void removeListener(PiPipeconfWatchdogListener listener) {
+        }
+    }
+}
@@ -244,10 +244,12 @@ public class FabricInterpreter extends AbstractFabricHandlerBehavior
     public InboundPacket mapInboundPacket(PiPacketOperation packetIn, DeviceId deviceId) throws PiInterpreterException {
         // Assuming that the packet is ethernet, which is fine since fabric.p4
         // can deparse only ethernet packets.
+        // The packet data is copied only once, and shared by the parsed
+        // and unparsed packet, as the deserializer copies the bytes it keeps.
+        final byte[] data = packetIn.data().asArray();
         Ethernet ethPkt;
         try {
-            ethPkt = Ethernet.deserializer().deserialize(packetIn.data().asArray(), 0,
-                                                         packetIn.data().size());
+            ethPkt = Ethernet.deserializer().deserialize(data, 0, data.length);
         } catch (DeserializationException dex) {
             throw new PiInterpreterException(dex.getMessage());
         }
@@ -261,7 +263,7 @@ public class FabricInterpreter extends AbstractFabricHandlerBehavior
             ImmutableByteSequence portByteSequence = packetMetadata.get().value();
             short s = portByteSequence.asReadOnlyBuffer().getShort();
             ConnectPoint receivedFrom = new ConnectPoint(deviceId, PortNumber.portNumber(s));
-            ByteBuffer rawData = ByteBuffer.wrap(packetIn.data().asArray());
+            ByteBuffer rawData = ByteBuffer.wrap(data);
             return new DefaultInboundPacket(receivedFrom, ethPkt, rawData);
         } else {
             throw new PiInterpreterException(format(
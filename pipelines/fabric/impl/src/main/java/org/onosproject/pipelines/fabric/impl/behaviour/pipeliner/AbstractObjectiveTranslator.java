@@ -16,6 +16,8 @@
 
 package org.onosproject.pipelines.fabric.impl.behaviour.pipeliner;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
@@ -32,6 +34,8 @@ import org.onosproject.pipelines.fabric.impl.behaviour.FabricCapabilities;
 import org.onosproject.pipelines.fabric.impl.behaviour.FabricInterpreter;
 import org.slf4j.Logger;
 
+import java.util.concurrent.TimeUnit;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -41,6 +45,9 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 abstract class AbstractObjectiveTranslator<T extends Objective> {
 
+    private static final int MAX_CACHED_TRANSLATIONS = 10_000;
+    private static final int CACHE_EXPIRE_MINUTES = 10;
+
     protected final Logger log = getLogger(this.getClass());
 
     protected final FabricCapabilities capabilities;
@@ -48,6 +55,18 @@ abstract class AbstractObjectiveTranslator<T extends Objective> {
 
     private final PiPipelineInterpreter interpreter;
 
+    // Translations depend only on the objective content, the device and the
+    // pipeconf capabilities. Objectives are equal regardless of their context,
+    // so objectives issued again with the same content (e.g., on app restart)
+    // are translated only once. Keys are copies of the objectives without
+    // their context, so that cached translations do not keep the callers'
+    // contexts alive. A new translator is created for each pipeliner
+    // initialization, hence the cache does not survive a pipeconf change.
+    private final Cache<T, ObjectiveTranslation> translations = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TRANSLATIONS)
+            .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+            .build();
+
     AbstractObjectiveTranslator(DeviceId deviceId, FabricCapabilities capabilities) {
         this.deviceId = checkNotNull(deviceId);
         this.capabilities = checkNotNull(capabilities);
@@ -55,15 +74,32 @@ abstract class AbstractObjectiveTranslator<T extends Objective> {
     }
 
     public ObjectiveTranslation translate(T obj) {
+        ObjectiveTranslation translation = translations.getIfPresent(obj);
+        if (translation != null) {
+            return translation;
+        }
         try {
-            return doTranslate(obj);
+            translation = doTranslate(obj);
         } catch (FabricPipelinerException e) {
             log.warn("Cannot translate {}: {} [{}]",
                      obj.getClass().getSimpleName(), e.getMessage(), obj);
             return ObjectiveTranslation.ofError(e.objectiveError());
         }
+        // errors are not cached, so that they are logged every time
+        if (!translation.error().isPresent()) {
+            translations.put(obj.context().isPresent() ? withoutContext(obj) : obj, translation);
+        }
+        return translation;
     }
 
+    /**
+     * Returns a copy of the given objective without its context.
+     *
+     * @param obj objective
+     * @return objective equal to the given one, without context
+     */
+    abstract T withoutContext(T obj);
+
     public abstract ObjectiveTranslation doTranslate(T obj)
             throws FabricPipelinerException;
 
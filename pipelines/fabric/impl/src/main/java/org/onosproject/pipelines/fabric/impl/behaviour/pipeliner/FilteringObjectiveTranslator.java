@@ -76,6 +76,11 @@ class FilteringObjectiveTranslator
         super(deviceId, capabilities);
     }
 
+    @Override
+    FilteringObjective withoutContext(FilteringObjective obj) {
+        return obj.op() == Objective.Operation.REMOVE ? obj.copy().remove() : obj.copy().add();
+    }
+
     @Override
     public ObjectiveTranslation doTranslate(FilteringObjective obj)
             throws FabricPipelinerException {
@@ -109,6 +109,11 @@ class ForwardingObjectiveTranslator
         super(deviceId, capabilities);
     }
 
+    @Override
+    ForwardingObjective withoutContext(ForwardingObjective obj) {
+        return obj.op() == Objective.Operation.REMOVE ? obj.copy().remove() : obj.copy().add();
+    }
+
     @Override
     public ObjectiveTranslation doTranslate(ForwardingObjective obj)
             throws FabricPipelinerException {
@@ -76,6 +76,25 @@ class NextObjectiveTranslator
         super(deviceId, capabilities);
     }
 
+    @Override
+    NextObjective withoutContext(NextObjective obj) {
+        switch (obj.op()) {
+            case REMOVE:
+                return obj.copy().remove();
+            case ADD_TO_EXISTING:
+                return obj.copy().addToExisting();
+            case REMOVE_FROM_EXISTING:
+                return obj.copy().removeFromExisting();
+            case MODIFY:
+                return obj.copy().modify();
+            case VERIFY:
+                return obj.copy().verify();
+            case ADD:
+            default:
+                return obj.copy().add();
+        }
+    }
+
     @Override
     public ObjectiveTranslation doTranslate(NextObjective obj)
             throws FabricPipelinerException {
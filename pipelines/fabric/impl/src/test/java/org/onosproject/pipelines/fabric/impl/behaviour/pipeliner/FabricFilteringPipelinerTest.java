@@ -35,15 +35,23 @@ import org.onosproject.net.flow.criteria.Criteria;
 import org.onosproject.net.flow.criteria.PiCriterion;
 import org.onosproject.net.flowobjective.DefaultFilteringObjective;
 import org.onosproject.net.flowobjective.FilteringObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveContext;
 import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.pi.runtime.PiAction;
 import org.onosproject.net.pi.runtime.PiActionParam;
 import org.onosproject.pipelines.fabric.impl.behaviour.FabricConstants;
+import org.slf4j.Logger;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Test cases for fabric.p4 pipeline filtering control block.
@@ -53,6 +61,10 @@ public class FabricFilteringPipelinerTest extends FabricPipelinerTest {
     public static final byte[] ONE = {1};
     public static final byte[] ZERO = {0};
     public static final short EXACT_MATCH_ETH_TYPE = (short) 0xFFFF;
+    private static final int PORTS = 8;
+    private static final int VLANS = 10;
+
+    private final Logger log = getLogger(getClass());
     private FilteringObjectiveTranslator translator;
 
     @Before
@@ -344,6 +356,70 @@ public class FabricFilteringPipelinerTest extends FabricPipelinerTest {
         assertError(ObjectiveError.BADPARAMS, result2);
     }
 
+    /**
+     * Tests that objectives issued again with the same content share the
+     * translation of the first one.
+     */
+    @Test
+    public void testTranslationCache() {
+        ObjectiveTranslation first = translator.translate(buildFilteringObjective(ROUTER_MAC));
+        FilteringObjective withContext = buildFilteringObjective(ROUTER_MAC).copy()
+                .add(new ObjectiveContext() { });
+        ObjectiveTranslation second = translator.translate(withContext);
+        assertSame(first, second);
+
+        // cached translations are keyed by objectives without context
+        FilteringObjective key = translator.withoutContext(withContext);
+        assertEquals(withContext, key);
+        assertFalse(key.context().isPresent());
+        assertEquals(Objective.Operation.REMOVE,
+                     translator.withoutContext(withContext.copy().remove(new ObjectiveContext() { })).op());
+
+        ObjectiveTranslation removal = translator.translate(
+                buildFilteringObjective(ROUTER_MAC).copy().remove());
+        assertNotSame(first, removal);
+
+        // the translation is computed again by a new translator
+        FilteringObjectiveTranslator other = new FilteringObjectiveTranslator(DEVICE_ID, capabilitiesHashed);
+        ObjectiveTranslation third = other.translate(buildFilteringObjective(ROUTER_MAC));
+        assertNotSame(first, third);
+        assertEquals(first, third);
+    }
+
+    /**
+     * Measures the filtering objectives translated per second, when they are
+     * first issued and when they are issued again, e.g., on app restart.
+     */
+    @Test
+    public void testTranslationThroughput() {
+        List<FilteringObjective> objectives = Lists.newArrayList();
+        for (int port = 1; port <= PORTS; port++) {
+            for (int vlan = 1; vlan <= VLANS; vlan++) {
+                objectives.add(DefaultFilteringObjective.builder()
+                                       .permit()
+                                       .withPriority(PRIORITY)
+                                       .withKey(Criteria.matchInPort(PortNumber.portNumber(port)))
+                                       .addCondition(Criteria.matchEthDst(ROUTER_MAC))
+                                       .addCondition(Criteria.matchVlanId(VlanId.NONE))
+                                       .withMeta(DefaultTrafficTreatment.builder()
+                                                         .pushVlan()
+                                                         .setVlanId(VlanId.vlanId((short) vlan))
+                                                         .build())
+                                       .fromApp(APP_ID)
+                                       .makePermanent()
+                                       .add());
+            }
+        }
+        for (int round = 1; round <= 2; round++) {
+            long start = System.nanoTime();
+            objectives.forEach(obj -> assertFalse(translator.translate(obj).error().isPresent()));
+            long elapsed = System.nanoTime() - start;
+            log.info("Round {}: translated {} filtering objectives in {} ms ({} per second)",
+                     round, objectives.size(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                     objectives.size() * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
     /* Utilities */
 
     private void assertError(ObjectiveError error, ObjectiveTranslation actualTranslation) {
@@ -39,6 +39,15 @@ public interface BgpLocalRib {
      */
     void add(BgpSessionInfo sessionInfo, BgpLSNlri nlri, PathAttrNlriDetails details) throws BgpParseException;
 
+    /**
+     * Adds the NLRIs advertised together in one UPDATE message.
+     *
+     * @param sessionInfo session info
+     * @param update NLRIs and their path attributes and NLRI information, in message order
+     * @throws BgpParseException while adding NLRIs to local rib
+     */
+    void add(BgpSessionInfo sessionInfo, Map<BgpLSNlri, PathAttrNlriDetails> update) throws BgpParseException;
+
     /**
      * Removes NLRI identifier if it exists.
      *
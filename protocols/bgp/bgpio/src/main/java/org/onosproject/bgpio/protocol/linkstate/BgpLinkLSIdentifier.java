@@ -109,15 +109,15 @@ public class BgpLinkLSIdentifier implements Comparable<Object> {
     public static NodeDescriptors parseNodeDescriptors(ChannelBuffer cb, short desType, byte protocolId)
             throws BgpParseException {
         log.debug("Parse node descriptors");
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         short type = cb.readShort();
         short length = cb.readShort();
         if (cb.readableBytes() < length) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR,
-                    tempBuf.readBytes(cb.readableBytes() + Constants.TYPE_AND_LEN_AS_SHORT));
+                    tempBuf.readSlice(cb.readableBytes() + Constants.TYPE_AND_LEN_AS_SHORT));
         }
         NodeDescriptors nodeIdentifier = new NodeDescriptors();
-        ChannelBuffer tempCb = cb.readBytes(length);
+        ChannelBuffer tempCb = cb.readSlice(length);
 
         if (type == desType) {
             nodeIdentifier = NodeDescriptors.read(tempCb, length, desType, protocolId);
@@ -140,14 +140,14 @@ public class BgpLinkLSIdentifier implements Comparable<Object> {
         int count = 0;
 
         while (cb.readableBytes() > 0) {
-            ChannelBuffer tempBuf = cb.copy();
+            ChannelBuffer tempBuf = cb.slice();
             short type = cb.readShort();
             short length = cb.readShort();
             if (cb.readableBytes() < length) {
                 throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR,
-                        tempBuf.readBytes(cb.readableBytes() + Constants.TYPE_AND_LEN_AS_SHORT));
+                        tempBuf.readSlice(cb.readableBytes() + Constants.TYPE_AND_LEN_AS_SHORT));
             }
-            ChannelBuffer tempCb = cb.readBytes(length);
+            ChannelBuffer tempCb = cb.readSlice(length);
             switch (type) {
             case LinkLocalRemoteIdentifiersTlv.TYPE:
                 tlv = LinkLocalRemoteIdentifiersTlv.read(tempCb);
@@ -61,15 +61,15 @@ public class BgpNodeLSIdentifier implements Comparable<Object> {
     public static BgpNodeLSIdentifier parseLocalNodeDescriptors(ChannelBuffer cb, byte protocolId)
             throws BgpParseException {
         log.debug("parse Local node descriptor");
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         short type = cb.readShort();
         short length = cb.readShort();
         if (cb.readableBytes() < length) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR,
-                                        tempBuf.readBytes(cb.readableBytes() + Constants.TYPE_AND_LEN));
+                                        tempBuf.readSlice(cb.readableBytes() + Constants.TYPE_AND_LEN));
         }
         NodeDescriptors nodeDescriptors = new NodeDescriptors();
-        ChannelBuffer tempCb = cb.readBytes(length);
+        ChannelBuffer tempCb = cb.readSlice(length);
 
         if (type == NodeDescriptors.LOCAL_NODE_DES_TYPE) {
             nodeDescriptors = NodeDescriptors.read(tempCb, length, type, protocolId);
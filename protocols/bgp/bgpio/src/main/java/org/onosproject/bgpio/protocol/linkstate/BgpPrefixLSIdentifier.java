@@ -95,16 +95,16 @@ public class BgpPrefixLSIdentifier implements Comparable<Object> {
      */
     public static NodeDescriptors parseLocalNodeDescriptors(ChannelBuffer cb, byte protocolId)
                                                                  throws BgpParseException {
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         short type = cb.readShort();
         short length = cb.readShort();
         if (cb.readableBytes() < length) {
             //length + 4 implies data contains type, length and value
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR,
-                    tempBuf.readBytes(cb.readableBytes() + TYPE_AND_LEN));
+                    tempBuf.readSlice(cb.readableBytes() + TYPE_AND_LEN));
         }
         NodeDescriptors localNodeDescriptors = new NodeDescriptors();
-        ChannelBuffer tempCb = cb.readBytes(length);
+        ChannelBuffer tempCb = cb.readSlice(length);
 
         if (type == NodeDescriptors.LOCAL_NODE_DES_TYPE) {
             localNodeDescriptors = NodeDescriptors.read(tempCb, length, type, protocolId);
@@ -130,15 +130,15 @@ public class BgpPrefixLSIdentifier implements Comparable<Object> {
         int count = 0;
 
         while (cb.readableBytes() > 0) {
-            ChannelBuffer tempBuf = cb.copy();
+            ChannelBuffer tempBuf = cb.slice();
             short type = cb.readShort();
             short length = cb.readShort();
             if (cb.readableBytes() < length) {
                 //length + 4 implies data contains type, length and value
                 throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR,
-                        tempBuf.readBytes(cb.readableBytes() + TYPE_AND_LEN));
+                        tempBuf.readSlice(cb.readableBytes() + TYPE_AND_LEN));
             }
-            tempCb = cb.readBytes(length);
+            tempCb = cb.readSlice(length);
             switch (type) {
             case OspfRouteTypeTlv.TYPE:
                 tlv = OspfRouteTypeTlv.read(tempCb);
@@ -153,7 +153,7 @@ public class BgpPrefixLSIdentifier implements Comparable<Object> {
                 if (count > 1) {
                     //length + 4 implies data contains type, length and value
                     throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR,
-                           BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR, tempBuf.readBytes(length + TYPE_AND_LEN));
+                           BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR, tempBuf.readSlice(length + TYPE_AND_LEN));
                 }
                 break;
             default:
@@ -85,23 +85,24 @@ public abstract class BgpMessageVer4 {
                 bgpHeader.setType(type);
                 log.debug("Reading update message of type " + type);
 
+                // the body is parsed from a slice, without copying it
                 int len = length - MINIMUM_COMMON_HEADER_LENGTH;
                 switch (type) {
                 case OPEN_MSG_TYPE:
                     log.debug("OPEN MESSAGE is received");
-                    return BgpOpenMsgVer4.READER.readFrom(cb.readBytes(len), bgpHeader);
+                    return BgpOpenMsgVer4.READER.readFrom(cb.readSlice(len), bgpHeader);
                 case KEEPALIVE_MSG_TYPE:
                     log.debug("KEEPALIVE MESSAGE is received");
-                    return BgpKeepaliveMsgVer4.READER.readFrom(cb.readBytes(len), bgpHeader);
+                    return BgpKeepaliveMsgVer4.READER.readFrom(cb.readSlice(len), bgpHeader);
                 case UPDATE_MSG_TYPE:
                     log.debug("UPDATE MESSAGE is received");
-                    return BgpUpdateMsgVer4.READER.readFrom(cb.readBytes(len), bgpHeader);
+                    return BgpUpdateMsgVer4.READER.readFrom(cb.readSlice(len), bgpHeader);
                 case NOTIFICATION_MSG_TYPE:
                     log.debug("NOTIFICATION MESSAGE is received");
-                    return BgpNotificationMsgVer4.READER.readFrom(cb.readBytes(len), bgpHeader);
+                    return BgpNotificationMsgVer4.READER.readFrom(cb.readSlice(len), bgpHeader);
                 case ROUTEREFRESH_MSG_TYPE:
                     log.debug("ROUTEREFRESH MESSAGE is received");
-                    return BgpRouteRefreshMsgVer4.READER.readFrom(cb.readBytes(len), bgpHeader);
+                    return BgpRouteRefreshMsgVer4.READER.readFrom(cb.readSlice(len), bgpHeader);
                 default:
                     Validation.validateType(BgpErrorType.MESSAGE_HEADER_ERROR, BgpErrorType.BAD_MESSAGE_TYPE, type);
                     return null;
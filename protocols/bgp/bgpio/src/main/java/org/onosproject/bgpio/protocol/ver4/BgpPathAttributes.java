@@ -15,11 +15,15 @@
  */
 package org.onosproject.bgpio.protocol.ver4;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.types.As4Path;
 import org.onosproject.bgpio.types.AsPath;
@@ -41,6 +45,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Provides Implementation of BGP Path Attribute.
@@ -64,6 +72,19 @@ public class BgpPathAttributes {
     public static final int MPUNREACHNLRI_TYPE = 15;
     public static final int EXTENDED_COMMUNITY_TYPE = 16;
 
+    private static final int EXTENDED_LENGTH_FLAG = 0x10;
+    private static final int SHARED_ATTRIBUTES_CACHE_SIZE = 1024;
+    // attributes with immutable representations, which can be shared by messages
+    private static final Set<Integer> SHAREABLE_TYPES = ImmutableSet.of(
+            (int) Origin.ORIGIN_TYPE, (int) AsPath.ASPATH_TYPE, (int) As4Path.AS4PATH_TYPE,
+            (int) NextHop.NEXTHOP_TYPE, (int) Med.MED_TYPE, (int) LocalPref.LOCAL_PREF_TYPE,
+            LINK_STATE_ATTRIBUTE_TYPE, EXTENDED_COMMUNITY_TYPE);
+
+    // Attributes other than MP_REACH_NLRI and MP_UNREACH_NLRI, keyed by their
+    // encoding; consecutive UPDATE messages from a peer usually carry the same
+    private static final Cache<ChannelBuffer, List<BgpValueType>> SHARED_ATTRIBUTES =
+            CacheBuilder.newBuilder().maximumSize(SHARED_ATTRIBUTES_CACHE_SIZE).build();
+
     private final List<BgpValueType> pathAttribute;
 
     /**
@@ -93,6 +114,10 @@ public class BgpPathAttributes {
 
     /**
      * Reads from channelBuffer and parses BGP path attributes.
+     * <p>
+     * Attributes other than MP_REACH_NLRI and MP_UNREACH_NLRI are parsed once
+     * per distinct encoding, and the resulting objects are shared by all the
+     * messages carrying the same attributes.
      *
      * @param cb channelBuffer
      * @return object of BgpPathAttributes
@@ -108,11 +133,28 @@ public class BgpPathAttributes {
         boolean isNextHop = false;
         boolean isMpReach = false;
         boolean isMpUnReach = false;
+        ChannelBuffer sharedKey = sharedAttributesKey(cb);
+        List<BgpValueType> shared = sharedKey == null ? null : SHARED_ATTRIBUTES.getIfPresent(sharedKey);
+        Iterator<BgpValueType> sharedIterator = shared == null ? null : shared.iterator();
         while (cb.readableBytes() > 0) {
             cb.markReaderIndex();
             byte flags = cb.readByte();
             byte typeCode = cb.readByte();
             cb.resetReaderIndex();
+            if (sharedIterator != null && typeCode != MpReachNlri.MPREACHNLRI_TYPE
+                    && typeCode != MpUnReachNlri.MPUNREACHNLRI_TYPE) {
+                pathAttribute = sharedIterator.next();
+                cb.skipBytes(attributeLength(cb, cb.readerIndex()));
+                if (pathAttribute instanceof Origin) {
+                    isOrigin = ((Origin) pathAttribute).isOriginSet();
+                } else if (pathAttribute instanceof AsPath) {
+                    isAsPath = ((AsPath) pathAttribute).isaspathSet();
+                } else if (pathAttribute instanceof NextHop) {
+                    isNextHop = ((NextHop) pathAttribute).isNextHopSet();
+                }
+                pathAttributeList.add(pathAttribute);
+                continue;
+            }
             switch (typeCode) {
             case Origin.ORIGIN_TYPE:
                 pathAttribute = Origin.read(cb);
@@ -161,10 +203,54 @@ public class BgpPathAttributes {
         }
 
         checkMandatoryAttr(isOrigin, isAsPath, isNextHop, isMpReach, isMpUnReach);
+        if (sharedKey != null && shared == null) {
+            SHARED_ATTRIBUTES.put(sharedKey.copy(), ImmutableList.copyOf(pathAttributeList.stream()
+                    .filter(attr -> !(attr instanceof MpReachNlri || attr instanceof MpUnReachNlri))
+                    .collect(Collectors.toList())));
+        }
         //TODO:if mp_reach or mp_unreach not present ignore the packet
         return new BgpPathAttributes(pathAttributeList);
     }
 
+    /**
+     * Returns the encoding of the attributes other than MP_REACH_NLRI and
+     * MP_UNREACH_NLRI, if all of them can be shared by messages.
+     *
+     * @param cb channelBuffer, left unchanged
+     * @return encoding of the shareable attributes, or null
+     */
+    private static ChannelBuffer sharedAttributesKey(ChannelBuffer cb) {
+        ChannelBuffer key = ChannelBuffers.dynamicBuffer();
+        int index = cb.readerIndex();
+        while (index < cb.writerIndex()) {
+            if (cb.writerIndex() - index < Constants.TYPE_AND_LEN_AS_SHORT) {
+                return null;
+            }
+            int typeCode = cb.getUnsignedByte(index + 1);
+            int length = attributeLength(cb, index);
+            if (index + length > cb.writerIndex()) {
+                // malformed, left to the attribute parsers to report
+                return null;
+            }
+            if (typeCode != MPREACHNLRI_TYPE && typeCode != MPUNREACHNLRI_TYPE) {
+                if (!SHAREABLE_TYPES.contains(typeCode)) {
+                    return null;
+                }
+                key.writeBytes(cb, index, length);
+            }
+            index += length;
+        }
+        return key;
+    }
+
+    // Returns the length of the attribute at index, including its header
+    private static int attributeLength(ChannelBuffer cb, int index) {
+        if ((cb.getUnsignedByte(index) & EXTENDED_LENGTH_FLAG) != 0) {
+            return cb.getUnsignedShort(index + 2) + Constants.TYPE_AND_LEN_AS_SHORT;
+        }
+        return cb.getUnsignedByte(index + 2) + Constants.TYPE_AND_LEN_AS_BYTE;
+    }
+
     /**
      * Write path attributes to channelBuffer.
      *
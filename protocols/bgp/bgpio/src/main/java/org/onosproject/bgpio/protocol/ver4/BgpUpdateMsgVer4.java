@@ -139,7 +139,7 @@ public class BgpUpdateMsgVer4 implements BgpUpdateMsg {
                         cb.readableBytes());
             }
             log.debug("Reading withdrawn routes length");
-            ChannelBuffer tempCb = cb.readBytes(withDrwLen);
+            ChannelBuffer tempCb = cb.readSlice(withDrwLen);
             if (withDrwLen != 0) {
                 // Parsing WithdrawnRoutes
                 withDrwRoutes = parseWithdrawnRoutes(tempCb);
@@ -167,7 +167,7 @@ public class BgpUpdateMsgVer4 implements BgpUpdateMsg {
                                          BgpErrorType.MALFORMED_ATTRIBUTE_LIST,
                                          cb.readableBytes());
                 }
-                tempCb = cb.readBytes(totPathAttrLen);
+                tempCb = cb.readSlice(totPathAttrLen);
                 bgpPathAttributes = BgpPathAttributes.read(tempCb);
             }
             if (cb.readableBytes() > 0) {
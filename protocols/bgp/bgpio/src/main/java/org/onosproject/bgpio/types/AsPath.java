@@ -99,7 +99,7 @@ public class AsPath implements BgpValueType {
     public static AsPath read(ChannelBuffer cb) throws BgpParseException {
         List<Short> aspathSet = new ArrayList<>();
         List<Short> aspathSeq = new ArrayList<>();
-        ChannelBuffer tempCb = cb.copy();
+        ChannelBuffer tempCb = cb.slice();
         Validation validation = Validation.parseAttributeHeader(cb);
 
         if (cb.readableBytes() < validation.getLength()) {
@@ -109,12 +109,12 @@ public class AsPath implements BgpValueType {
         //if fourth bit is set, length is read as short otherwise as byte , len includes type, length and value
         int len = validation.isShort() ? validation.getLength() + Constants.TYPE_AND_LEN_AS_SHORT : validation
                 .getLength() + Constants.TYPE_AND_LEN_AS_BYTE;
-        ChannelBuffer data = tempCb.readBytes(len);
+        ChannelBuffer data = tempCb.readSlice(len);
         if (validation.getFirstBit() && !validation.getSecondBit() && validation.getThirdBit()) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.ATTRIBUTE_FLAGS_ERROR, data);
         }
 
-        ChannelBuffer tempBuf = cb.readBytes(validation.getLength());
+        ChannelBuffer tempBuf = cb.readSlice(validation.getLength());
         while (tempBuf.readableBytes() > 0) {
             byte pathSegType = tempBuf.readByte();
             //no of ASes
@@ -124,7 +124,7 @@ public class AsPath implements BgpValueType {
                 Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                         BgpErrorType.ATTRIBUTE_LENGTH_ERROR, length);
             }
-            ChannelBuffer aspathBuf = tempBuf.readBytes(length);
+            ChannelBuffer aspathBuf = tempBuf.readSlice(length);
             while (aspathBuf.readableBytes() > 0) {
                 short asNum;
                 asNum = aspathBuf.readShort();
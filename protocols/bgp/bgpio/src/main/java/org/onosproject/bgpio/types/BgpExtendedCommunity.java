@@ -66,7 +66,7 @@ public class BgpExtendedCommunity implements BgpValueType {
      */
     public static BgpExtendedCommunity read(ChannelBuffer cb) throws BgpParseException {
 
-        ChannelBuffer tempCb = cb.copy();
+        ChannelBuffer tempCb = cb.slice();
         Validation validation = Validation.parseAttributeHeader(cb);
         List<BgpValueType> fsActionTlvs = new LinkedList<>();
 
@@ -77,15 +77,15 @@ public class BgpExtendedCommunity implements BgpValueType {
         //if fourth bit is set, length is read as short otherwise as byte , len includes type, length and value
         int len = validation.isShort() ? validation.getLength() + Constants.TYPE_AND_LEN_AS_SHORT : validation
                 .getLength() + Constants.TYPE_AND_LEN_AS_BYTE;
-        ChannelBuffer data = tempCb.readBytes(len);
+        ChannelBuffer data = tempCb.readSlice(len);
         if (validation.getFirstBit() && !validation.getSecondBit() && validation.getThirdBit()) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.ATTRIBUTE_FLAGS_ERROR, data);
         }
 
-        ChannelBuffer tempBuf = cb.readBytes(validation.getLength());
+        ChannelBuffer tempBuf = cb.readSlice(validation.getLength());
         if (tempBuf.readableBytes() > 0) {
             BgpValueType fsActionTlv = null;
-            ChannelBuffer actionBuf = tempBuf.readBytes(validation.getLength());
+            ChannelBuffer actionBuf = tempBuf.readSlice(validation.getLength());
 
             while (actionBuf.readableBytes() > 0) {
                 short actionType = actionBuf.readShort();
@@ -141,12 +141,12 @@ public class LinkStateAttributes implements BgpValueType {
     public static LinkStateAttributes read(ChannelBuffer cb)
             throws BgpParseException {
 
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         Validation parseFlags = Validation.parseAttributeHeader(cb);
         int len = parseFlags.isShort() ? parseFlags.getLength() + TYPE_AND_LEN
                                       : parseFlags.getLength() + 3;
 
-        ChannelBuffer data = tempBuf.readBytes(len);
+        ChannelBuffer data = tempBuf.readSlice(len);
         if (!parseFlags.getFirstBit() && parseFlags.getSecondBit()
                 && parseFlags.getThirdBit()) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR,
@@ -163,7 +163,7 @@ public class LinkStateAttributes implements BgpValueType {
         BgpValueType bgpLSAttrib = null;
         LinkedList<BgpValueType> linkStateAttribList;
         linkStateAttribList = new LinkedList<BgpValueType>();
-        ChannelBuffer tempCb = cb.readBytes(parseFlags.getLength());
+        ChannelBuffer tempCb = cb.readSlice(parseFlags.getLength());
         while (tempCb.readableBytes() > 0) {
             short tlvCodePoint = tempCb.readShort();
             switch (tlvCodePoint) {
@@ -61,7 +61,7 @@ public class LocalPref implements BgpValueType {
      */
     public static LocalPref read(ChannelBuffer cb) throws BgpParseException {
         int localPref;
-        ChannelBuffer tempCb = cb.copy();
+        ChannelBuffer tempCb = cb.slice();
         Validation parseFlags = Validation.parseAttributeHeader(cb);
         if ((parseFlags.getLength() > LOCAL_PREF_MAX_LEN) || cb.readableBytes() < parseFlags.getLength()) {
             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.ATTRIBUTE_LENGTH_ERROR,
@@ -70,7 +70,7 @@ public class LocalPref implements BgpValueType {
 
         int len = parseFlags.isShort() ? parseFlags.getLength() +
                   Constants.TYPE_AND_LEN_AS_SHORT : parseFlags.getLength() + Constants.TYPE_AND_LEN_AS_BYTE;
-        ChannelBuffer data = tempCb.readBytes(len);
+        ChannelBuffer data = tempCb.readSlice(len);
         if (parseFlags.getFirstBit()) {
             throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.ATTRIBUTE_FLAGS_ERROR, data);
         }
@@ -210,11 +210,11 @@ public class MpReachNlri implements BgpValueType {
      * @throws BgpParseException while parsing MpReachNlri
      */
     public static MpReachNlri read(ChannelBuffer cb) throws BgpParseException {
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         Validation parseFlags = Validation.parseAttributeHeader(cb);
         int len = parseFlags.isShort() ? parseFlags.getLength() + Constants.TYPE_AND_LEN_AS_SHORT :
                   parseFlags.getLength() + Constants.TYPE_AND_LEN_AS_BYTE;
-        ChannelBuffer data = tempBuf.readBytes(len);
+        ChannelBuffer data = tempBuf.readSlice(len);
 
         if (cb.readableBytes() < parseFlags.getLength()) {
             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR, BgpErrorType.ATTRIBUTE_LENGTH_ERROR,
@@ -226,7 +226,7 @@ public class MpReachNlri implements BgpValueType {
 
         BgpLSNlri bgpLSNlri = null;
         List<BgpLSNlri> mpReachNlri = new LinkedList<>();
-        ChannelBuffer tempCb = cb.readBytes(parseFlags.getLength());
+        ChannelBuffer tempCb = cb.readSlice(parseFlags.getLength());
         short afi = 0;
         byte safi = 0;
         IpAddress ipNextHop = null;
@@ -252,7 +252,7 @@ public class MpReachNlri implements BgpValueType {
                         Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                                         BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                     }
-                    tempBuf = tempCb.readBytes(totNlriLen);
+                    tempBuf = tempCb.readSlice(totNlriLen);
                     switch (nlriType) {
                     case BgpNodeLSNlriVer4.NODE_NLRITYPE:
                         bgpLSNlri = BgpNodeLSNlriVer4.read(tempBuf, afi, safi);
@@ -309,7 +309,7 @@ public class MpReachNlri implements BgpValueType {
                             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                                     BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                         }
-                        tempBuf = tempCb.readBytes(totNlriLen);
+                        tempBuf = tempCb.readSlice(totNlriLen);
                         while (tempBuf.readableBytes() > 0) {
                             short type = tempBuf.readByte();
                             switch (type) {
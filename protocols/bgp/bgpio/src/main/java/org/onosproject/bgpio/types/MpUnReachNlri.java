@@ -173,11 +173,11 @@ public class MpUnReachNlri implements BgpValueType {
      * @throws BgpParseException while parsing MpUnReachNlri
      */
     public static MpUnReachNlri read(ChannelBuffer cb) throws BgpParseException {
-        ChannelBuffer tempBuf = cb.copy();
+        ChannelBuffer tempBuf = cb.slice();
         Validation parseFlags = Validation.parseAttributeHeader(cb);
         int len = parseFlags.isShort() ? parseFlags.getLength() + Constants.TYPE_AND_LEN_AS_SHORT
                                       : parseFlags.getLength() + Constants.TYPE_AND_LEN_AS_BYTE;
-        ChannelBuffer data = tempBuf.readBytes(len);
+        ChannelBuffer data = tempBuf.readSlice(len);
 
         if (!parseFlags.getFirstBit() && parseFlags.getSecondBit()
                 && parseFlags.getThirdBit()) {
@@ -194,7 +194,7 @@ public class MpUnReachNlri implements BgpValueType {
         BgpLSNlri bgpLSNlri = null;
         short afi = 0;
         byte safi = 0;
-        ChannelBuffer tempCb = cb.readBytes(parseFlags.getLength());
+        ChannelBuffer tempCb = cb.readSlice(parseFlags.getLength());
         while (tempCb.readableBytes() > 0) {
             afi = tempCb.readShort();
             safi = tempCb.readByte();
@@ -210,7 +210,7 @@ public class MpUnReachNlri implements BgpValueType {
                                 BgpErrorType.UPDATE_MESSAGE_ERROR,
                                 BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                     }
-                    tempBuf = tempCb.readBytes(totNlriLen);
+                    tempBuf = tempCb.readSlice(totNlriLen);
                     switch (nlriType) {
                     case BgpNodeLSNlriVer4.NODE_NLRITYPE:
                         bgpLSNlri = BgpNodeLSNlriVer4.read(tempBuf, afi, safi);
@@ -258,7 +258,7 @@ public class MpUnReachNlri implements BgpValueType {
                             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                                     BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                         }
-                        tempBuf = tempCb.readBytes(totNlriLen);
+                        tempBuf = tempCb.readSlice(totNlriLen);
                         while (tempBuf.readableBytes() > 0) {
                             short type = tempBuf.readByte();
                             switch (type) {
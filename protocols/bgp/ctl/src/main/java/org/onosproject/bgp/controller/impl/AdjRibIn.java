@@ -77,21 +77,21 @@ public class AdjRibIn {
             if (nodeTree.containsKey(nodeLSIdentifier)) {
                 nodeTree.replace(nodeLSIdentifier, details);
             } else {
-                nodeTree.put(nodeLSIdentifier, details);
+                nodeTree.put(BgpLsIdentifiers.intern(nodeLSIdentifier), details);
             }
         } else if (nlri instanceof BgpLinkLsNlriVer4) {
             BgpLinkLSIdentifier linkLSIdentifier = ((BgpLinkLsNlriVer4) nlri).getLinkIdentifier();
             if (linkTree.containsKey(linkLSIdentifier)) {
                 linkTree.replace(linkLSIdentifier, details);
             } else {
-                linkTree.put(linkLSIdentifier, details);
+                linkTree.put(BgpLsIdentifiers.intern(linkLSIdentifier), details);
             }
         } else if (nlri instanceof BgpPrefixIPv4LSNlriVer4) {
             BgpPrefixLSIdentifier prefixIdentifier = ((BgpPrefixIPv4LSNlriVer4) nlri).getPrefixIdentifier();
             if (prefixTree.containsKey(prefixIdentifier)) {
                 prefixTree.replace(prefixIdentifier, details);
             } else {
-                prefixTree.put(prefixIdentifier, details);
+                prefixTree.put(BgpLsIdentifiers.intern(prefixIdentifier), details);
             }
         }
     }
@@ -15,6 +15,7 @@ package org.onosproject.bgp.controller.impl;
 
 import com.google.common.collect.Maps;
 import com.google.common.base.MoreObjects;
+import org.onlab.packet.IpAddress;
 import org.onosproject.bgp.controller.BgpController;
 import org.onosproject.bgp.controller.BgpId;
 import org.onosproject.bgp.controller.BgpLinkListener;
@@ -32,11 +33,14 @@ import org.onosproject.bgpio.protocol.linkstate.BgpPrefixIPv4LSNlriVer4;
 import org.onosproject.bgpio.protocol.linkstate.BgpPrefixLSIdentifier;
 import org.onosproject.bgpio.protocol.linkstate.PathAttrNlriDetails;
 import org.onosproject.bgpio.protocol.linkstate.PathAttrNlriDetailsLocalRib;
+import org.onosproject.bgpio.types.BgpValueType;
 import org.onosproject.bgpio.types.RouteDistinguisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -126,9 +130,39 @@ public class BgpLocalRibImpl implements BgpLocalRib {
 
     @Override
     public void add(BgpSessionInfo sessionInfo, BgpLSNlri nlri, PathAttrNlriDetails details) throws BgpParseException {
-        int decisionResult;
+        UpdateBatch batch = new UpdateBatch();
+        add(sessionInfo, nlri, details, batch);
+        batch.complete();
+    }
+
+    /**
+     * Adds the NLRIs advertised together in one UPDATE message.
+     * <p>
+     * As they share the same path attributes, the decision process compares
+     * them only once against each distinct path currently selected, and the
+     * topology change is notified once for the whole message.
+     *
+     * @param sessionInfo session of the advertising peer
+     * @param update      NLRIs and their details, in message order
+     * @throws BgpParseException while updating to local RIB
+     */
+    @Override
+    public void add(BgpSessionInfo sessionInfo, Map<BgpLSNlri, PathAttrNlriDetails> update)
+            throws BgpParseException {
+        UpdateBatch batch = new UpdateBatch();
+        for (Map.Entry<BgpLSNlri, PathAttrNlriDetails> entry : update.entrySet()) {
+            add(sessionInfo, entry.getKey(), entry.getValue(), batch);
+            RouteDistinguisher routeDistinguisher = routeDistinguisher(entry.getKey());
+            if (routeDistinguisher != null) {
+                addVpnTree(entry.getKey(), routeDistinguisher);
+            }
+        }
+        batch.complete();
+    }
 
-        log.debug("Add to local RIB {}", details.toString());
+    private void add(BgpSessionInfo sessionInfo, BgpLSNlri nlri, PathAttrNlriDetails details, UpdateBatch batch)
+            throws BgpParseException {
+        log.debug("Add to local RIB {}", details);
 
         PathAttrNlriDetailsLocalRib detailsLocRib = new PathAttrNlriDetailsLocalRib(
                                                                sessionInfo.remoteBgpId().ipAddress(),
@@ -137,65 +171,62 @@ public class BgpLocalRibImpl implements BgpLocalRib {
                                                                sessionInfo.isIbgpSession(), details);
         if (nlri instanceof BgpNodeLSNlriVer4) {
             BgpNodeLSIdentifier nodeLsIdentifier = ((BgpNodeLSNlriVer4) nlri).getLocalNodeDescriptors();
-            if (nodeTree.containsKey(nodeLsIdentifier)) {
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
+            PathAttrNlriDetailsLocalRib current = nodeTree.get(nodeLsIdentifier);
+            if (current != null) {
                 // Compare local RIB entry with the current attribute
-                decisionResult = selectionAlgo.compare(nodeTree.get(nodeLsIdentifier), detailsLocRib);
-                if (decisionResult <= 0) {
+                if (batch.compare(current, detailsLocRib) <= 0) {
                     for (BgpNodeListener l : bgpController.listener()) {
                         l.addNode((BgpNodeLSNlriVer4) nlri, details);
                     }
                     nodeTree.replace(nodeLsIdentifier, detailsLocRib);
-                    log.debug("Local RIB update node: {}", detailsLocRib.toString());
+                    log.debug("Local RIB update node: {}", detailsLocRib);
                 }
             } else {
-                nodeTree.put(nodeLsIdentifier, detailsLocRib);
+                nodeTree.put(BgpLsIdentifiers.intern(nodeLsIdentifier), detailsLocRib);
                 for (BgpNodeListener l : bgpController.listener()) {
                     l.addNode((BgpNodeLSNlriVer4) nlri, details);
                 }
-                bgpController.notifyTopologyChange();
-                log.debug("Local RIB add node: {}", detailsLocRib.toString());
+                batch.topologyChanged = true;
+                log.debug("Local RIB add node: {}", detailsLocRib);
             }
         } else if (nlri instanceof BgpLinkLsNlriVer4) {
             BgpLinkLSIdentifier linkLsIdentifier = ((BgpLinkLsNlriVer4) nlri).getLinkIdentifier();
-            if (linkTree.containsKey(linkLsIdentifier)) {
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
+            PathAttrNlriDetailsLocalRib current = linkTree.get(linkLsIdentifier);
+            if (current != null) {
                 // Compare local RIB entry with the current attribute
-                decisionResult = selectionAlgo.compare(linkTree.get(linkLsIdentifier), detailsLocRib);
-                if (decisionResult <= 0) {
+                if (batch.compare(current, detailsLocRib) <= 0) {
                     linkTree.replace(linkLsIdentifier, detailsLocRib);
                     for (BgpLinkListener l : bgpController.linkListener()) {
                         l.addLink((BgpLinkLsNlriVer4) nlri, details);
                     }
-                    log.debug("Local RIB update link: {}", detailsLocRib.toString());
+                    log.debug("Local RIB update link: {}", detailsLocRib);
                 }
             } else {
-                linkTree.put(linkLsIdentifier, detailsLocRib);
+                linkTree.put(BgpLsIdentifiers.intern(linkLsIdentifier), detailsLocRib);
                 for (BgpLinkListener l : bgpController.linkListener()) {
                     l.addLink((BgpLinkLsNlriVer4) nlri, details);
                 }
-                bgpController.notifyTopologyChange();
-                log.debug("Local RIB add link: {}", detailsLocRib.toString());
+                batch.topologyChanged = true;
+                log.debug("Local RIB add link: {}", detailsLocRib);
             }
         } else if (nlri instanceof BgpPrefixIPv4LSNlriVer4) {
             BgpPrefixLSIdentifier prefixIdentifier = ((BgpPrefixIPv4LSNlriVer4) nlri).getPrefixIdentifier();
-            if (prefixTree.containsKey(prefixIdentifier)) {
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
+            PathAttrNlriDetailsLocalRib current = prefixTree.get(prefixIdentifier);
+            if (current != null) {
                 // Compare local RIB entry with the current attribute
-                decisionResult = selectionAlgo.compare(prefixTree.get(prefixIdentifier), detailsLocRib);
-                if (decisionResult <= 0) {
+                if (batch.compare(current, detailsLocRib) <= 0) {
                     prefixTree.replace(prefixIdentifier, detailsLocRib);
                     for (BgpPrefixListener l : bgpController.prefixListener()) {
                         l.addPrefix((BgpPrefixIPv4LSNlriVer4) nlri, details);
                     }
-                    log.debug("Local RIB update prefix: {}", detailsLocRib.toString());
+                    log.debug("Local RIB update prefix: {}", detailsLocRib);
                 }
             } else {
-                prefixTree.put(prefixIdentifier, detailsLocRib);
+                prefixTree.put(BgpLsIdentifiers.intern(prefixIdentifier), detailsLocRib);
                 for (BgpPrefixListener l : bgpController.prefixListener()) {
                     l.addPrefix((BgpPrefixIPv4LSNlriVer4) nlri, details);
                 }
-                log.debug("Local RIB add prefix: {}", detailsLocRib.toString());
+                log.debug("Local RIB add prefix: {}", detailsLocRib);
             }
         }
     }
@@ -258,7 +289,7 @@ public class BgpLocalRibImpl implements BgpLocalRib {
         }
     }
 
-     /**
+    /**
      * Selection process for local RIB node.
      *
      * @param nlri NLRI to update
@@ -266,52 +297,32 @@ public class BgpLocalRibImpl implements BgpLocalRib {
      * @throws BgpParseException throws BGP parse exception
      */
     public void selectionProcessNode(BgpLSNlri nlri, boolean isVpnRib) throws BgpParseException {
-        BgpPeerImpl peer;
-        BgpSessionInfo sessionInfo;
-        int decisionResult;
-        boolean containsKey;
-
         BgpNodeLSIdentifier nodeLsIdentifier = ((BgpNodeLSNlriVer4) nlri).getLocalNodeDescriptors();
+        PathAttrNlriDetailsLocalRib current = nodeTree.get(nodeLsIdentifier);
+        if (current == null) {
+            return;
+        }
         /* Here, we are checking if the given node is contained in the AdjacencyRib of any peer
            or not. If none of the peer's AdjacencyRib has it, node can be marked for deletion.
          */
-        boolean shouldDeleteNode = false;
-        if (nodeTree.containsKey(nodeLsIdentifier)) {
-            shouldDeleteNode = true;
-        }
-
+        boolean shouldDeleteNode = true;
         for (BgpId bgpId : bgpController.connectedPeers().keySet()) {
-            peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
-
-            if (nodeTree.containsKey(nodeLsIdentifier)) {
-                containsKey = (!isVpnRib) ? (peer.adjacencyRib().nodeTree().containsKey(nodeLsIdentifier)) :
-                                            (peer.vpnAdjacencyRib().nodeTree().containsKey(nodeLsIdentifier));
-
-                if (!containsKey) {
-                    continue;
-                }
-                sessionInfo = peer.sessionInfo();
-                PathAttrNlriDetailsLocalRib detailsLocRib = new PathAttrNlriDetailsLocalRib(
-                                                                sessionInfo.remoteBgpId().ipAddress(),
-                                                                sessionInfo.remoteBgpIdentifier(),
-                                                                sessionInfo.remoteBgpASNum(),
-                                                                sessionInfo.isIbgpSession(),
-                                                                (!isVpnRib) ?
-                                                                (peer.adjacencyRib().nodeTree()
-                                                                                    .get(nodeLsIdentifier)) :
-                                                                (peer.vpnAdjacencyRib().nodeTree()
-                                                                                        .get(nodeLsIdentifier)));
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
-                decisionResult = selectionAlgo.compare(nodeTree.get(nodeLsIdentifier), detailsLocRib);
-                if (decisionResult < 0) {
-                    nodeTree.replace(nodeLsIdentifier, detailsLocRib);
-                    log.debug("Local RIB node updated: {}", detailsLocRib.toString());
-                }
-                shouldDeleteNode = false;
+            BgpPeerImpl peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
+            PathAttrNlriDetails details = (!isVpnRib) ? peer.adjacencyRib().nodeTree().get(nodeLsIdentifier) :
+                                                        peer.vpnAdjacencyRib().nodeTree().get(nodeLsIdentifier);
+            if (details == null) {
+                continue;
             }
+            PathAttrNlriDetailsLocalRib detailsLocRib = localRibDetails(peer.sessionInfo(), details);
+            if (new BgpSelectionAlgo().compare(current, detailsLocRib) < 0) {
+                nodeTree.replace(nodeLsIdentifier, detailsLocRib);
+                current = detailsLocRib;
+                log.debug("Local RIB node updated: {}", detailsLocRib);
+            }
+            shouldDeleteNode = false;
         }
         if (shouldDeleteNode) {
-            log.debug("Local RIB delete node: {}", nodeLsIdentifier.toString());
+            log.debug("Local RIB delete node: {}", nodeLsIdentifier);
             for (BgpNodeListener l : bgpController.listener()) {
                 l.deleteNode((BgpNodeLSNlriVer4) nlri);
             }
@@ -328,56 +339,32 @@ public class BgpLocalRibImpl implements BgpLocalRib {
      * @throws BgpParseException BGP parse exception
      */
     public void selectionProcessLink(BgpLSNlri nlri, boolean isVpnRib) throws BgpParseException {
-        BgpPeerImpl peer;
-        BgpSessionInfo sessionInfo;
-        int decisionResult;
-        boolean containsKey;
-
         BgpLinkLSIdentifier linkLsIdentifier = ((BgpLinkLsNlriVer4) nlri).getLinkIdentifier();
+        PathAttrNlriDetailsLocalRib current = linkTree.get(linkLsIdentifier);
+        if (current == null) {
+            return;
+        }
         /* Here, we are checking if the given link is contained in the AdjacencyRib of any peer
            or not. If none of the peer's AdjacencyRib has it, link can be marked for deletion.
          */
-        boolean shouldDeleteLink = false;
-        if (linkTree.containsKey(linkLsIdentifier)) {
-            shouldDeleteLink = true;
-        }
-
+        boolean shouldDeleteLink = true;
         for (BgpId bgpId : bgpController.connectedPeers().keySet()) {
-            peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
-
-            if (linkTree.containsKey(linkLsIdentifier)) {
-
-                containsKey = (!isVpnRib) ? (peer.adjacencyRib().linkTree().containsKey(linkLsIdentifier)) :
-                                            (peer.vpnAdjacencyRib().linkTree().containsKey(linkLsIdentifier));
-
-                if (!containsKey) {
-                    continue;
-                }
-
-                sessionInfo = peer.sessionInfo();
-
-                PathAttrNlriDetailsLocalRib detailsLocRib = new PathAttrNlriDetailsLocalRib(
-                                                            sessionInfo.remoteBgpId().ipAddress(),
-                                                            sessionInfo.remoteBgpIdentifier(),
-                                                            sessionInfo.remoteBgpASNum(),
-                                                            sessionInfo.isIbgpSession(),
-                                                            ((!isVpnRib) ?
-                                                            (peer.adjacencyRib().linkTree().get(linkLsIdentifier)) :
-                                                            (peer.vpnAdjacencyRib().linkTree()
-                                                                                   .get(linkLsIdentifier))));
-
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
-                decisionResult = selectionAlgo.compare(linkTree.get(linkLsIdentifier), detailsLocRib);
-                if (decisionResult < 0) {
-                    linkTree.replace(linkLsIdentifier, detailsLocRib);
-                    log.debug("Local RIB link updated: {}", detailsLocRib.toString());
-                }
-                shouldDeleteLink = false;
+            BgpPeerImpl peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
+            PathAttrNlriDetails details = (!isVpnRib) ? peer.adjacencyRib().linkTree().get(linkLsIdentifier) :
+                                                        peer.vpnAdjacencyRib().linkTree().get(linkLsIdentifier);
+            if (details == null) {
+                continue;
             }
+            PathAttrNlriDetailsLocalRib detailsLocRib = localRibDetails(peer.sessionInfo(), details);
+            if (new BgpSelectionAlgo().compare(current, detailsLocRib) < 0) {
+                linkTree.replace(linkLsIdentifier, detailsLocRib);
+                current = detailsLocRib;
+                log.debug("Local RIB link updated: {}", detailsLocRib);
+            }
+            shouldDeleteLink = false;
         }
-
         if (shouldDeleteLink) {
-            log.debug("Local RIB remove link: {}", linkLsIdentifier.toString());
+            log.debug("Local RIB remove link: {}", linkLsIdentifier);
             for (BgpLinkListener l : bgpController.linkListener()) {
                 l.deleteLink((BgpLinkLsNlriVer4) nlri);
             }
@@ -394,65 +381,55 @@ public class BgpLocalRibImpl implements BgpLocalRib {
      * @throws BgpParseException BGP parse exception
      */
     public void selectionProcessPrefix(BgpLSNlri nlri, boolean isVpnRib) throws BgpParseException {
-        BgpPeerImpl peer;
-        BgpSessionInfo sessionInfo;
-        int decisionResult;
-        boolean containsKey;
-
         BgpPrefixLSIdentifier prefixIdentifier = ((BgpPrefixIPv4LSNlriVer4) nlri).getPrefixIdentifier();
+        PathAttrNlriDetailsLocalRib current = prefixTree.get(prefixIdentifier);
+        if (current == null) {
+            return;
+        }
         /* Here, we are checking if the given prefix is contained in the AdjacencyRib of any peer
            or not. If none of the peer's AdjacencyRib has it, prefix can be marked for deletion.
          */
-        boolean shouldDeletePrefix = false;
-        if (prefixTree.containsKey(prefixIdentifier)) {
-            shouldDeletePrefix = true;
-        }
-
+        boolean shouldDeletePrefix = true;
         for (BgpId bgpId : bgpController.connectedPeers().keySet()) {
-            peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
-
-            if (prefixTree.containsKey(prefixIdentifier)) {
-
-                containsKey = (!isVpnRib) ? (peer.adjacencyRib().prefixTree().containsKey(prefixIdentifier)) :
-                                            (peer.vpnAdjacencyRib().prefixTree().containsKey(prefixIdentifier));
-                if (!containsKey) {
-                    continue;
-                }
-                sessionInfo = peer.sessionInfo();
-
-                PathAttrNlriDetailsLocalRib detailsLocRib = new PathAttrNlriDetailsLocalRib(
-                                                                sessionInfo.remoteBgpId().ipAddress(),
-                                                                sessionInfo.remoteBgpIdentifier(),
-                                                                sessionInfo.remoteBgpASNum(),
-                                                                sessionInfo.isIbgpSession(),
-                                                                ((!isVpnRib) ?
-                                                                (peer.adjacencyRib().prefixTree()
-                                                                                    .get(prefixIdentifier)) :
-                                                                (peer.vpnAdjacencyRib().prefixTree()
-                                                                                       .get(prefixIdentifier))));
-
-                BgpSelectionAlgo selectionAlgo = new BgpSelectionAlgo();
-                decisionResult = selectionAlgo.compare(prefixTree.get(prefixIdentifier), detailsLocRib);
-                if (decisionResult < 0) {
-                    prefixTree.replace(prefixIdentifier, detailsLocRib);
-                    log.debug("Local RIB prefix updated: {}", detailsLocRib.toString());
-                }
-                shouldDeletePrefix = false;
+            BgpPeerImpl peer = (BgpPeerImpl) (bgpController.getPeer(bgpId));
+            PathAttrNlriDetails details = (!isVpnRib) ? peer.adjacencyRib().prefixTree().get(prefixIdentifier) :
+                                                        peer.vpnAdjacencyRib().prefixTree().get(prefixIdentifier);
+            if (details == null) {
+                continue;
             }
-            if (shouldDeletePrefix) {
-                log.debug("Local RIB remove prefix: {}", prefixIdentifier.toString());
-                for (BgpPrefixListener l : bgpController.prefixListener()) {
-                    l.deletePrefix((BgpPrefixIPv4LSNlriVer4) nlri);
-                }
-                prefixTree.remove(prefixIdentifier);
+            PathAttrNlriDetailsLocalRib detailsLocRib = localRibDetails(peer.sessionInfo(), details);
+            if (new BgpSelectionAlgo().compare(current, detailsLocRib) < 0) {
+                prefixTree.replace(prefixIdentifier, detailsLocRib);
+                current = detailsLocRib;
+                log.debug("Local RIB prefix updated: {}", detailsLocRib);
             }
+            shouldDeletePrefix = false;
         }
+        if (shouldDeletePrefix) {
+            log.debug("Local RIB remove prefix: {}", prefixIdentifier);
+            for (BgpPrefixListener l : bgpController.prefixListener()) {
+                l.deletePrefix((BgpPrefixIPv4LSNlriVer4) nlri);
+            }
+            prefixTree.remove(prefixIdentifier);
+        }
+    }
+
+    private static PathAttrNlriDetailsLocalRib localRibDetails(BgpSessionInfo sessionInfo,
+                                                               PathAttrNlriDetails details) {
+        return new PathAttrNlriDetailsLocalRib(sessionInfo.remoteBgpId().ipAddress(),
+                                               sessionInfo.remoteBgpIdentifier(),
+                                               sessionInfo.remoteBgpASNum(),
+                                               sessionInfo.isIbgpSession(), details);
     }
 
     @Override
     public void add(BgpSessionInfo sessionInfo, BgpLSNlri nlri, PathAttrNlriDetails details,
                     RouteDistinguisher routeDistinguisher) throws BgpParseException {
         add(sessionInfo, nlri, details);
+        addVpnTree(nlri, routeDistinguisher);
+    }
+
+    private void addVpnTree(BgpLSNlri nlri, RouteDistinguisher routeDistinguisher) {
         if (nlri instanceof BgpNodeLSNlriVer4) {
             if (!vpnNodeTree.containsKey(routeDistinguisher)) {
                 vpnNodeTree.put(routeDistinguisher, nodeTree);
@@ -631,6 +608,76 @@ public class BgpLocalRibImpl implements BgpLocalRib {
         localRibUpdatePrefix(vpnAdjRibIn);
     }
 
+    private static RouteDistinguisher routeDistinguisher(BgpLSNlri nlri) {
+        if (nlri instanceof BgpNodeLSNlriVer4 && ((BgpNodeLSNlriVer4) nlri).isVpnPresent()) {
+            return ((BgpNodeLSNlriVer4) nlri).getRouteDistinguisher();
+        } else if (nlri instanceof BgpLinkLsNlriVer4 && ((BgpLinkLsNlriVer4) nlri).isVpnPresent()) {
+            return ((BgpLinkLsNlriVer4) nlri).getRouteDistinguisher();
+        } else if (nlri instanceof BgpPrefixIPv4LSNlriVer4 && ((BgpPrefixIPv4LSNlriVer4) nlri).isVpnPresent()) {
+            return ((BgpPrefixIPv4LSNlriVer4) nlri).getRouteDistinguisher();
+        }
+        return null;
+    }
+
+    /**
+     * State of the decision process over the NLRIs of one UPDATE message.
+     */
+    private final class UpdateBatch {
+        // outcome of comparing each distinct selected path to the advertised one
+        private final Map<SelectedPath, Integer> decisions = Maps.newHashMap();
+        private boolean topologyChanged;
+
+        private int compare(PathAttrNlriDetailsLocalRib current, PathAttrNlriDetailsLocalRib advertised) {
+            return decisions.computeIfAbsent(new SelectedPath(current),
+                                             k -> new BgpSelectionAlgo().compare(current, advertised));
+        }
+
+        private void complete() {
+            if (topologyChanged) {
+                bgpController.notifyTopologyChange();
+            }
+        }
+    }
+
+    /**
+     * Key of a selected path, regardless of the NLRI it was selected for.
+     * Path attributes are compared by identity, as all the NLRIs of an
+     * UPDATE message share the same list.
+     */
+    private static final class SelectedPath {
+        private final List<BgpValueType> pathAttributes;
+        private final IpAddress ipAddress;
+        private final int identifier;
+        private final long asNum;
+        private final boolean ibgp;
+
+        private SelectedPath(PathAttrNlriDetailsLocalRib details) {
+            this.pathAttributes = details.localRibNlridetails().pathAttributes();
+            this.ipAddress = details.localRibIpAddress();
+            this.identifier = details.localRibIdentifier();
+            this.asNum = details.localRibAsNum();
+            this.ibgp = details.isLocalRibIbgpSession();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(pathAttributes) + Objects.hash(ipAddress, identifier, asNum, ibgp);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SelectedPath)) {
+                return false;
+            }
+            SelectedPath other = (SelectedPath) obj;
+            return pathAttributes == other.pathAttributes && identifier == other.identifier
+                    && asNum == other.asNum && ibgp == other.ibgp && Objects.equals(ipAddress, other.ipAddress);
+        }
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass()).omitNullValues().add("nodeTree", nodeTree)
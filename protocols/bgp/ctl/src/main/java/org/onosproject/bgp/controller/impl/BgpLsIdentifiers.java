@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Canonical instances of BGP-LS NLRI identifiers.
+ * <p>
+ * The same node, link or prefix is usually learned from several peers and
+ * kept in the adjacency RIB of each of them as well as in the local RIB.
+ * Interning the identifiers lets all the RIBs share one instance per NLRI,
+ * while the copies decoded from each UPDATE message are left to the garbage
+ * collector.
+ */
+final class BgpLsIdentifiers {
+
+    private static final Interner<Object> INTERNER = Interners.newWeakInterner();
+
+    private BgpLsIdentifiers() {
+    }
+
+    /**
+     * Returns the canonical instance equal to the given identifier.
+     *
+     * @param identifier node, link or prefix identifier
+     * @param <T>        identifier type
+     * @return canonical identifier
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T intern(T identifier) {
+        return (T) INTERNER.intern(identifier);
+    }
+}
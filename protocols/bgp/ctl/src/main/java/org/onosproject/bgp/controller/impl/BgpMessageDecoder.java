@@ -22,9 +22,11 @@ import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onosproject.bgpio.protocol.BgpFactories;
 import org.onosproject.bgpio.protocol.BgpMessageReader;
+import org.onosproject.bgpio.types.BgpErrorType;
 import org.onosproject.bgpio.types.BgpHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +38,9 @@ public class BgpMessageDecoder extends FrameDecoder {
 
     private static final Logger log = LoggerFactory.getLogger(BgpMessageDecoder.class);
 
+    private static final int MINIMUM_MESSAGE_LENGTH = BgpHeader.DEFAULT_HEADER_LENGTH;
+    private static final int MAXIMUM_MESSAGE_LENGTH = 4096;
+
     @Override
     protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
         log.debug("MESSAGE IS RECEIVED.");
@@ -47,27 +52,39 @@ public class BgpMessageDecoder extends FrameDecoder {
         HexDump.dump(buffer);
 
         BgpMessageReader<BgpMessage> reader = BgpFactories.getGenericReader();
-        List<BgpMessage> msgList = (List<BgpMessage>) ctx.getAttachment();
-
-        if (msgList == null) {
-            msgList = new LinkedList<>();
-        }
+        List<BgpMessage> msgList = new LinkedList<>();
 
-        try {
-            while (buffer.readableBytes() > 0) {
-                buffer.markReaderIndex();
-                BgpHeader bgpHeader = new BgpHeader();
-                BgpMessage message = reader.readFrom(buffer, bgpHeader);
-                msgList.add(message);
+        // Only complete messages are handed to the reader, so that each one is
+        // parsed once and a malformed message is not taken for a partial one
+        while (buffer.readableBytes() >= MINIMUM_MESSAGE_LENGTH) {
+            int start = buffer.readerIndex();
+            int length = buffer.getUnsignedShort(start + BgpHeader.MARKER_LENGTH);
+            if (length < MINIMUM_MESSAGE_LENGTH || length > MAXIMUM_MESSAGE_LENGTH) {
+                if (!msgList.isEmpty()) {
+                    break;
+                }
+                log.debug("Bgp message with bad length {}", length);
+                buffer.skipBytes(buffer.readableBytes());
+                throw new BgpParseException(BgpErrorType.MESSAGE_HEADER_ERROR,
+                                            BgpErrorType.BAD_MESSAGE_LENGTH, null);
+            }
+            if (buffer.readableBytes() < length) {
+                break;
+            }
+            try {
+                // Copied out of the cumulation buffer, which is compacted as
+                // more data is received; the reader only takes slices of it
+                msgList.add(reader.readFrom(buffer.readBytes(length), new BgpHeader()));
+            } catch (BgpParseException e) {
+                if (msgList.isEmpty()) {
+                    log.debug("Bgp protocol message decode error");
+                    throw e;
+                }
+                // delivers the messages decoded so far, and fails on the next call
+                buffer.readerIndex(start);
+                break;
             }
-            ctx.setAttachment(null);
-            return msgList;
-        } catch (Exception e) {
-            log.debug("Bgp protocol message decode error");
-            buffer.resetReaderIndex();
-            buffer.discardReadBytes();
-            ctx.setAttachment(msgList);
         }
-        return null;
+        return msgList.isEmpty() ? null : msgList;
     }
-}
\ No newline at end of file
+}
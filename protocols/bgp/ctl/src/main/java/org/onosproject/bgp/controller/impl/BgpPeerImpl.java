@@ -58,9 +58,11 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.concurrent.RejectedExecutionException;
 
 /**
@@ -377,6 +379,9 @@ public class BgpPeerImpl implements BgpPeer {
      */
     public void callAdd(BgpPeerImpl peerImpl, List<BgpLSNlri> nlri, List<BgpValueType> pathAttr)
             throws BgpParseException {
+        // NLRIs of the message are handed to the local RIB together
+        Map<BgpLSNlri, PathAttrNlriDetails> update = new LinkedHashMap<>();
+        Map<BgpLSNlri, PathAttrNlriDetails> vpnUpdate = new LinkedHashMap<>();
         ListIterator<BgpLSNlri> listIterator = nlri.listIterator();
         while (listIterator.hasNext()) {
             BgpLSNlri nlriInfo = listIterator.next();
@@ -384,34 +389,37 @@ public class BgpPeerImpl implements BgpPeer {
                 PathAttrNlriDetails details = setPathAttrDetails(nlriInfo, pathAttr);
                 if (!((BgpNodeLSNlriVer4) nlriInfo).isVpnPresent()) {
                     adjRib.add(nlriInfo, details);
-                    bgplocalRib.add(sessionInfo(), nlriInfo, details);
+                    update.put(nlriInfo, details);
                 } else {
                     vpnAdjRib.addVpn(nlriInfo, details, ((BgpNodeLSNlriVer4) nlriInfo).getRouteDistinguisher());
-                    bgplocalRibVpn.add(sessionInfo(), nlriInfo, details,
-                                       ((BgpNodeLSNlriVer4) nlriInfo).getRouteDistinguisher());
+                    vpnUpdate.put(nlriInfo, details);
                 }
             } else if (nlriInfo instanceof BgpLinkLsNlriVer4) {
                 PathAttrNlriDetails details = setPathAttrDetails(nlriInfo, pathAttr);
                 if (!((BgpLinkLsNlriVer4) nlriInfo).isVpnPresent()) {
                     adjRib.add(nlriInfo, details);
-                    bgplocalRib.add(sessionInfo(), nlriInfo, details);
+                    update.put(nlriInfo, details);
                 } else {
                     vpnAdjRib.addVpn(nlriInfo, details, ((BgpLinkLsNlriVer4) nlriInfo).getRouteDistinguisher());
-                    bgplocalRibVpn.add(sessionInfo(), nlriInfo, details,
-                                       ((BgpLinkLsNlriVer4) nlriInfo).getRouteDistinguisher());
+                    vpnUpdate.put(nlriInfo, details);
                 }
             } else if (nlriInfo instanceof BgpPrefixIPv4LSNlriVer4) {
                 PathAttrNlriDetails details = setPathAttrDetails(nlriInfo, pathAttr);
                 if (!((BgpPrefixIPv4LSNlriVer4) nlriInfo).isVpnPresent()) {
                     adjRib.add(nlriInfo, details);
-                    bgplocalRib.add(sessionInfo(), nlriInfo, details);
+                    update.put(nlriInfo, details);
                 } else {
                     vpnAdjRib.addVpn(nlriInfo, details, ((BgpPrefixIPv4LSNlriVer4) nlriInfo).getRouteDistinguisher());
-                    bgplocalRibVpn.add(sessionInfo(), nlriInfo, details,
-                                       ((BgpPrefixIPv4LSNlriVer4) nlriInfo).getRouteDistinguisher());
+                    vpnUpdate.put(nlriInfo, details);
                 }
             }
         }
+        if (!update.isEmpty()) {
+            bgplocalRib.add(sessionInfo(), update);
+        }
+        if (!vpnUpdate.isEmpty()) {
+            bgplocalRibVpn.add(sessionInfo(), vpnUpdate);
+        }
     }
 
     /**
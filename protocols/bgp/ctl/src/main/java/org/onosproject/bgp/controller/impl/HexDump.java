@@ -34,6 +34,9 @@ public final class HexDump {
      * @param buff buffer content to dump in hex format
      */
     public static void dump(ChannelBuffer buff) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         buff.markReaderIndex();
         try {
             do {
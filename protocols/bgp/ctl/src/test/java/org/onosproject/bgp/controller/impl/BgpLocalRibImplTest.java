@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.bgp.controller.BgpId;
+import org.onosproject.bgp.controller.BgpNodeListener;
+import org.onosproject.bgp.controller.BgpSessionInfo;
+import org.onosproject.bgpio.exceptions.BgpParseException;
+import org.onosproject.bgpio.protocol.BgpFactories;
+import org.onosproject.bgpio.protocol.BgpLSNlri;
+import org.onosproject.bgpio.protocol.BgpMessage;
+import org.onosproject.bgpio.protocol.BgpUpdateMsg;
+import org.onosproject.bgpio.protocol.BgpVersion;
+import org.onosproject.bgpio.protocol.linkstate.BgpNodeLSIdentifier;
+import org.onosproject.bgpio.protocol.linkstate.BgpNodeLSNlriVer4;
+import org.onosproject.bgpio.protocol.linkstate.PathAttrNlriDetails;
+import org.onosproject.bgpio.protocol.linkstate.PathAttrNlriDetailsLocalRib;
+import org.onosproject.bgpio.types.BgpHeader;
+import org.onosproject.bgpio.types.BgpValueType;
+import org.onosproject.bgpio.types.MpReachNlri;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link BgpLocalRibImpl}, fed with BGP-LS UPDATE messages
+ * decoded from the wire format.
+ */
+public class BgpLocalRibImplTest {
+
+    private static final int NODES_PER_UPDATE = 80;
+    private static final int NODE_NLRI_LENGTH = 43;
+    private static final int MP_REACH_HEADER_LENGTH = 9;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final BgpSessionInfo peer1 = session("10.0.0.1", 1);
+    private final BgpSessionInfo peer2 = session("10.0.0.2", 2);
+
+    private TestController controller;
+    private BgpLocalRibImpl localRib;
+    private final AtomicInteger nodesAdded = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        controller = new TestController();
+        controller.addListener(new BgpNodeListener() {
+            @Override
+            public void addNode(BgpNodeLSNlriVer4 nodeNlri, PathAttrNlriDetails details) {
+                nodesAdded.incrementAndGet();
+            }
+
+            @Override
+            public void deleteNode(BgpNodeLSNlriVer4 nodeNlri) {
+            }
+        });
+        localRib = new BgpLocalRibImpl(controller);
+    }
+
+    private static BgpSessionInfo session(String address, int identifier) {
+        return new BgpSessionInfoImpl(new BgpId(IpAddress.valueOf(address)), BgpVersion.BGP_4, 100,
+                                      (short) 180, identifier, (short) 180, true, Collections.emptyList());
+    }
+
+    /**
+     * Encodes an UPDATE message advertising the given range of IS-IS nodes.
+     */
+    private static byte[] updateMessage(int first, int count, int med) {
+        int mpReachLength = MP_REACH_HEADER_LENGTH + count * NODE_NLRI_LENGTH;
+        int attributesLength = 4 + 7 + 7 + 4 + mpReachLength;
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        for (int i = 0; i < 16; i++) {
+            buffer.writeByte(0xff);
+        }
+        buffer.writeShort(BgpHeader.DEFAULT_HEADER_LENGTH + 4 + attributesLength);
+        buffer.writeByte(2);
+        buffer.writeShort(0);
+        buffer.writeShort(attributesLength);
+        // origin IGP
+        buffer.writeBytes(new byte[] {0x40, 0x01, 0x01, 0x00});
+        // AS path with a single AS
+        buffer.writeBytes(new byte[] {0x40, 0x02, 0x04, 0x02, 0x01, (byte) 0xfd, (byte) 0xe9});
+        buffer.writeBytes(new byte[] {(byte) 0x80, 0x04, 0x04});
+        buffer.writeInt(med);
+        // MP_REACH_NLRI with extended length, AFI 16388 and SAFI 71
+        buffer.writeBytes(new byte[] {(byte) 0x90, 0x0e});
+        buffer.writeShort(mpReachLength);
+        buffer.writeBytes(new byte[] {0x40, 0x04, 0x47, 0x04, 0x04, 0x00, 0x00, 0x01, 0x00});
+        for (int node = first; node < first + count; node++) {
+            buffer.writeBytes(new byte[] {0x00, 0x01, 0x00, 0x27, 0x02});
+            buffer.writeLong(0);
+            buffer.writeBytes(new byte[] {0x01, 0x00, 0x00, 0x1a});
+            buffer.writeBytes(new byte[] {0x02, 0x00, 0x00, 0x04, 0x00, 0x00, 0x08, (byte) 0xae});
+            buffer.writeBytes(new byte[] {0x02, 0x01, 0x00, 0x04, 0x02, 0x02, 0x02, 0x02});
+            buffer.writeBytes(new byte[] {0x02, 0x03, 0x00, 0x06, 0x19, 0x00});
+            buffer.writeInt(node);
+        }
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes a stream of messages as BgpMessageDecoder does, and returns
+     * the NLRIs advertised by each UPDATE with their details, as built by
+     * the peer.
+     */
+    private static List<Map<BgpLSNlri, PathAttrNlriDetails>> decode(List<byte[]> stream)
+            throws BgpParseException {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        stream.forEach(buffer::writeBytes);
+        List<Map<BgpLSNlri, PathAttrNlriDetails>> updates = new ArrayList<>();
+        while (buffer.readableBytes() > 0) {
+            BgpMessage message = BgpFactories.getGenericReader().readFrom(buffer, new BgpHeader());
+            List<BgpValueType> pathAttr = ((BgpUpdateMsg) message).bgpPathAttributes().pathAttributes();
+            Map<BgpLSNlri, PathAttrNlriDetails> update = new LinkedHashMap<>();
+            for (BgpValueType attr : pathAttr) {
+                if (attr instanceof MpReachNlri) {
+                    for (BgpLSNlri nlri : ((MpReachNlri) attr).mpReachNlri()) {
+                        PathAttrNlriDetails details = new PathAttrNlriDetails();
+                        details.setProtocolID(nlri.getProtocolId());
+                        details.setIdentifier(nlri.getIdentifier());
+                        details.setPathAttribute(pathAttr);
+                        update.put(nlri, details);
+                    }
+                }
+            }
+            updates.add(update);
+        }
+        return updates;
+    }
+
+    private static List<byte[]> stream(int updates, int med) {
+        List<byte[]> stream = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            stream.add(updateMessage(i * NODES_PER_UPDATE, NODES_PER_UPDATE, med));
+        }
+        return stream;
+    }
+
+    @Test
+    public void testBatchedUpdates() throws Exception {
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream(2, 100))) {
+            localRib.add(peer1, update);
+        }
+        assertThat(localRib.nodeTree().size(), is(2 * NODES_PER_UPDATE));
+        assertThat(nodesAdded.get(), is(2 * NODES_PER_UPDATE));
+        assertThat("One topology change per UPDATE", controller.topologyChanges.get(), is(2));
+
+        // worse path from another peer is not selected
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream(2, 200))) {
+            localRib.add(peer2, update);
+        }
+        assertThat(nodesAdded.get(), is(2 * NODES_PER_UPDATE));
+
+        // better path replaces all selected ones
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream(2, 0))) {
+            localRib.add(peer2, update);
+        }
+        assertThat(nodesAdded.get(), is(4 * NODES_PER_UPDATE));
+        for (PathAttrNlriDetailsLocalRib selected : localRib.nodeTree().values()) {
+            assertThat(selected.localRibIpAddress(), is(peer2.remoteBgpId().ipAddress()));
+        }
+        assertThat(controller.topologyChanges.get(), is(2));
+    }
+
+    @Test
+    public void testInternedIdentifiers() throws Exception {
+        Map<BgpLSNlri, PathAttrNlriDetails> update1 = decode(stream(1, 100)).get(0);
+        Map<BgpLSNlri, PathAttrNlriDetails> update2 = decode(stream(1, 100)).get(0);
+        AdjRibIn adjRib1 = new AdjRibIn();
+        AdjRibIn adjRib2 = new AdjRibIn();
+        update1.forEach(adjRib1::add);
+        update2.forEach(adjRib2::add);
+        localRib.add(peer1, update1);
+        localRib.add(peer2, update2);
+
+        BgpNodeLSIdentifier decoded = ((BgpNodeLSNlriVer4) update2.keySet().iterator().next())
+                .getLocalNodeDescriptors();
+        BgpNodeLSIdentifier key1 = adjRib1.nodeTree().keySet().stream()
+                .filter(decoded::equals).findFirst().get();
+        BgpNodeLSIdentifier key2 = adjRib2.nodeTree().keySet().stream()
+                .filter(decoded::equals).findFirst().get();
+        BgpNodeLSIdentifier localKey = localRib.nodeTree().keySet().stream()
+                .filter(decoded::equals).findFirst().get();
+        assertThat(key2, is(sameInstance(key1)));
+        assertThat(localKey, is(sameInstance(key1)));
+    }
+
+    @Test
+    public void testReplayThroughput() throws Exception {
+        int updates = 20;
+        List<byte[]> stream1 = stream(updates, 100);
+        List<byte[]> stream2 = stream(updates, 0);
+
+        long start = System.nanoTime();
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream1)) {
+            update.forEach((nlri, details) -> {
+                try {
+                    localRib.add(peer1, nlri, details);
+                } catch (BgpParseException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream2)) {
+            update.forEach((nlri, details) -> {
+                try {
+                    localRib.add(peer2, nlri, details);
+                } catch (BgpParseException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        long single = System.nanoTime() - start;
+        int singleChanges = controller.topologyChanges.getAndSet(0);
+
+        BgpLocalRibImpl batchedRib = new BgpLocalRibImpl(controller);
+        start = System.nanoTime();
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream1)) {
+            batchedRib.add(peer1, update);
+        }
+        for (Map<BgpLSNlri, PathAttrNlriDetails> update : decode(stream2)) {
+            batchedRib.add(peer2, update);
+        }
+        long batched = System.nanoTime() - start;
+
+        int nodes = updates * NODES_PER_UPDATE;
+        assertThat(localRib.nodeTree().size(), is(nodes));
+        assertThat(batchedRib.nodeTree().size(), is(nodes));
+        assertThat(singleChanges, is(nodes));
+        assertThat(controller.topologyChanges.get(), is(updates));
+        batchedRib.nodeTree().forEach((id, selected) ->
+                assertThat(selected.localRibIpAddress(), is(localRib.nodeTree().get(id).localRibIpAddress())));
+        log.info("Replayed {} node NLRIs from 2 peers in {} ms per NLRI, {} ms per UPDATE",
+                 2 * nodes, TimeUnit.NANOSECONDS.toMillis(single), TimeUnit.NANOSECONDS.toMillis(batched));
+    }
+
+    /**
+     * Controller counting topology change notifications instead of
+     * scheduling route refreshes.
+     */
+    private static final class TestController extends BgpControllerImpl {
+        private final AtomicInteger topologyChanges = new AtomicInteger();
+
+        @Override
+        public void notifyTopologyChange() {
+            topologyChanges.incrementAndGet();
+        }
+    }
+}
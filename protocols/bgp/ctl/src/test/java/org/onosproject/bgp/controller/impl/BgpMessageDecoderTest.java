@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.bgpio.exceptions.BgpParseException;
+import org.onosproject.bgpio.protocol.BgpKeepaliveMsg;
+import org.onosproject.bgpio.protocol.BgpMessage;
+import org.onosproject.bgpio.protocol.BgpUpdateMsg;
+import org.onosproject.bgpio.types.BgpErrorType;
+import org.onosproject.bgpio.types.BgpHeader;
+import org.onosproject.bgpio.types.BgpValueType;
+import org.onosproject.bgpio.types.MpReachNlri;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link BgpMessageDecoder}.
+ */
+public class BgpMessageDecoderTest {
+
+    private static final int NODES_PER_UPDATE = 80;
+    private static final int NODE_NLRI_LENGTH = 43;
+    private static final int MP_REACH_HEADER_LENGTH = 9;
+    private static final int SEGMENT_SIZE = 1460;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private DecoderEmbedder<List<BgpMessage>> decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new DecoderEmbedder<>(new BgpMessageDecoder());
+    }
+
+    private static void writeMarker(ChannelBuffer buffer) {
+        for (int i = 0; i < BgpHeader.MARKER_LENGTH; i++) {
+            buffer.writeByte(0xff);
+        }
+    }
+
+    private static ChannelBuffer keepalive() {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        writeMarker(buffer);
+        buffer.writeShort(BgpHeader.DEFAULT_HEADER_LENGTH);
+        buffer.writeByte(4);
+        return buffer;
+    }
+
+    /**
+     * Encodes an UPDATE message advertising the given range of IS-IS nodes.
+     */
+    private static ChannelBuffer update(int first, int count, int med) {
+        int mpReachLength = MP_REACH_HEADER_LENGTH + count * NODE_NLRI_LENGTH;
+        int attributesLength = 4 + 7 + 7 + 4 + mpReachLength;
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        writeMarker(buffer);
+        buffer.writeShort(BgpHeader.DEFAULT_HEADER_LENGTH + 4 + attributesLength);
+        buffer.writeByte(2);
+        buffer.writeShort(0);
+        buffer.writeShort(attributesLength);
+        // origin IGP
+        buffer.writeBytes(new byte[] {0x40, 0x01, 0x01, 0x00});
+        // AS path with a single AS
+        buffer.writeBytes(new byte[] {0x40, 0x02, 0x04, 0x02, 0x01, (byte) 0xfd, (byte) 0xe9});
+        buffer.writeBytes(new byte[] {(byte) 0x80, 0x04, 0x04});
+        buffer.writeInt(med);
+        // MP_REACH_NLRI with extended length, AFI 16388 and SAFI 71
+        buffer.writeBytes(new byte[] {(byte) 0x90, 0x0e});
+        buffer.writeShort(mpReachLength);
+        buffer.writeBytes(new byte[] {0x40, 0x04, 0x47, 0x04, 0x04, 0x00, 0x00, 0x01, 0x00});
+        for (int node = first; node < first + count; node++) {
+            buffer.writeBytes(new byte[] {0x00, 0x01, 0x00, 0x27, 0x02});
+            buffer.writeLong(0);
+            buffer.writeBytes(new byte[] {0x01, 0x00, 0x00, 0x1a});
+            buffer.writeBytes(new byte[] {0x02, 0x00, 0x00, 0x04, 0x00, 0x00, 0x08, (byte) 0xae});
+            buffer.writeBytes(new byte[] {0x02, 0x01, 0x00, 0x04, 0x02, 0x02, 0x02, 0x02});
+            buffer.writeBytes(new byte[] {0x02, 0x03, 0x00, 0x06, 0x19, 0x00});
+            buffer.writeInt(node);
+        }
+        return buffer;
+    }
+
+    /**
+     * Offers the stream to the decoder in TCP sized segments, and returns
+     * the decoded messages.
+     */
+    private List<BgpMessage> replay(ChannelBuffer stream) {
+        List<BgpMessage> messages = new ArrayList<>();
+        while (stream.readable()) {
+            decoder.offer(stream.readSlice(Math.min(SEGMENT_SIZE, stream.readableBytes())));
+            List<BgpMessage> decoded;
+            while ((decoded = decoder.poll()) != null) {
+                messages.addAll(decoded);
+            }
+        }
+        return messages;
+    }
+
+    private static List<BgpValueType> pathAttributes(BgpMessage message) {
+        return ((BgpUpdateMsg) message).bgpPathAttributes().pathAttributes();
+    }
+
+    @Test
+    public void testSegmentedStream() {
+        ChannelBuffer stream = ChannelBuffers.dynamicBuffer();
+        stream.writeBytes(keepalive());
+        for (int i = 0; i < 10; i++) {
+            stream.writeBytes(update(i * NODES_PER_UPDATE, NODES_PER_UPDATE, 100));
+        }
+        stream.writeBytes(keepalive());
+
+        List<BgpMessage> messages = replay(stream);
+        assertThat(messages.size(), is(12));
+        assertThat(messages.get(0), instanceOf(BgpKeepaliveMsg.class));
+        assertThat(messages.get(11), instanceOf(BgpKeepaliveMsg.class));
+        for (BgpMessage message : messages.subList(1, 11)) {
+            MpReachNlri mpReach = (MpReachNlri) pathAttributes(message).get(3);
+            assertThat(mpReach.mpReachNlri().size(), is(NODES_PER_UPDATE));
+        }
+    }
+
+    @Test
+    public void testSharedAttributes() {
+        ChannelBuffer stream = ChannelBuffers.dynamicBuffer();
+        stream.writeBytes(update(0, 2, 100));
+        stream.writeBytes(update(2, 2, 100));
+        stream.writeBytes(update(4, 2, 200));
+
+        List<BgpMessage> messages = replay(stream);
+        List<BgpValueType> first = pathAttributes(messages.get(0));
+        List<BgpValueType> second = pathAttributes(messages.get(1));
+        List<BgpValueType> third = pathAttributes(messages.get(2));
+        for (int i = 0; i < 3; i++) {
+            assertThat(second.get(i), is(sameInstance(first.get(i))));
+        }
+        assertThat(second.get(3), is(not(sameInstance(first.get(3)))));
+        assertThat("Different MED", third.get(0), is(not(sameInstance(first.get(0)))));
+    }
+
+    @Test
+    public void testMalformedMessage() {
+        ChannelBuffer stream = keepalive();
+        ChannelBuffer malformed = keepalive();
+        malformed.setByte(0, 0);
+        stream.writeBytes(malformed);
+        try {
+            decoder.offer(stream);
+            fail("Malformed message not reported");
+        } catch (CodecEmbedderException e) {
+            assertThat(e.getCause(), instanceOf(BgpParseException.class));
+            assertThat(((BgpParseException) e.getCause()).getErrorSubCode(),
+                       is(BgpErrorType.CONNECTION_NOT_SYNCHRONIZED));
+        }
+        List<BgpMessage> decoded = decoder.poll();
+        assertThat("Messages before the malformed one are delivered", decoded.size(), is(1));
+
+        // the malformed message has been consumed
+        decoder.offer(keepalive());
+        assertThat(decoder.poll().size(), is(1));
+    }
+
+    @Test
+    public void testBadLength() {
+        ChannelBuffer malformed = keepalive();
+        malformed.setShort(BgpHeader.MARKER_LENGTH, 5);
+        try {
+            decoder.offer(malformed);
+            fail("Bad length not reported");
+        } catch (CodecEmbedderException e) {
+            assertThat(((BgpParseException) e.getCause()).getErrorSubCode(),
+                       is(BgpErrorType.BAD_MESSAGE_LENGTH));
+        }
+    }
+
+    @Test
+    public void testReplayThroughput() {
+        int updates = 50;
+        ChannelBuffer stream = ChannelBuffers.dynamicBuffer();
+        for (int i = 0; i < updates; i++) {
+            stream.writeBytes(update(i * NODES_PER_UPDATE, NODES_PER_UPDATE, 100));
+        }
+        int bytes = stream.readableBytes();
+
+        long start = System.nanoTime();
+        List<BgpMessage> messages = replay(stream);
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(messages.size(), is(updates));
+        log.info("Decoded {} UPDATE messages ({} bytes, {} node NLRIs) in {} ms",
+                 updates, bytes, updates * NODES_PER_UPDATE, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
@@ -27,8 +27,10 @@ import org.onosproject.net.behaviour.QosId;
 import org.onosproject.net.behaviour.QueueDescription;
 import org.onosproject.net.behaviour.QueueId;
 import org.onosproject.ovsdb.rfc.jsonrpc.OvsdbRpc;
+import org.onosproject.ovsdb.rfc.message.OperationResult;
 import org.onosproject.ovsdb.rfc.message.TableUpdates;
 import org.onosproject.ovsdb.rfc.notation.Row;
+import org.onosproject.ovsdb.rfc.operations.Operation;
 import org.onosproject.ovsdb.rfc.schema.DatabaseSchema;
 import org.onosproject.ovsdb.rfc.table.Interface;
 import org.onosproject.ovsdb.rfc.table.OvsdbTable;
@@ -37,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents to provider facing side of a node.
@@ -201,6 +204,16 @@ public interface OvsdbClientService extends OvsdbRpc {
      */
     boolean createBridge(OvsdbBridge ovsdbBridge);
 
+    /**
+     * Creates a bridge with a given bridge description, without waiting for
+     * the OVSDB server. A new bridge is created along with its local port
+     * and controllers in a single transaction.
+     *
+     * @param ovsdbBridge ovsdb bridge description
+     * @return future completed with true if bridge creation is successful, otherwise false
+     */
+    CompletableFuture<Boolean> createBridgeAsync(OvsdbBridge ovsdbBridge);
+
     /**
      * Drops a bridge.
      *
@@ -243,6 +256,18 @@ public interface OvsdbClientService extends OvsdbRpc {
      */
     void setControllersWithDeviceId(DeviceId deviceId, List<ControllerInfo> controllers);
 
+    /**
+     * Sets the Controllers for the specified device, without waiting for the
+     * OVSDB server. The controllers are added and removed in a single
+     * transaction.
+     *
+     * @param deviceId device id (likely Openflow device)
+     * @param controllers list of controllers
+     * @return future completed once the controllers are set, or completed
+     * exceptionally if the bridge of the device is not found
+     */
+    CompletableFuture<Void> setControllersAsync(DeviceId deviceId, List<ControllerInfo> controllers);
+
     /**
      * Creates a port.
      *
@@ -322,6 +347,28 @@ public interface OvsdbClientService extends OvsdbRpc {
      */
     ListenableFuture<TableUpdates> monitorTables(String dbName, String id);
 
+    /**
+     * Applies the given operations in a single transaction, without waiting
+     * for the result.
+     *
+     * @param dbName     database name
+     * @param operations operations to apply
+     * @return future completed with the operation results
+     */
+    CompletableFuture<List<OperationResult>> transactAsync(String dbName, List<Operation> operations);
+
+    /**
+     * Applies several lists of operations in a single transact request,
+     * saving a round trip per list. As the request is one transaction, none
+     * of the operations take effect if any of them fails, and named UUIDs
+     * must be unique across all the lists.
+     *
+     * @param dbName  database name
+     * @param batches lists of operations to apply
+     * @return future completed with the results of each list, in order
+     */
+    CompletableFuture<List<List<OperationResult>>> transactBatch(String dbName, List<List<Operation>> batches);
+
     /**
      * Gets the OVSDB database schema from local.
      *
@@ -99,6 +99,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -148,9 +149,8 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
     private Callback monitorCallBack;
     private OvsdbStore ovsdbStore = new OvsdbStore();
 
-    private final Map<String, String> requestMethod = Maps.newHashMap();
-    private final Map<String, SettableFuture<? extends Object>> requestResult = Maps.newHashMap();
-    private final Map<String, DatabaseSchema> schema = Maps.newHashMap();
+    private final OvsdbRequestCorrelator requests = new OvsdbRequestCorrelator();
+    private final Map<String, DatabaseSchema> schema = Maps.newConcurrentMap();
 
 
     /**
@@ -197,6 +197,7 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
     @Override
     public void nodeRemoved() {
         this.agent.removeConnectedNode(nodeId);
+        requests.failAll(new IllegalStateException("Disconnected from " + nodeId));
         channel.disconnect();
     }
 
@@ -470,12 +471,17 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
 
     @Override
     public boolean createBridge(OvsdbBridge ovsdbBridge) {
+        return Boolean.TRUE.equals(await(createBridgeAsync(ovsdbBridge)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createBridgeAsync(OvsdbBridge ovsdbBridge) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
         String ovsUuid = getOvsUuid(DATABASENAME);
 
         if (dbSchema == null || ovsUuid == null) {
             log.error("Can't find database Open_vSwitch");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         Bridge bridge = (Bridge) TableGenerator.createTable(dbSchema, OvsdbTable.BRIDGE);
@@ -498,26 +504,54 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
         }
 
         String bridgeUuid = getBridgeUuid(ovsdbBridge.name());
-        if (bridgeUuid == null) {
-            bridge.setName(ovsdbBridge.name());
-            bridgeUuid = insertConfig(
-                    BRIDGE, UUID, DATABASENAME, BRIDGES,
-                    ovsUuid, bridge.getRow());
-        } else {
-            // update the bridge if it's already existing
-            updateConfig(BRIDGE, UUID, bridgeUuid, bridge.getRow());
+        if (bridgeUuid != null) {
+            // update the bridge if it's already existing, along with its
+            // local port, then set its controllers
+            List<Operation> operations = updateOperations(BRIDGE, UUID, bridgeUuid, bridge.getRow());
+            if (getPortUuid(ovsdbBridge.name(), bridgeUuid) == null) {
+                Port port = (Port) TableGenerator.createTable(dbSchema, OvsdbTable.PORT);
+                port.setName(ovsdbBridge.name());
+                operations.addAll(insertOperations(PORT, BRIDGE, PORTS, bridgeUuid, port.getRow(), PORT));
+            }
+            return transactAsync(DATABASENAME, operations)
+                    .thenCompose(results -> setControllersAsync(Uuid.uuid(bridgeUuid), ovsdbBridge.controllers()))
+                    .handle((result, error) -> bridgeCreated(ovsdbBridge, error == null));
         }
 
-        if (bridgeUuid == null) {
-            log.warn("Failed to create bridge {} on {}", ovsdbBridge.name(), nodeId);
-            return false;
+        // create the bridge along with its local port and controllers in
+        // one transaction
+        bridge.setName(ovsdbBridge.name());
+        Port port = (Port) TableGenerator.createTable(dbSchema, OvsdbTable.PORT);
+        port.setName(ovsdbBridge.name());
+        List<Operation> operations = insertOperations(BRIDGE, DATABASENAME, BRIDGES,
+                                                      ovsUuid, bridge.getRow(), BRIDGE);
+        Insert ins = (Insert) operations.get(0);
+        operations.addAll(insertOperations(PORT, null, null, null, port.getRow(), PORT));
+        ins.getRow().put(PORTS, Uuid.uuid(PORT));
+
+        Set<Uuid> controllerUuids = new HashSet<>();
+        for (ControllerInfo c : new HashSet<>(ovsdbBridge.controllers())) {
+            Controller controller = (Controller) TableGenerator
+                    .createTable(dbSchema, OvsdbTable.CONTROLLER);
+            controller.setTarget(c.target());
+            String uuidName = CONTROLLER + controllerUuids.size();
+            operations.addAll(insertOperations(CONTROLLER, null, null, null, controller.getRow(), uuidName));
+            controllerUuids.add(Uuid.uuid(uuidName));
         }
+        if (!controllerUuids.isEmpty()) {
+            ins.getRow().put(BRIDGE_CONTROLLER, OvsdbSet.ovsdbSet(controllerUuids));
+        }
+        return transactAsync(DATABASENAME, operations)
+                .handle((results, error) -> bridgeCreated(ovsdbBridge, error == null && insertedUuid(results) != null));
+    }
 
-        createPort(ovsdbBridge.name(), ovsdbBridge.name());
-        setControllersWithUuid(Uuid.uuid(bridgeUuid), ovsdbBridge.controllers());
-
-        log.info("Created bridge {}", ovsdbBridge.name());
-        return true;
+    private boolean bridgeCreated(OvsdbBridge ovsdbBridge, boolean created) {
+        if (created) {
+            log.info("Created bridge {}", ovsdbBridge.name());
+        } else {
+            log.warn("Failed to create bridge {} on {}", ovsdbBridge.name(), nodeId);
+        }
+        return created;
     }
 
     @Override
@@ -527,16 +561,16 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
         return new ControllerInfo(ipAddress, OFPORT, "tcp");
     }
 
-    private void setControllersWithUuid(Uuid bridgeUuid, List<ControllerInfo> controllers) {
+    private CompletableFuture<Void> setControllersAsync(Uuid bridgeUuid, List<ControllerInfo> controllers) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
         if (dbSchema == null) {
             log.debug("There is no schema");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         List<Controller> oldControllers = getControllers(bridgeUuid);
         if (oldControllers == null) {
             log.warn("There are no controllers");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         Set<ControllerInfo> newControllers = new HashSet<>(controllers);
@@ -549,40 +583,51 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
                 removeControllers.add(controller);
             }
         });
-        OvsdbRowStore controllerRowStore = getRowStore(DATABASENAME, CONTROLLER);
-        if (controllerRowStore == null) {
-            log.debug("There is no controller table");
-            return;
-        }
 
-        newControllers.stream().map(c -> {
+        // all controllers are added and removed in a single transaction
+        List<Operation> operations = Lists.newArrayList();
+        for (ControllerInfo c : newControllers) {
             Controller controller = (Controller) TableGenerator
                     .createTable(dbSchema, OvsdbTable.CONTROLLER);
             controller.setTarget(c.target());
-            return controller;
-        }).forEach(c -> insertConfig(CONTROLLER, UUID, BRIDGE, BRIDGE_CONTROLLER,
-                                    bridgeUuid.value(),
-                                    c.getRow()));
+            operations.addAll(insertOperations(CONTROLLER, BRIDGE, BRIDGE_CONTROLLER,
+                                               bridgeUuid.value(), controller.getRow(),
+                                               CONTROLLER + operations.size()));
+        }
 
         // Controller removal is extremely dangerous operation, because with
         // empty controller list, all existing flow rules will be wiped out.
-        // To harden the setController operation, we need to double check whether
-        // the updated controller list size is bigger than the remove controller list size
-        List<Controller> updatedControllers = getControllers(bridgeUuid);
-        if (updatedControllers != null && updatedControllers.size() > removeControllers.size()) {
-            removeControllers.forEach(c ->
-                    deleteConfig(CONTROLLER, UUID, c.getRow().uuid().value(),
-                    BRIDGE, BRIDGE_CONTROLLER, c.getRow().uuid()));
-        } else {
-            log.warn("New controllers were not properly configured to OVS " +
-                    "bridge {} or failed to retrieve controller list from OVS " +
-                    "bridge {}", bridgeUuid, bridgeUuid);
+        // As the removals only take effect along with the additions of the
+        // same transaction, they are applied only if controllers remain.
+        if (oldControllers.size() - removeControllers.size() + newControllers.size() > 0) {
+            removeControllers.forEach(c -> operations.addAll(
+                    deleteOperations(CONTROLLER, UUID, c.getRow().uuid().value(),
+                                     BRIDGE, BRIDGE_CONTROLLER, c.getRow().uuid())));
+        } else if (!removeControllers.isEmpty()) {
+            log.warn("Not removing the controllers of OVS bridge {}, " +
+                    "which would be left without any", bridgeUuid);
         }
+        if (operations.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return transactAsync(DATABASENAME, operations).thenApply(results -> null);
     }
 
     @Override
     public void setControllersWithDeviceId(DeviceId deviceId, List<ControllerInfo> controllers) {
-        setControllersWithUuid(getBridgeUuid(deviceId), controllers);
+        await(setControllersAsync(deviceId, controllers));
+    }
+
+    @Override
+    public CompletableFuture<Void> setControllersAsync(DeviceId deviceId, List<ControllerInfo> controllers) {
+        Uuid bridgeUuid = getBridgeUuid(deviceId);
+        if (bridgeUuid == null) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalStateException(
+                    "Could not find bridge " + deviceId + " in " + nodeId));
+            return result;
+        }
+        return setControllersAsync(bridgeUuid, controllers);
     }
 
     @Override
@@ -1168,10 +1213,28 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
     private void deleteConfig(String childTableName, String childColumnName,
                               String childUuid, String parentTableName,
                               String parentColumnName, Object referencedValue) {
+        transactConfig(DATABASENAME, deleteOperations(childTableName, childColumnName, childUuid,
+                                                      parentTableName, parentColumnName, referencedValue));
+    }
+
+    /**
+     * Builds the operations deleting a row and its reference from its parent.
+     *
+     * @param childTableName   child table name
+     * @param childColumnName  child column name
+     * @param childUuid        child row uuid
+     * @param parentTableName  parent table name
+     * @param parentColumnName parent column
+     * @param referencedValue  referenced value
+     * @return operations
+     */
+    private List<Operation> deleteOperations(String childTableName, String childColumnName,
+                                             String childUuid, String parentTableName,
+                                             String parentColumnName, Object referencedValue) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
         TableSchema childTableSchema = dbSchema.getTableSchema(childTableName);
 
-        ArrayList<Operation> operations = Lists.newArrayList();
+        List<Operation> operations = Lists.newArrayList();
         if (parentTableName != null && parentColumnName != null && referencedValue != null) {
             TableSchema parentTableSchema = dbSchema
                     .getTableSchema(parentTableName);
@@ -1192,7 +1255,7 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
         conditions.add(condition);
         Delete del = new Delete(childTableSchema, conditions);
         operations.add(del);
-        transactConfig(DATABASENAME, operations);
+        return operations;
     }
 
     /**
@@ -1205,6 +1268,20 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
      */
     private void updateConfig(String tableName, String columnName, String uuid,
                               Row row) {
+        transactConfig(DATABASENAME, updateOperations(tableName, columnName, uuid, row));
+    }
+
+    /**
+     * Builds the operations updating a row.
+     *
+     * @param tableName  table name
+     * @param columnName column name
+     * @param uuid       uuid
+     * @param row        the config data
+     * @return operations
+     */
+    private List<Operation> updateOperations(String tableName, String columnName, String uuid,
+                                             Row row) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
         TableSchema tableSchema = dbSchema.getTableSchema(tableName);
 
@@ -1214,10 +1291,9 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
 
         Update update = new Update(tableSchema, row, conditions);
 
-        ArrayList<Operation> operations = Lists.newArrayList();
+        List<Operation> operations = Lists.newArrayList();
         operations.add(update);
-
-        transactConfig(DATABASENAME, operations);
+        return operations;
     }
 
     /**
@@ -1234,12 +1310,31 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
     private String insertConfig(String childTableName, String childColumnName,
                                 String parentTableName, String parentColumnName,
                                 String parentUuid, Row row) {
+        return insertedUuid(transactAndWait(insertOperations(
+                childTableName, parentTableName, parentColumnName,
+                parentUuid, row, childTableName)));
+    }
+
+    /**
+     * Builds the operations inserting a row and referencing it from its parent.
+     *
+     * @param childTableName   child table name
+     * @param parentTableName  parent table name, or null if not referenced
+     * @param parentColumnName parent column
+     * @param parentUuid       parent uuid
+     * @param row              the config data
+     * @param uuidName         name of the inserted row, unique within the transaction
+     * @return operations, the insert of the row first
+     */
+    private List<Operation> insertOperations(String childTableName,
+                                             String parentTableName, String parentColumnName,
+                                             String parentUuid, Row row, String uuidName) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
         TableSchema tableSchema = dbSchema.getTableSchema(childTableName);
 
-        Insert insert = new Insert(tableSchema, childTableName, row);
+        Insert insert = new Insert(tableSchema, uuidName, row);
 
-        ArrayList<Operation> operations = Lists.newArrayList();
+        List<Operation> operations = Lists.newArrayList();
         operations.add(insert);
 
         if (parentTableName != null && parentColumnName != null) {
@@ -1250,7 +1345,7 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
 
             List<Mutation> mutations = Lists.newArrayList();
             Mutation mutation = MutationUtil.insert(parentColumnSchema.name(),
-                                                    Uuid.uuid(childTableName));
+                                                    Uuid.uuid(uuidName));
             mutations.add(mutation);
 
             List<Condition> conditions = Lists.newArrayList();
@@ -1262,41 +1357,63 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
         }
         if (childTableName.equalsIgnoreCase(PORT)) {
             log.debug("Handle port insert");
-            Insert intfInsert = handlePortInsertTable(row);
+            String intfUuidName = uuidName.equals(PORT) ? INTERFACE : uuidName + INTERFACE;
+            Insert intfInsert = handlePortInsertTable(row, intfUuidName);
 
             if (intfInsert != null) {
                 operations.add(intfInsert);
+                insert.getRow().put(INTERFACES, Uuid.uuid(intfUuidName));
             }
-
-            Insert ins = (Insert) operations.get(0);
-            ins.getRow().put("interfaces", Uuid.uuid(INTERFACE));
         }
+        return operations;
+    }
 
-        List<OperationResult> results;
+    /**
+     * Applies the given operations and waits for their results.
+     *
+     * @param operations operations to apply in a single transaction
+     * @return operation results, null if the transaction did not complete
+     */
+    private List<OperationResult> transactAndWait(List<Operation> operations) {
+        return await(transactAsync(DATABASENAME, operations));
+    }
+
+    /**
+     * Waits for the result of a request.
+     *
+     * @param future future of the request
+     * @param <T>    type of the result
+     * @return result, null if the request did not complete
+     */
+    private <T> T await(CompletableFuture<T> future) {
         try {
-            results = transactConfig(DATABASENAME, operations)
-                    .get(TRANSACTCONFIG_TIMEOUT, TimeUnit.SECONDS);
-            return results.get(0).getUuid().value();
+            return future.get(TRANSACTCONFIG_TIMEOUT, TimeUnit.SECONDS);
         } catch (TimeoutException e) {
             log.warn("TimeoutException thrown while to get result");
         } catch (InterruptedException e) {
             log.warn("Interrupted while waiting to get result");
             Thread.currentThread().interrupt();
         } catch (ExecutionException e) {
-            log.error("Exception thrown while to get result");
+            log.error("Exception thrown while to get result", e.getCause());
         }
-
         return null;
     }
 
+    private static String insertedUuid(List<OperationResult> results) {
+        if (results == null || results.isEmpty() || results.get(0).getUuid() == null) {
+            return null;
+        }
+        return results.get(0).getUuid().value();
+    }
 
     /**
      * Handles port insert.
      *
      * @param portRow   row of port
+     * @param uuidName  name of the inserted interface row
      * @return insert, empty if null
      */
-    private Insert handlePortInsertTable(Row portRow) {
+    private Insert handlePortInsertTable(Row portRow, String uuidName) {
         DatabaseSchema dbSchema = schema.get(DATABASENAME);
 
         TableSchema portTableSchema = dbSchema.getTableSchema(PORT);
@@ -1307,7 +1424,7 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
         inf.setName(portName);
 
         TableSchema intfTableSchema = dbSchema.getTableSchema(INTERFACE);
-        return new Insert(intfTableSchema, INTERFACE, inf.getRow());
+        return new Insert(intfTableSchema, uuidName, inf.getRow());
     }
 
     @Override
@@ -1363,113 +1480,137 @@ public class DefaultOvsdbClient implements OvsdbProviderService, OvsdbClientServ
 
     private ListenableFuture<List<OperationResult>> transactConfig(String dbName,
                                                                    List<Operation> operations) {
-        if (dbName == null) {
+        if (dbName == null || schema.get(dbName) == null) {
             return null;
         }
-        DatabaseSchema dbSchema = schema.get(dbName);
-        if (dbSchema != null) {
-            Function<List<JsonNode>, List<OperationResult>> rowFunction = (input -> {
-                try {
-                    log.debug("Get ovsdb operation result");
-                    List<OperationResult> result = FromJsonUtil.jsonNodeToOperationResult(input, operations);
-                    if (result == null) {
-                        log.debug("The operation result is null");
-                        return null;
-                    }
-                    return result;
-                } catch (Exception e) {
-                    log.error("Exception while parsing result", e);
-                }
-                return null;
-            });
-            return futureTransform(transact(dbSchema, operations), rowFunction);
-        }
-        return null;
+        CompletableFuture<List<OperationResult>> future = transactAsync(dbName, operations);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Exception while applying operations on {}", nodeId, error);
+            }
+        });
+        return listenable(future);
     }
 
     @Override
-    public ListenableFuture<JsonNode> getSchema(List<String> dbnames) {
-        String id = java.util.UUID.randomUUID().toString();
-        String getSchemaString = JsonRpcWriterUtil.getSchemaStr(id, dbnames);
+    public CompletableFuture<List<OperationResult>> transactAsync(String dbName,
+                                                                  List<Operation> operations) {
+        return transactBatch(dbName, ImmutableList.of(operations))
+                .thenApply(results -> results.get(0));
+    }
+
+    @Override
+    public CompletableFuture<List<List<OperationResult>>> transactBatch(String dbName,
+                                                                      List<List<Operation>> batches) {
+        DatabaseSchema dbSchema = dbName == null ? null : schema.get(dbName);
+        if (dbSchema == null) {
+            CompletableFuture<List<List<OperationResult>>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("No schema for database " + dbName));
+            return future;
+        }
+        List<Operation> operations = batches.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        String id = requests.nextId();
+        CompletableFuture<List<JsonNode>> future = sendRequest(
+                id, "transact", JsonRpcWriterUtil.transactStr(id, dbSchema, operations));
+        return future.thenApply(input -> {
+            log.debug("Get ovsdb operation result");
+            if (input == null) {
+                throw new IllegalStateException("No result for transact request " + id);
+            }
+            List<List<OperationResult>> results = new ArrayList<>(batches.size());
+            int offset = 0;
+            for (int i = 0; i < batches.size(); i++) {
+                List<Operation> batch = batches.get(i);
+                int from = Math.min(offset, input.size());
+                // the last list also gets any trailing error of the transaction
+                int to = i == batches.size() - 1 ? input.size()
+                        : Math.min(offset + batch.size(), input.size());
+                results.add(FromJsonUtil.jsonNodeToOperationResult(input.subList(from, to), batch));
+                offset += batch.size();
+            }
+            return results;
+        });
+    }
 
-        SettableFuture<JsonNode> sf = SettableFuture.create();
-        requestResult.put(id, sf);
-        requestMethod.put(id, "getSchema");
+    /**
+     * Sends a JSON-RPC request without waiting for the response. Any number
+     * of requests may be in flight on the channel.
+     *
+     * @param id      request identifier
+     * @param method  JSON-RPC method name
+     * @param request encoded request
+     * @param <T>     type of the decoded result
+     * @return future completed with the decoded result
+     */
+    private <T> CompletableFuture<T> sendRequest(String id, String method, String request) {
+        CompletableFuture<T> future = requests.register(id, method);
+        channel.writeAndFlush(request).addListener(f -> {
+            if (!f.isSuccess()) {
+                requests.fail(id, f.cause());
+            }
+        });
+        return future;
+    }
 
-        channel.writeAndFlush(getSchemaString);
+    private static <T> ListenableFuture<T> listenable(CompletableFuture<T> future) {
+        SettableFuture<T> sf = SettableFuture.create();
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                sf.setException(error);
+            } else {
+                sf.set(result);
+            }
+        });
         return sf;
     }
 
+    @Override
+    public ListenableFuture<JsonNode> getSchema(List<String> dbnames) {
+        String id = requests.nextId();
+        String getSchemaString = JsonRpcWriterUtil.getSchemaStr(id, dbnames);
+        return listenable(sendRequest(id, "getSchema", getSchemaString));
+    }
+
     @Override
     public ListenableFuture<List<String>> echo() {
-        String id = java.util.UUID.randomUUID().toString();
+        String id = requests.nextId();
         String echoString = JsonRpcWriterUtil.echoStr(id);
-
-        SettableFuture<List<String>> sf = SettableFuture.create();
-        requestResult.put(id, sf);
-        requestMethod.put(id, "echo");
-
-        channel.writeAndFlush(echoString);
-        return sf;
+        return listenable(sendRequest(id, "echo", echoString));
     }
 
     @Override
     public ListenableFuture<JsonNode> monitor(DatabaseSchema dbSchema,
                                               String monitorId) {
-        String id = java.util.UUID.randomUUID().toString();
+        String id = requests.nextId();
         String monitorString = JsonRpcWriterUtil.monitorStr(id, monitorId,
                                                             dbSchema);
-
-        SettableFuture<JsonNode> sf = SettableFuture.create();
-        requestResult.put(id, sf);
-        requestMethod.put(id, "monitor");
-
-        channel.writeAndFlush(monitorString);
-        return sf;
+        return listenable(sendRequest(id, "monitor", monitorString));
     }
 
     @Override
     public ListenableFuture<List<String>> listDbs() {
-        String id = java.util.UUID.randomUUID().toString();
+        String id = requests.nextId();
         String listDbsString = JsonRpcWriterUtil.listDbsStr(id);
-
-        SettableFuture<List<String>> sf = SettableFuture.create();
-        requestResult.put(id, sf);
-        requestMethod.put(id, "listDbs");
-
-        channel.writeAndFlush(listDbsString);
-        return sf;
+        return listenable(sendRequest(id, "listDbs", listDbsString));
     }
 
     @Override
     public ListenableFuture<List<JsonNode>> transact(DatabaseSchema dbSchema,
                                                      List<Operation> operations) {
-        String id = java.util.UUID.randomUUID().toString();
+        String id = requests.nextId();
         String transactString = JsonRpcWriterUtil.transactStr(id, dbSchema,
                                                               operations);
-
-        SettableFuture<List<JsonNode>> sf = SettableFuture.create();
-        requestResult.put(id, sf);
-        requestMethod.put(id, "transact");
-        channel.writeAndFlush(transactString);
-        return sf;
+        return listenable(sendRequest(id, "transact", transactString));
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
     @Override
     public void processResult(JsonNode response) {
         log.debug("Handle result");
-        String requestId = response.get("id").asText();
-        SettableFuture sf = requestResult.get(requestId);
-        if (sf == null) {
+        if (!requests.complete(response)) {
             log.debug("No such future to process");
-            return;
         }
-        String methodName = requestMethod.get(requestId);
-        sf.set(FromJsonUtil.jsonResultParser(response, methodName));
-
-        requestResult.remove(requestId);
-        requestMethod.remove(requestId);
     }
 
     @Override
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ovsdb.controller.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Maps;
+import org.onosproject.ovsdb.rfc.utils.FromJsonUtil;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correlates JSON-RPC responses received from an OVSDB server with the
+ * requests pending on the same connection.
+ * <p>
+ * Any number of requests may be outstanding at once; responses may arrive in
+ * any order and on any thread.
+ */
+final class OvsdbRequestCorrelator {
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final ConcurrentMap<String, PendingRequest> requests = Maps.newConcurrentMap();
+
+    /**
+     * Returns a request identifier unique to this correlator.
+     *
+     * @return request identifier
+     */
+    String nextId() {
+        return Long.toString(nextId.incrementAndGet());
+    }
+
+    /**
+     * Registers a request about to be sent.
+     *
+     * @param id     request identifier
+     * @param method JSON-RPC method name, used to decode the result
+     * @param <T>    type of the decoded result
+     * @return future completed with the decoded result
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> register(String id, String method) {
+        PendingRequest request = new PendingRequest(method);
+        requests.put(id, request);
+        return (CompletableFuture<T>) request.future;
+    }
+
+    /**
+     * Completes the request the given response belongs to.
+     *
+     * @param response JSON-RPC response
+     * @return true if a pending request matched the response
+     */
+    boolean complete(JsonNode response) {
+        JsonNode id = response.get("id");
+        PendingRequest request = id == null ? null : requests.remove(id.asText());
+        if (request == null) {
+            return false;
+        }
+        try {
+            request.future.complete(FromJsonUtil.jsonResultParser(response, request.method));
+        } catch (RuntimeException e) {
+            request.future.completeExceptionally(e);
+        }
+        return true;
+    }
+
+    /**
+     * Fails the given request, if still pending.
+     *
+     * @param id    request identifier
+     * @param cause failure cause
+     */
+    void fail(String id, Throwable cause) {
+        PendingRequest request = requests.remove(id);
+        if (request != null) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Fails all pending requests, typically once the connection is lost.
+     *
+     * @param cause failure cause
+     */
+    void failAll(Throwable cause) {
+        for (Map.Entry<String, PendingRequest> entry : requests.entrySet()) {
+            if (requests.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests awaiting a response.
+     *
+     * @return number of pending requests
+     */
+    int pendingCount() {
+        return requests.size();
+    }
+
+    private static final class PendingRequest {
+        private final String method;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private PendingRequest(String method) {
+            this.method = method;
+        }
+    }
+}
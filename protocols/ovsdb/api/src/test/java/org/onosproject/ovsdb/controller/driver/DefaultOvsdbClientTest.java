@@ -0,0 +1,458 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ovsdb.controller.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.behaviour.ControllerInfo;
+import org.onosproject.ovsdb.controller.OvsdbBridge;
+import org.onosproject.ovsdb.controller.OvsdbClientService;
+import org.onosproject.ovsdb.controller.OvsdbNodeId;
+import org.onosproject.ovsdb.rfc.message.OperationResult;
+import org.onosproject.ovsdb.rfc.notation.Column;
+import org.onosproject.ovsdb.rfc.notation.OvsdbSet;
+import org.onosproject.ovsdb.rfc.notation.Row;
+import org.onosproject.ovsdb.rfc.notation.Uuid;
+import org.onosproject.ovsdb.rfc.operations.Insert;
+import org.onosproject.ovsdb.rfc.operations.Mutate;
+import org.onosproject.ovsdb.rfc.operations.Operation;
+import org.onosproject.ovsdb.rfc.schema.DatabaseSchema;
+import org.onosproject.ovsdb.rfc.schema.TableSchema;
+import org.onosproject.ovsdb.rfc.utils.ConditionUtil;
+import org.onosproject.ovsdb.rfc.utils.MutationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link DefaultOvsdbClient} request handling, run against a
+ * fake OVSDB server over a local channel.
+ */
+public class DefaultOvsdbClientTest {
+
+    private static final String DB = "Open_vSwitch";
+    private static final String OVS_UUID = "0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d";
+    private static final String BRIDGE_UUID = "3b5c1f5a-4f4e-4a4e-9f5b-5a1c2d3e4f50";
+    private static final String CONTROLLER_UUID = "5d6e7f80-9a0b-4c1d-8e2f-3a4b5c6d7e8f";
+    private static final String DPID = "0000000000000001";
+    private static final String SCHEMA = "{\"name\":\"Open_vSwitch\",\"version\":\"7.16.1\",\"tables\":{"
+            + "\"Open_vSwitch\":{\"columns\":{" + refs("bridges", "Bridge") + "}},"
+            + "\"Bridge\":{\"columns\":{\"name\":{\"type\":\"string\"},"
+            + refs("ports", "Port") + "," + refs("controller", "Controller") + ","
+            + "\"fail_mode\":{\"type\":{\"key\":\"string\",\"min\":0,\"max\":1}},"
+            + "\"datapath_type\":{\"type\":\"string\"},"
+            + "\"datapath_id\":{\"type\":{\"key\":\"string\",\"min\":0,\"max\":1}},"
+            + "\"protocols\":{\"type\":{\"key\":\"string\",\"min\":0,\"max\":\"unlimited\"}},"
+            + "\"other_config\":{\"type\":{\"key\":\"string\",\"value\":\"string\","
+            + "\"min\":0,\"max\":\"unlimited\"}}}},"
+            + "\"Port\":{\"columns\":{\"name\":{\"type\":\"string\"}," + refs("interfaces", "Interface") + "}},"
+            + "\"Interface\":{\"columns\":{\"name\":{\"type\":\"string\"}}},"
+            + "\"Controller\":{\"columns\":{\"target\":{\"type\":\"string\"}}}}}";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long TIMEOUT = 10;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private FakeOvsdbServer server;
+    private DefaultOvsdbClient client;
+    private DatabaseSchema dbSchema;
+
+    @Before
+    public void setUp() throws Exception {
+        group = new DefaultEventLoopGroup(2);
+        server = new FakeOvsdbServer();
+        LocalAddress address = new LocalAddress("ovsdb-" + UUID.randomUUID());
+        serverChannel = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInitializer<LocalChannel>() {
+                    @Override
+                    protected void initChannel(LocalChannel ch) {
+                        ch.pipeline().addLast(server);
+                    }
+                })
+                .bind(address).sync().channel();
+
+        client = new DefaultOvsdbClient(new OvsdbNodeId(IpAddress.valueOf("127.0.0.1"), 6640));
+        client.setAgent(new OvsdbAgent() {
+            @Override
+            public void addConnectedNode(OvsdbNodeId nodeId, OvsdbClientService ovsdbClient) {
+            }
+
+            @Override
+            public void removeConnectedNode(OvsdbNodeId nodeId) {
+            }
+        });
+        clientChannel = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(new FakeRpcHandler(client))
+                .connect(address).sync().channel();
+        client.setChannel(clientChannel);
+
+        dbSchema = client.getOvsdbSchema(DB).get(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(dbSchema);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        clientChannel.close().sync();
+        serverChannel.close().sync();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    private static String refs(String column, String table) {
+        return "\"" + column + "\":{\"type\":{\"key\":{\"type\":\"uuid\",\"refTable\":\"" + table + "\"},"
+                + "\"min\":0,\"max\":\"unlimited\"}}";
+    }
+
+    /**
+     * Adds a row to the client's local copy of the database, as a table
+     * update from the server does.
+     */
+    private void addRow(String table, String uuid, Column... columns) {
+        Map<String, Column> row = Maps.newHashMap();
+        for (Column column : columns) {
+            row.put(column.columnName(), column);
+        }
+        client.updateOvsdbStore(DB, table, uuid, new Row(table, Uuid.uuid(uuid), row));
+    }
+
+    /**
+     * Inserts a port and adds it to the bridge, as createPort does.
+     */
+    private List<Operation> createPort(String uuidName) {
+        TableSchema portSchema = dbSchema.getTableSchema("Port");
+        TableSchema bridgeSchema = dbSchema.getTableSchema("Bridge");
+        return ImmutableList.of(
+                new Insert(portSchema, uuidName, new Row()),
+                new Mutate(bridgeSchema,
+                           ImmutableList.of(ConditionUtil.isEqual("_uuid", Uuid.uuid(BRIDGE_UUID))),
+                           ImmutableList.of(MutationUtil.insert("ports", Uuid.uuid(uuidName)))));
+    }
+
+    private static void assertCreated(List<OperationResult> results) {
+        assertEquals(2, results.size());
+        assertNotNull(results.get(0).getUuid());
+        assertEquals(1, results.get(1).getCount());
+    }
+
+    @Test
+    public void testOutOfOrderResponses() throws Exception {
+        int requests = 10;
+        server.holdResponses(requests);
+        List<CompletableFuture<List<OperationResult>>> futures = Lists.newArrayList();
+        for (int i = 0; i < requests; i++) {
+            List<Operation> operations = Lists.newArrayList();
+            for (int j = 0; j <= i; j++) {
+                operations.addAll(createPort("port" + j));
+            }
+            futures.add(client.transactAsync(DB, operations));
+        }
+        // responses are sent in reverse order once all requests are received
+        for (int i = 0; i < requests; i++) {
+            assertEquals(2 * (i + 1), futures.get(i).get(TIMEOUT, TimeUnit.SECONDS).size());
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        int threads = 4;
+        int requests = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<CompletableFuture<List<OperationResult>>>>> submitted = Lists.newArrayList();
+            for (int t = 0; t < threads; t++) {
+                submitted.add(executor.submit(() -> {
+                    List<CompletableFuture<List<OperationResult>>> futures = Lists.newArrayList();
+                    for (int i = 0; i < requests; i++) {
+                        futures.add(client.transactAsync(DB, createPort("port")));
+                    }
+                    return futures;
+                }));
+            }
+            for (Future<List<CompletableFuture<List<OperationResult>>>> f : submitted) {
+                for (CompletableFuture<List<OperationResult>> future : f.get(TIMEOUT, TimeUnit.SECONDS)) {
+                    assertCreated(future.get(TIMEOUT, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * requests, server.transactions.get());
+    }
+
+    @Test
+    public void testTransactBatch() throws Exception {
+        List<List<Operation>> batches = ImmutableList.of(
+                createPort("port1"), createPort("port2"), createPort("port3"));
+        List<List<OperationResult>> results = client.transactBatch(DB, batches)
+                .get(TIMEOUT, TimeUnit.SECONDS);
+        assertEquals(3, results.size());
+        results.forEach(DefaultOvsdbClientTest::assertCreated);
+        assertEquals(1, server.transactions.get());
+        assertEquals(6, server.operations.get());
+    }
+
+    @Test
+    public void testCreateBridgeAsync() throws Exception {
+        addRow("Open_vSwitch", OVS_UUID,
+               new Column("bridges", OvsdbSet.ovsdbSet(Sets.newHashSet())));
+        OvsdbBridge bridge = OvsdbBridge.builder()
+                .name("br-int")
+                .controllers(ImmutableList.of(new ControllerInfo("tcp:10.0.0.1:6653"),
+                                              new ControllerInfo("tcp:10.0.0.2:6653")))
+                .build();
+
+        assertTrue(client.createBridgeAsync(bridge).get(TIMEOUT, TimeUnit.SECONDS));
+        // the bridge, its local port and interface and its controllers are
+        // created in a single transaction
+        assertEquals(1, server.transactions.get());
+        assertEquals(ImmutableList.of("insert", "mutate", "insert", "insert", "insert", "insert"),
+                     server.lastOperations());
+        JsonNode bridgeRow = server.lastTransaction.get(1).get("row");
+        assertTrue(bridgeRow.has("ports"));
+        assertEquals(2, bridgeRow.get("controller").get(1).size());
+    }
+
+    @Test
+    public void testSetControllersAsync() throws Exception {
+        addRow("Bridge", BRIDGE_UUID,
+               new Column("name", "br-int"),
+               new Column("datapath_id", OvsdbSet.ovsdbSet(Sets.newHashSet(DPID))),
+               new Column("controller", OvsdbSet.ovsdbSet(Sets.newHashSet(Uuid.uuid(CONTROLLER_UUID)))));
+        addRow("Controller", CONTROLLER_UUID, new Column("target", "tcp:10.0.0.9:6653"));
+
+        client.setControllersAsync(DeviceId.deviceId("of:" + DPID),
+                                   ImmutableList.of(new ControllerInfo("tcp:10.0.0.1:6653")))
+                .get(TIMEOUT, TimeUnit.SECONDS);
+        // the new controller is added and the old one removed in a single
+        // transaction, so that the bridge is never left without controllers
+        assertEquals(1, server.transactions.get());
+        assertEquals(ImmutableList.of("insert", "mutate", "mutate", "delete"), server.lastOperations());
+
+        assertFailed(client.setControllersAsync(DeviceId.deviceId("of:0000000000000002"),
+                                                ImmutableList.of(new ControllerInfo("tcp:10.0.0.1:6653"))));
+    }
+
+    @Test
+    public void testDisconnectFailsPendingRequests() throws Exception {
+        server.holdResponses(Integer.MAX_VALUE);
+        CompletableFuture<List<OperationResult>> future = client.transactAsync(DB, createPort("port"));
+        client.nodeRemoved();
+        assertFailed(future);
+    }
+
+    @Test
+    public void testWriteFailureFailsRequest() throws Exception {
+        clientChannel.close().sync();
+        assertFailed(client.transactAsync(DB, createPort("port")));
+    }
+
+    private static void assertFailed(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(TIMEOUT, TimeUnit.SECONDS);
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void testProvisioningThroughput() throws Exception {
+        int ports = 200;
+        int batchSize = 20;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ports; i++) {
+            assertCreated(client.transactAsync(DB, createPort("port")).get(TIMEOUT, TimeUnit.SECONDS));
+        }
+        long sequential = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<CompletableFuture<List<OperationResult>>> futures = Lists.newArrayList();
+        for (int i = 0; i < ports; i++) {
+            futures.add(client.transactAsync(DB, createPort("port")));
+        }
+        for (CompletableFuture<List<OperationResult>> future : futures) {
+            assertCreated(future.get(TIMEOUT, TimeUnit.SECONDS));
+        }
+        long pipelined = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<CompletableFuture<List<List<OperationResult>>>> batches = Lists.newArrayList();
+        for (int i = 0; i < ports; i += batchSize) {
+            List<List<Operation>> batch = Lists.newArrayList();
+            for (int j = 0; j < batchSize; j++) {
+                batch.add(createPort("port" + j));
+            }
+            batches.add(client.transactBatch(DB, batch));
+        }
+        for (CompletableFuture<List<List<OperationResult>>> future : batches) {
+            List<List<OperationResult>> results = future.get(TIMEOUT, TimeUnit.SECONDS);
+            assertEquals(batchSize, results.size());
+            results.forEach(DefaultOvsdbClientTest::assertCreated);
+        }
+        long batched = System.nanoTime() - start;
+
+        assertEquals(2 * ports + ports / batchSize, server.transactions.get());
+        log.info("Provisioned {} ports/sec sequentially, {} pipelined, {} batched",
+                 rate(ports, sequential), rate(ports, pipelined), rate(ports, batched));
+    }
+
+    private static long rate(int count, long nanos) {
+        return count * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+
+    /**
+     * Dispatches JSON-RPC messages received by the client, as the
+     * controller's channel handler does.
+     */
+    private static final class FakeRpcHandler extends SimpleChannelInboundHandler<String> {
+        private final DefaultOvsdbClient client;
+
+        private FakeRpcHandler(DefaultOvsdbClient client) {
+            this.client = client;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String msg) throws Exception {
+            JsonNode json = MAPPER.readTree(msg);
+            if (json.has("result")) {
+                client.processResult(json);
+            } else if (json.hasNonNull("method")) {
+                client.processRequest(json);
+            }
+        }
+    }
+
+    /**
+     * Fake OVSDB server answering get_schema, echo and transact requests.
+     * Inserts are given fresh UUIDs and every other operation counts one row.
+     */
+    private static final class FakeOvsdbServer extends SimpleChannelInboundHandler<String> {
+        private final AtomicInteger transactions = new AtomicInteger();
+        private final AtomicInteger operations = new AtomicInteger();
+        private volatile JsonNode lastTransaction;
+        // accessed on the server channel event loop only
+        private final List<String> held = Lists.newArrayList();
+        private volatile int hold;
+
+        /**
+         * Holds back responses until the given number of them is pending,
+         * then sends them in reverse order.
+         */
+        private void holdResponses(int count) {
+            hold = count;
+        }
+
+        /**
+         * Returns the types of the operations of the last transaction.
+         */
+        private List<String> lastOperations() {
+            List<String> ops = Lists.newArrayList();
+            for (int i = 1; i < lastTransaction.size(); i++) {
+                ops.add(lastTransaction.get(i).get("op").asText());
+            }
+            return ops;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String msg) throws Exception {
+            String response = MAPPER.writeValueAsString(respond(MAPPER.readTree(msg)));
+            if (hold <= 1) {
+                ctx.writeAndFlush(response);
+                return;
+            }
+            held.add(response);
+            if (held.size() >= hold) {
+                Lists.reverse(held).forEach(ctx::write);
+                ctx.flush();
+                held.clear();
+            }
+        }
+
+        private JsonNode respond(JsonNode request) throws Exception {
+            ObjectNode response = MAPPER.createObjectNode();
+            response.set("id", request.get("id"));
+            response.putNull("error");
+            switch (request.get("method").asText()) {
+                case "get_schema":
+                    response.set("result", MAPPER.readTree(SCHEMA));
+                    break;
+                case "transact":
+                    transactions.incrementAndGet();
+                    ArrayNode results = response.putArray("result");
+                    JsonNode params = request.get("params");
+                    lastTransaction = params;
+                    for (int i = 1; i < params.size(); i++) {
+                        operations.incrementAndGet();
+                        ObjectNode result = results.addObject();
+                        if ("insert".equals(params.get(i).get("op").asText())) {
+                            result.putArray("uuid").add("uuid").add(UUID.randomUUID().toString());
+                        } else {
+                            result.put("count", 1);
+                        }
+                    }
+                    break;
+                default:
+                    response.putArray("result");
+                    break;
+            }
+            return response;
+        }
+    }
+}
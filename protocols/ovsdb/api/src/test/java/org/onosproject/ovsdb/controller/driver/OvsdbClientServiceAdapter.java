@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
@@ -41,6 +42,7 @@ import org.onosproject.ovsdb.controller.OvsdbPort;
 import org.onosproject.ovsdb.controller.OvsdbQos;
 import org.onosproject.ovsdb.controller.OvsdbQueue;
 import org.onosproject.ovsdb.controller.OvsdbPortName;
+import org.onosproject.ovsdb.rfc.message.OperationResult;
 import org.onosproject.ovsdb.rfc.message.TableUpdates;
 import org.onosproject.ovsdb.rfc.notation.Row;
 import org.onosproject.ovsdb.rfc.operations.Operation;
@@ -179,6 +181,11 @@ public class OvsdbClientServiceAdapter implements OvsdbClientService {
         return true;
     }
 
+    @Override
+    public CompletableFuture<Boolean> createBridgeAsync(OvsdbBridge ovsdbBridge) {
+        return CompletableFuture.completedFuture(true);
+    }
+
     @Override
     public void dropBridge(String bridgeName) {
     }
@@ -203,6 +210,11 @@ public class OvsdbClientServiceAdapter implements OvsdbClientService {
 
     }
 
+    @Override
+    public CompletableFuture<Void> setControllersAsync(DeviceId deviceId, List<ControllerInfo> controllers) {
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
     public void createPort(String bridgeName, String portName) {
 
@@ -253,6 +265,17 @@ public class OvsdbClientServiceAdapter implements OvsdbClientService {
         return null;
     }
 
+    @Override
+    public CompletableFuture<List<OperationResult>> transactAsync(String dbName, List<Operation> operations) {
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<List<List<OperationResult>>> transactBatch(String dbName,
+                                                                       List<List<Operation>> batches) {
+        return null;
+    }
+
     @Override
     public DatabaseSchema getDatabaseSchema(String dbName) {
         return null;
@@ -71,6 +71,7 @@ public final class P4RuntimeClientImpl
     private final PiPipeconfService pipeconfService;
     private final MasterElectionIdStore masterElectionIdStore;
     private final ConcurrentMap<Long, StreamClientImpl> streamClients = Maps.newConcurrentMap();
+    private final ConcurrentMap<Long, WritePipeline> writePipelines = Maps.newConcurrentMap();
 
     /**
      * Instantiates a new client with the given arguments.
@@ -102,6 +103,8 @@ public final class P4RuntimeClientImpl
     public void shutdown() {
         streamClients.forEach((p4DeviceId, streamClient) ->
                                       streamClient.closeSession(p4DeviceId));
+        writePipelines.values().forEach(WritePipeline::shutdown);
+        writePipelines.clear();
         super.shutdown();
     }
 
@@ -249,6 +252,25 @@ public final class P4RuntimeClientImpl
         }
     }
 
+    /**
+     * Returns the pipeline coalescing write requests to the given
+     * P4Runtime-internal device ID, or null if write requests should be sent
+     * as they are submitted.
+     *
+     * @param p4DeviceId P4Runtime-internal device ID
+     * @return write pipeline, or null
+     */
+    WritePipeline writePipeline(long p4DeviceId) {
+        if (!controller.isWritePipelineEnabled()) {
+            // Requests already queued, if any, are still sent by the
+            // pipeline being dropped.
+            writePipelines.remove(p4DeviceId);
+            return null;
+        }
+        return writePipelines.computeIfAbsent(
+                p4DeviceId, id -> new WritePipeline(this, controller, id));
+    }
+
     /**
      * Forces execution of an RPC in a cancellable context with the given
      * timeout (in seconds).
@@ -274,15 +274,15 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
         if (log.isTraceEnabled()) {
             log.trace("Received packet-in from {}: {}", deviceId, packetInMsg);
         }
-        if (!pipeconfService.getPipeconf(deviceId).isPresent()) {
+        final PiPipeconf pipeconf = pipeconfService.getPipeconf(deviceId).orElse(null);
+        if (pipeconf == null) {
             log.warn("Unable to handle packet-in from {}, missing pipeconf: {}",
                      deviceId, TextFormat.shortDebugString(packetInMsg));
             return;
         }
-        // Decode packet message and post event.
+        // Decode packet message and post event. The payload is not copied.
         // TODO: consider implementing a cache to speed up
         //  encoding/deconding of packet-in/out (e.g. LLDP, ARP)
-        final PiPipeconf pipeconf = pipeconfService.getPipeconf(deviceId).get();
         final PiPacketOperation pktOperation;
         try {
             pktOperation = CODECS.packetIn().decode(
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl.client;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import com.google.protobuf.Any;
+import com.google.protobuf.TextFormat;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.onlab.util.SharedExecutors;
+import org.onosproject.net.pi.runtime.PiHandle;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient;
+import org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl;
+import org.slf4j.Logger;
+import p4.v1.P4RuntimeOuterClass;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.onosproject.p4runtime.api.P4RuntimeWriteClient.EntityUpdateStatus.PENDING;
+import static p4.v1.P4RuntimeOuterClass.WriteRequest.Atomicity.CONTINUE_ON_ERROR;
+import static org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl.SHORT_TIMEOUT_SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Pipeline of write requests to a P4Runtime-internal device.
+ * <p>
+ * Write requests submitted by any behaviour are queued and coalesced in Write
+ * RPCs of bounded size, keeping a bounded number of RPCs in flight. Only
+ * requests with CONTINUE_ON_ERROR atomicity are coalesced, others are sent
+ * alone as their atomicity applies to the whole RPC. Requests are sent in
+ * submission order. A request updating an entity updated by a
+ * request in flight, or by a request already in the same batch, waits for the
+ * previous one to complete, as servers are not required to apply updates in
+ * order within a batch.
+ */
+final class WritePipeline {
+
+    private static final Logger log = getLogger(WritePipeline.class);
+
+    private static final P4RuntimeOuterClass.WriteResponse P4RT_DEFAULT_WRITE_RESPONSE_MSG =
+            P4RuntimeOuterClass.WriteResponse.getDefaultInstance();
+
+    private final P4RuntimeClientImpl client;
+    private final P4RuntimeControllerImpl controller;
+    private final long p4DeviceId;
+
+    // guarded by this
+    private final Deque<PendingWrite> queue = new ArrayDeque<>();
+    private final Multiset<PiHandle> inFlightHandles = HashMultiset.create();
+    private int inFlight;
+    private boolean shutdown;
+
+    WritePipeline(P4RuntimeClientImpl client, P4RuntimeControllerImpl controller,
+                  long p4DeviceId) {
+        this.client = client;
+        this.controller = controller;
+        this.p4DeviceId = p4DeviceId;
+    }
+
+    /**
+     * Queues the given write request for execution.
+     *
+     * @param request write request with at least one update
+     * @return future of the write response
+     */
+    CompletableFuture<P4RuntimeWriteClient.WriteResponse> submit(WriteRequestImpl request) {
+        final PendingWrite pending = new PendingWrite(request);
+        final boolean queued;
+        synchronized (this) {
+            queued = !shutdown && queue.add(pending);
+        }
+        if (!queued) {
+            pending.future.complete(request.responseBuilder().setFailAllAndBuild(
+                    new IllegalStateException("Write pipeline is shut down")));
+            return pending.future;
+        }
+        dispatch();
+        return pending.future;
+    }
+
+    /**
+     * Fails the requests not yet sent and any request submitted afterwards.
+     * Requests in flight complete as usual.
+     */
+    void shutdown() {
+        final List<PendingWrite> dropped;
+        synchronized (this) {
+            shutdown = true;
+            dropped = Lists.newArrayList(queue);
+            queue.clear();
+        }
+        final IllegalStateException cause =
+                new IllegalStateException("Write pipeline is shut down");
+        dropped.forEach(p -> p.future.complete(
+                p.request.responseBuilder().setFailAllAndBuild(cause)));
+    }
+
+    private void dispatch() {
+        final List<List<PendingWrite>> batches = Lists.newArrayList();
+        synchronized (this) {
+            while (inFlight < controller.writeMaxInFlight() && !queue.isEmpty()) {
+                final List<PendingWrite> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    // Head of the queue waits for a request in flight.
+                    break;
+                }
+                inFlight++;
+                batch.forEach(p -> inFlightHandles.addAll(p.handles));
+                batches.add(batch);
+            }
+        }
+        batches.forEach(this::send);
+    }
+
+    // Guarded by this
+    private List<PendingWrite> nextBatch() {
+        final List<PendingWrite> batch = Lists.newArrayList();
+        final Set<PiHandle> batchHandles = Sets.newHashSet();
+        final int maxBatchSize = controller.writeMaxBatchSize();
+        int updates = 0;
+        while (!queue.isEmpty()) {
+            final PendingWrite next = queue.peek();
+            final boolean coalescable = next.request.atomicity() == CONTINUE_ON_ERROR;
+            if (!batch.isEmpty() && (!coalescable
+                    || updates + next.updates.size() > maxBatchSize)) {
+                break;
+            }
+            if (next.handles.stream().anyMatch(
+                    h -> inFlightHandles.contains(h) || batchHandles.contains(h))) {
+                break;
+            }
+            queue.remove();
+            batch.add(next);
+            batchHandles.addAll(next.handles);
+            updates += next.updates.size();
+            if (!coalescable) {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    private void send(List<PendingWrite> batch) {
+        final P4RuntimeOuterClass.WriteRequest.Builder requestMsg =
+                P4RuntimeOuterClass.WriteRequest.newBuilder()
+                        .setDeviceId(p4DeviceId)
+                        .setElectionId(client.lastUsedElectionId(p4DeviceId))
+                        .setAtomicity(batch.get(0).request.atomicity());
+        batch.forEach(p -> requestMsg.addAllUpdates(p.updates));
+        final P4RuntimeOuterClass.WriteRequest writeRequest = requestMsg.build();
+        final Histogram batchSizeHistogram = controller.writeBatchSizeHistogram();
+        if (batchSizeHistogram != null) {
+            batchSizeHistogram.update(writeRequest.getUpdatesCount());
+        }
+        log.debug("Sending write request to {} with {} updates from {} requests...",
+                  client.deviceId(), writeRequest.getUpdatesCount(), batch.size());
+        final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer =
+                new StreamObserver<P4RuntimeOuterClass.WriteResponse>() {
+                    @Override
+                    public void onNext(P4RuntimeOuterClass.WriteResponse value) {
+                        if (!P4RT_DEFAULT_WRITE_RESPONSE_MSG.equals(value)) {
+                            log.warn("Received invalid WriteResponse message from {}: {}",
+                                     client.deviceId(), TextFormat.shortDebugString(value));
+                            // Leave all entity responses in pending state.
+                            complete(batch, batch.stream()
+                                    .map(p -> p.request.responseBuilder().buildAsIs())
+                                    .collect(Collectors.toList()));
+                        } else {
+                            log.debug("Received write response from {}...",
+                                      client.deviceId());
+                            // All good, all entities written successfully.
+                            complete(batch, batch.stream()
+                                    .map(p -> p.request.responseBuilder().setSuccessAllAndBuild())
+                                    .collect(Collectors.toList()));
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        complete(batch, errorResponses(batch, writeRequest.getUpdatesCount(), t));
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        // Nothing to do, unary call.
+                    }
+                };
+        try {
+            client.execRpc(s -> s.write(writeRequest, observer), SHORT_TIMEOUT_SECONDS);
+        } catch (RuntimeException e) {
+            // Complete on another thread, as completion dispatches the next
+            // batch, which could fail the same way and recurse.
+            SharedExecutors.getPoolThreadExecutor().execute(() -> observer.onError(e));
+        }
+    }
+
+    private List<WriteResponseImpl> errorResponses(List<PendingWrite> batch, int updatesCount,
+                                                   Throwable t) {
+        final List<WriteResponseImpl> responses = Lists.newArrayList();
+        final List<Any> details = WriteResponseImpl.errorDetails(t, client.deviceId());
+        if (details != null && details.size() == updatesCount) {
+            // One error for each update, in the same order as in the batch.
+            int offset = 0;
+            for (PendingWrite pending : batch) {
+                final int count = pending.updates.size();
+                responses.add(pending.request.responseBuilder().setErrorDetailsAndBuild(
+                        details.subList(offset, offset + count)));
+                offset += count;
+            }
+        } else {
+            if (details != null) {
+                log.warn("Unable to reconcile write error details from {}, " +
+                                 "sent {} updates, but server returned {} errors",
+                         client.deviceId(), updatesCount, details.size());
+            }
+            batch.forEach(p -> responses.add(
+                    p.request.responseBuilder().setFailAllAndBuild(t)));
+        }
+        if (Status.fromThrowable(t).getCode() != Status.Code.UNKNOWN
+                || responses.stream().anyMatch(r -> !r.status(PENDING).isEmpty())) {
+            // See WriteRequestImpl, log a generic WRITE error unless an error
+            // was logged for each failed entity.
+            client.handleRpcError(t, "WRITE");
+        }
+        return responses;
+    }
+
+    private void complete(List<PendingWrite> batch,
+                          Collection<WriteResponseImpl> responses) {
+        synchronized (this) {
+            inFlight--;
+            batch.forEach(p -> p.handles.forEach(inFlightHandles::remove));
+        }
+        final Timer latencyTimer = controller.writeLatencyTimer();
+        final long now = System.nanoTime();
+        int index = 0;
+        for (WriteResponseImpl response : responses) {
+            final PendingWrite pending = batch.get(index++);
+            if (latencyTimer != null) {
+                latencyTimer.update(now - pending.submitted, TimeUnit.NANOSECONDS);
+            }
+            pending.future.complete(response);
+        }
+        dispatch();
+    }
+
+    private static final class PendingWrite {
+        private final WriteRequestImpl request;
+        private final List<P4RuntimeOuterClass.Update> updates;
+        private final List<PiHandle> handles;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<P4RuntimeWriteClient.WriteResponse> future =
+                new CompletableFuture<>();
+
+        private PendingWrite(WriteRequestImpl request) {
+            this.request = request;
+            this.updates = request.updates();
+            this.handles = Lists.newArrayList();
+            request.pendingUpdates().forEach(u -> handles.add(u.handle()));
+        }
+    }
+}
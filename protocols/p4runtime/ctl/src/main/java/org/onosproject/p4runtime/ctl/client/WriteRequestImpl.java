@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import p4.v1.P4RuntimeOuterClass;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -165,12 +166,17 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
                 .setElectionId(client.lastUsedElectionId(
                         requestMsg.getDeviceId()))
                 .build();
-        log.debug("Sending write request to {} with {} updates...",
-                  client.deviceId(), writeRequest.getUpdatesCount());
         if (writeRequest.getUpdatesCount() == 0) {
             // No need to ask the server.
             return completedFuture(WriteResponseImpl.EMPTY);
         }
+        final WritePipeline pipeline = client.writePipeline(requestMsg.getDeviceId());
+        if (pipeline != null) {
+            // Coalesce with requests from other behaviours.
+            return pipeline.submit(this);
+        }
+        log.debug("Sending write request to {} with {} updates...",
+                  client.deviceId(), writeRequest.getUpdatesCount());
         final CompletableFuture<P4RuntimeWriteClient.WriteResponse> future =
                 new CompletableFuture<>();
         final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer =
@@ -215,6 +221,33 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
         return future;
     }
 
+    /**
+     * Returns the updates of this request. To be used only once submitted.
+     *
+     * @return list of update messages
+     */
+    List<P4RuntimeOuterClass.Update> updates() {
+        return requestMsg.getUpdatesList();
+    }
+
+    /**
+     * Returns the atomicity of this request. To be used only once submitted.
+     *
+     * @return atomicity
+     */
+    P4RuntimeOuterClass.WriteRequest.Atomicity atomicity() {
+        return requestMsg.getAtomicity();
+    }
+
+    /**
+     * Returns the builder of the response to this request.
+     *
+     * @return response builder
+     */
+    WriteResponseImpl.Builder responseBuilder() {
+        return responseBuilder;
+    }
+
     private void appendToRequestMsg(P4RuntimeWriteClient.UpdateType updateType,
                                     PiEntity piEntity, PiHandle handle) {
         checkState(!submitted.get(),
@@ -120,6 +120,41 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
         return new Builder(deviceId);
     }
 
+    /**
+     * Returns the P4Runtime error details carried by the given write RPC
+     * error, one for each update in the request, or null if the error does not
+     * carry any.
+     *
+     * @param throwable write RPC error
+     * @param deviceId  device ID
+     * @return list of error details, or null
+     */
+    static List<Any> errorDetails(Throwable throwable, DeviceId deviceId) {
+        if (!(throwable instanceof StatusRuntimeException)) {
+            return null;
+        }
+        final StatusRuntimeException sre = (StatusRuntimeException) throwable;
+        if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
+            // Error trailers expected only if status is UNKNOWN.
+            return null;
+        }
+        // Extract error details.
+        if (sre.getTrailers() == null || !sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "missing status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
+        if (status == null) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "found NULL status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        return status.getDetailsList();
+    }
+
     /**
      * Builder of P4RuntimeWriteResponseImpl.
      */
@@ -232,40 +267,31 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
             }
         }
 
-        private WriteResponseImpl doSetErrorsAndBuild(Throwable throwable) {
-            if (!(throwable instanceof StatusRuntimeException)) {
-                // Leave all entity responses in pending state.
-                return setFailAllAndBuild(throwable);
-            }
-            final StatusRuntimeException sre = (StatusRuntimeException) throwable;
-            if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
-                // Error trailers expected only if status is UNKNOWN.
-                return setFailAllAndBuild(throwable);
-            }
-            // Extract error details.
-            if (!sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "missing status trailers in StatusRuntimeException",
-                         deviceId);
-                return setFailAllAndBuild(throwable);
+        WriteResponseImpl setErrorDetailsAndBuild(List<Any> details) {
+            synchronized (this) {
+                return doSetErrorDetailsAndBuild(details);
             }
-            com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
-            if (status == null) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "found NULL status trailers in StatusRuntimeException",
-                         deviceId);
+        }
+
+        private WriteResponseImpl doSetErrorsAndBuild(Throwable throwable) {
+            final List<Any> details = errorDetails(throwable, deviceId);
+            if (details == null) {
                 return setFailAllAndBuild(throwable);
             }
-            final boolean reconcilable = status.getDetailsList().size() == pendingResponses.size();
+            return doSetErrorDetailsAndBuild(details);
+        }
+
+        private WriteResponseImpl doSetErrorDetailsAndBuild(List<Any> details) {
+            final boolean reconcilable = details.size() == pendingResponses.size();
             // We expect one error for each entity...
             if (!reconcilable) {
                 log.warn("Unable to reconcile write error details from {}, " +
                                  "sent {} updates, but server returned {} errors",
-                         deviceId, pendingResponses.size(), status.getDetailsList().size());
+                         deviceId, pendingResponses.size(), details.size());
             }
             // ...in the same order as in the request.
             int index = 0;
-            for (Any any : status.getDetailsList()) {
+            for (Any any : details) {
                 // Set response entities only if reconcilable, otherwise log.
                 unpackP4Error(index, any, reconcilable);
                 index += 1;
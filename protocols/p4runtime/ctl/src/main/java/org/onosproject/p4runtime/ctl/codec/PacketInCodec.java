@@ -23,7 +23,7 @@ import org.onosproject.p4runtime.ctl.utils.P4InfoBrowser;
 import p4.config.v1.P4InfoOuterClass;
 import p4.v1.P4RuntimeOuterClass;
 
-import static org.onlab.util.ImmutableByteSequence.copyFrom;
+import static org.onlab.util.ImmutableByteSequence.wrap;
 import static org.onosproject.p4runtime.ctl.codec.Codecs.CODECS;
 
 /**
@@ -57,7 +57,8 @@ public final class PacketInCodec
                 .withType(PiPacketOperationType.PACKET_IN)
                 .withMetadatas(CODECS.packetMetadata().decodeAll(
                         message.getMetadataList(), ctrlPktMetaPreamble, pipeconf))
-                .withData(copyFrom(message.getPayload().asReadOnlyByteBuffer()))
+                // Payload is not copied, the protobuf byte string is immutable.
+                .withData(wrap(message.getPayload().asReadOnlyByteBuffer()))
                 .build();
     }
 }
@@ -24,7 +24,7 @@ import org.onosproject.p4runtime.ctl.utils.P4InfoBrowser;
 import p4.config.v1.P4InfoOuterClass;
 import p4.v1.P4RuntimeOuterClass;
 
-import static org.onlab.util.ImmutableByteSequence.copyFrom;
+import static org.onlab.util.ImmutableByteSequence.wrap;
 
 /**
  * Coded for P4Runtime PacketMetadata. The metadata is expected to be a Preamble
@@ -61,7 +61,7 @@ public final class PacketMetadataCodec
                 .of(packetMetadataName);
         return PiPacketMetadata.builder()
                 .withId(metadataId)
-                .withValue(copyFrom(message.getValue().asReadOnlyByteBuffer()))
+                .withValue(wrap(message.getValue().asReadOnlyByteBuffer()))
                 .build();
     }
 }
@@ -16,7 +16,13 @@
 
 package org.onosproject.p4runtime.ctl.controller;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import io.grpc.ManagedChannel;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.grpc.ctl.AbstractGrpcClientController;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.pi.service.PiPipeconfService;
@@ -25,29 +31,166 @@ import org.onosproject.p4runtime.api.P4RuntimeController;
 import org.onosproject.p4runtime.api.P4RuntimeEvent;
 import org.onosproject.p4runtime.api.P4RuntimeEventListener;
 import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.slf4j.Logger;
+
+import java.util.Dictionary;
+
+import static org.onlab.util.Tools.getIntegerProperty;
+import static org.onlab.util.Tools.isPropertyEnabled;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_MAX_BATCH_SIZE;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_MAX_BATCH_SIZE_DEFAULT;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_MAX_IN_FLIGHT;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_MAX_IN_FLIGHT_DEFAULT;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_PIPELINE_ENABLED;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_PIPELINE_ENABLED_DEFAULT;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * P4Runtime controller implementation.
  */
-@Component(immediate = true, service = P4RuntimeController.class)
+@Component(
+        immediate = true,
+        service = P4RuntimeController.class,
+        property = {
+                WRITE_PIPELINE_ENABLED + ":Boolean=" + WRITE_PIPELINE_ENABLED_DEFAULT,
+                WRITE_MAX_BATCH_SIZE + ":Integer=" + WRITE_MAX_BATCH_SIZE_DEFAULT,
+                WRITE_MAX_IN_FLIGHT + ":Integer=" + WRITE_MAX_IN_FLIGHT_DEFAULT,
+        })
 public class P4RuntimeControllerImpl
         extends AbstractGrpcClientController
         <P4RuntimeClient, P4RuntimeEvent, P4RuntimeEventListener>
         implements P4RuntimeController {
 
+    private final Logger log = getLogger(getClass());
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private PiPipeconfService pipeconfService;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private MasterElectionIdStore masterElectionIdStore;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    private ComponentConfigService componentConfigService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    private MetricsService metricsService;
+
+    /** Coalesce writes to each device in size-bounded Write RPCs. */
+    private boolean writePipelineEnabled = WRITE_PIPELINE_ENABLED_DEFAULT;
+
+    /** Maximum number of updates in a coalesced Write RPC. */
+    private int writeMaxBatchSize = WRITE_MAX_BATCH_SIZE_DEFAULT;
+
+    /** Maximum number of coalesced Write RPCs in flight for each device. */
+    private int writeMaxInFlight = WRITE_MAX_IN_FLIGHT_DEFAULT;
+
+    private MetricsComponent writeMetricsComponent;
+    private MetricsFeature writeMetricsFeature;
+    private Timer writeLatencyTimer;
+    private Histogram writeBatchSizeHistogram;
+
     public P4RuntimeControllerImpl() {
         super(P4RuntimeEvent.class, "P4Runtime");
     }
 
+    @Activate
+    public void activate(ComponentContext context) {
+        super.activate();
+        componentConfigService.registerProperties(getClass());
+        modified(context);
+        writeMetricsComponent = metricsService.registerComponent("P4Runtime");
+        writeMetricsFeature = writeMetricsComponent.registerFeature("write");
+        writeLatencyTimer = metricsService.createTimer(
+                writeMetricsComponent, writeMetricsFeature, "latency");
+        writeBatchSizeHistogram = metricsService.createHistogram(
+                writeMetricsComponent, writeMetricsFeature, "batchSize");
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        final Dictionary<?, ?> properties = context.getProperties();
+        writePipelineEnabled = isPropertyEnabled(
+                properties, WRITE_PIPELINE_ENABLED, WRITE_PIPELINE_ENABLED_DEFAULT);
+        writeMaxBatchSize = Math.max(1, getIntegerProperty(
+                properties, WRITE_MAX_BATCH_SIZE, WRITE_MAX_BATCH_SIZE_DEFAULT));
+        writeMaxInFlight = Math.max(1, getIntegerProperty(
+                properties, WRITE_MAX_IN_FLIGHT, WRITE_MAX_IN_FLIGHT_DEFAULT));
+        log.info("Settings: writePipelineEnabled={}, writeMaxBatchSize={}, writeMaxInFlight={}",
+                 writePipelineEnabled, writeMaxBatchSize, writeMaxInFlight);
+    }
+
+    @Deactivate
+    @Override
+    public void deactivate() {
+        componentConfigService.unregisterProperties(getClass(), false);
+        // Clients drop their write pipelines with the next request.
+        writePipelineEnabled = false;
+        writeLatencyTimer = null;
+        writeBatchSizeHistogram = null;
+        metricsService.removeMetric(writeMetricsComponent, writeMetricsFeature, "latency");
+        metricsService.removeMetric(writeMetricsComponent, writeMetricsFeature, "batchSize");
+        super.deactivate();
+    }
+
+    /**
+     * Returns true if writes to devices should be coalesced by a write
+     * pipeline.
+     *
+     * @return true if the write pipeline is enabled
+     */
+    public boolean isWritePipelineEnabled() {
+        return writePipelineEnabled;
+    }
+
+    /**
+     * Returns the maximum number of updates in a coalesced Write RPC.
+     *
+     * @return maximum batch size
+     */
+    public int writeMaxBatchSize() {
+        return writeMaxBatchSize;
+    }
+
+    /**
+     * Returns the maximum number of coalesced Write RPCs in flight for each
+     * device.
+     *
+     * @return maximum number of RPCs in flight
+     */
+    public int writeMaxInFlight() {
+        return writeMaxInFlight;
+    }
+
+    /**
+     * Returns the timer of write requests latency, from submission to
+     * completion, or null if not available.
+     *
+     * @return timer
+     */
+    public Timer writeLatencyTimer() {
+        return writeLatencyTimer;
+    }
+
+    /**
+     * Returns the histogram of the number of updates in coalesced Write RPCs,
+     * or null if not available.
+     *
+     * @return histogram
+     */
+    public Histogram writeBatchSizeHistogram() {
+        return writeBatchSizeHistogram;
+    }
+
     @Override
     public void remove(DeviceId deviceId) {
         super.remove(deviceId);
@@ -31,9 +31,11 @@ import p4.v1.P4RuntimeOuterClass.WriteRequest;
 import p4.v1.P4RuntimeOuterClass.WriteResponse;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     private CompletableFuture<Void> completeLock;
@@ -43,6 +45,7 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     private List<WriteRequest> writeReqs;
     private List<ReadRequest> readReqs;
     private List<ReadResponse> readResps;
+    private BiConsumer<WriteRequest, StreamObserver<WriteResponse>> writeResponder;
 
     /**
      * Expect N times request sent by client.
@@ -54,10 +57,20 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
         counter = new AtomicLong(times);
         completeLock = new CompletableFuture<>();
         readReqs = Lists.newArrayList();
-        writeReqs = Lists.newArrayList();
+        writeReqs = Collections.synchronizedList(Lists.newArrayList());
         return completeLock;
     }
 
+    /**
+     * Sets how write requests are responded to. By default, they succeed.
+     *
+     * @param responder consumer of the write requests and their response
+     *                  observer, or null to restore the default
+     */
+    public void willRespondToWrites(BiConsumer<WriteRequest, StreamObserver<WriteResponse>> responder) {
+        this.writeResponder = responder;
+    }
+
     private void complete() {
         if (counter.decrementAndGet() == 0) {
             completeLock.complete(null);
@@ -79,8 +92,12 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     @Override
     public void write(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
         writeReqs.add(request);
-        responseObserver.onNext(WriteResponse.getDefaultInstance());
-        responseObserver.onCompleted();
+        if (writeResponder != null) {
+            writeResponder.accept(request, responseObserver);
+        } else {
+            responseObserver.onNext(WriteResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
         complete();
     }
 
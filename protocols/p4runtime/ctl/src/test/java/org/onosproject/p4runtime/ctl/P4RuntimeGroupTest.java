@@ -45,6 +45,7 @@ import org.onosproject.net.pi.runtime.PiActionProfileGroup;
 import org.onosproject.net.pi.runtime.PiActionProfileGroupId;
 import org.onosproject.net.pi.runtime.PiActionProfileMember;
 import org.onosproject.net.pi.runtime.PiActionProfileMemberId;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient;
 import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
 import org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl;
 import p4.v1.P4RuntimeOuterClass.ActionProfileGroup;
@@ -62,7 +63,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.niceMock;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -227,6 +230,31 @@ public class P4RuntimeGroupTest {
         }
     }
 
+    @Test
+    public void testInsertPiActionMembersWithWritePipeline() throws Exception {
+        client.shutdown();
+        controller = niceMock(P4RuntimeControllerImpl.class);
+        expect(controller.isWritePipelineEnabled()).andReturn(true).anyTimes();
+        expect(controller.writeMaxBatchSize()).andReturn(2).anyTimes();
+        expect(controller.writeMaxInFlight()).andReturn(1).anyTimes();
+        replay(controller);
+        client = new P4RuntimeClientImpl(
+                DEVICE_ID, grpcChannel, controller, new MockPipeconfService(),
+                new MockMasterElectionIdStore());
+
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
+        P4RuntimeWriteClient.WriteResponse response = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(GROUP_MEMBER_INSTANCES).submitSync();
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals(3, response.success().size());
+        // A request larger than the maximum batch size is sent as a whole.
+        WriteRequest result = p4RuntimeServerImpl.getWriteReqs().get(0);
+        assertEquals(1, result.getDeviceId());
+        assertEquals(3, result.getUpdatesCount());
+        assertEquals(DEFAULT_ELECTION_ID, result.getElectionId());
+    }
+
     @Test
     public void testReadGroups() throws Exception {
         ActionProfileGroup.Builder group = ActionProfileGroup.newBuilder()
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.protobuf.Any;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.AbstractServerImplBuilder;
+import io.grpc.protobuf.lite.ProtoLiteUtils;
+import io.grpc.stub.StreamObserver;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.DefaultPiPipeconf;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiActionParamId;
+import org.onosproject.net.pi.model.PiActionProfileId;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiActionParam;
+import org.onosproject.net.pi.runtime.PiActionProfileMember;
+import org.onosproject.net.pi.runtime.PiActionProfileMemberId;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient.EntityUpdateStatus;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
+import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
+import org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl;
+import p4.v1.P4RuntimeOuterClass;
+import p4.v1.P4RuntimeOuterClass.Update;
+import p4.v1.P4RuntimeOuterClass.WriteRequest;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.niceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.pi.model.PiPipeconf.ExtensionType.P4_INFO_TEXT;
+
+/**
+ * Tests for the coalescing of write requests by the P4Runtime write pipeline.
+ */
+public class WritePipelineTest {
+    private static final String PIPECONF_ID = "p4runtime-mock-pipeconf";
+    private static final String P4INFO_PATH = "/test.p4info";
+    private static final PiPipeconf PIPECONF = buildPipeconf();
+    private static final PiActionProfileId ACT_PROF_ID = PiActionProfileId.of("ecmp_selector");
+    private static final PiActionId EGRESS_PORT_ACTION_ID = PiActionId.of("set_egress_port");
+    private static final PiActionParamId PORT_PARAM_ID = PiActionParamId.of("port");
+    private static final int BASE_MEM_ID = 65535;
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:p4runtime:1");
+    private static final int P4_DEVICE_ID = 1;
+    private static final String GRPC_SERVER_NAME = "WritePipelineTest";
+    private static final long DEFAULT_TIMEOUT_TIME = 10;
+    private static final Metadata.Key<com.google.rpc.Status> STATUS_DETAILS_KEY =
+            Metadata.Key.of("grpc-status-details-bin",
+                            ProtoLiteUtils.metadataMarshaller(
+                                    com.google.rpc.Status.getDefaultInstance()));
+
+    private static MockP4RuntimeServer p4RuntimeServerImpl = new MockP4RuntimeServer();
+    private static Server grpcServer;
+    private static ManagedChannel grpcChannel;
+
+    private P4RuntimeClientImpl client;
+    private final List<StreamObserver<P4RuntimeOuterClass.WriteResponse>> heldResponses =
+            Lists.newArrayList();
+
+    private static PiActionProfileMember outputMember(short portNum) {
+        return outputMember(portNum, portNum);
+    }
+
+    private static PiActionProfileMember outputMember(short memberNum, short portNum) {
+        PiActionParam param = new PiActionParam(PORT_PARAM_ID,
+                                                ImmutableByteSequence.copyFrom(portNum));
+        PiAction piAction = PiAction.builder()
+                .withId(EGRESS_PORT_ACTION_ID)
+                .withParameter(param).build();
+
+        return PiActionProfileMember.builder()
+                .forActionProfile(ACT_PROF_ID)
+                .withAction(piAction)
+                .withId(PiActionProfileMemberId.of(BASE_MEM_ID + memberNum))
+                .build();
+    }
+
+    private static PiPipeconf buildPipeconf() {
+        final URL p4InfoUrl = WritePipelineTest.class.getResource(P4INFO_PATH);
+        return DefaultPiPipeconf.builder()
+                .withId(new PiPipeconfId(PIPECONF_ID))
+                .withPipelineModel(EasyMock.niceMock(PiPipelineModel.class))
+                .addExtension(P4_INFO_TEXT, p4InfoUrl)
+                .build();
+    }
+
+    @BeforeClass
+    public static void globalSetup() throws IOException {
+        AbstractServerImplBuilder builder = InProcessServerBuilder
+                .forName(GRPC_SERVER_NAME).directExecutor();
+        builder.addService(p4RuntimeServerImpl);
+        grpcServer = builder.build().start();
+        grpcChannel = InProcessChannelBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .build();
+    }
+
+    @AfterClass
+    public static void globalTearDown() {
+        grpcServer.shutdown();
+        grpcChannel.shutdown();
+    }
+
+    @After
+    public void teardown() {
+        p4RuntimeServerImpl.willRespondToWrites(null);
+        client.shutdown();
+    }
+
+    private void setupClient(int maxBatchSize, int maxInFlight) {
+        P4RuntimeControllerImpl controller = niceMock(P4RuntimeControllerImpl.class);
+        expect(controller.isWritePipelineEnabled()).andReturn(true).anyTimes();
+        expect(controller.writeMaxBatchSize()).andReturn(maxBatchSize).anyTimes();
+        expect(controller.writeMaxInFlight()).andReturn(maxInFlight).anyTimes();
+        replay(controller);
+        client = new P4RuntimeClientImpl(
+                DEVICE_ID, grpcChannel, controller, new MockPipeconfService(),
+                new MockMasterElectionIdStore());
+        // Hold responses until released by the test.
+        p4RuntimeServerImpl.willRespondToWrites((request, observer) -> heldResponses.add(observer));
+    }
+
+    private void releaseNext() {
+        final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer = heldResponses.remove(0);
+        observer.onNext(P4RuntimeOuterClass.WriteResponse.getDefaultInstance());
+        observer.onCompleted();
+    }
+
+    private CompletableFuture<WriteResponse> insert(PiActionProfileMember... members) {
+        return client.write(P4_DEVICE_ID, PIPECONF).insert(ImmutableList.copyOf(members)).submit();
+    }
+
+    private static int memberId(Update update) {
+        return update.getEntity().getActionProfileMember().getMemberId();
+    }
+
+    /**
+     * Tests that requests queued behind a request in flight are coalesced in
+     * RPCs of bounded size.
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        setupClient(4, 1);
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(3);
+
+        CompletableFuture<WriteResponse> first = insert(outputMember((short) 1));
+        CompletableFuture<WriteResponse> second = insert(outputMember((short) 2));
+        CompletableFuture<WriteResponse> third = insert(outputMember((short) 3));
+        CompletableFuture<WriteResponse> fourth = insert(outputMember((short) 4),
+                                                         outputMember((short) 5),
+                                                         outputMember((short) 6));
+        // Only one RPC in flight.
+        assertEquals(1, p4RuntimeServerImpl.getWriteReqs().size());
+
+        releaseNext();
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        // Second and third coalesced, fourth would exceed the batch size.
+        assertEquals(2, p4RuntimeServerImpl.getWriteReqs().size());
+        releaseNext();
+        releaseNext();
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        assertTrue(third.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        assertEquals(3, fourth.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).success().size());
+        List<WriteRequest> requests = p4RuntimeServerImpl.getWriteReqs();
+        assertEquals(1, requests.get(0).getUpdatesCount());
+        assertEquals(2, requests.get(1).getUpdatesCount());
+        assertEquals(BASE_MEM_ID + 2, memberId(requests.get(1).getUpdates(0)));
+        assertEquals(BASE_MEM_ID + 3, memberId(requests.get(1).getUpdates(1)));
+        assertEquals(3, requests.get(2).getUpdatesCount());
+    }
+
+    /**
+     * Tests that a request updating an entity in flight waits for it, and
+     * that following requests are not sent ahead of it.
+     */
+    @Test
+    public void testOrdering() throws Exception {
+        setupClient(10, 2);
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(2);
+
+        CompletableFuture<WriteResponse> first = insert(outputMember((short) 1));
+        CompletableFuture<WriteResponse> second = client.write(P4_DEVICE_ID, PIPECONF)
+                .modify(outputMember((short) 1, (short) 7)).submit();
+        CompletableFuture<WriteResponse> third = insert(outputMember((short) 2));
+        // A second RPC could be in flight, but the head of the queue waits.
+        assertEquals(1, p4RuntimeServerImpl.getWriteReqs().size());
+        assertFalse(second.isDone());
+
+        releaseNext();
+        assertEquals(2, p4RuntimeServerImpl.getWriteReqs().size());
+        releaseNext();
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        assertTrue(third.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        WriteRequest request = p4RuntimeServerImpl.getWriteReqs().get(1);
+        assertEquals(2, request.getUpdatesCount());
+        assertEquals(Update.Type.MODIFY, request.getUpdates(0).getType());
+        assertEquals(BASE_MEM_ID + 1, memberId(request.getUpdates(0)));
+        assertEquals(Update.Type.INSERT, request.getUpdates(1).getType());
+        assertEquals(BASE_MEM_ID + 2, memberId(request.getUpdates(1)));
+    }
+
+    /**
+     * Tests that the per-update errors of a coalesced RPC are reported to the
+     * requests that carried those updates.
+     */
+    @Test
+    public void testErrorSplitting() throws Exception {
+        setupClient(10, 1);
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(2);
+
+        CompletableFuture<WriteResponse> first = insert(outputMember((short) 1));
+        CompletableFuture<WriteResponse> second = insert(outputMember((short) 2));
+        CompletableFuture<WriteResponse> third = insert(outputMember((short) 3),
+                                                        outputMember((short) 4));
+        // Fail the second update of the coalesced RPC.
+        p4RuntimeServerImpl.willRespondToWrites((request, observer) -> {
+            final Metadata trailers = new Metadata();
+            trailers.put(STATUS_DETAILS_KEY, com.google.rpc.Status.newBuilder()
+                    .setCode(Status.Code.UNKNOWN.value())
+                    .addDetails(p4Error(Status.Code.OK))
+                    .addDetails(p4Error(Status.Code.ALREADY_EXISTS))
+                    .addDetails(p4Error(Status.Code.OK))
+                    .build());
+            observer.onError(Status.UNKNOWN.asRuntimeException(trailers));
+        });
+        releaseNext();
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        assertEquals(3, p4RuntimeServerImpl.getWriteReqs().get(1).getUpdatesCount());
+        assertTrue(second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        WriteResponse response = third.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        assertFalse(response.isSuccess());
+        assertEquals(1, response.success().size());
+        assertEquals(1, response.status(EntityUpdateStatus.ALREADY_EXIST).size());
+        assertEquals(PiActionProfileMemberId.of(BASE_MEM_ID + 3),
+                     ((PiActionProfileMember) response.status(EntityUpdateStatus.ALREADY_EXIST)
+                             .iterator().next().entity()).id());
+    }
+
+    private static Any p4Error(Status.Code code) {
+        return Any.pack(P4RuntimeOuterClass.Error.newBuilder()
+                                .setCanonicalCode(code.value())
+                                .build());
+    }
+}
@@ -267,6 +267,7 @@ APP_MAP = {
     "//apps/test/messaging-perf:onos-apps-test-messaging-perf-oar": [],
     "//apps/test/netcfg-monitor:onos-apps-test-netcfg-monitor-oar": [],
     "//apps/test/primitive-perf:onos-apps-test-primitive-perf-oar": [],
+    "//apps/test/resource-perf:onos-apps-test-resource-perf-oar": [],
     "//apps/test/route-scale:onos-apps-test-route-scale-oar": [],
     "//apps/test/transaction-perf:onos-apps-test-transaction-perf-oar": [],
     "//apps/tunnel:onos-apps-tunnel-oar": ["sona"],
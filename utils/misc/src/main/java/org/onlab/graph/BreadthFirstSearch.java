@@ -15,9 +15,6 @@
  */
 package org.onlab.graph;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Implementation of the BFS algorithm.
  */
@@ -31,43 +28,53 @@ public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
         // Prepare the graph result.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
 
+        // Search the compiled graph, tracking visited vertexes by index.
+        CompiledGraph<V, E> compiled = CompiledGraph.of(graph);
+        Weight[] costs = new Weight[compiled.vertexCount()];
+        int target = dst == null ? -1 : compiled.index(dst);
+
         // Setup the starting frontier with the source as the sole vertex.
-        Set<V> frontier = new HashSet<>();
-        result.updateVertex(src, null, weigher.getInitialWeight(), true);
-        frontier.add(src);
+        int[] frontier = new int[compiled.vertexCount()];
+        int[] next = new int[compiled.vertexCount()];
+        int source = compiled.index(src);
+        costs[source] = weigher.getInitialWeight();
+        result.updateVertex(src, null, costs[source], true);
+        frontier[0] = source;
+        int frontierSize = 1;
 
         boolean reachedEnd = false;
-        while (!reachedEnd && !frontier.isEmpty()) {
+        while (!reachedEnd && frontierSize > 0) {
             // Prepare the next frontier.
-            Set<V> next = new HashSet<>();
+            int nextSize = 0;
 
             // Visit all vertexes in the current frontier.
-            for (V vertex : frontier) {
-                Weight cost = result.cost(vertex);
+            for (int i = 0; i < frontierSize && !reachedEnd; i++) {
+                int vertex = frontier[i];
+                Weight cost = costs[vertex];
 
                 // Visit all egress edges of the current frontier vertex.
-                for (E edge : graph.getEdgesFrom(vertex)) {
-                    V nextVertex = edge.dst();
-                    if (!result.hasCost(nextVertex)) {
+                for (int e = compiled.firstEdge(vertex); e < compiled.endEdge(vertex); e++) {
+                    int nextVertex = compiled.target(e);
+                    if (nextVertex >= 0 && costs[nextVertex] == null) {
                         // If this vertex has not been visited yet, update it.
-                        Weight newCost = cost.merge(weigher.weight(edge));
-                        result.updateVertex(nextVertex, edge, newCost, true);
+                        E edge = compiled.edge(e);
+                        costs[nextVertex] = cost.merge(weigher.weight(edge));
+                        result.updateVertex(edge.dst(), edge, costs[nextVertex], true);
                         // If we have reached our intended destination, bail.
-                        if (nextVertex.equals(dst)) {
+                        if (nextVertex == target) {
                             reachedEnd = true;
                             break;
                         }
-                        next.add(nextVertex);
-                    }
-
-                    if (reachedEnd) {
-                        break;
+                        next[nextSize++] = nextVertex;
                     }
                 }
             }
 
             // Promote the next frontier.
+            int[] visited = frontier;
             frontier = next;
+            next = visited;
+            frontierSize = nextSize;
         }
 
         // Finally, but the paths on the search result and return.
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable, integer-indexed representation of a graph for path searches.
+ * <p>
+ * Vertexes are numbered from 0 and the egress edges of all vertexes are laid
+ * out in compressed-sparse-row arrays, so that searches can keep their state
+ * in arrays indexed by vertex rather than in maps keyed by vertex objects.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class CompiledGraph<V extends Vertex, E extends Edge<V>> {
+
+    // Compilations of immutable graphs, which are searched many times
+    private static final Cache<Graph<?, ?>, CompiledGraph<?, ?>> COMPILED =
+            CacheBuilder.newBuilder().weakKeys().maximumSize(64).build();
+
+    private final Object[] vertexes;
+    private final Map<V, Integer> index;
+    // egress edges of vertex i are at [offsets[i], offsets[i + 1])
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] edges;
+
+    private CompiledGraph(Graph<V, E> graph) {
+        Set<V> graphVertexes = graph.getVertexes();
+        vertexes = graphVertexes.toArray();
+        index = Maps.newHashMapWithExpectedSize(vertexes.length);
+        for (int i = 0; i < vertexes.length; i++) {
+            index.put(vertex(i), i);
+        }
+
+        offsets = new int[vertexes.length + 1];
+        for (int i = 0; i < vertexes.length; i++) {
+            offsets[i + 1] = offsets[i] + graph.getEdgesFrom(vertex(i)).size();
+        }
+        targets = new int[offsets[vertexes.length]];
+        edges = new Object[offsets[vertexes.length]];
+        for (int i = 0; i < vertexes.length; i++) {
+            int e = offsets[i];
+            for (E edge : graph.getEdgesFrom(vertex(i))) {
+                edges[e] = edge;
+                targets[e++] = index.getOrDefault(edge.dst(), -1);
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled representation of the given graph. Compilations
+     * of immutable {@link AdjacencyListsGraph adjacency lists graphs} are
+     * reused for as long as the graph is in use.
+     *
+     * @param graph graph to compile
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compiled graph
+     */
+    @SuppressWarnings("unchecked")
+    public static <V extends Vertex, E extends Edge<V>> CompiledGraph<V, E> of(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        if (!(graph instanceof AdjacencyListsGraph)) {
+            return new CompiledGraph<>(graph);
+        }
+        try {
+            return (CompiledGraph<V, E>) COMPILED.get(graph, () -> new CompiledGraph<>(graph));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return number of vertexes
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the given vertex.
+     *
+     * @param vertex vertex
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        return index.getOrDefault(vertex, -1);
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param v vertex index
+     * @return vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int v) {
+        return (V) vertexes[v];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the given vertex.
+     *
+     * @param v vertex index
+     * @return first edge index
+     */
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Returns the index past the last egress edge of the given vertex.
+     *
+     * @param v vertex index
+     * @return end edge index, exclusive
+     */
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the edge with the given index.
+     *
+     * @param e edge index
+     * @return edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int e) {
+        return (E) edges[e];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the given edge.
+     *
+     * @param e edge index
+     * @return vertex index; -1 if the destination is not in the graph
+     */
+    public int target(int e) {
+        return targets[e];
+    }
+
+}
@@ -15,8 +15,7 @@
  */
 package org.onlab.graph;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -42,64 +41,105 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
             return result;
         }
 
+        // Search the compiled graph, keeping costs and parent edges in arrays
+        // indexed by vertex until the search completes.
+        CompiledGraph<V, E> compiled = CompiledGraph.of(graph);
+        SearchState state = new SearchState(compiled, maxPaths);
+        int source = compiled.index(src);
+        int target = dst == null ? -1 : compiled.index(dst);
+        state.costs[source] = weigher.getInitialWeight();
+
         // Use the min priority queue to progressively find each nearest
         // vertex until we reach the desired destination, if one was given,
-        // or until we reach all possible destinations.
-        Heap<V> minQueue = createMinQueue(graph.getVertexes(),
-                                          new PathCostComparator(result));
+        // or until we reach all possible destinations. Vertexes are queued
+        // once reached and re-prioritized whenever their cost decreases.
+        IndexedHeap minQueue = new IndexedHeap(compiled.vertexCount(),
+                (v1, v2) -> state.costs[v1].compareTo(state.costs[v2]));
+        minQueue.insert(source);
         while (!minQueue.isEmpty()) {
             // Get the nearest vertex
-            V nearest = minQueue.extractExtreme();
-            if (nearest.equals(dst)) {
+            int nearest = minQueue.extractMin();
+            state.settled[nearest] = true;
+            if (nearest == target) {
                 break;
             }
 
-            // Find its cost and use it to determine if the vertex is reachable.
-            if (result.hasCost(nearest)) {
-                Weight cost = result.cost(nearest);
-
-                // If the vertex is reachable, relax all its egress edges.
-                for (E e : graph.getEdgesFrom(nearest)) {
-                    result.relaxEdge(e, cost, weigher, true);
+            // Relax all its egress edges.
+            Weight cost = state.costs[nearest];
+            for (int e = compiled.firstEdge(nearest); e < compiled.endEdge(nearest); e++) {
+                int v = compiled.target(e);
+                if (v >= 0 && state.relaxEdge(e, v, cost, weigher) && !state.settled[v]) {
+                    if (minQueue.contains(v)) {
+                        minQueue.decreaseKey(v);
+                    } else {
+                        minQueue.insert(v);
+                    }
                 }
             }
-
-            // Re-prioritize the min queue.
-            minQueue.heapify();
         }
 
         // Now construct a set of paths from the results.
+        state.copyTo(result);
         result.buildPaths();
         return result;
     }
 
-    // Compares path weights using their accrued costs; used for sorting the
-    // min priority queue.
-    private final class PathCostComparator implements Comparator<V> {
-        private final DefaultResult result;
-
-        private PathCostComparator(DefaultResult result) {
-            this.result = result;
+    // Costs and parent edges of the vertexes of a compiled graph, with the
+    // same semantics as those of the default result.
+    private final class SearchState {
+        private final CompiledGraph<V, E> graph;
+        private final int maxPaths;
+        private final Weight[] costs;
+        private final boolean[] settled;
+        private final Set<E>[] parents;
+
+        @SuppressWarnings("unchecked")
+        private SearchState(CompiledGraph<V, E> graph, int maxPaths) {
+            this.graph = graph;
+            this.maxPaths = maxPaths;
+            this.costs = new Weight[graph.vertexCount()];
+            this.settled = new boolean[graph.vertexCount()];
+            this.parents = (Set<E>[]) new Set[graph.vertexCount()];
         }
 
-        @Override
-        public int compare(V v1, V v2) {
-            //not accessed vertices should be pushed to the back of the queue
-            if (!result.hasCost(v1) && !result.hasCost(v2)) {
-                return 0;
-            } else if (!result.hasCost(v1)) {
-                return -1;
-            } else if (!result.hasCost(v2)) {
-                return 1;
+        // Relaxes the given edge towards vertex v, forbidding negative
+        // weights; returns true if the cost of v decreased.
+        private boolean relaxEdge(int e, int v, Weight cost, EdgeWeigher<V, E> weigher) {
+            E edge = graph.edge(e);
+            Weight hopCost = weigher.weight(edge);
+            if (!hopCost.isViable() || hopCost.isNegative()) {
+                return false;
             }
-
-            return result.cost(v2).compareTo(result.cost(v1));
+            Weight newCost = cost.merge(hopCost);
+
+            int compareResult = costs[v] == null ? -1 : newCost.compareTo(costs[v]);
+            if (compareResult <= 0) {
+                costs[v] = newCost;
+                Set<E> edges = parents[v];
+                if (edges == null) {
+                    edges = new HashSet<>();
+                    parents[v] = edges;
+                }
+                if (compareResult < 0) {
+                    edges.clear();
+                }
+                if (maxPaths == ALL_PATHS || edges.size() < maxPaths) {
+                    edges.add(edge);
+                }
+            }
+            return compareResult < 0;
         }
-    }
 
-    // Creates a min priority queue from the specified vertexes and comparator.
-    private Heap<V> createMinQueue(Set<V> vertexes, Comparator<V> comparator) {
-        return new Heap<>(new ArrayList<>(vertexes), comparator);
+        private void copyTo(DefaultResult result) {
+            for (int v = 0; v < costs.length; v++) {
+                if (costs[v] != null) {
+                    result.costs.put(graph.vertex(v), costs[v]);
+                }
+                if (parents[v] != null) {
+                    result.parents.put(graph.vertex(v), parents[v]);
+                }
+            }
+        }
     }
 
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Array-backed binary min-heap of integer identifiers in a fixed range,
+ * whose sense of order is imposed by the provided comparator.
+ * <p>
+ * Unlike {@link Heap}, the position of each identifier is tracked, so that
+ * the heap property can be restored in logarithmic time when the priority of
+ * a single identifier decreases, through {@link #decreaseKey}.
+ * </p>
+ * <p>
+ * This class is not thread-safe and care must be taken to prevent concurrent
+ * modifications.
+ * </p>
+ */
+public final class IndexedHeap {
+
+    /**
+     * Comparator of integer identifiers.
+     */
+    @FunctionalInterface
+    public interface IdComparator {
+        /**
+         * Compares the priorities of the two identifiers.
+         *
+         * @param id1 first identifier
+         * @param id2 second identifier
+         * @return negative, zero or positive if the first identifier has a
+         * lower, equal or higher priority than the second one
+         */
+        int compare(int id1, int id2);
+    }
+
+    private final int[] heap;
+    private final int[] positions;
+    private final IdComparator comparator;
+    private int size;
+
+    /**
+     * Creates a new empty heap of identifiers between 0 and the given
+     * capacity, exclusive.
+     *
+     * @param capacity   number of identifiers
+     * @param comparator comparator for ordering the identifiers
+     */
+    public IndexedHeap(int capacity, IdComparator comparator) {
+        checkArgument(capacity >= 0, "Capacity cannot be negative");
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.comparator = checkNotNull(comparator, "Comparator cannot be null");
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Returns the current size of the heap.
+     *
+     * @return number of identifiers in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if there are no identifiers in the heap.
+     *
+     * @return true if heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Indicates whether the given identifier is in the heap.
+     *
+     * @param id identifier
+     * @return true if the identifier is in the heap
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Inserts the given identifier, which must not be in the heap already.
+     *
+     * @param id identifier
+     */
+    public void insert(int id) {
+        checkArgument(!contains(id), "Identifier already in the heap");
+        heap[size] = id;
+        positions[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Restores the heap property after the priority of the given identifier
+     * decreased.
+     *
+     * @param id identifier in the heap
+     */
+    public void decreaseKey(int id) {
+        checkArgument(contains(id), "Identifier not in the heap");
+        siftUp(positions[id]);
+    }
+
+    /**
+     * Returns the identifier with the lowest priority without removing it.
+     *
+     * @return identifier with the lowest priority
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the identifier with the lowest priority.
+     *
+     * @return identifier with the lowest priority
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int extractMin() {
+        int min = min();
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (comparator.compare(id, heap[parent]) >= 0) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(id, i);
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int half = size / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (comparator.compare(id, heap[child]) <= 0) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(id, i);
+    }
+
+    private void move(int id, int i) {
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+}
@@ -170,6 +170,19 @@ public abstract class AbstractAccumulator<T> implements Accumulator<T> {
         }
     }
 
+    /**
+     * Processes the items accumulated so far, if any, on the calling thread,
+     * regardless of the thresholds and of {@link #isReady()}. Meant to be
+     * used before discarding the accumulator, e.g. when its timer is about
+     * to be cancelled.
+     */
+    public void flush() {
+        List<T> batch = finalizeCurrentBatch();
+        if (!batch.isEmpty()) {
+            processItems(batch);
+        }
+    }
+
     /**
      * Returns an immutable copy of the existing items and clear the list.
      *
@@ -99,6 +99,26 @@ public final class ImmutableByteSequence {
         return new ImmutableByteSequence(buffer);
     }
 
+    /**
+     * Creates a new immutable byte sequence backed by the remaining bytes of
+     * the given read-only ByteBuffer {@link ByteBuffer}, without copying them.
+     * The buffer must be big-endian, and its content must never change, as is
+     * the case for buffers obtained from immutable sources such as protobuf
+     * byte strings.
+     *
+     * @param original a read-only byte buffer
+     * @return a new immutable byte sequence
+     */
+    public static ImmutableByteSequence wrap(ByteBuffer original) {
+        checkArgument(original != null && original.remaining() > 0,
+                      "Cannot wrap an empty or null byte buffer");
+        checkArgument(original.isReadOnly(),
+                      "Cannot wrap a writable byte buffer");
+        checkArgument(original.order() == ByteOrder.BIG_ENDIAN,
+                      "Cannot wrap a little-endian byte buffer");
+        return new ImmutableByteSequence(original.slice());
+    }
+
     /**
      * Creates a new immutable byte sequence copying bytes from the given
      * ByteBuffer {@link ByteBuffer}. If the byte buffer order is not big-endian
@@ -403,7 +423,7 @@ public final class ImmutableByteSequence {
     @Override
     public String toString() {
         final String hexValue = HexString
-                .toHexString(value.array(), "")
+                .toHexString(asArray(), "")
                 // Remove leading zeros, but leave one if string is all zeros.
                 .replaceFirst("^0+(?!$)", "");
         return "0x" + hexValue;
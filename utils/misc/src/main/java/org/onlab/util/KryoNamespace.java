@@ -33,8 +33,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.slf4j.Logger;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
@@ -70,8 +68,23 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      */
     public static final int INITIAL_ID = 16;
 
+    /**
+     * Largest buffer retained for reuse by a pooled Kryo instance; larger
+     * buffers grown while serializing are released once done.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
     private static final String NO_NAME = "(no name)";
 
+    // Keys of the reusable I/O buffers kept in each Kryo instance's context
+    private static final Object OUTPUT = new Object();
+    private static final Object INPUT = new Object();
+    private static final Object BYTE_BUFFER_OUTPUT = new Object();
+    private static final Object BYTE_BUFFER_INPUT = new Object();
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     private static final Logger log = getLogger(KryoNamespace.class);
 
     private final KryoPool pool = new KryoPool.Builder(this)
@@ -300,18 +313,34 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     /**
      * Serializes given object to byte array using Kryo instance in pool.
      *
+     * The output buffer is kept with the pooled Kryo instance and reused
+     * by subsequent calls, unless it had to grow beyond 1MB.
+     *
      * @param obj Object to serialize
-     * @param bufferSize maximum size of serialized bytes
+     * @param bufferSize initial size of the output buffer, if none is pooled yet
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj, final int bufferSize) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bufferSize);
-        Output out = new Output(outputStream);
-        return pool.run(kryo -> {
-            kryo.writeClassAndObject(out, obj);
-            out.flush();
-            return outputStream.toByteArray();
-        });
+        Kryo kryo = borrow();
+        try {
+            Output out = (Output) kryo.getContext().get(OUTPUT);
+            if (out == null) {
+                // Grow as needed, as the stream based output used to
+                out = new Output(Math.min(bufferSize, MAX_POOLED_BUFFER_SIZE), -1);
+                kryo.getContext().put(OUTPUT, out);
+            }
+            out.clear();
+            try {
+                kryo.writeClassAndObject(out, obj);
+                return out.toBytes();
+            } finally {
+                if (out.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+                    kryo.getContext().remove(OUTPUT);
+                }
+            }
+        } finally {
+            release(kryo);
+        }
     }
 
     /**
@@ -321,11 +350,20 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @param buffer to write to
      */
     public void serialize(final Object obj, final ByteBuffer buffer) {
-        ByteBufferOutput out = new ByteBufferOutput(buffer);
         Kryo kryo = borrow();
         try {
-            kryo.writeClassAndObject(out, obj);
-            out.flush();
+            ByteBufferOutput out = (ByteBufferOutput) kryo.getContext().get(BYTE_BUFFER_OUTPUT);
+            if (out == null) {
+                out = new ByteBufferOutput();
+                kryo.getContext().put(BYTE_BUFFER_OUTPUT, out);
+            }
+            out.setBuffer(buffer);
+            try {
+                kryo.writeClassAndObject(out, obj);
+                out.flush();
+            } finally {
+                out.setBuffer(EMPTY_BUFFER);
+            }
         } finally {
             release(kryo);
         }
@@ -367,12 +405,21 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final byte[] bytes) {
-        Input in = new Input(new ByteArrayInputStream(bytes));
         Kryo kryo = borrow();
         try {
-            @SuppressWarnings("unchecked")
-            T obj = (T) kryo.readClassAndObject(in);
-            return obj;
+            Input in = (Input) kryo.getContext().get(INPUT);
+            if (in == null) {
+                in = new Input();
+                kryo.getContext().put(INPUT, in);
+            }
+            in.setBuffer(bytes);
+            try {
+                @SuppressWarnings("unchecked")
+                T obj = (T) kryo.readClassAndObject(in);
+                return obj;
+            } finally {
+                in.setBuffer(EMPTY_BYTES);
+            }
         } finally {
             release(kryo);
         }
@@ -386,12 +433,21 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final ByteBuffer buffer) {
-        ByteBufferInput in = new ByteBufferInput(buffer);
         Kryo kryo = borrow();
         try {
-            @SuppressWarnings("unchecked")
-            T obj = (T) kryo.readClassAndObject(in);
-            return obj;
+            ByteBufferInput in = (ByteBufferInput) kryo.getContext().get(BYTE_BUFFER_INPUT);
+            if (in == null) {
+                in = new ByteBufferInput();
+                kryo.getContext().put(BYTE_BUFFER_INPUT, in);
+            }
+            in.setBuffer(buffer);
+            try {
+                @SuppressWarnings("unchecked")
+                T obj = (T) kryo.readClassAndObject(in);
+                return obj;
+            } finally {
+                in.setBuffer(EMPTY_BUFFER);
+            }
         } finally {
             release(kryo);
         }
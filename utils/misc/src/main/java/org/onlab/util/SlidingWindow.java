@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+
+/**
+ * Base of sliding windows made of a fixed number of one second slots.
+ * <p>
+ * Rather than being advanced by a background task, the window is advanced
+ * lazily by whichever caller first observes that the deadline of the head
+ * slot has passed, catching up on all the slots elapsed since.
+ */
+abstract class SlidingWindow {
+
+    static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    final int windowSlots;
+
+    private volatile int headSlot;
+    private final AtomicLong totalSlots = new AtomicLong(1);
+    private final AtomicLong deadline;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a new sliding window with the given total number of slots.
+     *
+     * @param windowSlots total number of window slots
+     * @param clock       source of the current time in nanoseconds
+     */
+    SlidingWindow(int windowSlots, LongSupplier clock) {
+        checkArgument(windowSlots > 0, "Window size must be a positive integer");
+        this.windowSlots = windowSlots;
+        this.clock = clock;
+        this.deadline = new AtomicLong(clock.getAsLong() + SLOT_NANOS);
+    }
+
+    /**
+     * Resets the given slot for reuse.
+     *
+     * @param slot the slot to reset
+     */
+    abstract void resetSlot(int slot);
+
+    /**
+     * Returns the current head slot, advancing the window first if the
+     * deadline of the head slot has passed.
+     *
+     * @return the head slot
+     */
+    int headSlot() {
+        long now = clock.getAsLong();
+        long next = deadline.get();
+        if (now - next >= 0) {
+            long elapsed = (now - next) / SLOT_NANOS + 1;
+            // only the caller moving the deadline advances the window
+            if (deadline.compareAndSet(next, next + elapsed * SLOT_NANOS)) {
+                for (long i = 0; i < min(elapsed, windowSlots); i++) {
+                    advanceHead();
+                }
+                if (elapsed > windowSlots) {
+                    totalSlots.addAndGet(elapsed - windowSlots);
+                }
+            }
+        }
+        return headSlot;
+    }
+
+    /**
+     * Returns the slot the given number of slots before the head slot.
+     *
+     * @param head the head slot
+     * @param back number of slots to go back; less than the window size
+     * @return the slot
+     */
+    int slotBefore(int head, int back) {
+        int slot = head - back;
+        return slot < 0 ? slot + windowSlots : slot;
+    }
+
+    /**
+     * Returns the number of slots of the given window which have been in
+     * use since the window was created or cleared.
+     *
+     * @param slots number of slots of the window
+     * @return number of slots in use
+     */
+    int getMinSlots(int slots) {
+        return min(slots, (int) min(totalSlots.get(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the overall number of slots since the window was created or
+     * cleared.
+     *
+     * @return the overall number of slots
+     */
+    long totalSlots() {
+        headSlot();
+        return totalSlots.get();
+    }
+
+    /**
+     * Resets all slots and restarts the window at the first slot.
+     */
+    void reset() {
+        for (int slot = 0; slot < windowSlots; slot++) {
+            resetSlot(slot);
+        }
+        totalSlots.set(1);
+        headSlot = 0;
+        deadline.set(clock.getAsLong() + SLOT_NANOS);
+    }
+
+    void advanceHead() {
+        int next = (headSlot + 1) % windowSlots;
+        resetSlot(next);
+        headSlot = next;
+        totalSlots.incrementAndGet();
+    }
+}
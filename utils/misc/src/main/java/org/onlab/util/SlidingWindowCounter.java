@@ -18,37 +18,29 @@ package org.onlab.util;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static java.lang.Math.min;
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
-import static org.onlab.util.Tools.groupedThreads;
 
 /**
  * Maintains a sliding window of value counts. The sliding window counter is
  * initialized with a number of window slots. Calls to #incrementCount() will
- * increment the value in the current window slot. Periodically the window
+ * increment the value in the current window slot. Every second the window
  * slides and the oldest value count is dropped. Calls to #get() will get the
  * total count for the last N window slots.
+ * <p>
+ * Slot counts are striped, so that concurrent callers incrementing the
+ * count do not contend on a single memory location, and the window slides
+ * lazily on access rather than from a background thread.
  */
-public final class SlidingWindowCounter {
+public final class SlidingWindowCounter extends SlidingWindow {
 
-    private volatile int headSlot;
-    private final int windowSlots;
+    private final List<LongAdder> counters;
 
-    private final List<AtomicLong> counters;
-
-    private final ScheduledExecutorService background;
-
-    private final AtomicLong totalCount = new AtomicLong();
-    private final AtomicLong totalSlots = new AtomicLong(1);
-
-    private static final int SLIDE_WINDOW_PERIOD_SECONDS = 1;
+    private final LongAdder totalCount = new LongAdder();
 
     /**
      * Creates a new sliding window counter with the given total number of
@@ -57,33 +49,39 @@ public final class SlidingWindowCounter {
      * @param windowSlots total number of window slots
      */
     public SlidingWindowCounter(int windowSlots) {
-        checkArgument(windowSlots > 0, "Window size must be a positive integer");
+        this(windowSlots, System::nanoTime);
+    }
 
-        this.windowSlots = windowSlots;
-        this.headSlot = 0;
+    /**
+     * Creates a new sliding window counter with the given total number of
+     * window slots and clock.
+     *
+     * @param windowSlots total number of window slots
+     * @param clock       source of the current time in nanoseconds
+     */
+    SlidingWindowCounter(int windowSlots, LongSupplier clock) {
+        super(windowSlots, clock);
 
-        // Initialize each item in the list to an AtomicLong of 0
+        // Initialize each item in the list to a LongAdder of 0
         this.counters = ImmutableList.copyOf(IntStream.range(0, windowSlots)
-                .mapToObj(i -> new AtomicLong())
+                .mapToObj(i -> new LongAdder())
                 .collect(Collectors.toList()));
-
-        background = newSingleThreadScheduledExecutor(groupedThreads("SlidingWindowCounter", "bg-%d"));
-        background.scheduleWithFixedDelay(this::advanceHead, 1,
-                                          SLIDE_WINDOW_PERIOD_SECONDS, TimeUnit.SECONDS);
     }
 
     /**
      * Releases resources used by the SlidingWindowCounter.
+     * <p>
+     * The counter no longer holds any resources besides memory; this is
+     * kept for compatibility.
      */
     public void destroy() {
-        background.shutdownNow();
     }
 
     /**
      * Increments the count of the current window slot by 1.
      */
     public void incrementCount() {
-        incrementCount(headSlot, 1);
+        incrementCount(headSlot(), 1);
     }
 
     /**
@@ -92,7 +90,7 @@ public final class SlidingWindowCounter {
      * @param value value to increment by
      */
     public void incrementCount(long value) {
-        incrementCount(headSlot, value);
+        incrementCount(headSlot(), value);
     }
 
     /**
@@ -102,8 +100,8 @@ public final class SlidingWindowCounter {
      * @param value the value by which to increment the slot
      */
     private void incrementCount(int slot, long value) {
-        counters.get(slot).addAndGet(value);
-        totalCount.addAndGet(value);
+        counters.get(slot).add(value);
+        totalCount.add(value);
     }
 
     /**
@@ -139,13 +137,10 @@ public final class SlidingWindowCounter {
 
         long sum = 0;
 
+        int head = headSlot();
         slots = getMinSlots(slots);
         for (int i = 0; i < slots; i++) {
-            int currentIndex = headSlot - i;
-            if (currentIndex < 0) {
-                currentIndex = counters.size() + currentIndex;
-            }
-            sum += counters.get(currentIndex).get();
+            sum += counters.get(slotBefore(head, i)).sum();
         }
 
         return sum;
@@ -169,21 +164,18 @@ public final class SlidingWindowCounter {
     public double getWindowRate(int slots) {
         // Compute the minimum slots to before computing the window count to ensure
         // the window count and number of slots are for the same window.
+        headSlot();
         slots = getMinSlots(slots);
         return getWindowCount(slots) / (double) slots;
     }
 
-    private int getMinSlots(int slots) {
-        return min(slots, (int) min(totalSlots.get(), Integer.MAX_VALUE));
-    }
-
     /**
      * Returns the overall number of increments.
      *
      * @return the overall number of increments
      */
     public long getOverallCount() {
-        return totalCount.get();
+        return totalCount.sum();
     }
 
     /**
@@ -192,27 +184,20 @@ public final class SlidingWindowCounter {
      * @return the overall rate
      */
     public double getOverallRate() {
-        return totalCount.get() / (double) totalSlots.get();
+        return totalCount.sum() / (double) totalSlots();
     }
 
     /**
      * Clears the counter.
      */
     public void clear() {
-        counters.forEach(value -> value.set(0));
-        totalCount.set(0);
-        totalSlots.set(1);
-        headSlot = 0;
-    }
-
-    void advanceHead() {
-        counters.get(slotAfter(headSlot)).set(0);
-        headSlot = slotAfter(headSlot);
-        totalSlots.incrementAndGet();
+        reset();
+        totalCount.reset();
     }
 
-    private int slotAfter(int slot) {
-        return (slot + 1) % windowSlots;
+    @Override
+    void resetSlot(int slot) {
+        counters.get(slot).reset();
     }
 
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Maintains a sliding window of value distributions, e.g. of latencies. The
+ * window is made of a number of one second slots, and values recorded by
+ * #record() are added to the current slot. Every second the window slides
+ * and the values of the oldest slot are dropped. Percentiles may be queried
+ * over the last N window slots.
+ * <p>
+ * Values are counted in log-linear buckets, each power of two range being
+ * split in eight, so percentiles are reported with a relative error of at
+ * most 12.5%. Bucket counts are striped, so that concurrent callers do not
+ * contend on a single memory location.
+ */
+public final class SlidingWindowHistogram extends SlidingWindow {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    // buckets[slot][bucket]
+    private final LongAdder[][] buckets;
+    private final LongAdder[] counts;
+    private final LongAdder[] sums;
+
+    /**
+     * Creates a new sliding window histogram with the given total number of
+     * window slots.
+     *
+     * @param windowSlots total number of window slots
+     */
+    public SlidingWindowHistogram(int windowSlots) {
+        this(windowSlots, System::nanoTime);
+    }
+
+    /**
+     * Creates a new sliding window histogram with the given total number of
+     * window slots and clock.
+     *
+     * @param windowSlots total number of window slots
+     * @param clock       source of the current time in nanoseconds
+     */
+    SlidingWindowHistogram(int windowSlots, LongSupplier clock) {
+        super(windowSlots, clock);
+        this.buckets = new LongAdder[windowSlots][BUCKETS];
+        this.counts = new LongAdder[windowSlots];
+        this.sums = new LongAdder[windowSlots];
+        for (int slot = 0; slot < windowSlots; slot++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                buckets[slot][bucket] = new LongAdder();
+            }
+            counts[slot] = new LongAdder();
+            sums[slot] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the given value in the current window slot.
+     *
+     * @param value value to record; negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        int slot = headSlot();
+        buckets[slot][index(v)].increment();
+        counts[slot].increment();
+        sums[slot].add(v);
+    }
+
+    /**
+     * Gets the number of values recorded in all slots.
+     *
+     * @return number of values
+     */
+    public long getWindowCount() {
+        return getWindowCount(windowSlots);
+    }
+
+    /**
+     * Gets the number of values recorded in the last N window slots.
+     *
+     * @param slots number of slots to include
+     * @return number of values
+     */
+    public long getWindowCount(int slots) {
+        return sum(counts, slots);
+    }
+
+    /**
+     * Returns the mean of the values recorded in all slots.
+     *
+     * @return the mean; 0 if no value was recorded
+     */
+    public double getWindowMean() {
+        return getWindowMean(windowSlots);
+    }
+
+    /**
+     * Returns the mean of the values recorded in the last N window slots.
+     *
+     * @param slots number of slots to include
+     * @return the mean; 0 if no value was recorded
+     */
+    public double getWindowMean(int slots) {
+        long count = sum(counts, slots);
+        return count == 0 ? 0 : sum(sums, slots) / (double) count;
+    }
+
+    /**
+     * Returns the given percentile of the values recorded in all slots.
+     *
+     * @param percentile percentile in (0, 100]
+     * @return upper bound of the bucket holding the percentile; 0 if no
+     * value was recorded
+     */
+    public long getWindowPercentile(double percentile) {
+        return getWindowPercentile(percentile, windowSlots);
+    }
+
+    /**
+     * Returns the given percentile of the values recorded in the last N
+     * window slots.
+     *
+     * @param percentile percentile in (0, 100]
+     * @param slots      number of slots to include
+     * @return upper bound of the bucket holding the percentile; 0 if no
+     * value was recorded
+     */
+    public long getWindowPercentile(double percentile, int slots) {
+        checkArgument(percentile > 0 && percentile <= 100,
+                      "Percentile must be in (0, 100]");
+        checkSlots(slots);
+
+        int head = headSlot();
+        int n = getMinSlots(slots);
+        long[] totals = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < n; i++) {
+            LongAdder[] slotBuckets = buckets[slotBefore(head, i)];
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long c = slotBuckets[bucket].sum();
+                totals[bucket] += c;
+                count += c;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += totals[bucket];
+            if (seen >= rank) {
+                return upperBound(bucket);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Clears the histogram.
+     */
+    public void clear() {
+        reset();
+    }
+
+    @Override
+    void resetSlot(int slot) {
+        for (LongAdder bucket : buckets[slot]) {
+            bucket.reset();
+        }
+        counts[slot].reset();
+        sums[slot].reset();
+    }
+
+    private long sum(LongAdder[] adders, int slots) {
+        checkSlots(slots);
+        int head = headSlot();
+        int n = getMinSlots(slots);
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += adders[slotBefore(head, i)].sum();
+        }
+        return sum;
+    }
+
+    private void checkSlots(int slots) {
+        checkArgument(slots > 0 && slots <= windowSlots,
+                      "Requested window must be within the total window slots");
+    }
+
+    // Values below SUB_BUCKETS have a bucket of their own; above, each power
+    // of two range is split in SUB_BUCKETS buckets of equal width.
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) - 1);
+    }
+}
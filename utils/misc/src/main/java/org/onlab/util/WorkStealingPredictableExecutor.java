@@ -0,0 +1,470 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.util.PredictableExecutor.PickyFutureTask;
+import org.onlab.util.PredictableExecutor.PickyTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Work-stealing variant of {@link PredictableExecutor}.
+ * <p>
+ * Tasks are queued per hint value and the tasks sharing a hint run one at
+ * a time, in order. Each hint is assigned to a bucket served by one worker
+ * thread, like in {@link PredictableExecutor}, but a worker that runs out
+ * of work steals whole per-hint queues from the busiest other bucket. A
+ * hot hint thus no longer holds up the other hints of its bucket while
+ * other workers idle. Unlike {@link PredictableExecutor}, tasks of distinct
+ * hints sharing a bucket are not ordered with respect to each other.
+ * <p>
+ * Workers with nothing to run or steal park until a queue becomes ready.
+ * The number of tasks queued and the time tasks waited before running
+ * are tracked per bucket.
+ */
+public class WorkStealingPredictableExecutor
+        extends AbstractExecutorService
+        implements ExecutorService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkStealingPredictableExecutor.class);
+
+    // tasks run from a per-hint queue before giving the other queues a turn
+    private static final int BATCH_SIZE = 64;
+    private static final int WAIT_TIME_WINDOW_SLOTS = 10;
+
+    private final List<Worker> workers;
+    private final ConcurrentMap<Integer, KeyQueue> keyQueues = new ConcurrentHashMap<>();
+    private final LongAdder steals = new LongAdder();
+    private final CountDownLatch terminated;
+    private volatile boolean shutdown;
+
+    // per-hint queues in the ready deques of all workers; may briefly be
+    // negative as it is incremented after the queue is offered
+    private final AtomicInteger readyQueues = new AtomicInteger();
+    // parked workers; incremented under idleLock, read without it
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final Lock idleLock = new ReentrantLock();
+    private final Condition workReady = idleLock.newCondition();
+
+    /**
+     * Creates {@link WorkStealingPredictableExecutor} instance.
+     *
+     * @param buckets number of buckets or 0 to match available processors
+     * @param threadFactory {@link ThreadFactory} to use to create threads
+     * @return {@link WorkStealingPredictableExecutor}
+     */
+    public static WorkStealingPredictableExecutor newWorkStealingPredictableExecutor(
+            int buckets, ThreadFactory threadFactory) {
+        return new WorkStealingPredictableExecutor(buckets, threadFactory);
+    }
+
+    /**
+     * Creates {@link WorkStealingPredictableExecutor} instance.
+     *
+     * @param buckets number of buckets or 0 to match available processors
+     * @param threadFactory {@link ThreadFactory} to use to create threads
+     */
+    public WorkStealingPredictableExecutor(int buckets, ThreadFactory threadFactory) {
+        checkArgument(buckets >= 0, "number of buckets must be non zero");
+        checkNotNull(threadFactory);
+        if (buckets == 0) {
+            buckets = Runtime.getRuntime().availableProcessors();
+        }
+        List<Worker> list = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; ++i) {
+            list.add(new Worker(i));
+        }
+        this.workers = ImmutableList.copyOf(list);
+        this.terminated = new CountDownLatch(buckets);
+        workers.forEach(worker -> threadFactory.newThread(worker).start());
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return number of buckets
+     */
+    public int buckets() {
+        return workers.size();
+    }
+
+    /**
+     * Returns the number of tasks with hints assigned to the given bucket
+     * which are waiting to run.
+     *
+     * @param bucket bucket index
+     * @return number of queued tasks
+     */
+    public long queueLength(int bucket) {
+        return workers.get(bucket).queued.sum();
+    }
+
+    /**
+     * Returns the given percentile of the time tasks with hints assigned to
+     * the given bucket waited before running, over the last ten seconds.
+     *
+     * @param bucket     bucket index
+     * @param percentile percentile in (0, 100]
+     * @return wait time in microseconds
+     */
+    public long waitTimeMicros(int bucket, double percentile) {
+        return workers.get(bucket).waitTimes.getWindowPercentile(percentile);
+    }
+
+    /**
+     * Returns the number of per-hint queues stolen by idle workers.
+     *
+     * @return number of steals
+     */
+    public long stealCount() {
+        return steals.sum();
+    }
+
+    /**
+     * Returns an executor running all given commands with the given hint.
+     *
+     * @param hint value to pick the queue to run on
+     * @return executor
+     */
+    public Executor forHint(int hint) {
+        return command -> execute(command, hint);
+    }
+
+    /**
+     * Executes given command at some time in the future.
+     *
+     * @param command the {@link Runnable} task
+     * @param hint value to pick the queue to run on
+     */
+    public void execute(Runnable command, int hint) {
+        checkNotNull(command);
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        Worker home = workers.get(Math.abs(hint % workers.size()));
+        home.queued.increment();
+        Task task = new Task(command, System.nanoTime());
+        KeyQueue[] ready = new KeyQueue[1];
+        keyQueues.compute(hint, (k, queue) -> {
+            if (queue == null) {
+                queue = new KeyQueue(hint, home);
+            }
+            queue.tasks.add(task);
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                ready[0] = queue;
+            }
+            return queue;
+        });
+        if (ready[0] != null) {
+            offer(home, ready[0]);
+        }
+    }
+
+    /**
+     * Executes given command at some time in the future.
+     *
+     * @param command the {@link Runnable} task
+     * @param hintFunction Function to compute hint value
+     */
+    public void execute(Runnable command, Function<Runnable, Integer> hintFunction) {
+        execute(command, hintFunction.apply(command));
+    }
+
+    /**
+     * Submits a task for execution and returns a future completed once the
+     * task has run.
+     *
+     * @param command the {@link Runnable} task
+     * @param hint value to pick the queue to run on
+     * @return completable future representing the pending results
+     */
+    public CompletableFuture<Void> submit(Runnable command, int hint) {
+        return CompletableFuture.runAsync(command, forHint(hint));
+    }
+
+    private static int hint(Runnable command) {
+        if (command instanceof PickyTask) {
+            return ((PickyTask) command).hint();
+        } else {
+            return Objects.hashCode(command);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, WorkStealingPredictableExecutor::hint);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        // parked workers exit if there is nothing left to run
+        signalIdle(true);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        keyQueues.values().forEach(queue -> {
+            Task task;
+            while ((task = queue.tasks.poll()) != null) {
+                queue.home.queued.decrement();
+                pending.add(task.command);
+            }
+        });
+        signalIdle(true);
+        workers.forEach(worker -> {
+            Thread thread = worker.thread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        });
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    @Override
+    protected <T> PickyFutureTask<T> newTaskFor(Callable<T> callable) {
+        return new PickyFutureTask<>(callable);
+    }
+
+    @Override
+    protected <T> PickyFutureTask<T> newTaskFor(Runnable runnable, T value) {
+        return new PickyFutureTask<>(runnable, value);
+    }
+
+    /**
+     * Makes the given per-hint queue ready on the given worker, waking up a
+     * parked worker if any.
+     *
+     * @param worker worker
+     * @param queue  per-hint queue
+     */
+    private void offer(Worker worker, KeyQueue queue) {
+        worker.ready.offer(queue);
+        readyQueues.incrementAndGet();
+        if (idleWorkers.get() > 0) {
+            signalIdle(false);
+        }
+    }
+
+    private void signalIdle(boolean all) {
+        idleLock.lock();
+        try {
+            if (all) {
+                workReady.signalAll();
+            } else {
+                workReady.signal();
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the given per-hint queue if it has no more tasks.
+     *
+     * @param queue per-hint queue
+     * @return true if the queue was removed
+     */
+    private boolean release(KeyQueue queue) {
+        boolean[] released = new boolean[1];
+        keyQueues.computeIfPresent(queue.hint, (k, q) -> {
+            if (q == queue && q.tasks.isEmpty()) {
+                released[0] = true;
+                return null;
+            }
+            return q;
+        });
+        if (released[0] && shutdown && keyQueues.isEmpty()) {
+            signalIdle(true);
+        }
+        return released[0];
+    }
+
+    private static final class Task {
+        private final Runnable command;
+        private final long queuedNanos;
+
+        private Task(Runnable command, long queuedNanos) {
+            this.command = command;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    /**
+     * Tasks sharing a hint; run by a single worker at a time.
+     */
+    private static final class KeyQueue {
+        private final int hint;
+        private final Worker home;
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+        // guarded by the keyQueues entry; true while in a ready deque or running
+        private boolean scheduled;
+
+        private KeyQueue(int hint, Worker home) {
+            this.hint = hint;
+            this.home = home;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final LinkedBlockingDeque<KeyQueue> ready = new LinkedBlockingDeque<>();
+        private final LongAdder queued = new LongAdder();
+        private final SlidingWindowHistogram waitTimes = new SlidingWindowHistogram(WAIT_TIME_WINDOW_SLOTS);
+        private volatile Thread thread;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                // only shutdown ends the worker; interrupts are cleared
+                // between tasks, as ThreadPoolExecutor does
+                while (true) {
+                    KeyQueue queue = ready.poll();
+                    if (queue == null) {
+                        queue = steal();
+                    }
+                    if (queue != null) {
+                        readyQueues.decrementAndGet();
+                        runBatch(queue);
+                    } else if (shutdown && keyQueues.isEmpty()) {
+                        break;
+                    } else {
+                        try {
+                            park();
+                        } catch (InterruptedException e) {
+                            log.debug("Bucket {} worker interrupted while idle", index);
+                        }
+                    }
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+        // Waits until a queue is ready on any worker, or until shut down
+        // with nothing left to run
+        private void park() throws InterruptedException {
+            idleLock.lock();
+            try {
+                // offer() increments readyQueues before reading idleWorkers,
+                // so either it signals or the check below sees the queue
+                idleWorkers.incrementAndGet();
+                while (readyQueues.get() <= 0 && !(shutdown && keyQueues.isEmpty())) {
+                    workReady.await();
+                }
+            } finally {
+                idleWorkers.decrementAndGet();
+                idleLock.unlock();
+            }
+        }
+
+        // Takes the latest ready queue of the worker with the most ready queues
+        private KeyQueue steal() {
+            Worker victim = null;
+            int most = 0;
+            for (Worker worker : workers) {
+                int size = worker.ready.size();
+                if (worker != this && size > most) {
+                    victim = worker;
+                    most = size;
+                }
+            }
+            KeyQueue queue = victim == null ? null : victim.ready.pollLast();
+            if (queue != null) {
+                steals.increment();
+            }
+            return queue;
+        }
+
+        private void runBatch(KeyQueue queue) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Task task = queue.tasks.poll();
+                if (task == null) {
+                    if (release(queue)) {
+                        return;
+                    }
+                    // a task was added meanwhile
+                    continue;
+                }
+                queue.home.queued.decrement();
+                queue.home.waitTimes.record(
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - task.queuedNanos));
+                try {
+                    task.command.run();
+                } catch (Throwable e) {
+                    log.warn("Uncaught exception in bucket {} task", index, e);
+                } finally {
+                    // a task leaving the flag set must not affect the next one
+                    Thread.interrupted();
+                }
+            }
+            // give the other queues a turn; this one may be stolen meanwhile
+            offer(this, queue);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Test of the compiled graph representation.
+ */
+public class CompiledGraphTest extends GraphTest {
+
+    private static final int VERTEXES = 500;
+    private static final int DEGREE = 4;
+    private static final int SEARCHES = 10;
+
+    private final Logger log = getLogger(getClass());
+
+    @Test
+    public void compile() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        CompiledGraph<TestVertex, TestEdge> compiled = CompiledGraph.of(graph);
+        assertEquals("incorrect vertex count", 8, compiled.vertexCount());
+        assertEquals("incorrect edge count", 12, compiled.edgeCount());
+
+        for (TestVertex vertex : graph.getVertexes()) {
+            int v = compiled.index(vertex);
+            assertSame("incorrect vertex", vertex, compiled.vertex(v));
+            Set<TestEdge> edges = new HashSet<>();
+            for (int e = compiled.firstEdge(v); e < compiled.endEdge(v); e++) {
+                edges.add(compiled.edge(e));
+                assertSame("incorrect target", compiled.edge(e).dst(),
+                           compiled.vertex(compiled.target(e)));
+            }
+            assertEquals("incorrect edges", graph.getEdgesFrom(vertex), edges);
+        }
+        assertEquals("unknown vertex", -1, compiled.index(Z));
+    }
+
+    @Test
+    public void reuse() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        assertSame("immutable graph should be compiled once",
+                   CompiledGraph.of(graph), CompiledGraph.of(graph));
+
+        MutableGraph<TestVertex, TestEdge> mutable =
+                new MutableAdjacencyListsGraph<>(vertexes(), edges());
+        CompiledGraph<TestVertex, TestEdge> compiled = CompiledGraph.of(mutable);
+        assertNotSame("mutable graph should be compiled again",
+                      compiled, CompiledGraph.of(mutable));
+        mutable.removeEdge(new TestEdge(A, B, W1));
+        assertEquals("incorrect edge count", 11, CompiledGraph.of(mutable).edgeCount());
+    }
+
+    /**
+     * Searches a random graph of many vertexes, checking that the costs found
+     * are consistent with the parent edges, and logs the search times.
+     */
+    @Test
+    public void searchLargeGraph() {
+        Random random = new Random(42);
+        TestVertex[] vertexes = new TestVertex[VERTEXES];
+        for (int i = 0; i < VERTEXES; i++) {
+            vertexes[i] = new TestVertex("V" + i);
+        }
+        ImmutableSet.Builder<TestEdge> edges = ImmutableSet.builder();
+        for (int i = 0; i < VERTEXES; i++) {
+            // a ring keeps the graph connected
+            edges.add(new TestEdge(vertexes[i], vertexes[(i + 1) % VERTEXES],
+                                   new TestDoubleWeight(1 + random.nextInt(10))));
+            for (int d = 1; d < DEGREE; d++) {
+                edges.add(new TestEdge(vertexes[i], vertexes[random.nextInt(VERTEXES)],
+                                       new TestDoubleWeight(1 + random.nextInt(10))));
+            }
+        }
+        graph = new AdjacencyListsGraph<>(ImmutableSet.copyOf(vertexes), edges.build());
+
+        GraphPathSearch<TestVertex, TestEdge> dijkstra = new DijkstraGraphSearch<>();
+        GraphPathSearch<TestVertex, TestEdge> bfs = new BreadthFirstSearch<>();
+        long dijkstraTime = 0;
+        long bfsTime = 0;
+        for (int i = 0; i < SEARCHES; i++) {
+            TestVertex src = vertexes[random.nextInt(VERTEXES)];
+            TestVertex dst = vertexes[random.nextInt(VERTEXES)];
+
+            long start = System.nanoTime();
+            GraphPathSearch.Result<TestVertex, TestEdge> result =
+                    dijkstra.search(graph, src, null, weigher, GraphPathSearch.ALL_PATHS);
+            dijkstraTime += System.nanoTime() - start;
+            assertEquals("all vertexes should be reached", VERTEXES, result.costs().size());
+            result.parents().forEach((vertex, parents) -> parents.forEach(edge -> assertEquals(
+                    "inconsistent cost", result.costs().get(vertex),
+                    result.costs().get(edge.src()).merge(edge.weight()))));
+
+            start = System.nanoTime();
+            Set<Path<TestVertex, TestEdge>> paths =
+                    bfs.search(graph, src, dst, hopWeigher, 1).paths();
+            bfsTime += System.nanoTime() - start;
+            assertTrue("path expected", src.equals(dst) || paths.size() == 1);
+        }
+        log.info("{} searches on {} vertexes: Dijkstra {} ms, BFS {} ms", SEARCHES, VERTEXES,
+                 TimeUnit.NANOSECONDS.toMillis(dijkstraTime), TimeUnit.NANOSECONDS.toMillis(bfsTime));
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Indexed heap data structure tests.
+ */
+public class IndexedHeapTest {
+
+    private final int[] keys = {6, 4, 5, 9, 8, 3, 2, 1, 7, 0};
+
+    private IndexedHeap heap() {
+        IndexedHeap h = new IndexedHeap(keys.length, (i, j) -> Integer.compare(keys[i], keys[j]));
+        for (int i = 0; i < keys.length; i++) {
+            h.insert(i);
+        }
+        return h;
+    }
+
+    @Test
+    public void empty() {
+        IndexedHeap h = new IndexedHeap(3, (i, j) -> Integer.compare(i, j));
+        assertTrue("should be empty", h.isEmpty());
+        assertEquals("incorrect size", 0, h.size());
+        assertFalse("no item expected", h.contains(1));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void extractEmpty() {
+        new IndexedHeap(3, (i, j) -> Integer.compare(i, j)).extractMin();
+    }
+
+    @Test
+    public void extractMin() {
+        IndexedHeap h = heap();
+        assertEquals("incorrect size", 10, h.size());
+        assertEquals("incorrect min", 9, h.min());
+        int previous = -1;
+        while (!h.isEmpty()) {
+            int id = h.extractMin();
+            assertFalse("should not contain extracted item", h.contains(id));
+            assertTrue("incorrect order", keys[id] > previous);
+            previous = keys[id];
+        }
+    }
+
+    @Test
+    public void decreaseKey() {
+        IndexedHeap h = heap();
+        assertEquals("incorrect min", 9, h.extractMin());
+        keys[3] = -1;
+        h.decreaseKey(3);
+        assertEquals("incorrect min", 3, h.extractMin());
+        assertEquals("incorrect min", 7, h.extractMin());
+        h.insert(9);
+        assertEquals("incorrect min", 9, h.extractMin());
+        assertEquals("incorrect size", 7, h.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateInsert() {
+        heap().insert(1);
+    }
+
+}
@@ -58,6 +58,19 @@ public class AbstractAccumulatorTest {
         assertEquals("incorrect batch", "abcde", accumulator.batch);
     }
 
+    @Test
+    public void flush() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.ready = false;
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        accumulator.flush();
+        assertEquals("incorrect batch", "ab", accumulator.batch);
+        assertEquals("incorrect batch count", 1, accumulator.batchCount);
+        accumulator.flush();
+        assertEquals("should not have fired again", 1, accumulator.batchCount);
+    }
+
     @Test
     public void timeTrigger() {
         TestAccumulator accumulator = new TestAccumulator();
@@ -80,6 +80,26 @@ public class ImmutableByteSequenceTest {
         assertThat(errStr, bsBuffer.asArray()[63], is(equalTo(byteValue)));
     }
 
+    @Test
+    public void testWrap() throws Exception {
+        byte[] arrayValue = new byte[]{0, 1, 2, 3, 4, 5};
+        // Wrap a slice, as done with protobuf byte strings.
+        ByteBuffer buffer = ByteBuffer.wrap(arrayValue, 2, 3).asReadOnlyBuffer();
+
+        ImmutableByteSequence bsWrap = ImmutableByteSequence.wrap(buffer);
+
+        assertThat("wrapped sequence must have the size of the remaining bytes",
+                   bsWrap.size(), is(3));
+        assertThat("wrapped sequence must be equal to a copy",
+                   bsWrap, is(equalTo(ImmutableByteSequence.copyFrom(new byte[]{2, 3, 4}))));
+        assertThat("wrapped sequence must have a printable value",
+                   bsWrap.toString(), is("0x20304"));
+        assertThat(bsWrap.asReadOnlyBuffer().getShort(), is((short) 0x0203));
+
+        thrown.expect(IllegalArgumentException.class);
+        ImmutableByteSequence.wrap(ByteBuffer.wrap(arrayValue));
+    }
+
     @Test
     public void testEndianness() throws Exception {
 
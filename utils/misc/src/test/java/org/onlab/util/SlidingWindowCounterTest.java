@@ -19,6 +19,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -174,6 +180,52 @@ public class SlidingWindowCounterTest {
         assertEquals(6, counter.getOverallCount());
     }
 
+    @Test
+    public void testDeadline() {
+        AtomicLong clock = new AtomicLong();
+        SlidingWindowCounter counter = new SlidingWindowCounter(3, clock::get);
+
+        counter.incrementCount(1);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        counter.incrementCount(2);
+        assertEquals(3, counter.getWindowCount(1));
+
+        // the window slides on access once the deadline has passed
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, counter.getWindowCount(1));
+        assertEquals(3, counter.getWindowCount(2));
+        counter.incrementCount(4);
+
+        // catches up on all elapsed slots
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(4, counter.getWindowCount());
+        assertEquals(7, counter.getOverallCount());
+        assertEquals(7 / 4.0, counter.getOverallRate(), 0.01);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, counter.getWindowCount());
+        assertEquals(7 / 14.0, counter.getOverallRate(), 0.01);
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        int threads = 8;
+        int increments = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < increments; i++) {
+                    counter.incrementCount();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * increments, counter.getOverallCount());
+    }
+
     @Test
     public void testCornerCases() {
         try {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the sliding window histogram.
+ */
+public class SlidingWindowHistogramTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SlidingWindowHistogram histogram = new SlidingWindowHistogram(3, clock::get);
+
+    @Test
+    public void testBuckets() {
+        for (long v = 0; v < 1 << 16; v++) {
+            long upper = SlidingWindowHistogram.upperBound(SlidingWindowHistogram.index(v));
+            assertTrue(upper >= v);
+            assertTrue(upper - v <= v / 8);
+        }
+        assertEquals(Long.MAX_VALUE,
+                     SlidingWindowHistogram.upperBound(SlidingWindowHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        assertEquals(0, histogram.getWindowPercentile(50));
+        assertEquals(0, histogram.getWindowMean(), 0.01);
+
+        for (int v = 1; v <= 100; v++) {
+            histogram.record(v);
+        }
+        assertEquals(100, histogram.getWindowCount());
+        assertEquals(50.5, histogram.getWindowMean(), 0.01);
+        assertEquals(51, histogram.getWindowPercentile(50));
+        assertEquals(103, histogram.getWindowPercentile(99));
+        assertEquals(103, histogram.getWindowPercentile(100));
+        assertEquals(1, histogram.getWindowPercentile(1));
+
+        histogram.record(-5);
+        assertEquals(0, histogram.getWindowPercentile(0.5));
+    }
+
+    @Test
+    public void testSlide() {
+        histogram.record(1000);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        histogram.record(10);
+        histogram.record(10);
+
+        assertEquals(2, histogram.getWindowCount(1));
+        assertEquals(10, histogram.getWindowPercentile(100, 1));
+        assertEquals(3, histogram.getWindowCount());
+        assertEquals(1023, histogram.getWindowPercentile(100));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(2, histogram.getWindowCount());
+        assertEquals(10, histogram.getWindowPercentile(100));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, histogram.getWindowCount());
+
+        histogram.record(7);
+        histogram.clear();
+        assertEquals(0, histogram.getWindowCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        histogram.getWindowPercentile(0);
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        int threads = 8;
+        int records = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < records; i++) {
+                    histogram.record(i % 100);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * records, histogram.getWindowCount());
+        assertEquals(103, histogram.getWindowPercentile(100));
+    }
+}
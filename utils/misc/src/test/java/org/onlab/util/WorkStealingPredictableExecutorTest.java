@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the work-stealing predictable executor.
+ */
+public class WorkStealingPredictableExecutorTest {
+
+    private WorkStealingPredictableExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new WorkStealingPredictableExecutor(2, Tools.namedThreads("Thread-%d"));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrdering() throws InterruptedException {
+        int tasks = 1000;
+        List<Integer> first = Lists.newArrayList();
+        List<Integer> second = Lists.newArrayList();
+        CountDownLatch latch = new CountDownLatch(2 * tasks);
+        for (int i = 0; i < tasks; i++) {
+            int value = i;
+            executor.execute(() -> {
+                first.add(value);
+                latch.countDown();
+            }, 0);
+            executor.execute(() -> {
+                second.add(value);
+                latch.countDown();
+            }, 2);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        List<Integer> expected = IntStream.range(0, tasks).boxed().collect(Collectors.toList());
+        assertEquals(expected, first);
+        assertEquals(expected, second);
+    }
+
+    @Test
+    public void testStealing() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        String[] threads = new String[2];
+
+        // hints 0 and 2 share bucket 0
+        executor.execute(() -> {
+            threads[0] = Thread.currentThread().getName();
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0);
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        executor.execute(() -> {
+            threads[1] = Thread.currentThread().getName();
+            done.countDown();
+        }, 2);
+        assertTrue("Not stolen from the busy bucket", done.await(10, TimeUnit.SECONDS));
+        assertNotEquals(threads[0], threads[1]);
+        assertEquals(1, executor.stealCount());
+
+        // queued behind the blocked task of the same hint
+        executor.execute(() -> { }, 0);
+        assertEquals(1, executor.queueLength(0));
+        assertEquals(0, executor.queueLength(1));
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, executor.queueLength(0));
+        assertTrue(executor.waitTimeMicros(0, 100) > 0);
+    }
+
+    @Test
+    public void testSubmit() throws Exception {
+        executor.submit(() -> { }, 1).get(10, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(42), executor.submit(() -> 42).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWorkerSurvivesError() throws Exception {
+        executor.execute(() -> {
+            throw new AssertionError("expected");
+        }, 1);
+        executor.submit(() -> { }, 1).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testWorkerSurvivesInterrupt() throws Exception {
+        for (int hint = 0; hint < 2; hint++) {
+            executor.submit(() -> Thread.currentThread().interrupt(), hint).get(10, TimeUnit.SECONDS);
+        }
+        AtomicBoolean interrupted = new AtomicBoolean();
+        for (int hint = 0; hint < 2; hint++) {
+            executor.submit(() -> interrupted.compareAndSet(false, Thread.currentThread().isInterrupted()),
+                            hint).get(10, TimeUnit.SECONDS);
+        }
+        assertFalse("Interrupt leaked into the next task", interrupted.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdownWakesIdleWorkers() throws Exception {
+        // Let the workers park, then run a task after a while.
+        Thread.sleep(50);
+        executor.submit(() -> { }, 0).get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
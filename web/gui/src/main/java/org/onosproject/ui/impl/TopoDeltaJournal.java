@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.event.Event;
+import org.onosproject.net.Link;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.link.LinkEvent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Versioned journal of the most recent topology change per element, used
+ * by the topology view to resume a reconnecting client from the last
+ * version it has seen, rather than replaying the entire topology.
+ * <p>
+ * Only the latest event for each device, device port, link and host is
+ * retained, so the journal size is bounded by the number of elements that have changed,
+ * capped at the configured capacity. Versions are local to this journal
+ * instance; the epoch identifies the instance so that clients failing over
+ * to another cluster member fall back to a full snapshot.
+ * <p>
+ * The journal is only fed while at least one view is attached to it; when
+ * the first view attaches after a period without any, the floor is raised
+ * past every version handed out so far, as changes made in the meantime
+ * were never recorded.
+ */
+final class TopoDeltaJournal {
+
+    private static final String DEVICE = "device:";
+    private static final String PORT = "port:";
+    private static final String LINK = "link:";
+    private static final String HOST = "host:";
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final int capacity;
+
+    // Entries are kept in ascending version order; re-recorded keys move to the end
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private long version = 0;
+    private long floor = 0;
+    private int feeders = 0;
+
+    /**
+     * Creates a new journal retaining at most the given number of elements.
+     *
+     * @param capacity maximum number of element entries to retain
+     */
+    TopoDeltaJournal(int capacity) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the epoch identifying this journal instance.
+     *
+     * @return journal epoch
+     */
+    String epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the most recent version assigned by this journal.
+     *
+     * @return current version
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Notes that a view has started feeding topology events to this journal.
+     * If no view was feeding it until now, the journal cannot account for
+     * changes made in the meantime and clients resuming from any earlier
+     * version will be asked to take a full snapshot instead.
+     */
+    synchronized void attach() {
+        if (feeders++ == 0) {
+            floor = ++version;
+        }
+    }
+
+    /**
+     * Notes that a view has stopped feeding topology events to this journal.
+     */
+    synchronized void detach() {
+        if (feeders > 0) {
+            feeders--;
+        }
+    }
+
+    /**
+     * Records the given topology event and returns the version assigned
+     * to it. Events that do not pertain to a journaled element are ignored
+     * and yield the current version. Recording the very same event instance
+     * more than once, as happens when several views listen for it, is
+     * idempotent.
+     *
+     * @param event topology event
+     * @return version of the event
+     */
+    synchronized long record(Event<?, ?> event) {
+        String key = key(event);
+        if (key == null) {
+            return version;
+        }
+        Entry prev = entries.get(key);
+        if (prev != null && prev.event == event) {
+            return prev.version;
+        }
+        entries.remove(key);
+        entries.put(key, new Entry(++version, event));
+
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            floor = it.next().version;
+            it.remove();
+        }
+        return version;
+    }
+
+    /**
+     * Returns the latest event of every element changed after the given
+     * version, in version order, or null if the journal can no longer
+     * account for all changes since that version.
+     *
+     * @param since version last seen by the client
+     * @return list of events; null if a full snapshot is required
+     */
+    synchronized List<Event<?, ?>> since(long since) {
+        if (since < floor || since > version) {
+            return null;
+        }
+        ImmutableList.Builder<Event<?, ?>> builder = ImmutableList.builder();
+        entries.values().stream()
+                .filter(e -> e.version > since)
+                .forEach(e -> builder.add(e.event));
+        return builder.build();
+    }
+
+    /**
+     * Coalesces the given events so that only one event per element is
+     * retained, in order of each element's latest change. An element that
+     * was added and then updated within the batch is reported as added
+     * with its latest state, so that clients never see an update for an
+     * element they do not know about; port changes of a device added within
+     * the batch are subsumed by that addition.
+     *
+     * @param events batch of topology events
+     * @return coalesced events
+     */
+    static List<Event<?, ?>> coalesce(List<? extends Event<?, ?>> events) {
+        Map<Object, Event<?, ?>> latest = new LinkedHashMap<>();
+        for (Event<?, ?> event : events) {
+            String key = key(event);
+            Object k = key != null ? key : new Object();
+            if (isPortEvent(event) && isAdded(latest.get(DEVICE + ((DeviceEvent) event).subject().id()))) {
+                continue;
+            }
+            Event<?, ?> prev = latest.remove(k);
+            latest.put(k, prev == null ? event : merge(prev, event));
+        }
+        return ImmutableList.copyOf(latest.values());
+    }
+
+    // Merges two successive events for the same element
+    private static Event<?, ?> merge(Event<?, ?> prev, Event<?, ?> next) {
+        if (isAdded(prev) &&
+                next.type() != DeviceEvent.Type.DEVICE_REMOVED) {
+            return new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED,
+                                   ((DeviceEvent) next).subject());
+        }
+        if (prev instanceof LinkEvent &&
+                prev.type() == LinkEvent.Type.LINK_ADDED &&
+                next.type() != LinkEvent.Type.LINK_REMOVED) {
+            return new LinkEvent(LinkEvent.Type.LINK_ADDED,
+                                 ((LinkEvent) next).subject());
+        }
+        if (prev instanceof HostEvent &&
+                prev.type() == HostEvent.Type.HOST_ADDED &&
+                next.type() != HostEvent.Type.HOST_REMOVED) {
+            return new HostEvent(HostEvent.Type.HOST_ADDED,
+                                 ((HostEvent) next).subject());
+        }
+        return next;
+    }
+
+    // Indicates whether the given event reports a device addition
+    private static boolean isAdded(Event<?, ?> event) {
+        return event instanceof DeviceEvent &&
+                event.type() == DeviceEvent.Type.DEVICE_ADDED;
+    }
+
+    // Indicates whether the given event reports a change of a device port
+    private static boolean isPortEvent(Event<?, ?> event) {
+        return event instanceof DeviceEvent && ((DeviceEvent) event).port() != null;
+    }
+
+    // Produces the journal key of the element an event pertains to; port
+    // changes are keyed apart from their device so neither masks the other
+    static String key(Event<?, ?> event) {
+        if (isPortEvent(event)) {
+            DeviceEvent de = (DeviceEvent) event;
+            return PORT + de.subject().id() + "/" + de.port().number();
+        } else if (event instanceof DeviceEvent) {
+            return DEVICE + ((DeviceEvent) event).subject().id();
+        } else if (event instanceof LinkEvent) {
+            Link link = ((LinkEvent) event).subject();
+            return LINK + link.src() + "-" + link.dst();
+        } else if (event instanceof HostEvent) {
+            return HOST + ((HostEvent) event).subject().id();
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final Event<?, ?> event;
+
+        private Entry(long version, Event<?, ?> event) {
+            this.version = version;
+            this.event = event;
+        }
+    }
+}
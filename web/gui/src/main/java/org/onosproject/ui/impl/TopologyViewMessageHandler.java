@@ -85,10 +85,14 @@ import static org.onosproject.net.ConnectPoint.deviceConnectPoint;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.HostId.hostId;
 import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_ADDED;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
 import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_UPDATED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
 import static org.onosproject.net.host.HostEvent.Type.HOST_ADDED;
+import static org.onosproject.net.host.HostEvent.Type.HOST_MOVED;
+import static org.onosproject.net.host.HostEvent.Type.HOST_REMOVED;
 import static org.onosproject.net.link.LinkEvent.Type.LINK_ADDED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_REMOVED;
 import static org.onosproject.ui.JsonUtils.envelope;
 import static org.onosproject.ui.JsonUtils.string;
 import static org.onosproject.ui.topo.TopoJson.highlightsMessage;
@@ -133,6 +137,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private static final String SPRITE_DATA_RESPONSE = "spriteDataResponse";
     private static final String UPDATE_INSTANCE = "updateInstance";
     private static final String TOPO_START_DONE = "topoStartDone";
+    private static final String TOPO_DELTA = "topoDelta";
 
     // fields
     private static final String PAYLOAD = "payload";
@@ -162,6 +167,9 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private static final String DEACTIVATE = "deactivate";
     private static final String PURGE = "purge";
     private static final String TRAFFIC_TYPE = "trafficType";
+    private static final String EPOCH = "epoch";
+    private static final String VERSION = "version";
+    private static final String EVENTS = "events";
 
     // field values
     private static final String FLOW_STATS_BYTES = "flowStatsBytes";
@@ -185,6 +193,14 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private static final int MAX_BATCH_MS = 5000;
     private static final int MAX_IDLE_MS = 1000;
 
+    private static final int MAX_DELTA_EVENTS = 1000;
+    private static final int MAX_DELTA_BATCH_MS = 200;
+    private static final int MAX_DELTA_IDLE_MS = 50;
+    private static final int JOURNAL_CAPACITY = 100_000;
+
+    // Shared by all topology views so that reconnecting clients can resume
+    private static final TopoDeltaJournal JOURNAL = new TopoDeltaJournal(JOURNAL_CAPACITY);
+
     private ApplicationId appId;
 
     private final ClusterEventListener clusterListener = new InternalClusterListener();
@@ -196,6 +212,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private final FlowRuleListener flowListener = new InternalFlowListener();
 
     private final Accumulator<Event> eventAccummulator = new InternalEventAccummulator();
+    private final Accumulator<VersionedEvent> deltaAccumulator = new InternalDeltaAccumulator();
     private final ExecutorService msgSender =
             newSingleThreadExecutor(groupedThreads("onos/gui", "msg-sender", log));
 
@@ -207,6 +224,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private boolean summaryRunning = false;
 
     private volatile boolean listenersRemoved = false;
+    private boolean journalAttached = false;
 
 
     @Override
@@ -278,11 +296,14 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void process(ObjectNode payload) {
             addListeners();
-            sendAllInstances(null);
-            sendAllDevices();
-            sendAllLinks();
-            sendAllHosts();
-            sendTopoStartDone();
+            if (!resumeTopology(payload)) {
+                long version = JOURNAL.version();
+                sendAllInstances(null);
+                sendAllDevices();
+                sendAllLinks();
+                sendAllHosts();
+                sendTopoStartDone(version);
+            }
         }
     }
 
@@ -858,8 +879,87 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         return hostIds;
     }
 
-    private void sendTopoStartDone() {
-        sendMessage(JsonUtils.envelope(TOPO_START_DONE, objectNode()));
+    private void sendTopoStartDone(long version) {
+        ObjectNode payload = objectNode()
+                .put(EPOCH, JOURNAL.epoch())
+                .put(VERSION, version);
+        sendMessage(JsonUtils.envelope(TOPO_START_DONE, payload));
+    }
+
+    // Attempts to catch a reconnecting client up from the topology version
+    // it has last seen; returns false if a full snapshot is required.
+    private boolean resumeTopology(ObjectNode payload) {
+        if (payload == null || !payload.has(VERSION) ||
+                !JOURNAL.epoch().equals(string(payload, EPOCH))) {
+            return false;
+        }
+        long version = JOURNAL.version();
+        List<Event<?, ?>> events = JOURNAL.since(payload.get(VERSION).asLong());
+        if (events == null) {
+            return false;
+        }
+
+        List<ObjectNode> messages = new ArrayList<>(events.size());
+        events.forEach(event -> messages.add(currentStateMessage(event)));
+
+        sendAllInstances(null);
+        sendDelta(version, messages);
+        sendTopoStartDone(version);
+        log.debug("Resumed topology view with {} changes", messages.size());
+        return true;
+    }
+
+    // Produces a message reflecting the current state of the element to
+    // which the specified journaled event pertains.
+    private ObjectNode currentStateMessage(Event<?, ?> event) {
+        if (event instanceof DeviceEvent) {
+            DeviceEvent de = (DeviceEvent) event;
+            Device device = services.device().getDevice(de.subject().id());
+            return deviceMessage(device == null ?
+                                         new DeviceEvent(DEVICE_REMOVED, de.subject()) :
+                                         new DeviceEvent(DEVICE_ADDED, device));
+        } else if (event instanceof LinkEvent) {
+            LinkEvent le = (LinkEvent) event;
+            Link link = services.link().getLink(le.subject().src(), le.subject().dst());
+            return composeLinkMessage(link == null ?
+                                              new LinkEvent(LINK_REMOVED, le.subject()) :
+                                              new LinkEvent(LINK_ADDED, link));
+        }
+        HostEvent he = (HostEvent) event;
+        Host host = services.host().getHost(he.subject().id());
+        if (host == null) {
+            return hostMessage(new HostEvent(HOST_REMOVED, he.subject()));
+        }
+        return hostMessage(he.type() == HOST_MOVED ?
+                                   new HostEvent(HOST_MOVED, host, he.prevSubject()) :
+                                   new HostEvent(HOST_ADDED, host));
+    }
+
+    // Produces a message for a live topology event.
+    private ObjectNode deltaMessage(Event<?, ?> event) {
+        if (event instanceof DeviceEvent) {
+            return deviceMessage((DeviceEvent) event);
+        } else if (event instanceof LinkEvent) {
+            return composeLinkMessage((LinkEvent) event);
+        }
+        return hostMessage((HostEvent) event);
+    }
+
+    // Sends a batch of topology changes, tagged with the journal version
+    // the client will have caught up to once it applies them.
+    private void sendDelta(long version, List<ObjectNode> messages) {
+        ArrayNode events = arrayNode();
+        messages.forEach(events::add);
+        ObjectNode payload = objectNode()
+                .put(EPOCH, JOURNAL.epoch())
+                .put(VERSION, version);
+        payload.set(EVENTS, events);
+        sendMessage(JsonUtils.envelope(TOPO_DELTA, payload));
+    }
+
+    // Journals the given topology event and queues it for the next delta.
+    private void submitDelta(Event<?, ?> event) {
+        deltaAccumulator.add(new VersionedEvent(JOURNAL.record(event), event));
     }
 
     private synchronized void startSummaryMonitoring() {
@@ -888,6 +988,13 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         services.host().addListener(hostListener);
         services.intent().addListener(intentListener);
         services.flow().addListener(flowListener);
+
+        // Attach only once our listeners are in place, so the journal never
+        // vouches for changes that nobody recorded
+        if (!journalAttached) {
+            journalAttached = true;
+            JOURNAL.attach();
+        }
     }
 
     // Removes all internal listeners.
@@ -902,6 +1009,10 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
             services.intent().removeListener(intentListener);
             services.flow().removeListener(flowListener);
         }
+        if (journalAttached) {
+            journalAttached = false;
+            JOURNAL.detach();
+        }
     }
 
     // Cluster event listener.
@@ -920,13 +1031,11 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalMastershipListener implements MastershipListener {
         @Override
         public void event(MastershipEvent event) {
-            msgSender.execute(() -> {
-                sendAllInstances(UPDATE_INSTANCE);
-                Device device = services.device().getDevice(event.subject());
-                if (device != null) {
-                    sendMessage(deviceMessage(new DeviceEvent(DEVICE_UPDATED, device)));
-                }
-            });
+            msgSender.execute(() -> sendAllInstances(UPDATE_INSTANCE));
+            Device device = services.device().getDevice(event.subject());
+            if (device != null) {
+                submitDelta(new DeviceEvent(DEVICE_UPDATED, device));
+            }
         }
     }
 
@@ -937,7 +1046,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void event(DeviceEvent event) {
             if (event.type() != PORT_STATS_UPDATED) {
-                msgSender.execute(() -> sendMessage(deviceMessage(event)));
+                submitDelta(event);
                 msgSender.execute(traffic::pokeIntent);
                 eventAccummulator.add(event);
             }
@@ -950,7 +1059,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalLinkListener implements LinkListener {
         @Override
         public void event(LinkEvent event) {
-            msgSender.execute(() -> sendMessage(composeLinkMessage(event)));
+            submitDelta(event);
             msgSender.execute(traffic::pokeIntent);
             eventAccummulator.add(event);
         }
@@ -962,7 +1071,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalHostListener implements HostListener {
         @Override
         public void event(HostEvent event) {
-            msgSender.execute(() -> sendMessage(hostMessage(event)));
+            submitDelta(event);
             msgSender.execute(traffic::pokeIntent);
             eventAccummulator.add(event);
         }
@@ -1033,4 +1142,42 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
             }
         }
     }
+
+    // Topology event tagged with its journal version.
+    private static final class VersionedEvent {
+        private final long version;
+        private final Event<?, ?> event;
+
+        private VersionedEvent(long version, Event<?, ?> event) {
+            this.version = version;
+            this.event = event;
+        }
+    }
+
+    // Accumulates topology events and sends them to the client as a single
+    // coalesced delta message per flush.
+    private class InternalDeltaAccumulator extends AbstractAccumulator<VersionedEvent> {
+        protected InternalDeltaAccumulator() {
+            super(timer, MAX_DELTA_EVENTS, MAX_DELTA_BATCH_MS, MAX_DELTA_IDLE_MS);
+        }
+
+        @Override
+        public void processItems(List<VersionedEvent> items) {
+            long version = items.stream().mapToLong(item -> item.version).max().orElse(0);
+            List<Event<?, ?>> events = new ArrayList<>(items.size());
+            items.forEach(item -> events.add(item.event));
+
+            msgSender.execute(() -> {
+                try {
+                    List<ObjectNode> messages = new ArrayList<>();
+                    TopoDeltaJournal.coalesce(events)
+                            .forEach(event -> messages.add(deltaMessage(event)));
+                    sendDelta(version, messages);
+                } catch (Exception e) {
+                    log.warn("Unable to send topology delta due to {}", e.getMessage());
+                    log.debug("Boom!", e);
+                }
+            });
+        }
+    }
 }
@@ -31,7 +31,10 @@
 
     // internal state
     var handlerMap,
-        openListener;
+        openListener,
+        deltaHandler,
+        epoch = null,
+        version = null;
 
     // ==========================
 
@@ -58,17 +61,51 @@
             updateLink: tfs,
             removeLink: tfs,
 
-            topoStartDone: tfs,
+            topoStartDone: deltaHandler,
+            topoDelta: deltaHandler,
 
             spriteListResponse: tspr,
             spriteDataResponse: tspr,
         };
     }
 
+    // Tracks the topology version the client has caught up to, so that a
+    //  reconnect can resume from it rather than replaying the entire topology
+    function noteVersion(data) {
+        if (data.epoch !== epoch) {
+            epoch = data.epoch;
+            version = data.version;
+        } else if (version === null || data.version > version) {
+            version = data.version;
+        }
+    }
+
+    deltaHandler = {
+        topoStartDone: function (data) {
+            noteVersion(data);
+            tfs.topoStartDone(data);
+        },
+
+        // a batch of coalesced topology changes
+        topoDelta: function (data) {
+            data.events.forEach(function (ev) {
+                var h = handlerMap[ev.event];
+                if (h) {
+                    h[ev.event](ev.payload);
+                }
+            });
+            noteVersion(data);
+        },
+    };
+
+    function startPayload() {
+        return epoch === null ? {} : { epoch: epoch, version: version };
+    }
+
     function wsOpen(host, url) {
         $log.debug('TOPO: web socket open - cluster node:', host, 'URL:', url);
-        // Request batch of initial data from the new server
-        wss.sendEvent('topoStart');
+        // Request batch of initial (or missed) data from the new server
+        wss.sendEvent('topoStart', startPayload());
     }
 
 
@@ -99,7 +136,9 @@
             function start() {
                 // in case we fail over to a new server, listen for wsock-open
                 openListener = wss.addOpenListener(wsOpen);
-                wss.sendEvent('topoStart');
+                epoch = null;
+                version = null;
+                wss.sendEvent('topoStart', startPayload());
                 $log.debug('topo comms started');
             }
 
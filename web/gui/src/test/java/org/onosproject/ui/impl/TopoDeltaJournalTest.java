@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.event.Event;
+import org.onosproject.net.Device;
+import org.onosproject.net.DefaultPort;
+import org.onosproject.net.Link;
+import org.onosproject.net.Port;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.link.LinkEvent;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.NetTestTools.device;
+import static org.onosproject.net.NetTestTools.host;
+import static org.onosproject.net.NetTestTools.link;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for {@link TopoDeltaJournal}.
+ */
+public class TopoDeltaJournalTest {
+
+    private static final Device D1 = device("d1");
+    private static final Device D2 = device("d2");
+    private static final Link L1 = link("d1", 1, "d2", 1);
+    private static final Port P1 = new DefaultPort(D1, portNumber(1), true);
+
+    private TopoDeltaJournal journal;
+
+    @Before
+    public void setUp() {
+        journal = new TopoDeltaJournal(3);
+    }
+
+    @Test
+    public void basics() {
+        assertEquals("incorrect initial version", 0, journal.version());
+        assertEquals("unexpected changes", 0, journal.since(0).size());
+
+        DeviceEvent added = new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1);
+        assertEquals("incorrect version", 1, journal.record(added));
+        assertEquals("duplicate should not bump version", 1, journal.record(added));
+
+        LinkEvent link = new LinkEvent(LinkEvent.Type.LINK_ADDED, L1);
+        assertEquals("incorrect version", 2, journal.record(link));
+
+        List<Event<?, ?>> changes = journal.since(1);
+        assertEquals("incorrect change count", 1, changes.size());
+        assertSame("incorrect change", link, changes.get(0));
+        assertNull("future version should not resume", journal.since(3));
+    }
+
+    @Test
+    public void latestPerElement() {
+        journal.record(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1));
+        journal.record(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D2));
+        DeviceEvent updated = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, D1);
+        journal.record(updated);
+
+        List<Event<?, ?>> changes = journal.since(0);
+        assertEquals("incorrect change count", 2, changes.size());
+        assertSame("latest change should be last", updated, changes.get(1));
+    }
+
+    @Test
+    public void eviction() {
+        journal.record(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1));
+        journal.record(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D2));
+        journal.record(new LinkEvent(LinkEvent.Type.LINK_ADDED, L1));
+        journal.record(new HostEvent(HostEvent.Type.HOST_ADDED, host("h1", "d1")));
+
+        assertNull("evicted versions should require snapshot", journal.since(0));
+        assertEquals("incorrect change count", 3, journal.since(1).size());
+    }
+
+    @Test
+    public void coalesce() {
+        DeviceEvent removed = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, D2);
+        List<Event<?, ?>> events = TopoDeltaJournal.coalesce(ImmutableList.of(
+                new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1),
+                new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, D2),
+                new DeviceEvent(DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED, D1),
+                removed));
+
+        assertEquals("incorrect event count", 2, events.size());
+        assertEquals("add should survive update", DeviceEvent.Type.DEVICE_ADDED,
+                     events.get(0).type());
+        assertSame("incorrect removal", removed, events.get(1));
+    }
+
+    @Test
+    public void gapForcesSnapshot() {
+        journal.attach();
+        long seen = journal.record(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1));
+        journal.detach();
+
+        // Changes made now go unrecorded
+        journal.attach();
+        assertNull("gap should require snapshot", journal.since(seen));
+        assertNotNull("post-gap version should resume", journal.since(journal.version()));
+
+        // Another view attaching while fed should not invalidate versions
+        long current = journal.version();
+        journal.attach();
+        assertNotNull("continuous journal should resume", journal.since(current));
+    }
+
+    @Test
+    public void portsKeyedApart() {
+        DeviceEvent updated = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, D1);
+        DeviceEvent port = new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, D1, P1);
+        List<Event<?, ?>> events = TopoDeltaJournal.coalesce(ImmutableList.of(updated, port));
+        assertEquals("device and port changes should both survive", ImmutableList.of(updated, port), events);
+
+        journal.record(updated);
+        journal.record(port);
+        assertEquals("incorrect change count", 2, journal.since(0).size());
+    }
+
+    @Test
+    public void portsOfAddedDevice() {
+        DeviceEvent added = new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, D1);
+        List<Event<?, ?>> events = TopoDeltaJournal.coalesce(ImmutableList.of(
+                added,
+                new DeviceEvent(DeviceEvent.Type.PORT_ADDED, D1, P1),
+                new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, D1)));
+
+        assertEquals("port change should be subsumed by addition", 1, events.size());
+        assertEquals("incorrect event", DeviceEvent.Type.DEVICE_ADDED, events.get(0).type());
+    }
+}